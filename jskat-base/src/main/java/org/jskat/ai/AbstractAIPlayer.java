@@ -22,8 +22,33 @@ import org.jskat.player.AbstractJSkatPlayer;
  * class.
  */
 public abstract class AbstractAIPlayer extends AbstractJSkatPlayer {
+
+	/** Time budget for a single decision in milliseconds, 0 = no budget */
+	private long decisionTimeBudget = 0;
+
 	@Override
 	public final Boolean isAIPlayer() {
 		return true;
 	}
+
+	/**
+	 * Sets the time budget for a single decision<br />
+	 * AI players that search or simulate stop when the budget is used up and
+	 * decide on their best estimate so far.
+	 * 
+	 * @param newDecisionTimeBudget
+	 *            Time budget in milliseconds, 0 for no budget
+	 */
+	public void setDecisionTimeBudget(final long newDecisionTimeBudget) {
+		decisionTimeBudget = newDecisionTimeBudget;
+	}
+
+	/**
+	 * Gets the time budget for a single decision
+	 * 
+	 * @return Time budget in milliseconds, 0 for no budget
+	 */
+	public long getDecisionTimeBudget() {
+		return decisionTimeBudget;
+	}
 }
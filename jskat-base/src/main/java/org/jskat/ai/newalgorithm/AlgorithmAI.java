@@ -22,6 +22,7 @@ import org.jskat.data.GameAnnouncement.GameAnnouncementFactory;
 import org.jskat.player.ImmutablePlayerKnowledge;
 import org.jskat.util.Card;
 import org.jskat.util.CardList;
+import org.jskat.util.CardSet;
 import org.jskat.util.GameType;
 
 /**
@@ -107,6 +108,38 @@ public class AlgorithmAI extends AbstractAIPlayer {
 	 */
 	@Override
 	public CardList getCardsToDiscard() {
+
+		// the suggestion is completed, so exactly two own cards are discarded
+		int ownCards = knowledge.getOwnCardSet();
+		int discardedCards = CardSet.EMPTY;
+		for (Card card : suggestCardsToDiscard()) {
+			if (CardSet.size(discardedCards) < 2
+					&& CardSet.contains(ownCards, card)) {
+				discardedCards = CardSet.add(discardedCards, card);
+			}
+		}
+
+		// fill up with the cards with the fewest points, jacks last
+		while (CardSet.size(discardedCards) < 2) {
+			int candidates = ownCards & ~discardedCards;
+			if ((candidates & ~CardSet.JACKS) != CardSet.EMPTY) {
+				candidates &= ~CardSet.JACKS;
+			}
+			Card lowestCard = CardSet.getLowest(candidates);
+			for (int rest = candidates; rest != CardSet.EMPTY; rest = CardSet
+					.removeLowest(rest)) {
+				Card card = CardSet.getLowest(rest);
+				if (card.getPoints() < lowestCard.getPoints()) {
+					lowestCard = card;
+				}
+			}
+			discardedCards = CardSet.add(discardedCards, lowestCard);
+		}
+
+		return CardSet.toCardList(discardedCards);
+	}
+
+	private CardList suggestCardsToDiscard() {
 		// Wenn Ramschspiel
 		if (knowledge.getGameType() == GameType.RAMSCH) {
 			// aiPlayer = new AlgorithmRamsch(this, GameType.RAMSCH);
@@ -147,6 +180,10 @@ public class AlgorithmAI extends AbstractAIPlayer {
 			}
 		}
 
+		if (aiPlayer == null) {
+			// no algorithm for null and ramsch games, yet
+			return new CardList();
+		}
 		return aiPlayer.discardSkat(bidEvaluator);
 	}
 
@@ -73,10 +73,10 @@ public class Helper {
 
 	public static int getSuitCardsToBinary(CardList pCards, Suit pSuit) {
 		int tBinary = 0;
-		if (pCards.getSuitCount(pSuit, false) > 0) {
-			for (int i = pCards.getFirstIndexOfSuit(pSuit, false); i <= pCards
-					.getLastIndexOfSuit(pSuit, false); i++) {
-				tBinary += pCards.get(i).getRank().toBinaryFlag();
+		// the cards are not necessarily sorted, e.g. after taking the skat
+		for (Card card : pCards) {
+			if (card.getSuit() == pSuit && card.getRank() != Rank.JACK) {
+				tBinary += card.getRank().toBinaryFlag();
 			}
 		}
 		return tBinary;
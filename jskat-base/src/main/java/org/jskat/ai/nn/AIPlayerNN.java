@@ -17,15 +17,14 @@ package org.jskat.ai.nn;
 
 import java.text.DecimalFormat;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.BlockingQueue;
 
 import org.jskat.ai.AbstractAIPlayer;
 import org.jskat.ai.nn.data.SkatNetworks;
+import org.jskat.ai.nn.data.TrainingSample;
 import org.jskat.ai.nn.input.GenericNetworkInputGenerator;
-import org.jskat.ai.nn.input.NetworkInputGenerator;
 import org.jskat.ai.nn.util.INeuralNetwork;
 import org.jskat.data.GameAnnouncement;
 import org.jskat.data.GameAnnouncement.GameAnnouncementFactory;
@@ -79,12 +78,17 @@ public class AIPlayerNN extends AbstractAIPlayer {
 	private DecimalFormat formatter = new DecimalFormat("0.00000000000000000");
 	private final GameSimulator gameSimulator;
 
-	private NetworkInputGenerator inputGenerator;
+	private GenericNetworkInputGenerator inputGenerator;
+	// reused input buffers, one per candidate card
+	private final double[][] cardInputs = new double[10][GenericNetworkInputGenerator
+			.getNeuronCountForAllStrategies()];
+	private final Card[] candidateCards = new Card[10];
 	private final Random rand;
 	private final List<double[]> allInputs = new ArrayList<double[]>();
 
 	private GameType bestGameTypeFromDiscarding;
 	private boolean isLearning = false;
+	private BlockingQueue<TrainingSample> trainingSamples;
 
 	private double lastAvgNetworkError = 0.0;
 
@@ -210,14 +214,15 @@ public class AIPlayerNN extends AbstractAIPlayer {
 		List<GameType> filteredGameTypes = filterFeasibleGameTypes(knowledge
 				.getHighestBid(knowledge.getPlayerPosition()).intValue());
 
-		// check all possible discards
+		// simulate all possible discards at once
+		gameSimulator.reset();
 		for (int i = 0; i < cards.size() - 1; i++) {
 			for (int j = i + 1; j < cards.size(); j++) {
 
 				CardList simCards = new CardList();
 				simCards.addAll(cards);
 
-				log.warn("Simulate discarding of " + simCards.get(i) + " and "
+				log.debug("Simulate discarding of " + simCards.get(i) + " and "
 						+ simCards.get(j) + ".");
 
 				CardList currSkat = new CardList();
@@ -226,22 +231,23 @@ public class AIPlayerNN extends AbstractAIPlayer {
 
 				simCards.removeAll(currSkat);
 
-				gameSimulator.resetGameSimulator(filteredGameTypes,
-						knowledge.getPlayerPosition(), simCards, currSkat);
-				SimulationResults simulationResults = gameSimulator
-						.simulateMaxEpisodes(Long.valueOf(MAX_SIMULATIONS / 2));
-
 				for (GameType currType : filteredGameTypes) {
+					gameSimulator.addSimulation(currType,
+							knowledge.getPlayerPosition(), simCards, currSkat);
+				}
+			}
+		}
+		simulate(MAX_SIMULATIONS / 2);
 
-					Double wonRate = simulationResults.getWonRate(currType);
+		for (GameSimulation simulation : gameSimulator.getSimulations()) {
 
-					if (wonRate.doubleValue() > highestWonRate) {
-						highestWonRate = wonRate.doubleValue();
-						bestGameTypeFromDiscarding = currType;
-						result.clear();
-						result.addAll(currSkat);
-					}
-				}
+			double wonRate = simulation.getWonRate();
+
+			if (wonRate > highestWonRate) {
+				highestWonRate = wonRate;
+				bestGameTypeFromDiscarding = simulation.getGameType();
+				result.clear();
+				result.addAll(simulation.getSkatCards());
 			}
 		}
 
@@ -286,8 +292,7 @@ public class AIPlayerNN extends AbstractAIPlayer {
 
 		gameSimulator.resetGameSimulator(filteredGameTypes,
 				knowledge.getPlayerPosition(), knowledge.getOwnCards());
-		SimulationResults results = gameSimulator.simulateMaxEpisodes(Long
-				.valueOf(MAX_SIMULATIONS));
+		SimulationResults results = simulate(MAX_SIMULATIONS);
 
 		for (Double wonRate : results.getAllWonRates()) {
 
@@ -315,23 +320,26 @@ public class AIPlayerNN extends AbstractAIPlayer {
 
 		log.debug("found " + possibleCards.size() + " possible cards: " + possibleCards); //$NON-NLS-1$//$NON-NLS-2$
 
-		Map<Card, double[]> cardInputs = new HashMap<Card, double[]>();
-
 		INeuralNetwork net = SkatNetworks.getNetwork(knowledge
 				.getGameAnnouncement().getGameType(), isDeclarer(), knowledge
 				.getCurrentTrick().getTrickNumberInGame());
 
+		// score all possible cards in one pass through the network
+		for (int i = 0; i < possibleCards.size(); i++) {
+			candidateCards[i] = possibleCards.get(i);
+		}
+		inputGenerator.getNetInputs(knowledge, candidateCards,
+				possibleCards.size(), cardInputs);
+		double[] outputs = new double[possibleCards.size()];
+		net.getPredictedOutcomes(cardInputs, possibleCards.size(), outputs);
+
 		CardList bestCards = new CardList();
 		CardList highestOutputCards = new CardList();
 		double highestOutput = Double.NEGATIVE_INFINITY;
-		for (Card card : possibleCards) {
-
-			log.debug("Testing card " + card); //$NON-NLS-1$
-
-			double[] inputs = inputGenerator.getNetInputs(knowledge, card);
+		for (int i = 0; i < possibleCards.size(); i++) {
 
-			cardInputs.put(card, inputs);
-			double currOutput = net.getPredictedOutcome(inputs);
+			Card card = possibleCards.get(i);
+			double currOutput = outputs[i];
 			log.warn("net output for card " + card + ": " + formatter.format(currOutput)); //$NON-NLS-1$
 
 			if (currOutput > 0.9) {
@@ -363,7 +371,7 @@ public class AIPlayerNN extends AbstractAIPlayer {
 
 		// store parameters for the card to play
 		// for adjustment of weights after the game
-		storeInputParameters(cardInputs.get(possibleCards.get(bestCardIndex)));
+		storeInputParameters(cardInputs[bestCardIndex].clone());
 
 		log.debug("choosing card " + bestCardIndex); //$NON-NLS-1$
 		log.debug("as player " + knowledge.getPlayerPosition() + ": " + possibleCards.get(bestCardIndex)); //$NON-NLS-1$//$NON-NLS-2$
@@ -398,6 +406,21 @@ public class AIPlayerNN extends AbstractAIPlayer {
 		isLearning = newIsLearning;
 	}
 
+	/**
+	 * Sets a queue for the training samples<br />
+	 * A learning player with a queue hands over the inputs and outcome of
+	 * every card decision instead of adjusting the networks itself.
+	 * 
+	 * @param newTrainingSamples
+	 *            Queue for the training samples, NULL to adjust the networks
+	 *            directly
+	 */
+	public void setTrainingSamples(
+			final BlockingQueue<TrainingSample> newTrainingSamples) {
+
+		trainingSamples = newTrainingSamples;
+	}
+
 	/**
 	 * Sets a new logger for the nn player
 	 * 
@@ -449,13 +472,20 @@ public class AIPlayerNN extends AbstractAIPlayer {
 			}
 			double[] outputs = new double[] { output };
 
+			if (trainingSamples != null) {
+				offerTrainingSamples(inputs, outputs);
+				return;
+			}
+
 			int index = 0;
 			for (double[] inputParam : inputs) {
-				INeuralNetwork net = SkatNetworks.getNetwork(knowledge
-						.getGameAnnouncement().getGameType(), isDeclarer(),
-						index);
+				GameType gameType = knowledge.getGameAnnouncement()
+						.getGameType();
+				SkatNetworks.addTrainingSample(gameType, isDeclarer(), index,
+						inputParam, outputs);
 
-				double networkError = net.adjustWeights(inputParam, outputs);
+				double networkError = SkatNetworks.getNetwork(gameType,
+						isDeclarer(), index).getLastError();
 				log.warn("learning error: " + networkError);
 				networkErrorSum += networkError;
 				index++;
@@ -465,6 +495,24 @@ public class AIPlayerNN extends AbstractAIPlayer {
 		}
 	}
 
+	private void offerTrainingSamples(final List<double[]> inputs,
+			final double[] outputs) {
+
+		int index = 0;
+		for (double[] inputParam : inputs) {
+			try {
+				trainingSamples.put(new TrainingSample(knowledge
+						.getGameAnnouncement().getGameType(), isDeclarer(),
+						index, inputParam, outputs));
+			} catch (InterruptedException e) {
+				log.warn("Interrupted while handing over training samples."); //$NON-NLS-1$
+				Thread.currentThread().interrupt();
+				return;
+			}
+			index++;
+		}
+	}
+
 	private int chooseRandomCard(final CardList possibleCards,
 			final CardList goodCards) {
 		int bestCardIndex;
@@ -508,8 +556,7 @@ public class AIPlayerNN extends AbstractAIPlayer {
 				.getHighestBid(knowledge.getPlayerPosition()));
 		gameSimulator.resetGameSimulator(gameTypesToCheck,
 				knowledge.getPlayerPosition(), knowledge.getOwnCards());
-		SimulationResults results = gameSimulator.simulateMaxEpisodes(Long
-				.valueOf(MAX_SIMULATIONS));
+		SimulationResults results = simulate(MAX_SIMULATIONS);
 
 		for (GameType gameType : gameTypesToCheck) {
 
@@ -565,8 +612,7 @@ public class AIPlayerNN extends AbstractAIPlayer {
 
 		gameSimulator.resetGameSimulator(filteredGameTypes,
 				knowledge.getPlayerPosition(), knowledge.getOwnCards());
-		SimulationResults results = gameSimulator.simulateMaxEpisodes(Long
-				.valueOf(MAX_SIMULATIONS / 2));
+		SimulationResults results = simulate(MAX_SIMULATIONS / 2);
 
 		for (Double wonRate : results.getAllWonRates()) {
 			if (wonRate.doubleValue() > 0.6) {
@@ -576,6 +622,19 @@ public class AIPlayerNN extends AbstractAIPlayer {
 		return false;
 	}
 
+	/**
+	 * Runs the simulations, bounded by the decision time budget if one is set
+	 * and by the maximum number of episodes otherwise
+	 */
+	private SimulationResults simulate(final long maxEpisodes) {
+
+		if (getDecisionTimeBudget() > 0) {
+			return gameSimulator
+					.simulateWithTimeBudget(getDecisionTimeBudget());
+		}
+		return gameSimulator.simulateMaxEpisodes(Long.valueOf(maxEpisodes));
+	}
+
 	private void storeInputParameters(final double[] inputParameters) {
 
 		allInputs.add(inputParameters);
@@ -18,6 +18,7 @@ package org.jskat.ai.nn;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.jskat.util.Card;
 import org.jskat.util.CardDeck;
@@ -25,12 +26,11 @@ import org.jskat.util.CardList;
 import org.jskat.util.Player;
 
 /**
- * Simulates possible card decks according to the player knowledge
+ * Simulates possible card decks according to the player knowledge<br />
+ * Card distributions during the card play are sampled by {@link DealSampler}.
  */
 public class CardDeckSimulator {
 
-	private static Random rand = new Random();
-
 	/**
 	 * Simulates a card distribution
 	 * 
@@ -58,6 +58,25 @@ public class CardDeckSimulator {
 	 */
 	public static CardDeck simulateUnknownCards(Player playerPosition,
 			CardList playerHand, CardList knownSkat) {
+		return simulateUnknownCards(playerPosition, playerHand, knownSkat,
+				ThreadLocalRandom.current());
+	}
+
+	/**
+	 * Simulates a card distribution
+	 * 
+	 * @param playerPosition
+	 *            Player position
+	 * @param playerHand
+	 *            Cards on players hand
+	 * @param knownSkat
+	 *            Cards in the skat
+	 * @param random
+	 *            Random generator, must not be shared between threads
+	 * @return Simulated card distribution
+	 */
+	public static CardDeck simulateUnknownCards(Player playerPosition,
+			CardList playerHand, CardList knownSkat, Random random) {
 
 		// prepare result
 		Map<Player, CardList> playerHands = new HashMap<Player, CardList>();
@@ -74,7 +93,7 @@ public class CardDeckSimulator {
 		unknownCards.removeAll(playerHand);
 		unknownCards.removeAll(knownSkat);
 
-		unknownCards.shuffle();
+		unknownCards.shuffle(random);
 
 		// set unknown cards
 		for (Card card : unknownCards) {
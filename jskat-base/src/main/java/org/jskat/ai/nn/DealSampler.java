@@ -0,0 +1,450 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn;
+
+import java.util.Random;
+
+import org.jskat.player.ImmutablePlayerKnowledge;
+import org.jskat.util.CardSet;
+import org.jskat.util.Player;
+
+/**
+ * Samples card distributions that are consistent with the knowledge of a
+ * player<br />
+ * &nbsp;<br />
+ * Every card that is not known to the player can lie on the hands of the
+ * other two players or in the skat. The possible places of a card follow
+ * from the "could have" knowledge, e.g. a player that did not follow suit
+ * can't have any card of the suit anymore. Cards with the same possible
+ * places form a card class. {@link #reset(ImmutablePlayerKnowledge)}
+ * enumerates all ways to split the card classes between the places that fit
+ * to the number of cards every place holds, together with the number of
+ * distributions for every split. {@link #sample(int[])} chooses a split
+ * weighted by this number and deals the cards of every class by a partial
+ * Fisher-Yates shuffle. So every consistent card distribution is drawn with
+ * the same probability and no distribution is ever rejected.<br />
+ * &nbsp;<br />
+ * A sampler is not thread safe, use one sampler with its own random
+ * generator per thread.
+ */
+public class DealSampler {
+
+	/**
+	 * Index of the skat in the sampled card distributions, the hands are
+	 * indexed by player ordinal
+	 */
+	public static final int SKAT_INDEX = 3;
+
+	private static final int CARD_COUNT = 32;
+
+	// places of the unknown cards: the two other players and the skat
+	private static final int FIRST_PLAYER = 0;
+	private static final int SECOND_PLAYER = 1;
+	private static final int SKAT = 2;
+	private static final int PLACE_COUNT = 3;
+
+	// card classes by their possible places as bit mask
+	private static final int FIRST_PLAYER_ONLY = 1 << FIRST_PLAYER;
+	private static final int SECOND_PLAYER_ONLY = 1 << SECOND_PLAYER;
+	private static final int SKAT_ONLY = 1 << SKAT;
+	private static final int BOTH_PLAYERS = FIRST_PLAYER_ONLY
+			| SECOND_PLAYER_ONLY;
+	private static final int FIRST_PLAYER_OR_SKAT = FIRST_PLAYER_ONLY
+			| SKAT_ONLY;
+	private static final int SECOND_PLAYER_OR_SKAT = SECOND_PLAYER_ONLY
+			| SKAT_ONLY;
+	private static final int ALL_PLACES = BOTH_PLAYERS | SKAT_ONLY;
+	private static final int CLASS_COUNT = ALL_PLACES + 1;
+
+	private static final double[][] BINOMIALS = new double[CARD_COUNT + 1][CARD_COUNT + 1];
+
+	static {
+		for (int n = 0; n <= CARD_COUNT; n++) {
+			BINOMIALS[n][0] = 1.0;
+			for (int k = 1; k <= n; k++) {
+				BINOMIALS[n][k] = BINOMIALS[n - 1][k - 1]
+						+ (k < n ? BINOMIALS[n - 1][k] : 0.0);
+			}
+		}
+	}
+
+	private final Random random;
+
+	// knowledge of the player
+	private final int[] knownCards = new int[SKAT_INDEX + 1];
+	private final int[] placeIndices = new int[PLACE_COUNT];
+	private final int[] cardCounts = new int[PLACE_COUNT];
+	private boolean consistent;
+
+	// cards per class, shuffled in place
+	private final int[][] classCards = new int[CLASS_COUNT][CARD_COUNT];
+	private final int[] classSizes = new int[CLASS_COUNT];
+
+	// possible splits of the card classes and their cumulated weights, the
+	// split arrays hold the number of cards dealt to the first place of the
+	// class
+	private int[] bothPlayersSplits = new int[0];
+	private int[] firstOrSkatSplits = new int[0];
+	private int[] secondOrSkatSplits = new int[0];
+	private int[] firstAllSplits = new int[0];
+	private int[] secondAllSplits = new int[0];
+	private double[] cumulatedWeights = new double[0];
+	private int splitCount;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param seed
+	 *            Seed for the random generator
+	 */
+	public DealSampler(final long seed) {
+		this(new Random(seed));
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param newRandom
+	 *            Random generator, must not be shared with other threads
+	 */
+	public DealSampler(final Random newRandom) {
+		random = newRandom;
+	}
+
+	/**
+	 * Prepares the sampling for the current knowledge of a player<br />
+	 * If the knowledge contradicts itself the "could have" knowledge is
+	 * ignored and all unknown cards are dealt freely.
+	 * 
+	 * @param knowledge
+	 *            Player knowledge
+	 * @return TRUE, if the sampled distributions respect the whole knowledge
+	 */
+	public boolean reset(final ImmutablePlayerKnowledge knowledge) {
+
+		int unknownCards = collectKnownCards(knowledge);
+
+		consistent = classifyCards(knowledge, unknownCards, true)
+				&& enumerateSplits();
+		if (!consistent) {
+			adjustCardCounts(unknownCards);
+			classifyCards(knowledge, unknownCards, false);
+			enumerateSplits();
+		}
+		return consistent;
+	}
+
+	private int collectKnownCards(final ImmutablePlayerKnowledge knowledge) {
+
+		Player playerPosition = knowledge.getPlayerPosition();
+		Player declarer = knowledge.getDeclarer();
+
+		int playedCards = CardSet.EMPTY;
+		for (Player player : Player.values()) {
+			playedCards |= knowledge.getPlayedCardSet(player);
+			knownCards[player.ordinal()] = CardSet.EMPTY;
+		}
+		knownCards[playerPosition.ordinal()] = knowledge.getOwnCardSet();
+		knownCards[SKAT_INDEX] = CardSet.EMPTY;
+
+		if (playerPosition == declarer && !knowledge.isHandGame()) {
+			// the declarer knows the discarded cards
+			knownCards[SKAT_INDEX] = CardSet.of(knowledge.getSkat());
+		} else if (playerPosition != declarer && declarer != null
+				&& knowledge.isOuvertGame()) {
+			// the opponents know the remaining cards of the declarer
+			knownCards[declarer.ordinal()] = CardSet.of(knowledge
+					.getSinglePlayerCards()) & ~playedCards;
+		}
+
+		int place = FIRST_PLAYER;
+		for (Player player : Player.values()) {
+			if (player != playerPosition) {
+				placeIndices[place] = player.ordinal();
+				cardCounts[place] = 10
+						- CardSet.size(knowledge.getPlayedCardSet(player))
+						- CardSet.size(knownCards[player.ordinal()]);
+				place++;
+			}
+		}
+		placeIndices[SKAT] = SKAT_INDEX;
+		cardCounts[SKAT] = 2 - CardSet.size(knownCards[SKAT_INDEX]);
+
+		int result = ~playedCards;
+		for (int cards : knownCards) {
+			result &= ~cards;
+		}
+		return result;
+	}
+
+	/**
+	 * Sorts the unknown cards into the card classes
+	 * 
+	 * @return FALSE, if a card has no possible place or the number of cards
+	 *         doesn't fit
+	 */
+	private boolean classifyCards(final ImmutablePlayerKnowledge knowledge,
+			final int unknownCards, final boolean useKnowledge) {
+
+		int[] possibleCards = new int[PLACE_COUNT];
+		for (int place = FIRST_PLAYER; place < PLACE_COUNT; place++) {
+			if (cardCounts[place] <= 0) {
+				possibleCards[place] = CardSet.EMPTY;
+			} else if (!useKnowledge) {
+				possibleCards[place] = CardSet.ALL;
+			} else if (place == SKAT) {
+				possibleCards[place] = knowledge.getPossibleSkatCardSet();
+			} else {
+				possibleCards[place] = knowledge
+						.getPossibleCardSet(Player.values()[placeIndices[place]]);
+			}
+		}
+
+		for (int i = 0; i < CLASS_COUNT; i++) {
+			classSizes[i] = 0;
+		}
+
+		int totalCardCount = 0;
+		for (int rest = unknownCards; rest != CardSet.EMPTY; rest = CardSet
+				.removeLowest(rest)) {
+			int card = Integer.numberOfTrailingZeros(rest);
+			int cardClass = 0;
+			for (int place = FIRST_PLAYER; place < PLACE_COUNT; place++) {
+				if ((possibleCards[place] & 1 << card) != CardSet.EMPTY) {
+					cardClass |= 1 << place;
+				}
+			}
+			if (cardClass == 0) {
+				return false;
+			}
+			classCards[cardClass][classSizes[cardClass]] = card;
+			classSizes[cardClass]++;
+			totalCardCount++;
+		}
+
+		int placeCardCount = 0;
+		for (int count : cardCounts) {
+			placeCardCount += Math.max(0, count);
+		}
+		return totalCardCount == placeCardCount;
+	}
+
+	/**
+	 * Makes the number of cards of the places fit to the number of unknown
+	 * cards, the skat takes the difference
+	 */
+	private void adjustCardCounts(final int unknownCards) {
+
+		int difference = CardSet.size(unknownCards);
+		for (int place = FIRST_PLAYER; place < PLACE_COUNT; place++) {
+			cardCounts[place] = Math.max(0, cardCounts[place]);
+			difference -= cardCounts[place];
+		}
+		for (int place = SKAT; place >= FIRST_PLAYER && difference < 0; place--) {
+			int removed = Math.min(cardCounts[place], -difference);
+			cardCounts[place] -= removed;
+			difference += removed;
+		}
+		cardCounts[SKAT] += Math.max(0, difference);
+	}
+
+	/**
+	 * Enumerates all splits of the card classes that fit to the number of
+	 * cards of the places
+	 * 
+	 * @return FALSE, if there is no split
+	 */
+	private boolean enumerateSplits() {
+
+		int bothPlayers = classSizes[BOTH_PLAYERS];
+		int firstOrSkat = classSizes[FIRST_PLAYER_OR_SKAT];
+		int secondOrSkat = classSizes[SECOND_PLAYER_OR_SKAT];
+		int allPlaces = classSizes[ALL_PLACES];
+
+		int maxSplits = (bothPlayers + 1) * (firstOrSkat + 1)
+				* (secondOrSkat + 1);
+		if (cumulatedWeights.length < maxSplits) {
+			bothPlayersSplits = new int[maxSplits];
+			firstOrSkatSplits = new int[maxSplits];
+			secondOrSkatSplits = new int[maxSplits];
+			firstAllSplits = new int[maxSplits];
+			secondAllSplits = new int[maxSplits];
+			cumulatedWeights = new double[maxSplits];
+		}
+
+		splitCount = 0;
+		double totalWeight = 0.0;
+		for (int first = 0; first <= bothPlayers; first++) {
+			for (int firstSkat = 0; firstSkat <= firstOrSkat; firstSkat++) {
+				for (int secondSkat = 0; secondSkat <= secondOrSkat; secondSkat++) {
+					// cards of all places class for the players
+					int firstAll = cardCounts[FIRST_PLAYER]
+							- classSizes[FIRST_PLAYER_ONLY] - first
+							- firstSkat;
+					int secondAll = cardCounts[SECOND_PLAYER]
+							- classSizes[SECOND_PLAYER_ONLY]
+							- (bothPlayers - first) - secondSkat;
+					if (firstAll < 0 || secondAll < 0
+							|| firstAll + secondAll > allPlaces) {
+						continue;
+					}
+
+					double weight = BINOMIALS[bothPlayers][first]
+							* BINOMIALS[firstOrSkat][firstSkat]
+							* BINOMIALS[secondOrSkat][secondSkat]
+							* BINOMIALS[allPlaces][firstAll]
+							* BINOMIALS[allPlaces - firstAll][secondAll];
+					totalWeight += weight;
+
+					bothPlayersSplits[splitCount] = first;
+					firstOrSkatSplits[splitCount] = firstSkat;
+					secondOrSkatSplits[splitCount] = secondSkat;
+					firstAllSplits[splitCount] = firstAll;
+					secondAllSplits[splitCount] = secondAll;
+					cumulatedWeights[splitCount] = totalWeight;
+					splitCount++;
+				}
+			}
+		}
+		return splitCount > 0;
+	}
+
+	/**
+	 * Samples a card distribution
+	 * 
+	 * @param result
+	 *            Buffer for the {@link CardSet}s of the hands, indexed by
+	 *            player ordinal, and the skat at {@link #SKAT_INDEX}
+	 */
+	public void sample(final int[] result) {
+
+		System.arraycopy(knownCards, 0, result, 0, knownCards.length);
+
+		int split = chooseSplit();
+		int first = bothPlayersSplits[split];
+		int firstSkat = firstOrSkatSplits[split];
+		int secondSkat = secondOrSkatSplits[split];
+		int firstAll = firstAllSplits[split];
+		int secondAll = secondAllSplits[split];
+
+		int firstPlayer = placeIndices[FIRST_PLAYER];
+		int secondPlayer = placeIndices[SECOND_PLAYER];
+
+		result[firstPlayer] |= dealRest(FIRST_PLAYER_ONLY, 0);
+		result[secondPlayer] |= dealRest(SECOND_PLAYER_ONLY, 0);
+		result[SKAT_INDEX] |= dealRest(SKAT_ONLY, 0);
+
+		result[firstPlayer] |= deal(BOTH_PLAYERS, 0, first);
+		result[secondPlayer] |= dealRest(BOTH_PLAYERS, first);
+
+		result[firstPlayer] |= deal(FIRST_PLAYER_OR_SKAT, 0, firstSkat);
+		result[SKAT_INDEX] |= dealRest(FIRST_PLAYER_OR_SKAT, firstSkat);
+
+		result[secondPlayer] |= deal(SECOND_PLAYER_OR_SKAT, 0, secondSkat);
+		result[SKAT_INDEX] |= dealRest(SECOND_PLAYER_OR_SKAT, secondSkat);
+
+		result[firstPlayer] |= deal(ALL_PLACES, 0, firstAll);
+		result[secondPlayer] |= deal(ALL_PLACES, firstAll, secondAll);
+		result[SKAT_INDEX] |= dealRest(ALL_PLACES, firstAll + secondAll);
+	}
+
+	private int chooseSplit() {
+
+		if (splitCount == 1) {
+			return 0;
+		}
+
+		double value = random.nextDouble()
+				* cumulatedWeights[splitCount - 1];
+		int low = 0;
+		int high = splitCount - 1;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (cumulatedWeights[middle] <= value) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Deals randomly chosen cards of a card class
+	 * 
+	 * @param cardClass
+	 *            Card class
+	 * @param start
+	 *            Index of the first card, all cards before are dealt already
+	 * @param count
+	 *            Number of cards to be chosen from the remaining cards
+	 * @return {@link CardSet} with the dealt cards
+	 */
+	private int deal(final int cardClass, final int start, final int count) {
+
+		int[] cards = classCards[cardClass];
+		int size = classSizes[cardClass];
+
+		int result = CardSet.EMPTY;
+		for (int i = start; i < start + count; i++) {
+			// partial Fisher-Yates shuffle
+			int index = i + random.nextInt(size - i);
+			int card = cards[index];
+			cards[index] = cards[i];
+			cards[i] = card;
+			result |= 1 << card;
+		}
+		return result;
+	}
+
+	/**
+	 * Deals all remaining cards of a card class
+	 * 
+	 * @param cardClass
+	 *            Card class
+	 * @param start
+	 *            Index of the first card, all cards before are dealt already
+	 * @return {@link CardSet} with the dealt cards
+	 */
+	private int dealRest(final int cardClass, final int start) {
+
+		int[] cards = classCards[cardClass];
+
+		int result = CardSet.EMPTY;
+		for (int i = start; i < classSizes[cardClass]; i++) {
+			result |= 1 << cards[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Checks whether the sampled distributions respect the whole knowledge
+	 * 
+	 * @return TRUE, if the knowledge could be respected
+	 */
+	public boolean isConsistent() {
+		return consistent;
+	}
+
+	/**
+	 * Gets the number of different card distributions
+	 * 
+	 * @return Number of card distributions
+	 */
+	public double getDistributionCount() {
+		return splitCount == 0 ? 0.0 : cumulatedWeights[splitCount - 1];
+	}
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn;
+
+import org.jskat.util.CardList;
+import org.jskat.util.ConfidenceIntervals;
+import org.jskat.util.GameType;
+import org.jskat.util.Player;
+
+/**
+ * Simulation job for one game type and one skat candidate<br />
+ * Holds the accumulated results of all episodes simulated for the job.
+ */
+class GameSimulation {
+
+	private final GameType gameType;
+	private final Player playerPosition;
+	private final CardList playerCards;
+	private final CardList skatCards;
+
+	private long episodes;
+	private long wonGames;
+
+	GameSimulation(final GameType newGameType, final Player newPlayerPosition,
+			final CardList newPlayerCards, final CardList newSkatCards) {
+
+		gameType = newGameType;
+		playerPosition = newPlayerPosition;
+		playerCards = new CardList(newPlayerCards);
+		skatCards = new CardList(newSkatCards);
+	}
+
+	GameType getGameType() {
+		return gameType;
+	}
+
+	Player getPlayerPosition() {
+		return playerPosition;
+	}
+
+	CardList getPlayerCards() {
+		return playerCards;
+	}
+
+	CardList getSkatCards() {
+		return skatCards;
+	}
+
+	void addResults(final long simulatedEpisodes, final long simulatedWonGames) {
+		episodes += simulatedEpisodes;
+		wonGames += simulatedWonGames;
+	}
+
+	long getEpisodes() {
+		return episodes;
+	}
+
+	long getWonGames() {
+		return wonGames;
+	}
+
+	double getWonRate() {
+		if (episodes == 0) {
+			return 0.0;
+		}
+		double wonDouble = wonGames;
+		double gameCountDouble = episodes;
+
+		return wonDouble / gameCountDouble;
+	}
+
+	/**
+	 * Gets the lower bound of the 95% confidence interval of the won rate
+	 * 
+	 * @return Lower bound of the won rate
+	 */
+	double getWonRateLowerBound() {
+		return ConfidenceIntervals.getWilsonLowerBound(wonGames, episodes);
+	}
+
+	/**
+	 * Gets the upper bound of the 95% confidence interval of the won rate
+	 * 
+	 * @return Upper bound of the won rate
+	 */
+	double getWonRateUpperBound() {
+		return ConfidenceIntervals.getWilsonUpperBound(wonGames, episodes);
+	}
+}
@@ -0,0 +1,145 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn;
+
+import java.util.concurrent.Callable;
+
+import org.jskat.control.SkatGameEngine;
+import org.jskat.data.GameAnnouncement;
+import org.jskat.data.GameAnnouncement.GameAnnouncementFactory;
+import org.jskat.data.SkatGameData.GameState;
+import org.jskat.util.CardDeck;
+import org.jskat.util.GameVariant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.helpers.NOPLogger;
+
+/**
+ * Helper class for simulating a batch of games of a {@link GameSimulation}
+ */
+class GameSimulationTask implements Callable<GameSimulationTask> {
+
+	private static Logger log = LoggerFactory
+			.getLogger(GameSimulationTask.class);
+
+	/**
+	 * The simulating players are reused by all tasks running on the same
+	 * worker thread
+	 */
+	private static final ThreadLocal<AIPlayerNN[]> SIMULATION_PLAYERS = new ThreadLocal<AIPlayerNN[]>() {
+		@Override
+		protected AIPlayerNN[] initialValue() {
+			AIPlayerNN[] players = new AIPlayerNN[3];
+			for (int i = 0; i < players.length; i++) {
+				players[i] = new AIPlayerNN();
+				players[i].setIsLearning(false);
+				players[i].setLogger(NOPLogger.NOP_LOGGER);
+			}
+			return players;
+		}
+	};
+
+	private final GameSimulation simulation;
+	private final long maxEpisodes;
+	private final long maxTimestamp;
+
+	private long simulatedGames;
+	private long wonGames;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param newSimulation
+	 *            Simulation job
+	 * @param episodes
+	 *            Maximum number of episodes to simulate
+	 * @param timestamp
+	 *            Point in time when the simulation has to stop at the latest
+	 */
+	GameSimulationTask(final GameSimulation newSimulation,
+			final long episodes, final long timestamp) {
+
+		simulation = newSimulation;
+		maxEpisodes = episodes;
+		maxTimestamp = timestamp;
+	}
+
+	@Override
+	public GameSimulationTask call() {
+
+		simulatedGames = 0;
+		wonGames = 0;
+
+		while (!isAllSimulationsDone()) {
+			if (simulateGame()) {
+				wonGames++;
+			}
+			simulatedGames++;
+		}
+
+		return this;
+	}
+
+	private boolean isAllSimulationsDone() {
+
+		return simulatedGames >= maxEpisodes
+				|| System.currentTimeMillis() >= maxTimestamp;
+	}
+
+	private boolean simulateGame() {
+
+		AIPlayerNN[] players = SIMULATION_PLAYERS.get();
+
+		SkatGameEngine game = new SkatGameEngine("table", //$NON-NLS-1$
+				GameVariant.STANDARD, players[0], players[1], players[2]);
+		game.setLogger(NOPLogger.NOP_LOGGER);
+
+		CardDeck deck = CardDeckSimulator.simulateUnknownCards(
+				simulation.getPlayerPosition(), simulation.getPlayerCards(),
+				simulation.getSkatCards());
+		log.debug("Card deck: " + deck); //$NON-NLS-1$
+		game.setCardDeck(deck);
+		game.dealCards();
+
+		game.setDeclarer(simulation.getPlayerPosition());
+
+		GameAnnouncementFactory factory = GameAnnouncement.getFactory();
+		factory.setGameType(simulation.getGameType());
+		game.setGameAnnouncement(factory.getAnnouncement());
+
+		game.setGameState(GameState.TRICK_PLAYING);
+
+		game.play();
+
+		// FIXME (jansch 28.06.2011) have to call getGameResult() for result
+		// calculation
+		game.getGameResult();
+
+		return game.isGameWon();
+	}
+
+	GameSimulation getSimulation() {
+		return simulation;
+	}
+
+	long getEpisodes() {
+		return simulatedGames;
+	}
+
+	long getWonGames() {
+		return wonGames;
+	}
+}
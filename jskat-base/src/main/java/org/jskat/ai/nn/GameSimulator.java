@@ -15,24 +15,47 @@
  */
 package org.jskat.ai.nn;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 
 import org.jskat.util.CardList;
 import org.jskat.util.GameType;
 import org.jskat.util.Player;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Simulates games for {@link AIPlayerNN}
+ * Simulates games for {@link AIPlayerNN}<br />
+ * All simulators share one worker pool with one thread per available
+ * processor. The episodes of every {@link GameSimulation} are split into small
+ * tasks, so all processors are busy even if only a few game types are
+ * simulated.
  */
 class GameSimulator {
 
-	Map<GameType, GameSimulationThread> simThreads;
+	private static Logger log = LoggerFactory.getLogger(GameSimulator.class);
 
-	GameSimulator() {
-		simThreads = new HashMap<GameType, GameSimulationThread>();
-	}
+	private final static ForkJoinPool SIMULATION_POOL = new ForkJoinPool(
+			Runtime.getRuntime().availableProcessors());
+
+	/**
+	 * Number of tasks per worker thread in one simulation round
+	 */
+	private final static int TASKS_PER_WORKER = 4;
+
+	/**
+	 * Maximum number of episodes simulated by a single task, keeps the rounds
+	 * short enough for a fair distribution of the time budget
+	 */
+	private final static long MAX_EPISODES_PER_TASK = 8;
+
+	private final List<GameSimulation> simulations = new ArrayList<GameSimulation>();
 
 	void resetGameSimulator(List<GameType> gameTypes, Player playerPosition,
 			CardList playerCards) {
@@ -43,34 +66,163 @@ class GameSimulator {
 	void resetGameSimulator(List<GameType> gameTypes, Player playerPosition,
 			CardList playerCards, CardList skatCards) {
 
-		simThreads.clear();
+		reset();
 		for (GameType gameType : gameTypes) {
-			simThreads.put(gameType, new GameSimulationThread(gameType,
-					playerPosition, playerCards, skatCards));
+			addSimulation(gameType, playerPosition, playerCards, skatCards);
 		}
 	}
 
+	/**
+	 * Removes all simulation jobs
+	 */
+	void reset() {
+		simulations.clear();
+	}
+
+	/**
+	 * Adds a simulation job
+	 * 
+	 * @param gameType
+	 *            Game type
+	 * @param playerPosition
+	 *            Position of the declarer
+	 * @param playerCards
+	 *            Cards of the declarer
+	 * @param skatCards
+	 *            Known skat cards
+	 * @return Simulation job that holds the results after the simulation
+	 */
+	GameSimulation addSimulation(GameType gameType, Player playerPosition,
+			CardList playerCards, CardList skatCards) {
+
+		GameSimulation simulation = new GameSimulation(gameType,
+				playerPosition, playerCards, skatCards);
+		simulations.add(simulation);
+		return simulation;
+	}
+
+	/**
+	 * Gets all simulation jobs
+	 * 
+	 * @return Simulation jobs
+	 */
+	List<GameSimulation> getSimulations() {
+		return Collections.unmodifiableList(simulations);
+	}
+
 	SimulationResults simulateMaxEpisodes(Long maxEpisodes) {
 
+		return simulate(maxEpisodes.longValue(), Long.MAX_VALUE);
+	}
+
+	/**
+	 * Simulates all jobs until the time budget is used up
+	 * 
+	 * @param timeBudget
+	 *            Time budget in milliseconds
+	 * @return Best estimates of the simulation results
+	 */
+	SimulationResults simulateWithTimeBudget(long timeBudget) {
+
+		return simulate(Long.MAX_VALUE, System.currentTimeMillis()
+				+ timeBudget);
+	}
+
+	/**
+	 * Simulates all jobs until the maximum number of episodes is reached for
+	 * every job or the end of the simulation time has come
+	 * 
+	 * @param maxEpisodes
+	 *            Maximum number of episodes per job
+	 * @param endOfSimulation
+	 *            Point in time when the simulation stops
+	 * @return Simulation results per game type
+	 */
+	SimulationResults simulate(long maxEpisodes, long endOfSimulation) {
+
+		runSimulations(maxEpisodes, endOfSimulation);
+
 		SimulationResults results = new SimulationResults();
+		for (GameSimulation simulation : simulations) {
+			log.debug(simulation.getEpisodes()
+					+ " episodes simulated for game type " //$NON-NLS-1$
+					+ simulation.getGameType() + ", won rate " //$NON-NLS-1$
+					+ simulation.getWonRate() + " [" //$NON-NLS-1$
+					+ simulation.getWonRateLowerBound() + ", " //$NON-NLS-1$
+					+ simulation.getWonRateUpperBound() + "]"); //$NON-NLS-1$
+			results.setSimulation(simulation);
+		}
+
+		return results;
+	}
 
-		Long endOfSimulation = System.currentTimeMillis() + 10 * 1000;
-		for (GameSimulationThread thread : simThreads.values()) {
-			thread.startSimulationWithMaxEpidodes(maxEpisodes);
-			// thread.startSimulationWithTimestamp(endOfSimulation);
+	private void runSimulations(long maxEpisodes, long endOfSimulation) {
+
+		if (simulations.isEmpty()) {
+			return;
 		}
-		for (GameSimulationThread thread : simThreads.values()) {
+
+		int tasksPerJob = Math.max(1, SIMULATION_POOL.getParallelism()
+				* TASKS_PER_WORKER / simulations.size());
+
+		List<GameSimulationTask> tasks = createTasks(maxEpisodes,
+				endOfSimulation, tasksPerJob);
+
+		while (!tasks.isEmpty()
+				&& System.currentTimeMillis() < endOfSimulation) {
+
 			try {
-				thread.join();
+				for (Future<GameSimulationTask> result : SIMULATION_POOL
+						.invokeAll(tasks)) {
+					GameSimulationTask task = result.get();
+					task.getSimulation().addResults(task.getEpisodes(),
+							task.getWonGames());
+				}
 			} catch (InterruptedException e) {
-				// TODO Auto-generated catch block
-				e.printStackTrace();
+				log.warn("Simulation was interrupted..."); //$NON-NLS-1$
+				Thread.currentThread().interrupt();
+				return;
+			} catch (ExecutionException e) {
+				log.error("Simulation failed: " + e.getCause()); //$NON-NLS-1$
+				return;
 			}
+
+			tasks = createTasks(maxEpisodes, endOfSimulation, tasksPerJob);
 		}
-		for (GameSimulationThread thread : simThreads.values()) {
-			results.setWonRate(thread.getGameType(), thread.getWonRate());
+	}
+
+	/**
+	 * Creates the tasks for the next simulation round<br />
+	 * The tasks of all jobs are interleaved, so the jobs progress evenly if
+	 * the simulation time runs out.
+	 */
+	private List<GameSimulationTask> createTasks(long maxEpisodes,
+			long endOfSimulation, int tasksPerJob) {
+
+		Map<GameSimulation, Long> remainingEpisodes = new HashMap<GameSimulation, Long>();
+		long maxRemainingEpisodes = 0;
+		for (GameSimulation simulation : simulations) {
+			long remaining = maxEpisodes - simulation.getEpisodes();
+			remainingEpisodes.put(simulation, Long.valueOf(remaining));
+			maxRemainingEpisodes = Math.max(maxRemainingEpisodes, remaining);
 		}
 
-		return results;
+		long episodesPerTask = Math.min(MAX_EPISODES_PER_TASK,
+				Math.max(1, maxRemainingEpisodes / tasksPerJob));
+
+		List<GameSimulationTask> tasks = new ArrayList<GameSimulationTask>();
+		for (int i = 0; i < tasksPerJob; i++) {
+			for (GameSimulation simulation : simulations) {
+				long remaining = remainingEpisodes.get(simulation).longValue();
+				if (remaining > 0) {
+					long episodes = Math.min(episodesPerTask, remaining);
+					tasks.add(new GameSimulationTask(simulation, episodes,
+							endOfSimulation));
+					remainingEpisodes.put(simulation,
+							Long.valueOf(remaining - episodes));
+				}
+			}
+		}
+		return tasks;
 	}
 }
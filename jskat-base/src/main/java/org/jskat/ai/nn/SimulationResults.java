@@ -15,30 +15,74 @@
  */
 package org.jskat.ai.nn;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.jskat.util.GameType;
 
 /**
- * Holds the results of all game simulations
+ * Holds the results of all game simulations<br />
+ * The won rates are estimates, the confidence intervals tell how reliable
+ * they are after a simulation that was stopped by its time budget.
  */
 public class SimulationResults {
 
-	private Map<GameType, Double> wonRates = new HashMap<GameType, Double>();
+	private Map<GameType, GameSimulation> simulations = new HashMap<GameType, GameSimulation>();
 
 	Double getWonRate(GameType gameType) {
 
-		return wonRates.get(gameType);
+		return simulations.get(gameType).getWonRate();
 	}
 
-	void setWonRate(GameType gameType, Double wonRate) {
+	/**
+	 * Gets the lower bound of the 95% confidence interval of the won rate
+	 * 
+	 * @param gameType
+	 *            Game type
+	 * @return Lower bound
+	 */
+	Double getWonRateLowerBound(GameType gameType) {
 
-		wonRates.put(gameType, wonRate);
+		return simulations.get(gameType).getWonRateLowerBound();
+	}
+
+	/**
+	 * Gets the upper bound of the 95% confidence interval of the won rate
+	 * 
+	 * @param gameType
+	 *            Game type
+	 * @return Upper bound
+	 */
+	Double getWonRateUpperBound(GameType gameType) {
+
+		return simulations.get(gameType).getWonRateUpperBound();
+	}
+
+	/**
+	 * Gets the number of simulated episodes
+	 * 
+	 * @param gameType
+	 *            Game type
+	 * @return Number of episodes
+	 */
+	long getEpisodes(GameType gameType) {
+
+		return simulations.get(gameType).getEpisodes();
+	}
+
+	void setSimulation(GameSimulation simulation) {
+
+		simulations.put(simulation.getGameType(), simulation);
 	}
 
 	Collection<Double> getAllWonRates() {
-		return wonRates.values();
+		List<Double> result = new ArrayList<Double>();
+		for (GameSimulation simulation : simulations.values()) {
+			result.add(simulation.getWonRate());
+		}
+		return result;
 	}
 }
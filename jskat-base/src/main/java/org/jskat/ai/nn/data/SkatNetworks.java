@@ -15,16 +15,27 @@
  */
 package org.jskat.ai.nn.data;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Random;
 
 import org.jskat.ai.nn.input.GenericNetworkInputGenerator;
 import org.jskat.ai.nn.util.EncogNetworkWrapper;
 import org.jskat.ai.nn.util.INeuralNetwork;
+import org.jskat.ai.nn.util.LazyNetwork;
+import org.jskat.ai.nn.util.NetworkBundle;
 import org.jskat.ai.nn.util.NetworkTopology;
+import org.jskat.ai.nn.util.ReplayBuffer;
+import org.jskat.ai.nn.util.ReplayBuffer.EvictionPolicy;
 import org.jskat.util.GameType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,9 +54,25 @@ public class SkatNetworks {
 
 	private static final boolean USE_BIAS = true;
 
-	private final static SkatNetworks INTSTANCE = new SkatNetworks();
+	/**
+	 * File name of the network bundle written by {@link #saveNetworks(String)}
+	 */
+	public static final String BUNDLE_FILE_NAME = "jskat.nnb"; //$NON-NLS-1$
+
+	private static final String BUNDLE_RESOURCE = "/org/jskat/ai/nn/data/" //$NON-NLS-1$
+			+ BUNDLE_FILE_NAME;
+
+	private static int replayBufferCapacity = 256;
+	private static EvictionPolicy evictionPolicy = EvictionPolicy.FIFO;
+	private static volatile int batchSize = 32;
 
-	private static Map<GameType, Map<PlayerParty, List<INeuralNetwork>>> networks;
+	private static volatile File bundleDirectory;
+
+	private static volatile Map<GameType, Map<PlayerParty, List<INeuralNetwork>>> networks;
+
+	private static volatile Map<GameType, Map<PlayerParty, List<ReplayBuffer>>> replayBuffers;
+
+	private final static SkatNetworks INTSTANCE = new SkatNetworks();
 
 	/**
 	 * Gets an instance of the SkatNetworks
@@ -54,6 +81,7 @@ public class SkatNetworks {
 	 */
 	public static SkatNetworks instance() {
 
+		getNetworks();
 		return INTSTANCE;
 	}
 
@@ -62,8 +90,38 @@ public class SkatNetworks {
 	 */
 	private SkatNetworks() {
 
-		createNetworks();
-		loadNetworks();
+		createReplayBuffers();
+	}
+
+	/**
+	 * Gets all networks, they are loaded when they are used the first time
+	 */
+	private static Map<GameType, Map<PlayerParty, List<INeuralNetwork>>> getNetworks() {
+
+		Map<GameType, Map<PlayerParty, List<INeuralNetwork>>> result = networks;
+		if (result == null) {
+			synchronized (SkatNetworks.class) {
+				if (networks == null) {
+					loadNetworks();
+				}
+				result = networks;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Sets the directory that holds the network bundle written by
+	 * {@link #saveNetworks(String)}<br />
+	 * The bundle in this directory is preferred over the bundle in the class
+	 * path. The directory must be set before the networks are used the first
+	 * time, otherwise {@link #loadNetworks()} has to be called again.
+	 * 
+	 * @param path
+	 *            Directory of the network bundle
+	 */
+	public static void setBundleDirectory(final String path) {
+		bundleDirectory = new File(path);
 	}
 
 	/**
@@ -78,88 +136,334 @@ public class SkatNetworks {
 	public static INeuralNetwork getNetwork(GameType gameType,
 			boolean isDeclarer, int trickNoInGame) {
 
-		Map<PlayerParty, List<INeuralNetwork>> gameTypeNets = networks
-				.get(gameType);
+		return getNetworks().get(gameType)
+				.get(getPlayerParty(gameType, isDeclarer)).get(trickNoInGame);
+	}
+
+	/**
+	 * Gets the replay buffer of a neural network
+	 * 
+	 * @param gameType
+	 *            Game type
+	 * @param isDeclarer
+	 *            TRUE, if declarer network is desired
+	 * @param trickNoInGame
+	 *            Trick number in game
+	 * @return Replay buffer
+	 */
+	public static ReplayBuffer getReplayBuffer(GameType gameType,
+			boolean isDeclarer, int trickNoInGame) {
+
+		return replayBuffers.get(gameType)
+				.get(getPlayerParty(gameType, isDeclarer)).get(trickNoInGame);
+	}
 
-		List<INeuralNetwork> playerPartyNets = null;
+	private static PlayerParty getPlayerParty(GameType gameType,
+			boolean isDeclarer) {
 		if (GameType.RAMSCH.equals(gameType) || isDeclarer) {
-			playerPartyNets = gameTypeNets.get(PlayerParty.DECLARER);
-		} else {
-			playerPartyNets = gameTypeNets.get(PlayerParty.OPPONENT);
+			return PlayerParty.DECLARER;
+		}
+		return PlayerParty.OPPONENT;
+	}
+
+	/**
+	 * Adds a training sample to the replay buffer of a network<br />
+	 * After every {@link #getBatchSize()} new samples the network is trained
+	 * with a mini batch drawn from its replay buffer.
+	 * 
+	 * @param gameType
+	 *            Game type
+	 * @param isDeclarer
+	 *            TRUE, if the sample is for the declarer network
+	 * @param trickNoInGame
+	 *            Trick number in game
+	 * @param inputs
+	 *            Network inputs
+	 * @param outputs
+	 *            Desired network outputs
+	 * @return TRUE, if the network was trained
+	 */
+	public static boolean addTrainingSample(GameType gameType,
+			boolean isDeclarer, int trickNoInGame, double[] inputs,
+			double[] outputs) {
+
+		ReplayBuffer buffer = getReplayBuffer(gameType, isDeclarer,
+				trickNoInGame);
+		buffer.add(inputs, outputs);
+
+		return trainBatch(getNetwork(gameType, isDeclarer, trickNoInGame),
+				buffer, batchSize);
+	}
+
+	/**
+	 * Trains every network that got new samples since its last mini batch
+	 * 
+	 * @return Number of trained mini batches
+	 */
+	public static int trainNewSamples() {
+
+		int result = 0;
+		for (Entry<GameType, Map<PlayerParty, List<ReplayBuffer>>> gameTypeBuffers : replayBuffers
+				.entrySet()) {
+			for (Entry<PlayerParty, List<ReplayBuffer>> playerPartyBuffers : gameTypeBuffers
+					.getValue().entrySet()) {
+				for (int i = 0; i < 10; i++) {
+					INeuralNetwork net = getNetworks()
+							.get(gameTypeBuffers.getKey())
+							.get(playerPartyBuffers.getKey()).get(i);
+					if (trainBatch(net, playerPartyBuffers.getValue().get(i), 1)) {
+						result++;
+					}
+				}
+			}
 		}
+		return result;
+	}
 
-		return playerPartyNets.get(trickNoInGame);
+	private static boolean trainBatch(INeuralNetwork net, ReplayBuffer buffer,
+			int minNewSamples) {
+
+		double[][] inputs;
+		double[][] outputs;
+		synchronized (buffer) {
+			if (buffer.getNewSamples() < minNewSamples) {
+				return false;
+			}
+			int rows = Math.min(batchSize, buffer.size());
+			inputs = new double[rows][INPUT_NEURONS];
+			outputs = new double[rows][OUTPUT_NEURONS];
+			buffer.sample(inputs, outputs);
+		}
+
+		net.adjustWeights(inputs, outputs);
+		return true;
+	}
+
+	/**
+	 * Sets the number of samples per mini batch
+	 * 
+	 * @param newBatchSize
+	 *            Batch size
+	 */
+	public static void setBatchSize(int newBatchSize) {
+		if (newBatchSize < 1) {
+			throw new IllegalArgumentException(
+					"Batch size must be greater than 0."); //$NON-NLS-1$
+		}
+		batchSize = newBatchSize;
 	}
 
-	private static void createNetworks() {
+	/**
+	 * Gets the number of samples per mini batch
+	 * 
+	 * @return Batch size
+	 */
+	public static int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * Replaces all replay buffers with empty ones
+	 * 
+	 * @param capacity
+	 *            Maximum number of samples per network
+	 * @param policy
+	 *            Policy for replacing samples in a full buffer
+	 */
+	public static synchronized void configureReplayBuffers(int capacity,
+			EvictionPolicy policy) {
+		replayBufferCapacity = capacity;
+		evictionPolicy = policy;
+		createReplayBuffers();
+	}
+
+	private static void createReplayBuffers() {
+		Random random = new Random();
+		Map<GameType, Map<PlayerParty, List<ReplayBuffer>>> newReplayBuffers = new HashMap<GameType, Map<PlayerParty, List<ReplayBuffer>>>();
+		for (GameType gameType : GameType.values()) {
+			newReplayBuffers.put(gameType,
+					new HashMap<PlayerParty, List<ReplayBuffer>>());
+			for (PlayerParty playerParty : PlayerParty.values()) {
+				List<ReplayBuffer> partyBuffers = new ArrayList<ReplayBuffer>();
+				for (int i = 0; i < 10; i++) {
+					partyBuffers.add(new ReplayBuffer(replayBufferCapacity,
+							INPUT_NEURONS, OUTPUT_NEURONS, evictionPolicy,
+							random));
+				}
+				newReplayBuffers.get(gameType).put(playerParty, partyBuffers);
+			}
+		}
+		replayBuffers = newReplayBuffers;
+	}
+
+	private static NetworkTopology createTopology() {
 		int[] hiddenLayer = { HIDDEN_NEURONS };
-		NetworkTopology topo = new NetworkTopology(INPUT_NEURONS, hiddenLayer,
-				OUTPUT_NEURONS);
+		return new NetworkTopology(INPUT_NEURONS, hiddenLayer, OUTPUT_NEURONS);
+	}
+
+	private static Map<GameType, Map<PlayerParty, List<INeuralNetwork>>> createNetworks() {
+		NetworkTopology topo = createTopology();
 
-		networks = new HashMap<GameType, Map<PlayerParty, List<INeuralNetwork>>>();
+		Map<GameType, Map<PlayerParty, List<INeuralNetwork>>> newNetworks = new HashMap<GameType, Map<PlayerParty, List<INeuralNetwork>>>();
 		for (GameType gameType : GameType.values()) {
-			networks.put(gameType,
+			newNetworks.put(gameType,
 					new HashMap<PlayerParty, List<INeuralNetwork>>());
 			for (PlayerParty playerParty : PlayerParty.values()) {
 				List<INeuralNetwork> partyNets = new ArrayList<INeuralNetwork>();
 				for (int i = 0; i < 10; i++) {
 					partyNets.add(new EncogNetworkWrapper(topo, USE_BIAS));
 				}
-				networks.get(gameType).put(playerParty, partyNets);
+				newNetworks.get(gameType).put(playerParty, partyNets);
 			}
 		}
+		return newNetworks;
 	}
 
 	/**
-	 * Loads all neural networks from files
+	 * Loads all neural networks<br />
+	 * The networks are taken from the first available source:
+	 * <ol>
+	 * <li>the network bundle in the bundle directory, see
+	 * {@link #setBundleDirectory(String)}</li>
+	 * <li>the network bundle in the class path</li>
+	 * <li>untrained networks</li>
+	 * </ol>
+	 * Bundle files are memory mapped. Only a bundle inside a jar file is read
+	 * into the heap.
 	 */
-	public static void loadNetworks() {
-		for (Entry<GameType, Map<PlayerParty, List<INeuralNetwork>>> gameTypeNets : networks
-				.entrySet()) {
-			for (Entry<PlayerParty, List<INeuralNetwork>> playerPartyNet : gameTypeNets
-					.getValue().entrySet()) {
+	public static synchronized void loadNetworks() {
+		File directory = bundleDirectory;
+		if (directory != null) {
+			File savedBundle = new File(directory, BUNDLE_FILE_NAME);
+			if (savedBundle.isFile()) {
+				try {
+					loadNetworks(savedBundle);
+					return;
+				} catch (IOException e) {
+					log.warn("Could not load network bundle " + savedBundle, e); //$NON-NLS-1$
+				}
+			}
+		}
+
+		URL bundleUrl = SkatNetworks.class.getResource(BUNDLE_RESOURCE);
+		if (bundleUrl != null) {
+			try {
+				loadNetworkBundle(bundleUrl);
+				return;
+			} catch (IOException e) {
+				log.warn("Could not load network bundle " + bundleUrl, e); //$NON-NLS-1$
+			}
+		}
+
+		log.warn("No network bundle found, using untrained networks."); //$NON-NLS-1$
+		networks = createNetworks();
+	}
+
+	private static void loadNetworkBundle(final URL bundleUrl)
+			throws IOException {
+
+		if ("file".equals(bundleUrl.getProtocol())) { //$NON-NLS-1$
+			try {
+				loadNetworks(new File(bundleUrl.toURI()));
+				return;
+			} catch (URISyntaxException e) {
+				throw new IOException(e);
+			}
+		}
+
+		InputStream bundleStream = bundleUrl.openStream();
+		try {
+			loadNetworkBundle(NetworkBundle.read(bundleStream));
+		} finally {
+			bundleStream.close();
+		}
+	}
+
+	/**
+	 * Loads all neural networks from a network bundle file<br />
+	 * The file is memory mapped, the weights of a network are read when the
+	 * network is used the first time.
+	 * 
+	 * @param bundleFile
+	 *            Network bundle file
+	 * @throws IOException
+	 *             If the file can't be read
+	 */
+	public static void loadNetworks(final File bundleFile) throws IOException {
+		loadNetworkBundle(NetworkBundle.open(bundleFile));
+	}
+
+	private static void loadNetworkBundle(final NetworkBundle bundle)
+			throws IOException {
+
+		if (bundle.getTopology().getInputNeuronCount() != INPUT_NEURONS) {
+			throw new IOException("Network bundle has " //$NON-NLS-1$
+					+ bundle.getTopology().getInputNeuronCount()
+					+ " input neurons, expected " + INPUT_NEURONS + "."); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
+		Map<GameType, Map<PlayerParty, List<INeuralNetwork>>> newNetworks = new HashMap<GameType, Map<PlayerParty, List<INeuralNetwork>>>();
+		for (GameType gameType : GameType.values()) {
+			newNetworks.put(gameType,
+					new HashMap<PlayerParty, List<INeuralNetwork>>());
+			for (PlayerParty playerParty : PlayerParty.values()) {
+				List<INeuralNetwork> partyNets = new ArrayList<INeuralNetwork>();
 				for (int i = 0; i < 10; i++) {
-					playerPartyNet
-							.getValue()
-							.get(i)
-							.loadNetwork(
-									"/org/jskat/ai/nn/data/jskat"
-											.concat("." + gameTypeNets.getKey())
-											.concat("."
-													+ playerPartyNet.getKey())
-											.concat(".TRICK" + i)
-											.concat(".nnet"), INPUT_NEURONS,
-									HIDDEN_NEURONS, OUTPUT_NEURONS);
+					String name = getNetworkName(gameType, playerParty, i);
+					if (!bundle.contains(name)) {
+						throw new IOException("Network bundle has no network " //$NON-NLS-1$
+								+ name + "."); //$NON-NLS-1$
+					}
+					partyNets.add(new LazyNetwork(bundle, name));
 				}
+				newNetworks.get(gameType).put(playerParty, partyNets);
 			}
 		}
+		networks = newNetworks;
 	}
 
 	/**
-	 * Saves all networks to files
+	 * Saves all networks into a single network bundle file
 	 * 
 	 * @param path
-	 *            Path to files
+	 *            Path to the bundle file
 	 */
 	public static void saveNetworks(final String path) {
-		for (Entry<GameType, Map<PlayerParty, List<INeuralNetwork>>> gameTypeNets : networks
-				.entrySet()) {
-			for (Entry<PlayerParty, List<INeuralNetwork>> playerPartyNet : gameTypeNets
-					.getValue().entrySet()) {
+		File bundleFile = new File(path, BUNDLE_FILE_NAME);
+		try {
+			saveNetworks(bundleFile);
+		} catch (IOException e) {
+			log.error("Could not save network bundle " + bundleFile, e); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Saves all networks into a network bundle file
+	 * 
+	 * @param bundleFile
+	 *            Network bundle file
+	 * @throws IOException
+	 *             If the file can't be written
+	 */
+	public static void saveNetworks(final File bundleFile) throws IOException {
+
+		Map<String, INeuralNetwork> namedNetworks = new LinkedHashMap<String, INeuralNetwork>();
+		for (GameType gameType : GameType.values()) {
+			for (PlayerParty playerParty : PlayerParty.values()) {
 				for (int i = 0; i < 10; i++) {
-					playerPartyNet
-							.getValue()
-							.get(i)
-							.saveNetwork(
-									path.concat("jskat")
-											.concat("." + gameTypeNets.getKey())
-											.concat("."
-													+ playerPartyNet.getKey())
-											.concat(".TRICK" + i)
-											.concat(".nnet"));
+					namedNetworks.put(getNetworkName(gameType, playerParty, i),
+							getNetworks().get(gameType).get(playerParty)
+									.get(i));
 				}
 			}
 		}
+		NetworkBundle.write(bundleFile, createTopology(), USE_BIAS,
+				namedNetworks);
+	}
+
+	private static String getNetworkName(GameType gameType,
+			PlayerParty playerParty, int trickNoInGame) {
+		return gameType + "." + playerParty + ".TRICK" + trickNoInGame; //$NON-NLS-1$ //$NON-NLS-2$
 	}
 
 	/**
@@ -167,7 +471,7 @@ public class SkatNetworks {
 	 */
 	public static void resetNeuralNetworks() {
 
-		for (Map<PlayerParty, List<INeuralNetwork>> gameTypeNets : networks
+		for (Map<PlayerParty, List<INeuralNetwork>> gameTypeNets : getNetworks()
 				.values()) {
 			for (List<INeuralNetwork> playerPartyNets : gameTypeNets.values()) {
 				for (INeuralNetwork net : playerPartyNets) {
@@ -175,5 +479,14 @@ public class SkatNetworks {
 				}
 			}
 		}
+		for (Map<PlayerParty, List<ReplayBuffer>> gameTypeBuffers : replayBuffers
+				.values()) {
+			for (List<ReplayBuffer> playerPartyBuffers : gameTypeBuffers
+					.values()) {
+				for (ReplayBuffer buffer : playerPartyBuffers) {
+					buffer.clear();
+				}
+			}
+		}
 	}
 }
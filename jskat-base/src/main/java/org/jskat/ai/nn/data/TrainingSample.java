@@ -0,0 +1,100 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn.data;
+
+import org.jskat.util.GameType;
+
+/**
+ * Holds one training example for a neural network: the inputs of a card
+ * decision and the outcome of the game it was made in
+ */
+public final class TrainingSample {
+
+	private final GameType gameType;
+	private final boolean declarer;
+	private final int trickNoInGame;
+	private final double[] inputs;
+	private final double[] outputs;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param gameType
+	 *            Game type
+	 * @param isDeclarer
+	 *            TRUE, if the decision was made by the declarer
+	 * @param trickNoInGame
+	 *            Trick number in game
+	 * @param inputs
+	 *            Network inputs of the decision
+	 * @param outputs
+	 *            Desired network outputs
+	 */
+	public TrainingSample(final GameType gameType, final boolean isDeclarer,
+			final int trickNoInGame, final double[] inputs,
+			final double[] outputs) {
+		this.gameType = gameType;
+		this.declarer = isDeclarer;
+		this.trickNoInGame = trickNoInGame;
+		this.inputs = inputs;
+		this.outputs = outputs;
+	}
+
+	/**
+	 * Gets the game type
+	 * 
+	 * @return Game type
+	 */
+	public GameType getGameType() {
+		return gameType;
+	}
+
+	/**
+	 * Checks whether the decision was made by the declarer
+	 * 
+	 * @return TRUE, if the decision was made by the declarer
+	 */
+	public boolean isDeclarer() {
+		return declarer;
+	}
+
+	/**
+	 * Gets the trick number in game
+	 * 
+	 * @return Trick number in game
+	 */
+	public int getTrickNoInGame() {
+		return trickNoInGame;
+	}
+
+	/**
+	 * Gets the network inputs
+	 * 
+	 * @return Network inputs
+	 */
+	public double[] getInputs() {
+		return inputs;
+	}
+
+	/**
+	 * Gets the desired network outputs
+	 * 
+	 * @return Desired network outputs
+	 */
+	public double[] getOutputs() {
+		return outputs;
+	}
+}
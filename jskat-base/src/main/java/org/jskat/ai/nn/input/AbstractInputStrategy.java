@@ -15,9 +15,141 @@
  */
 package org.jskat.ai.nn.input;
 
+import org.jskat.player.ImmutablePlayerKnowledge;
+import org.jskat.util.Card;
+import org.jskat.util.CardSet;
+import org.jskat.util.Player;
+import org.jskat.util.rule.SkatRuleFactory;
+
+/**
+ * Abstract strategy for network inputs
+ */
 public abstract class AbstractInputStrategy implements InputStrategy {
 
-	protected double[] getEmptyInputs() {
-		return new double[getNeuronCount()];
+	private final static int[] NETWORK_INPUT_INDEX = new int[Card.values().length];
+
+	static {
+		for (Card card : Card.values()) {
+			NETWORK_INPUT_INDEX[card.ordinal()] = card.getSuit()
+					.getSuitOrder() * 8 + card.getNullOrder();
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public final double[] getNetworkInput(
+			final ImmutablePlayerKnowledge knowledge, final Card cardToPlay) {
+		double[] result = new double[getNeuronCount()];
+		setNetworkInputs(knowledge, result, 0);
+		setNextCardInputs(knowledge, cardToPlay, result, 0);
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}<br />
+	 * Does nothing, the inputs don't depend on the next card to play.
+	 */
+	@Override
+	public void setNextCardInputs(final ImmutablePlayerKnowledge knowledge,
+			final Card cardToPlay, final double[] inputs, final int offset) {
+		// inputs don't depend on the next card
+	}
+
+	/**
+	 * Gets the index for a card for network inputs
+	 * 
+	 * @param card
+	 *            Card
+	 * @return Index of card in network input
+	 */
+	protected static int getNetworkInputIndex(final Card card) {
+		return NETWORK_INPUT_INDEX[card.ordinal()];
+	}
+
+	/**
+	 * Sets the inputs for all cards of a card set to 1.0
+	 * 
+	 * @param cardSet
+	 *            {@link CardSet}
+	 * @param inputs
+	 *            Input buffer
+	 * @param offset
+	 *            Offset of the card inputs
+	 */
+	protected static void setCardInputs(final int cardSet,
+			final double[] inputs, final int offset) {
+		for (int rest = cardSet; rest != CardSet.EMPTY; rest = CardSet
+				.removeLowest(rest)) {
+			inputs[offset + getNetworkInputIndex(CardSet.getLowest(rest))] = 1.0;
+		}
+	}
+
+	/**
+	 * Checks whether a player belongs to the party of the player
+	 * 
+	 * @param knowledge
+	 *            Player knowledge
+	 * @param player
+	 *            Player to check
+	 * @return TRUE, if the player belongs to the party of the player
+	 */
+	protected static boolean isPartyMember(
+			final ImmutablePlayerKnowledge knowledge, final Player player) {
+		if (knowledge.getDeclarer().equals(knowledge.getPlayerPosition())) {
+			// player is declarer
+			return player.equals(knowledge.getPlayerPosition());
+		}
+		// player is opponent
+		return !player.equals(knowledge.getDeclarer());
+	}
+
+	/**
+	 * Gets the winner of the current trick if it is completed by the next card
+	 * 
+	 * @param knowledge
+	 *            Player knowledge
+	 * @param cardToPlay
+	 *            Next card to play
+	 * @return Trick winner, NULL if the next card doesn't complete the trick
+	 */
+	protected static Player getTrickWinnerWithNextCard(
+			final ImmutablePlayerKnowledge knowledge, final Card cardToPlay) {
+		if (knowledge.getCurrentTrickFirstCard() == null
+				|| knowledge.getCurrentTrickSecondCard() == null
+				|| knowledge.getCurrentTrickThirdCard() != null) {
+			return null;
+		}
+		return SkatRuleFactory.getSkatRules(knowledge.getGameType())
+				.calculateTrickWinner(knowledge.getGameType(),
+						knowledge.getCurrentTrickForeHand(),
+						knowledge.getCurrentTrickFirstCard(),
+						knowledge.getCurrentTrickSecondCard(), cardToPlay);
+	}
+
+	/**
+	 * Gets the index of a player position for network inputs
+	 * 
+	 * @param player
+	 *            Player position
+	 * @return Index of the player position
+	 */
+	protected static int getPlayerPositionIndex(final Player player) {
+		int result = -1;
+		switch (player) {
+		case FOREHAND:
+			result = 0;
+			break;
+		case MIDDLEHAND:
+			result = 1;
+			break;
+		case REARHAND:
+			result = 2;
+			break;
+		default:
+			throw new IllegalArgumentException("Player position is unknown."); //$NON-NLS-1$
+		}
+		return result;
 	}
 }
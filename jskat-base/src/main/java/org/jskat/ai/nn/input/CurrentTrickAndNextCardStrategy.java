@@ -15,49 +15,23 @@
  */
 package org.jskat.ai.nn.input;
 
-import org.jskat.data.Trick;
+import java.util.Arrays;
+
 import org.jskat.player.ImmutablePlayerKnowledge;
 import org.jskat.util.Card;
-import org.jskat.util.rule.SkatRule;
-import org.jskat.util.rule.SkatRuleFactory;
+import org.jskat.util.Player;
 
 public class CurrentTrickAndNextCardStrategy extends CurrentTrickStrategy {
 
 	@Override
-	public double[] getNetworkInput(ImmutablePlayerKnowledge knowledge,
-			Card cardToPlay) {
-
-		double[] result = getEmptyInputs();
-
-		Trick trick = (Trick) knowledge.getCurrentTrick().clone();
-
-		if (trick.getFirstCard() != null && trick.getSecondCard() != null
-				&& trick.getThirdCard() == null) {
-			// trick will be completed by next card
-			trick.addCard(cardToPlay);
-
-			SkatRule rule = SkatRuleFactory.getSkatRules(knowledge
-					.getGameType());
-
-			result[getTrickForehand(rule.calculateTrickWinner(
-					knowledge.getGameType(), trick))] = 1.0;
-
-		} else {
-			// set trick forehand position
-			result[getTrickForehand(trick.getForeHand())] = 1.0;
-
-			// set already played cards
-			if (trick.getFirstCard() != null) {
-				result[3 + getNetworkInputIndex(trick.getFirstCard())] = 1.0;
-			}
-			if (trick.getSecondCard() != null) {
-				result[3 + 32 + getNetworkInputIndex(trick.getSecondCard())] = 1.0;
-			}
-			if (trick.getThirdCard() != null) {
-				result[3 + 64 + getNetworkInputIndex(trick.getThirdCard())] = 1.0;
-			}
+	public void setNextCardInputs(ImmutablePlayerKnowledge knowledge,
+			Card cardToPlay, double[] inputs, int offset) {
+
+		Player trickWinner = getTrickWinnerWithNextCard(knowledge, cardToPlay);
+		if (trickWinner != null) {
+			// trick will be completed by next card, only the winner is set
+			Arrays.fill(inputs, offset, offset + getNeuronCount(), 0.0);
+			inputs[offset + getPlayerPositionIndex(trickWinner)] = 1.0;
 		}
-
-		return result;
 	}
 }
@@ -15,10 +15,7 @@
  */
 package org.jskat.ai.nn.input;
 
-import org.jskat.data.Trick;
 import org.jskat.player.ImmutablePlayerKnowledge;
-import org.jskat.util.Card;
-import org.jskat.util.Player;
 
 public class CurrentTrickStrategy extends AbstractInputStrategy implements
 		InputStrategy {
@@ -30,53 +27,27 @@ public class CurrentTrickStrategy extends AbstractInputStrategy implements
 	}
 
 	@Override
-	public double[] getNetworkInput(ImmutablePlayerKnowledge knowledge, Card cardToPlay) {
-		double[] result = getEmptyInputs();
-
-		Trick trick = knowledge.getCurrentTrick();
+	public void setNetworkInputs(ImmutablePlayerKnowledge knowledge,
+			double[] inputs, int offset) {
 
 		// set trick forehand position
-		result[getTrickForehand(trick.getForeHand())] = 1.0;
-
+		inputs[offset
+				+ getPlayerPositionIndex(knowledge.getCurrentTrickForeHand())] = 1.0;
 		// set already played cards
-		if (trick.getFirstCard() != null) {
-			result[3 + getNetworkInputIndex(trick.getFirstCard())] = 1.0;
+		if (knowledge.getCurrentTrickFirstCard() != null) {
+			inputs[offset + 3
+					+ getNetworkInputIndex(knowledge.getCurrentTrickFirstCard())] = 1.0;
 		}
-		if (trick.getSecondCard() != null) {
-			result[3 + 32 + getNetworkInputIndex(trick.getSecondCard())] = 1.0;
+		if (knowledge.getCurrentTrickSecondCard() != null) {
+			inputs[offset
+					+ 3
+					+ 32
+					+ getNetworkInputIndex(knowledge
+							.getCurrentTrickSecondCard())] = 1.0;
 		}
-		if (trick.getThirdCard() != null) {
-			result[3 + 64 + getNetworkInputIndex(trick.getThirdCard())] = 1.0;
+		if (knowledge.getCurrentTrickThirdCard() != null) {
+			inputs[offset + 3 + 64
+					+ getNetworkInputIndex(knowledge.getCurrentTrickThirdCard())] = 1.0;
 		}
-
-		return result;
 	}
-
-	protected static int getTrickForehand(Player player) {
-
-		int result = -1;
-
-		switch (player) {
-		case FOREHAND:
-			result = 0;
-			break;
-		case MIDDLEHAND:
-			result = 1;
-			break;
-		case REARHAND:
-			result = 2;
-			break;
-		default:
-			throw new IllegalArgumentException(
-					"Trick forehand player is unknown.");
-		}
-
-		return result;
-	}
-
-	protected static int getNetworkInputIndex(final Card card) {
-
-		return card.getSuit().getSuitOrder() * 8 + card.getNullOrder();
-	}
-
 }
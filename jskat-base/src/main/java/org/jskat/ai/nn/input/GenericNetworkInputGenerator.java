@@ -16,15 +16,26 @@
 package org.jskat.ai.nn.input;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import org.jskat.player.ImmutablePlayerKnowledge;
 import org.jskat.util.Card;
 
+/**
+ * Creates the network inputs from a list of {@link InputStrategy}<br />
+ * Every strategy writes its inputs directly into the input buffer at a fixed
+ * offset. For several candidate cards the inputs that don't depend on the
+ * card are only created once.
+ */
 public class GenericNetworkInputGenerator implements NetworkInputGenerator {
 
 	private static final List<InputStrategy> strategies = new ArrayList<InputStrategy>();
 
+	private static final int[] offsets;
+
+	private static final int neuronCount;
+
 	static {
 		strategies.add(new DeclarerPositionInputStrategy());
 		strategies.add(new PlayerPositionInputStrategy());
@@ -32,24 +43,89 @@ public class GenericNetworkInputGenerator implements NetworkInputGenerator {
 		strategies.add(new OpponentPartyMadeCardsAndNextCardStrategy());
 		strategies.add(new UnplayedCardsForPlayerAndNextCardInputStrategy());
 		strategies.add(new TrickCardAndNextCardInputStrategy());
+
+		offsets = new int[strategies.size()];
+		int offset = 0;
+		for (int i = 0; i < strategies.size(); i++) {
+			offsets[i] = offset;
+			offset += strategies.get(i).getNeuronCount();
+		}
+		neuronCount = offset;
 	}
 
 	@Override
 	public double[] getNetInputs(ImmutablePlayerKnowledge knowledge, Card cardToPlay) {
 
-		double[] result = new double[getNeuronCountForAllStrategies()];
-		int index = 0;
-		for (int strategyCount = 0; strategyCount < strategies.size(); strategyCount++) {
-			InputStrategy strategy = strategies.get(strategyCount);
-			double[] networkInput = strategy.getNetworkInput(knowledge,
-					cardToPlay);
-			for (int i = 0; i < strategy.getNeuronCount(); i++) {
-				result[index] = networkInput[i];
-				index++;
+		double[] result = new double[neuronCount];
+		getNetInputs(knowledge, cardToPlay, result);
+		return result;
+	}
+
+	/**
+	 * Writes the network inputs into a buffer
+	 * 
+	 * @param knowledge
+	 *            Player knowledge
+	 * @param cardToPlay
+	 *            Next card to play
+	 * @param inputs
+	 *            Buffer with at least {@link #getNeuronCountForAllStrategies()}
+	 *            elements
+	 */
+	public void getNetInputs(ImmutablePlayerKnowledge knowledge,
+			Card cardToPlay, double[] inputs) {
+
+		setNetworkInputs(knowledge, inputs);
+		setNextCardInputs(knowledge, cardToPlay, inputs);
+	}
+
+	/**
+	 * Writes the network inputs for several candidate cards into buffers<br />
+	 * The inputs that don't depend on the card to play are created once and
+	 * copied, only the changes of every card are created per card.
+	 * 
+	 * @param knowledge
+	 *            Player knowledge
+	 * @param cardsToPlay
+	 *            Candidate cards
+	 * @param count
+	 *            Number of candidate cards
+	 * @param inputs
+	 *            One buffer per candidate card with at least
+	 *            {@link #getNeuronCountForAllStrategies()} elements
+	 */
+	public void getNetInputs(ImmutablePlayerKnowledge knowledge,
+			Card[] cardsToPlay, int count, double[][] inputs) {
+
+		if (count == 0) {
+			return;
+		}
+
+		setNetworkInputs(knowledge, inputs[0]);
+
+		// the first buffer holds the shared inputs, so it is updated last
+		for (int card = count - 1; card >= 0; card--) {
+			if (card > 0) {
+				System.arraycopy(inputs[0], 0, inputs[card], 0, neuronCount);
 			}
+			setNextCardInputs(knowledge, cardsToPlay[card], inputs[card]);
 		}
+	}
 
-		return result;
+	private static void setNetworkInputs(ImmutablePlayerKnowledge knowledge,
+			double[] inputs) {
+		Arrays.fill(inputs, 0, neuronCount, 0.0);
+		for (int i = 0; i < strategies.size(); i++) {
+			strategies.get(i).setNetworkInputs(knowledge, inputs, offsets[i]);
+		}
+	}
+
+	private static void setNextCardInputs(ImmutablePlayerKnowledge knowledge,
+			Card cardToPlay, double[] inputs) {
+		for (int i = 0; i < strategies.size(); i++) {
+			strategies.get(i).setNextCardInputs(knowledge, cardToPlay, inputs,
+					offsets[i]);
+		}
 	}
 
 	/**
@@ -58,12 +134,6 @@ public class GenericNetworkInputGenerator implements NetworkInputGenerator {
 	 * @return Neuron count
 	 */
 	public static int getNeuronCountForAllStrategies() {
-		int result = 0;
-
-		for (InputStrategy strategy : strategies) {
-			result += strategy.getNeuronCount();
-		}
-
-		return result;
+		return neuronCount;
 	}
 }
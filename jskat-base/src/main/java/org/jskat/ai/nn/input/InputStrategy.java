@@ -18,6 +18,13 @@ package org.jskat.ai.nn.input;
 import org.jskat.player.ImmutablePlayerKnowledge;
 import org.jskat.util.Card;
 
+/**
+ * Strategy for creating a part of the network inputs<br />
+ * The inputs are written into a buffer of the caller at a fixed offset. They
+ * are split into the inputs that only depend on the knowledge of the player
+ * and the changes made by the next card to play, so the first part can be
+ * shared by all candidate cards.
+ */
 public interface InputStrategy {
 
 	/**
@@ -37,4 +44,33 @@ public interface InputStrategy {
 	 * @return Network input
 	 */
 	public double[] getNetworkInput(ImmutablePlayerKnowledge knowledge, Card cardToPlay);
+
+	/**
+	 * Sets the network inputs that don't depend on the next card to play
+	 * 
+	 * @param knowledge
+	 *            Player knowledge
+	 * @param inputs
+	 *            Input buffer, the inputs of the strategy must be 0.0
+	 * @param offset
+	 *            Offset of the first input of the strategy
+	 */
+	public void setNetworkInputs(ImmutablePlayerKnowledge knowledge,
+			double[] inputs, int offset);
+
+	/**
+	 * Updates the network inputs for the next card to play
+	 * 
+	 * @param knowledge
+	 *            Player knowledge
+	 * @param cardToPlay
+	 *            Next card to play
+	 * @param inputs
+	 *            Input buffer with the inputs set by
+	 *            {@link #setNetworkInputs(ImmutablePlayerKnowledge, double[], int)}
+	 * @param offset
+	 *            Offset of the first input of the strategy
+	 */
+	public void setNextCardInputs(ImmutablePlayerKnowledge knowledge,
+			Card cardToPlay, double[] inputs, int offset);
 }
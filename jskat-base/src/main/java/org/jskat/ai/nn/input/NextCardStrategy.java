@@ -27,18 +27,15 @@ public class NextCardStrategy extends AbstractInputStrategy implements
 	}
 
 	@Override
-	public double[] getNetworkInput(ImmutablePlayerKnowledge knowledge, Card cardToPlay) {
-
-		double[] result = getEmptyInputs();
-
-		result[getNetworkInputIndex(cardToPlay)] = 1.0;
-
-		return result;
+	public void setNetworkInputs(ImmutablePlayerKnowledge knowledge,
+			double[] inputs, int offset) {
+		// only the next card is set
 	}
 
-	private static int getNetworkInputIndex(final Card card) {
+	@Override
+	public void setNextCardInputs(ImmutablePlayerKnowledge knowledge,
+			Card cardToPlay, double[] inputs, int offset) {
 
-		return card.getSuit().getSuitOrder() * 8 + card.getNullOrder();
+		inputs[offset + getNetworkInputIndex(cardToPlay)] = 1.0;
 	}
-
 }
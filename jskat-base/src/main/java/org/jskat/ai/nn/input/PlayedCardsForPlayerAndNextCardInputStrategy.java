@@ -26,12 +26,9 @@ public class PlayedCardsForPlayerAndNextCardInputStrategy extends
 		PlayedCardsForPlayerInputStrategy {
 
 	@Override
-	public double[] getNetworkInput(ImmutablePlayerKnowledge knowledge, Card cardToPlay) {
+	public void setNextCardInputs(ImmutablePlayerKnowledge knowledge,
+			Card cardToPlay, double[] inputs, int offset) {
 
-		double[] result = super.getNetworkInput(knowledge, cardToPlay);
-
-		result[getNetworkInputIndex(cardToPlay)] = 1.0;
-
-		return result;
+		inputs[offset + getNetworkInputIndex(cardToPlay)] = 1.0;
 	}
 }
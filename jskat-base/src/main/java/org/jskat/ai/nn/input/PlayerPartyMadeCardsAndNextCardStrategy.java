@@ -15,44 +15,26 @@
  */
 package org.jskat.ai.nn.input;
 
-import java.util.Set;
-
-import org.jskat.data.Trick;
 import org.jskat.player.ImmutablePlayerKnowledge;
 import org.jskat.util.Card;
 import org.jskat.util.Player;
-import org.jskat.util.rule.SkatRule;
-import org.jskat.util.rule.SkatRuleFactory;
 
 public class PlayerPartyMadeCardsAndNextCardStrategy extends
 		PlayerPartyMadeCardsStrategy {
 
 	@Override
-	public double[] getNetworkInput(ImmutablePlayerKnowledge knowledge,
-			Card cardToPlay) {
-
-		double[] result = super.getNetworkInput(knowledge, cardToPlay);
-
-		Trick trick = (Trick) knowledge.getCurrentTrick().clone();
-
-		if (trick.getFirstCard() != null && trick.getSecondCard() != null
-				&& trick.getThirdCard() == null) {
-
-			trick.addCard(cardToPlay);
-
-			SkatRule rule = SkatRuleFactory.getSkatRules(knowledge
-					.getGameType());
-			Set<Player> partyMembers = getPartyMembers(knowledge);
-
-			if (partyMembers.contains(rule.calculateTrickWinner(
-					knowledge.getGameType(), trick))) {
-				// trick was won by player's party
-				for (Card card : trick.getCardList()) {
-					result[getNetworkInputIndex(card)] = 1.0;
-				}
-			}
+	public void setNextCardInputs(ImmutablePlayerKnowledge knowledge,
+			Card cardToPlay, double[] inputs, int offset) {
+
+		Player trickWinner = getTrickWinnerWithNextCard(knowledge, cardToPlay);
+		if (trickWinner != null && isPartyMember(knowledge, trickWinner)) {
+			// trick was won by player's party
+			inputs[offset
+					+ getNetworkInputIndex(knowledge.getCurrentTrickFirstCard())] = 1.0;
+			inputs[offset
+					+ getNetworkInputIndex(knowledge
+							.getCurrentTrickSecondCard())] = 1.0;
+			inputs[offset + getNetworkInputIndex(cardToPlay)] = 1.0;
 		}
-
-		return result;
 	}
 }
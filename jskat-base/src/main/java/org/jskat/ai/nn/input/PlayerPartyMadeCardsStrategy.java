@@ -15,58 +15,28 @@
  */
 package org.jskat.ai.nn.input;
 
-import java.util.HashSet;
-import java.util.Set;
-
 import org.jskat.data.Trick;
 import org.jskat.player.ImmutablePlayerKnowledge;
-import org.jskat.util.Card;
-import org.jskat.util.Player;
 
 public class PlayerPartyMadeCardsStrategy extends AbstractInputStrategy
 		implements InputStrategy {
 
 	@Override
 	public int getNeuronCount() {
-
 		return 32;
 	}
 
 	@Override
-	public double[] getNetworkInput(ImmutablePlayerKnowledge knowledge, Card cardToPlay) {
-
-		double[] result = getEmptyInputs();
-
-		Set<Player> partyMembers = getPartyMembers(knowledge);
+	public void setNetworkInputs(ImmutablePlayerKnowledge knowledge,
+			double[] inputs, int offset) {
 
 		for (Trick trick : knowledge.getCompletedTricks()) {
-			if (partyMembers.contains(trick.getTrickWinner())) {
+			if (isPartyMember(knowledge, trick.getTrickWinner())) {
 				// trick was won by player's party
-				for (Card card : trick.getCardList()) {
-					result[getNetworkInputIndex(card)] = 1.0;
-				}
+				inputs[offset + getNetworkInputIndex(trick.getFirstCard())] = 1.0;
+				inputs[offset + getNetworkInputIndex(trick.getSecondCard())] = 1.0;
+				inputs[offset + getNetworkInputIndex(trick.getThirdCard())] = 1.0;
 			}
 		}
-
-		return result;
-	}
-
-	protected Set<Player> getPartyMembers(ImmutablePlayerKnowledge knowledge) {
-
-		Set<Player> result = new HashSet<Player>();
-		if (knowledge.getDeclarer().equals(knowledge.getPlayerPosition())) {
-			// player is declarer
-			result.add(knowledge.getPlayerPosition());
-		} else {
-			// player is opponent
-			result.add(knowledge.getDeclarer().getLeftNeighbor());
-			result.add(knowledge.getDeclarer().getRightNeighbor());
-		}
-		return result;
-	}
-
-	protected static int getNetworkInputIndex(final Card card) {
-
-		return card.getSuit().getSuitOrder() * 8 + card.getNullOrder();
 	}
 }
@@ -16,7 +16,6 @@
 package org.jskat.ai.nn.input;
 
 import org.jskat.player.ImmutablePlayerKnowledge;
-import org.jskat.util.Card;
 
 /**
  * Gets the network inputs for the player position
@@ -24,25 +23,10 @@ import org.jskat.util.Card;
 public class PlayerPositionInputStrategy extends AbstractInputStrategy {
 
 	@Override
-	public double[] getNetworkInput(ImmutablePlayerKnowledge knowledge, Card cardToPlay) {
+	public void setNetworkInputs(ImmutablePlayerKnowledge knowledge,
+			double[] inputs, int offset) {
 
-		double[] result = getEmptyInputs();
-
-		switch (knowledge.getPlayerPosition()) {
-		case FOREHAND:
-			result[0] = 1.0;
-			break;
-		case MIDDLEHAND:
-			result[1] = 1.0;
-			break;
-		case REARHAND:
-			result[2] = 1.0;
-			break;
-		default:
-			throw new IllegalArgumentException("Player position is unknown.");
-		}
-
-		return result;
+		inputs[offset + getPlayerPositionIndex(knowledge.getPlayerPosition())] = 1.0;
 	}
 
 	@Override
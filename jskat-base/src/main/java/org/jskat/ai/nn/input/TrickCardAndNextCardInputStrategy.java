@@ -15,7 +15,6 @@
  */
 package org.jskat.ai.nn.input;
 
-import org.jskat.data.Trick;
 import org.jskat.player.ImmutablePlayerKnowledge;
 import org.jskat.util.Card;
 
@@ -25,23 +24,18 @@ import org.jskat.util.Card;
 public class TrickCardAndNextCardInputStrategy extends TrickCardInputStrategy {
 
 	@Override
-	public double[] getNetworkInput(ImmutablePlayerKnowledge knowledge, Card cardToPlay) {
-
-		double[] result = super.getNetworkInput(knowledge, cardToPlay);
-
-		Trick trick = knowledge.getCurrentTrick();
+	public void setNextCardInputs(ImmutablePlayerKnowledge knowledge,
+			Card cardToPlay, double[] inputs, int offset) {
 
+		int trickOffset = offset
+				+ getTrickOffset(knowledge.getCurrentTrickNumber());
 		// set next card to play
-		if (trick.getFirstCard() == null) {
-			result[getTrickOffset(trick) + 3 + getNetworkInputIndex(cardToPlay)] = 1.0;
-		} else if (trick.getSecondCard() == null) {
-			result[getTrickOffset(trick) + 3 + 32
-					+ getNetworkInputIndex(cardToPlay)] = 1.0;
-		} else if (trick.getThirdCard() == null) {
-			result[getTrickOffset(trick) + 3 + 64
-					+ getNetworkInputIndex(cardToPlay)] = 1.0;
+		if (knowledge.getCurrentTrickFirstCard() == null) {
+			inputs[trickOffset + 3 + getNetworkInputIndex(cardToPlay)] = 1.0;
+		} else if (knowledge.getCurrentTrickSecondCard() == null) {
+			inputs[trickOffset + 3 + 32 + getNetworkInputIndex(cardToPlay)] = 1.0;
+		} else if (knowledge.getCurrentTrickThirdCard() == null) {
+			inputs[trickOffset + 3 + 64 + getNetworkInputIndex(cardToPlay)] = 1.0;
 		}
-
-		return result;
 	}
 }
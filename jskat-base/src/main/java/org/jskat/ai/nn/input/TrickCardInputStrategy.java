@@ -17,8 +17,6 @@ package org.jskat.ai.nn.input;
 
 import org.jskat.data.Trick;
 import org.jskat.player.ImmutablePlayerKnowledge;
-import org.jskat.util.Card;
-import org.jskat.util.Player;
 
 /**
  * Gets the network inputs for played cards in the game per trick
@@ -33,66 +31,53 @@ public class TrickCardInputStrategy extends AbstractInputStrategy {
 	}
 
 	@Override
-	public double[] getNetworkInput(ImmutablePlayerKnowledge knowledge, Card cardToPlay) {
-
-		double[] result = getEmptyInputs();
+	public void setNetworkInputs(ImmutablePlayerKnowledge knowledge,
+			double[] inputs, int offset) {
 
 		for (Trick trick : knowledge.getCompletedTricks()) {
-			setTrickInputs(result, trick);
+			setTrickInputs(inputs, offset, trick);
 		}
-		setTrickInputs(result, knowledge.getCurrentTrick());
-
-		return result;
+		setCurrentTrickInputs(inputs, offset, knowledge);
 	}
 
-	private void setTrickInputs(double[] result, Trick trick) {
-
+	private static void setTrickInputs(double[] inputs, int offset, Trick trick) {
+		int trickOffset = offset + getTrickOffset(trick.getTrickNumberInGame());
 		// set trick forehand position
-		result[getTrickOffset(trick) + getTrickForehand(trick.getForeHand())] = 1.0;
+		inputs[trickOffset + getPlayerPositionIndex(trick.getForeHand())] = 1.0;
+		// set already played cards
+		inputs[trickOffset + 3 + getNetworkInputIndex(trick.getFirstCard())] = 1.0;
+		inputs[trickOffset + 3 + 32
+				+ getNetworkInputIndex(trick.getSecondCard())] = 1.0;
+		inputs[trickOffset + 3 + 64
+				+ getNetworkInputIndex(trick.getThirdCard())] = 1.0;
+	}
 
+	private static void setCurrentTrickInputs(double[] inputs, int offset,
+			ImmutablePlayerKnowledge knowledge) {
+		int trickOffset = offset
+				+ getTrickOffset(knowledge.getCurrentTrickNumber());
+		// set trick forehand position
+		inputs[trickOffset
+				+ getPlayerPositionIndex(knowledge.getCurrentTrickForeHand())] = 1.0;
 		// set already played cards
-		if (trick.getFirstCard() != null) {
-			result[getTrickOffset(trick) + 3
-					+ getNetworkInputIndex(trick.getFirstCard())] = 1.0;
+		if (knowledge.getCurrentTrickFirstCard() != null) {
+			inputs[trickOffset + 3
+					+ getNetworkInputIndex(knowledge.getCurrentTrickFirstCard())] = 1.0;
 		}
-		if (trick.getSecondCard() != null) {
-			result[getTrickOffset(trick) + 3 + 32
-					+ getNetworkInputIndex(trick.getSecondCard())] = 1.0;
+		if (knowledge.getCurrentTrickSecondCard() != null) {
+			inputs[trickOffset
+					+ 3
+					+ 32
+					+ getNetworkInputIndex(knowledge
+							.getCurrentTrickSecondCard())] = 1.0;
 		}
-		if (trick.getThirdCard() != null) {
-			result[getTrickOffset(trick) + 3 + 64
-					+ getNetworkInputIndex(trick.getThirdCard())] = 1.0;
+		if (knowledge.getCurrentTrickThirdCard() != null) {
+			inputs[trickOffset + 3 + 64
+					+ getNetworkInputIndex(knowledge.getCurrentTrickThirdCard())] = 1.0;
 		}
 	}
 
-	protected int getTrickOffset(Trick trick) {
-		return trick.getTrickNumberInGame() * (3 + 3 * 32);
-	}
-
-	private static int getTrickForehand(Player player) {
-
-		int result = -1;
-
-		switch (player) {
-		case FOREHAND:
-			result = 0;
-			break;
-		case MIDDLEHAND:
-			result = 1;
-			break;
-		case REARHAND:
-			result = 2;
-			break;
-		default:
-			throw new IllegalArgumentException(
-					"Trick forehand player is unknown.");
-		}
-
-		return result;
-	}
-
-	protected static int getNetworkInputIndex(final Card card) {
-
-		return card.getSuit().getSuitOrder() * 8 + card.getNullOrder();
+	protected static int getTrickOffset(int trickNoInGame) {
+		return trickNoInGame * (3 + 3 * 32);
 	}
 }
@@ -26,12 +26,9 @@ public class UnplayedCardsAndNextCardInputStrategy extends
 		UnplayedCardsInputStrategy {
 
 	@Override
-	public double[] getNetworkInput(ImmutablePlayerKnowledge knowledge, Card cardToPlay) {
+	public void setNextCardInputs(ImmutablePlayerKnowledge knowledge,
+			Card cardToPlay, double[] inputs, int offset) {
 
-		double[] result = super.getNetworkInput(knowledge, cardToPlay);
-
-		result[getNetworkInputIndex(cardToPlay)] = 0.0;
-
-		return result;
+		inputs[offset + getNetworkInputIndex(cardToPlay)] = 0.0;
 	}
 }
@@ -16,7 +16,6 @@
 package org.jskat.ai.nn.input;
 
 import org.jskat.player.ImmutablePlayerKnowledge;
-import org.jskat.util.Card;
 
 /**
  * Gets network inputs for unplayed cards by the player
@@ -25,16 +24,9 @@ public class UnplayedCardsForPlayerInputStrategy extends
 		AbstractCardInputStrategy {
 
 	@Override
-	public double[] getNetworkInput(ImmutablePlayerKnowledge knowledge, Card cardToPlay) {
+	public void setNetworkInputs(ImmutablePlayerKnowledge knowledge,
+			double[] inputs, int offset) {
 
-		double[] result = getEmptyInputs();
-
-		for (Card card : Card.values()) {
-			if (knowledge.isOwnCard(card)) {
-				result[getNetworkInputIndex(card)] = 1.0;
-			}
-		}
-
-		return result;
+		setCardInputs(knowledge.getOwnCardSet(), inputs, offset);
 	}
 }
@@ -16,7 +16,6 @@
 package org.jskat.ai.nn.input;
 
 import org.jskat.player.ImmutablePlayerKnowledge;
-import org.jskat.util.Card;
 
 /**
  * Gets the network inputs for unplayed cards in the game
@@ -24,16 +23,9 @@ import org.jskat.util.Card;
 public class UnplayedCardsInputStrategy extends AbstractCardInputStrategy {
 
 	@Override
-	public double[] getNetworkInput(ImmutablePlayerKnowledge knowledge, Card cardToPlay) {
+	public void setNetworkInputs(ImmutablePlayerKnowledge knowledge,
+			double[] inputs, int offset) {
 
-		double[] result = getEmptyInputs();
-
-		for (Card card : Card.values()) {
-			if (!knowledge.isCardPlayed(card)) {
-				result[getNetworkInputIndex(card)] = 1.0;
-			}
-		}
-
-		return result;
+		setCardInputs(~knowledge.getPlayedCardSet(), inputs, offset);
 	}
 }
@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn.train;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.jskat.ai.nn.data.SkatNetworks;
+import org.jskat.ai.nn.data.TrainingSample;
+import org.jskat.control.JSkatThread;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Takes training samples from a queue and adds them to the replay buffers of
+ * the neural networks<br />
+ * The networks are trained with mini batches from their replay buffers, see
+ * {@link SkatNetworks#addTrainingSample(org.jskat.util.GameType, boolean, int, double[], double[])}
+ * . If no samples arrive for a while all networks with new samples are
+ * trained, so no sample waits forever for a full batch.
+ */
+public class NNLearner extends JSkatThread {
+
+	private static Logger log = LoggerFactory.getLogger(NNLearner.class);
+
+	/**
+	 * Time in milliseconds to wait for new samples before pending samples are
+	 * trained
+	 */
+	private final static long FLUSH_TIMEOUT = 100;
+
+	private final BlockingQueue<TrainingSample> trainingSamples;
+
+	private volatile long trainedSamples = 0;
+	private volatile long trainedBatches = 0;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param newTrainingSamples
+	 *            Queue with the training samples
+	 */
+	public NNLearner(final BlockingQueue<TrainingSample> newTrainingSamples) {
+
+		trainingSamples = newTrainingSamples;
+		setName("NNLearner"); //$NON-NLS-1$
+	}
+
+	/**
+	 * @see java.lang.Thread#run()
+	 */
+	@Override
+	public void run() {
+
+		while (!isTerminated()) {
+			try {
+				TrainingSample sample = trainingSamples.poll(FLUSH_TIMEOUT,
+						TimeUnit.MILLISECONDS);
+				if (sample == null) {
+					trainAllPendingSamples();
+				} else {
+					addSample(sample);
+				}
+			} catch (InterruptedException e) {
+				log.debug("Learner was interrupted."); //$NON-NLS-1$
+				break;
+			}
+		}
+
+		// train the samples that are left
+		List<TrainingSample> remainingSamples = new ArrayList<TrainingSample>();
+		trainingSamples.drainTo(remainingSamples);
+		for (TrainingSample sample : remainingSamples) {
+			addSample(sample);
+		}
+		trainAllPendingSamples();
+	}
+
+	private void addSample(final TrainingSample sample) {
+
+		if (SkatNetworks.addTrainingSample(sample.getGameType(),
+				sample.isDeclarer(), sample.getTrickNoInGame(),
+				sample.getInputs(), sample.getOutputs())) {
+			trainedBatches++;
+		}
+		trainedSamples++;
+	}
+
+	private void trainAllPendingSamples() {
+		trainedBatches += SkatNetworks.trainNewSamples();
+	}
+
+	/**
+	 * Gets the number of samples added to the replay buffers
+	 * 
+	 * @return Number of samples
+	 */
+	public long getTrainedSamples() {
+		return trainedSamples;
+	}
+
+	/**
+	 * Gets the number of trained mini batches
+	 * 
+	 * @return Number of trained mini batches
+	 */
+	public long getTrainedBatches() {
+		return trainedBatches;
+	}
+}
@@ -20,16 +20,18 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 
 import org.jskat.ai.nn.AIPlayerNN;
+import org.jskat.ai.nn.data.SkatNetworks;
+import org.jskat.ai.nn.data.TrainingSample;
 import org.jskat.control.JSkatMaster;
 import org.jskat.control.JSkatThread;
-import org.jskat.control.SkatGame;
+import org.jskat.control.SkatGameEngine;
 import org.jskat.data.GameAnnouncement;
 import org.jskat.data.GameAnnouncement.GameAnnouncementFactory;
 import org.jskat.data.GameSummary;
 import org.jskat.data.SkatGameData.GameState;
-import org.jskat.gui.NullView;
 import org.jskat.player.JSkatPlayer;
 import org.jskat.util.CardDeck;
 import org.jskat.util.GameType;
@@ -54,7 +56,9 @@ public class NNTrainer extends JSkatThread {
 
 	private GameType gameType;
 
-	private boolean stopTraining = false;
+	private volatile boolean stopTraining = false;
+
+	private BlockingQueue<TrainingSample> trainingSamples;
 
 	/**
 	 * Constructor
@@ -78,6 +82,20 @@ public class NNTrainer extends JSkatThread {
 		setName("NNTrainer for " + gameType); //$NON-NLS-1$
 	}
 
+	/**
+	 * Sets a queue for the training samples<br />
+	 * With a queue the neural network players hand over their training
+	 * samples instead of adjusting the networks themselves.
+	 * 
+	 * @param newTrainingSamples
+	 *            Queue for the training samples
+	 */
+	public void setTrainingSamples(
+			final BlockingQueue<TrainingSample> newTrainingSamples) {
+
+		trainingSamples = newTrainingSamples;
+	}
+
 	/**
 	 * @see java.lang.Thread#run()
 	 */
@@ -115,7 +133,11 @@ public class NNTrainer extends JSkatThread {
 
 		while (!stopTraining) {
 
-			if (totalGames > 0) {
+			if (totalGames > 0 && trainingSamples != null) {
+				// networks are adjusted by the learners
+				jskat.addTrainingResult(gameType, totalGames, totalWonGames,
+						getLastNetworkError(true), getLastNetworkError(false));
+			} else if (totalGames > 0) {
 				if (opponentParticipations == 0) {
 					// for ramsch games
 					jskat.addTrainingResult(gameType, totalGames,
@@ -139,9 +161,9 @@ public class NNTrainer extends JSkatThread {
 					JSkatPlayer player3 = createPlayer(playerConstellation
 							.get(2));
 
-					SkatGame game = prepareGame(player1, player2, player3,
+					SkatGameEngine game = prepareGame(player1, player2, player3,
 							declarer, null);
-					// SkatGame game = prepareGame(player1, player2, player3,
+					// SkatGameEngine game = prepareGame(player1, player2, player3,
 					// Player.FOREHAND, getPerfectDistribution());
 
 					runGame(game);
@@ -206,13 +228,25 @@ public class NNTrainer extends JSkatThread {
 		if (NEURAL_NETWORK_PLAYER_CLASS.equals(playerType)) {
 			AIPlayerNN nnPlayer = (AIPlayerNN) player;
 			nnPlayer.setIsLearning(true);
+			nnPlayer.setTrainingSamples(trainingSamples);
 			nnPlayer.setLogger(NOPLogger.NOP_LOGGER);
 		}
 
 		return player;
 	}
 
-	private boolean isGameWon(final Player currPlayer, final SkatGame game) {
+	private double getLastNetworkError(final boolean isDeclarer) {
+
+		double errorSum = 0.0;
+		for (int trick = 0; trick < 10; trick++) {
+			errorSum += SkatNetworks.getNetwork(gameType, isDeclarer, trick)
+					.getLastError();
+		}
+		return errorSum / 10;
+	}
+
+	private boolean isGameWon(final Player currPlayer,
+			final SkatGameEngine game) {
 
 		// FIXME (jansch 28.06.2011) have to call getGameResult() to get
 		// the result
@@ -227,25 +261,18 @@ public class NNTrainer extends JSkatThread {
 		return gameWon;
 	}
 
-	private void runGame(final SkatGame game) {
-		game.start();
-		try {
-			game.join();
-		} catch (InterruptedException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
+	private void runGame(final SkatGameEngine game) {
+		game.play();
 	}
 
-	private SkatGame prepareGame(final JSkatPlayer player1,
+	private SkatGameEngine prepareGame(final JSkatPlayer player1,
 			final JSkatPlayer player2, final JSkatPlayer player3,
 			final Player declarer, final CardDeck cardDeck) {
 		player1.newGame(Player.FOREHAND);
 		player2.newGame(Player.MIDDLEHAND);
 		player3.newGame(Player.REARHAND);
-		SkatGame game = new SkatGame("table", GameVariant.STANDARD, player1,
-				player2, player3);
-		game.setView(new NullView());
+		SkatGameEngine game = new SkatGameEngine("table",
+				GameVariant.STANDARD, player1, player2, player3);
 		game.setLogger(NOPLogger.NOP_LOGGER);
 
 		if (cardDeck != null) {
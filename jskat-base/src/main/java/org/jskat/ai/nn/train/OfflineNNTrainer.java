@@ -0,0 +1,560 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn.train;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.jskat.ai.nn.data.PlayerParty;
+import org.jskat.ai.nn.data.SkatNetworks;
+import org.jskat.ai.nn.data.TrainingSample;
+import org.jskat.ai.nn.util.INeuralNetwork;
+import org.jskat.control.iss.IssGameArchive;
+import org.jskat.control.iss.IssGameArchive.ArchiveGame;
+import org.jskat.data.SkatGameData;
+import org.jskat.data.record.GameRecordStore;
+import org.jskat.util.GameType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Trains the neural networks offline from recorded games<br />
+ * The games are read in rounds of {@link #setGamesPerRound(int)} games. The
+ * training samples of a round are created in parallel with
+ * {@link TrainingSampleExtractor}, sharded by game type, player party and
+ * trick like the networks in {@link SkatNetworks} and every shard trains its
+ * network with shuffled mini batches. The shards are independent, so all
+ * networks of a round are trained in parallel.<br />
+ * &nbsp;<br />
+ * If a checkpoint path is set, the networks and the number of processed games
+ * are saved every {@link #setCheckpointInterval(long)} games and when the
+ * training ends. {@link #resume()} loads the last checkpoint, the next
+ * training skips the games that were already processed.
+ */
+public class OfflineNNTrainer {
+
+	private static Logger log = LoggerFactory.getLogger(OfflineNNTrainer.class);
+
+	/**
+	 * File name of the checkpoint in the checkpoint path
+	 */
+	public final static String CHECKPOINT_FILE_NAME = "jskat.offline.properties"; //$NON-NLS-1$
+
+	private final static String BUNDLE_FILE_NAME = "jskat.offline.%012d.nnb"; //$NON-NLS-1$
+
+	private final static String PROCESSED_GAMES = "processedGames"; //$NON-NLS-1$
+	private final static String TRAINED_SAMPLES = "trainedSamples"; //$NON-NLS-1$
+	private final static String TRAINED_BATCHES = "trainedBatches"; //$NON-NLS-1$
+	private final static String BUNDLE = "bundle"; //$NON-NLS-1$
+
+	private final static int TRICKS = 10;
+
+	private final static int SHARD_COUNT = GameType.values().length
+			* PlayerParty.values().length * TRICKS;
+
+	private int threadCount = Runtime.getRuntime().availableProcessors();
+	private int batchSize = 32;
+	private int gamesPerRound = 100;
+	private long checkpointInterval = 10000;
+	private File checkpointPath;
+
+	private final Random random;
+
+	private volatile boolean stopTraining = false;
+
+	private volatile long processedGames = 0;
+	private volatile long trainedSamples = 0;
+	private volatile long trainedBatches = 0;
+
+	private long lastCheckpointGames = 0;
+	private String lastCheckpointBundle;
+
+	/**
+	 * Constructor
+	 */
+	public OfflineNNTrainer() {
+		this(new Random());
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param newRandom
+	 *            Random generator for shuffling the mini batches
+	 */
+	public OfflineNNTrainer(final Random newRandom) {
+		random = newRandom;
+		// make sure the networks are created
+		SkatNetworks.instance();
+	}
+
+	/**
+	 * Loads the last checkpoint from the checkpoint path<br />
+	 * The networks of the checkpoint replace the current networks.
+	 * 
+	 * @return TRUE, if a checkpoint was found
+	 * @throws IOException
+	 *             If the checkpoint can't be read
+	 */
+	public boolean resume() throws IOException {
+
+		if (checkpointPath == null) {
+			throw new IllegalStateException("No checkpoint path set."); //$NON-NLS-1$
+		}
+
+		File checkpointFile = new File(checkpointPath, CHECKPOINT_FILE_NAME);
+		if (!checkpointFile.exists()) {
+			return false;
+		}
+
+		Properties checkpoint = new Properties();
+		InputStream input = new FileInputStream(checkpointFile);
+		try {
+			checkpoint.load(input);
+		} finally {
+			input.close();
+		}
+
+		String bundle = checkpoint.getProperty(BUNDLE);
+		if (bundle == null) {
+			throw new IOException("Checkpoint " + checkpointFile //$NON-NLS-1$
+					+ " has no network bundle."); //$NON-NLS-1$
+		}
+		try {
+			processedGames = Long.parseLong(checkpoint.getProperty(
+					PROCESSED_GAMES, "0")); //$NON-NLS-1$
+			trainedSamples = Long.parseLong(checkpoint.getProperty(
+					TRAINED_SAMPLES, "0")); //$NON-NLS-1$
+			trainedBatches = Long.parseLong(checkpoint.getProperty(
+					TRAINED_BATCHES, "0")); //$NON-NLS-1$
+		} catch (NumberFormatException e) {
+			throw new IOException("Checkpoint " + checkpointFile //$NON-NLS-1$
+					+ " is invalid.", e); //$NON-NLS-1$
+		}
+		SkatNetworks.loadNetworks(new File(checkpointPath, bundle));
+
+		lastCheckpointGames = processedGames;
+		lastCheckpointBundle = bundle;
+
+		log.debug("Resuming after " + processedGames + " games."); //$NON-NLS-1$ //$NON-NLS-2$
+		return true;
+	}
+
+	/**
+	 * Trains the networks with the games of an ISS game archive<br />
+	 * The moves of the games are always parsed.
+	 * 
+	 * @param archive
+	 *            Game archive
+	 * @throws IOException
+	 *             If the archive can't be read or the checkpoint can't be
+	 *             written
+	 */
+	public void train(final IssGameArchive archive) throws IOException {
+
+		archive.setParseMoves(true);
+		final Iterator<ArchiveGame> archiveGames = archive.iterator();
+		try {
+			train(new Iterator<SkatGameData>() {
+				@Override
+				public boolean hasNext() {
+					return archiveGames.hasNext();
+				}
+
+				@Override
+				public SkatGameData next() {
+					return archiveGames.next().getGameData();
+				}
+
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException();
+				}
+			});
+		} catch (IllegalStateException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Trains the networks with the games of a game record store<br />
+	 * The store is read from the first game that was not processed yet.
+	 * 
+	 * @param store
+	 *            Game record store
+	 * @throws IOException
+	 *             If the store can't be read or the checkpoint can't be
+	 *             written
+	 */
+	public void train(final GameRecordStore store) throws IOException {
+
+		List<SkatGameData> round = new ArrayList<SkatGameData>(gamesPerRound);
+		ForkJoinPool pool = new ForkJoinPool(threadCount);
+		try {
+			long gameNumber = processedGames;
+			while (!stopTraining && gameNumber < store.size()) {
+				round.add(store.read(gameNumber).toGameData());
+				gameNumber++;
+				if (round.size() == gamesPerRound) {
+					trainRound(pool, round);
+				}
+			}
+			trainRound(pool, round);
+		} finally {
+			pool.shutdown();
+		}
+		saveCheckpoint();
+	}
+
+	/**
+	 * Trains the networks with recorded games<br />
+	 * The games that were already processed before the last checkpoint are
+	 * skipped.
+	 * 
+	 * @param games
+	 *            Finished games
+	 * @throws IOException
+	 *             If the checkpoint can't be written
+	 */
+	public void train(final Iterator<SkatGameData> games) throws IOException {
+
+		for (long i = 0; i < processedGames && games.hasNext(); i++) {
+			games.next();
+		}
+
+		List<SkatGameData> round = new ArrayList<SkatGameData>(gamesPerRound);
+		ForkJoinPool pool = new ForkJoinPool(threadCount);
+		try {
+			while (!stopTraining && games.hasNext()) {
+				round.add(games.next());
+				if (round.size() == gamesPerRound) {
+					trainRound(pool, round);
+				}
+			}
+			trainRound(pool, round);
+		} finally {
+			pool.shutdown();
+		}
+		saveCheckpoint();
+	}
+
+	/**
+	 * Stops the training after the current round<br />
+	 * The running train method saves a checkpoint and returns.
+	 */
+	public void stopTraining() {
+		stopTraining = true;
+	}
+
+	private void trainRound(final ForkJoinPool pool,
+			final List<SkatGameData> round) throws IOException {
+
+		if (round.isEmpty()) {
+			return;
+		}
+
+		int slices = Math.min(threadCount, round.size());
+		List<ExtractionTask> extractionTasks = new ArrayList<ExtractionTask>();
+		for (int i = 0; i < slices; i++) {
+			extractionTasks.add(new ExtractionTask(round.subList(round.size()
+					* i / slices, round.size() * (i + 1) / slices)));
+		}
+
+		List<List<TrainingSample>> shards = new ArrayList<List<TrainingSample>>();
+		for (int i = 0; i < SHARD_COUNT; i++) {
+			shards.add(new ArrayList<TrainingSample>());
+		}
+		for (ExtractionTask task : invokeAll(pool, extractionTasks)) {
+			for (TrainingSample sample : task.samples) {
+				shards.get(getShard(sample)).add(sample);
+			}
+		}
+
+		List<ShardTrainingTask> trainingTasks = new ArrayList<ShardTrainingTask>();
+		for (List<TrainingSample> shard : shards) {
+			if (!shard.isEmpty()) {
+				trainingTasks.add(new ShardTrainingTask(shard, new Random(
+						random.nextLong())));
+			}
+		}
+		for (ShardTrainingTask task : invokeAll(pool, trainingTasks)) {
+			trainedSamples += task.samples.size();
+			trainedBatches += task.batches;
+		}
+
+		processedGames += round.size();
+		round.clear();
+
+		if (checkpointInterval > 0
+				&& processedGames - lastCheckpointGames >= checkpointInterval) {
+			saveCheckpoint();
+		}
+	}
+
+	private static <T extends Callable<T>> List<T> invokeAll(
+			final ForkJoinPool pool, final List<T> tasks) throws IOException {
+
+		List<T> result = new ArrayList<T>(tasks.size());
+		try {
+			for (Future<T> task : pool.invokeAll(tasks)) {
+				result.add(task.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Training was interrupted.", e); //$NON-NLS-1$
+		} catch (ExecutionException e) {
+			throw new IOException("Training failed.", e.getCause()); //$NON-NLS-1$
+		}
+		return result;
+	}
+
+	private static int getShard(final TrainingSample sample) {
+
+		PlayerParty party = PlayerParty.OPPONENT;
+		if (GameType.RAMSCH.equals(sample.getGameType())
+				|| sample.isDeclarer()) {
+			party = PlayerParty.DECLARER;
+		}
+		return (sample.getGameType().ordinal() * PlayerParty.values().length + party
+				.ordinal()) * TRICKS + sample.getTrickNoInGame();
+	}
+
+	/**
+	 * Saves the networks and the number of processed games<br />
+	 * The networks are written into a new bundle file before the checkpoint
+	 * file is replaced, so an interrupted checkpoint leaves the last one
+	 * intact.
+	 */
+	private void saveCheckpoint() throws IOException {
+
+		if (checkpointPath == null) {
+			return;
+		}
+
+		String bundle = String.format(BUNDLE_FILE_NAME,
+				Long.valueOf(processedGames));
+		if (bundle.equals(lastCheckpointBundle)) {
+			// nothing new since the last checkpoint
+			return;
+		}
+
+		log.debug("Saving checkpoint after " + processedGames + " games to " + checkpointPath); //$NON-NLS-1$ //$NON-NLS-2$
+
+		SkatNetworks.saveNetworks(new File(checkpointPath, bundle));
+
+		Properties checkpoint = new Properties();
+		checkpoint.setProperty(PROCESSED_GAMES, Long.toString(processedGames));
+		checkpoint.setProperty(TRAINED_SAMPLES, Long.toString(trainedSamples));
+		checkpoint.setProperty(TRAINED_BATCHES, Long.toString(trainedBatches));
+		checkpoint.setProperty(BUNDLE, bundle);
+
+		File checkpointFile = new File(checkpointPath, CHECKPOINT_FILE_NAME);
+		File tempFile = new File(checkpointPath, CHECKPOINT_FILE_NAME + ".tmp"); //$NON-NLS-1$
+		OutputStream output = new FileOutputStream(tempFile);
+		try {
+			checkpoint.store(output, "JSkat offline training"); //$NON-NLS-1$
+		} finally {
+			output.close();
+		}
+		Files.move(tempFile.toPath(), checkpointFile.toPath(),
+				StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+
+		if (lastCheckpointBundle != null
+				&& !new File(checkpointPath, lastCheckpointBundle).delete()) {
+			log.warn("Could not delete old network bundle " + lastCheckpointBundle); //$NON-NLS-1$
+		}
+		lastCheckpointBundle = bundle;
+		lastCheckpointGames = processedGames;
+	}
+
+	/**
+	 * Sets the number of threads
+	 * 
+	 * @param newThreadCount
+	 *            Number of threads
+	 */
+	public void setThreadCount(final int newThreadCount) {
+		if (newThreadCount < 1) {
+			throw new IllegalArgumentException(
+					"Thread count must be greater than 0."); //$NON-NLS-1$
+		}
+		threadCount = newThreadCount;
+	}
+
+	/**
+	 * Sets the number of samples per mini batch
+	 * 
+	 * @param newBatchSize
+	 *            Batch size
+	 */
+	public void setBatchSize(final int newBatchSize) {
+		if (newBatchSize < 1) {
+			throw new IllegalArgumentException(
+					"Batch size must be greater than 0."); //$NON-NLS-1$
+		}
+		batchSize = newBatchSize;
+	}
+
+	/**
+	 * Sets the number of games that are trained together<br />
+	 * All samples of a round are held in memory, a game gives about 30
+	 * samples.
+	 * 
+	 * @param newGamesPerRound
+	 *            Number of games per round
+	 */
+	public void setGamesPerRound(final int newGamesPerRound) {
+		if (newGamesPerRound < 1) {
+			throw new IllegalArgumentException(
+					"Games per round must be greater than 0."); //$NON-NLS-1$
+		}
+		gamesPerRound = newGamesPerRound;
+	}
+
+	/**
+	 * Sets the number of games between two checkpoints
+	 * 
+	 * @param newCheckpointInterval
+	 *            Number of games, 0 saves a checkpoint only at the end of the
+	 *            training
+	 */
+	public void setCheckpointInterval(final long newCheckpointInterval) {
+		checkpointInterval = newCheckpointInterval;
+	}
+
+	/**
+	 * Sets the path for the checkpoints
+	 * 
+	 * @param newCheckpointPath
+	 *            Directory for the checkpoint files, NULL disables the
+	 *            checkpoints
+	 */
+	public void setCheckpointPath(final File newCheckpointPath) {
+		checkpointPath = newCheckpointPath;
+	}
+
+	/**
+	 * Gets the number of processed games, including the games before the last
+	 * resume
+	 * 
+	 * @return Number of processed games
+	 */
+	public long getProcessedGames() {
+		return processedGames;
+	}
+
+	/**
+	 * Gets the number of trained samples
+	 * 
+	 * @return Number of trained samples
+	 */
+	public long getTrainedSamples() {
+		return trainedSamples;
+	}
+
+	/**
+	 * Gets the number of trained mini batches
+	 * 
+	 * @return Number of trained mini batches
+	 */
+	public long getTrainedBatches() {
+		return trainedBatches;
+	}
+
+	/**
+	 * Creates the training samples of a part of a round
+	 */
+	private final static class ExtractionTask implements
+			Callable<ExtractionTask> {
+
+		private final List<SkatGameData> games;
+		private final List<TrainingSample> samples = new ArrayList<TrainingSample>();
+
+		private ExtractionTask(final List<SkatGameData> newGames) {
+			games = newGames;
+		}
+
+		@Override
+		public ExtractionTask call() {
+			TrainingSampleExtractor extractor = new TrainingSampleExtractor();
+			for (SkatGameData game : games) {
+				extractor.extractSamples(game, samples);
+			}
+			return this;
+		}
+	}
+
+	/**
+	 * Trains the network of a shard with mini batches
+	 */
+	private final class ShardTrainingTask implements
+			Callable<ShardTrainingTask> {
+
+		private final List<TrainingSample> samples;
+		private final Random shuffleRandom;
+		private long batches = 0;
+
+		private ShardTrainingTask(final List<TrainingSample> newSamples,
+				final Random newShuffleRandom) {
+			samples = newSamples;
+			shuffleRandom = newShuffleRandom;
+		}
+
+		@Override
+		public ShardTrainingTask call() {
+
+			Collections.shuffle(samples, shuffleRandom);
+
+			TrainingSample first = samples.get(0);
+			INeuralNetwork net = SkatNetworks.getNetwork(first.getGameType(),
+					first.isDeclarer(), first.getTrickNoInGame());
+
+			for (int start = 0; start < samples.size(); start += batchSize) {
+				int rows = Math.min(batchSize, samples.size() - start);
+				double[][] inputs = new double[rows][];
+				double[][] outputs = new double[rows][];
+				for (int i = 0; i < rows; i++) {
+					TrainingSample sample = samples.get(start + i);
+					inputs[i] = sample.getInputs();
+					outputs[i] = sample.getOutputs();
+				}
+				net.adjustWeights(inputs, outputs);
+				batches++;
+			}
+			return this;
+		}
+	}
+}
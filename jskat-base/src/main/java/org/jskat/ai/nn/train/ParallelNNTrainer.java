@@ -0,0 +1,275 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn.train;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.jskat.ai.nn.data.SkatNetworks;
+import org.jskat.util.GameType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Trains the neural networks with several self play workers and learners<br />
+ * The workers ({@link NNTrainer}) play games and put the training samples of
+ * the neural network players into a bounded queue. The learners
+ * ({@link NNLearner}) take the samples from the queue and adjust the networks
+ * with mini batches from their replay buffers. If the learners fall behind,
+ * the workers block on the full queue. The networks are saved periodically if
+ * a checkpoint path is set.
+ */
+public class ParallelNNTrainer {
+
+	private static Logger log = LoggerFactory
+			.getLogger(ParallelNNTrainer.class);
+
+	private final static int QUEUE_CAPACITY = 10000;
+
+	/**
+	 * Time in milliseconds to wait for all workers and for all learners to
+	 * stop
+	 */
+	private final static long STOP_TIMEOUT = 30000;
+
+	private int workersPerGameType = 1;
+	private int learnerCount = 1;
+	private int batchSize = 32;
+	private long checkpointInterval = 10;
+	private String checkpointPath;
+
+	private final List<NNTrainer> workers = new ArrayList<NNTrainer>();
+	private final List<NNLearner> learners = new ArrayList<NNLearner>();
+	private ScheduledExecutorService checkpointScheduler;
+	private TrainingSampleQueue trainingSamples;
+	private boolean stopping = false;
+
+	/**
+	 * Starts the training
+	 * 
+	 * @param gameTypes
+	 *            Game types to train
+	 */
+	public synchronized void start(final List<GameType> gameTypes) {
+
+		if (isRunning()) {
+			throw new IllegalStateException("Training is already running."); //$NON-NLS-1$
+		}
+
+		SkatNetworks.setBatchSize(batchSize);
+
+		trainingSamples = new TrainingSampleQueue(QUEUE_CAPACITY);
+
+		for (int i = 0; i < learnerCount; i++) {
+			NNLearner learner = new NNLearner(trainingSamples);
+			learner.setName("NNLearner " + i); //$NON-NLS-1$
+			learner.start();
+			learners.add(learner);
+		}
+
+		for (GameType gameType : gameTypes) {
+			for (int i = 0; i < workersPerGameType; i++) {
+				NNTrainer worker = new NNTrainer();
+				worker.setGameType(gameType);
+				worker.setTrainingSamples(trainingSamples);
+				worker.start();
+				workers.add(worker);
+			}
+		}
+
+		if (checkpointPath != null && checkpointInterval > 0) {
+			checkpointScheduler = Executors
+					.newSingleThreadScheduledExecutor(new ThreadFactory() {
+						@Override
+						public Thread newThread(final Runnable runnable) {
+							Thread thread = new Thread(runnable,
+									"NNTrainer checkpoints"); //$NON-NLS-1$
+							thread.setDaemon(true);
+							return thread;
+						}
+					});
+			checkpointScheduler.scheduleWithFixedDelay(new Runnable() {
+				@Override
+				public void run() {
+					saveCheckpoint();
+				}
+			}, checkpointInterval, checkpointInterval, TimeUnit.MINUTES);
+		}
+
+		log.debug("Started " + workers.size() + " workers and " + learners.size() + " learners."); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	/**
+	 * Stops the training<br />
+	 * The method only signals the stop. The workers finish their current
+	 * games, the learners train all samples left in the queue and a last
+	 * checkpoint is saved in the background. The training counts as running
+	 * until this is done.
+	 */
+	public synchronized void stop() {
+
+		if (stopping || !isRunning()) {
+			return;
+		}
+		stopping = true;
+
+		// workers that don't stop in time can't fill the queue anymore
+		trainingSamples.close();
+		for (NNTrainer worker : workers) {
+			worker.stopTraining(true);
+			// wakes up workers waiting for space in the queue
+			worker.terminate();
+		}
+
+		final boolean isSaveCheckpoint = checkpointScheduler != null;
+		if (checkpointScheduler != null) {
+			checkpointScheduler.shutdownNow();
+			checkpointScheduler = null;
+		}
+
+		final List<NNTrainer> stoppedWorkers = new ArrayList<NNTrainer>(
+				workers);
+		final List<NNLearner> stoppedLearners = new ArrayList<NNLearner>(
+				learners);
+		Thread shutdown = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				finishTraining(stoppedWorkers, stoppedLearners,
+						isSaveCheckpoint);
+			}
+		}, "NNTrainer shutdown"); //$NON-NLS-1$
+		shutdown.start();
+	}
+
+	private void finishTraining(final List<NNTrainer> stoppedWorkers,
+			final List<NNLearner> stoppedLearners,
+			final boolean isSaveCheckpoint) {
+
+		try {
+			// the learners train the samples of the last games
+			joinAll(stoppedWorkers, STOP_TIMEOUT);
+			for (NNLearner learner : stoppedLearners) {
+				learner.terminate();
+			}
+			joinAll(stoppedLearners, STOP_TIMEOUT);
+
+			if (isSaveCheckpoint) {
+				saveCheckpoint();
+			}
+		} catch (InterruptedException e) {
+			log.warn("Interrupted while stopping the training."); //$NON-NLS-1$
+		} finally {
+			synchronized (this) {
+				workers.clear();
+				learners.clear();
+				stopping = false;
+			}
+		}
+	}
+
+	private static void joinAll(final List<? extends Thread> threads,
+			final long timeout) throws InterruptedException {
+
+		long deadline = System.currentTimeMillis() + timeout;
+		for (Thread thread : threads) {
+			thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+			if (thread.isAlive()) {
+				log.warn(thread.getName() + " did not stop in time."); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * Checks whether the training is running
+	 * 
+	 * @return TRUE, if the training is running or is still stopping
+	 */
+	public synchronized boolean isRunning() {
+		return !workers.isEmpty() || !learners.isEmpty();
+	}
+
+	/**
+	 * Gets the number of samples trained by all learners
+	 * 
+	 * @return Number of trained samples
+	 */
+	public synchronized long getTrainedSamples() {
+		long result = 0;
+		for (NNLearner learner : learners) {
+			result += learner.getTrainedSamples();
+		}
+		return result;
+	}
+
+	private void saveCheckpoint() {
+		log.debug("Saving neural networks to " + checkpointPath); //$NON-NLS-1$
+		SkatNetworks.saveNetworks(checkpointPath);
+	}
+
+	/**
+	 * Sets the number of self play workers per game type
+	 * 
+	 * @param newWorkersPerGameType
+	 *            Number of workers per game type
+	 */
+	public void setWorkersPerGameType(final int newWorkersPerGameType) {
+		workersPerGameType = newWorkersPerGameType;
+	}
+
+	/**
+	 * Sets the number of learner threads
+	 * 
+	 * @param newLearnerCount
+	 *            Number of learners
+	 */
+	public void setLearnerCount(final int newLearnerCount) {
+		learnerCount = newLearnerCount;
+	}
+
+	/**
+	 * Sets the number of samples per mini batch
+	 * 
+	 * @param newBatchSize
+	 *            Batch size
+	 */
+	public void setBatchSize(final int newBatchSize) {
+		batchSize = newBatchSize;
+	}
+
+	/**
+	 * Sets the interval between two checkpoints
+	 * 
+	 * @param newCheckpointInterval
+	 *            Interval in minutes, 0 disables the checkpoints
+	 */
+	public void setCheckpointInterval(final long newCheckpointInterval) {
+		checkpointInterval = newCheckpointInterval;
+	}
+
+	/**
+	 * Sets the path for the checkpoints
+	 * 
+	 * @param newCheckpointPath
+	 *            Path for the network files, NULL disables the checkpoints
+	 */
+	public void setCheckpointPath(final String newCheckpointPath) {
+		checkpointPath = newCheckpointPath;
+	}
+}
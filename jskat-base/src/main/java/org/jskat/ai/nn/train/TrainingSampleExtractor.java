@@ -0,0 +1,236 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn.train;
+
+import java.util.List;
+
+import org.jskat.ai.nn.AIPlayerNN;
+import org.jskat.ai.nn.data.TrainingSample;
+import org.jskat.ai.nn.input.GenericNetworkInputGenerator;
+import org.jskat.data.GameAnnouncement;
+import org.jskat.data.SkatGameData;
+import org.jskat.data.Trick;
+import org.jskat.player.PlayerKnowledge;
+import org.jskat.util.Card;
+import org.jskat.util.CardList;
+import org.jskat.util.CardSet;
+import org.jskat.util.GameType;
+import org.jskat.util.Player;
+import org.jskat.util.rule.SkatRule;
+import org.jskat.util.rule.SkatRuleFactory;
+
+/**
+ * Creates training samples from recorded games<br />
+ * A game is replayed through one {@link PlayerKnowledge} per player, the same
+ * way {@link org.jskat.player.AbstractJSkatPlayer} keeps its knowledge during
+ * a live game. For every played card the network inputs are created with
+ * {@link GenericNetworkInputGenerator} just before the card is played, the
+ * desired output is the outcome of the game for the player, like
+ * {@link AIPlayerNN} learns it.<br />
+ * &nbsp;<br />
+ * Passed in games, games without a complete deal and games without a
+ * declarer give no samples. Only complete tricks are replayed.<br />
+ * &nbsp;<br />
+ * An extractor is not thread safe, every thread needs its own instance.
+ */
+public class TrainingSampleExtractor {
+
+	private final GenericNetworkInputGenerator inputGenerator = new GenericNetworkInputGenerator();
+
+	private final PlayerKnowledge[] knowledges = new PlayerKnowledge[Player
+			.values().length];
+
+	private final Trick[] currentTricks = new Trick[Player.values().length];
+
+	/**
+	 * Constructor
+	 */
+	public TrainingSampleExtractor() {
+		for (int i = 0; i < knowledges.length; i++) {
+			knowledges[i] = new PlayerKnowledge();
+		}
+	}
+
+	/**
+	 * Creates the training samples of a game
+	 * 
+	 * @param gameData
+	 *            Game data of a finished game
+	 * @param samples
+	 *            List the samples are added to
+	 * @return Number of added samples
+	 */
+	public int extractSamples(final SkatGameData gameData,
+			final List<TrainingSample> samples) {
+
+		if (!isReplayable(gameData)) {
+			return 0;
+		}
+
+		GameType gameType = gameData.getGameType();
+		SkatRule rules = SkatRuleFactory.getSkatRules(gameType);
+		List<Trick> tricks = gameData.getTricks();
+		Player[] trickWinners = new Player[tricks.size()];
+		int completeTricks = 0;
+		int[] points = new int[Player.values().length];
+		while (completeTricks < tricks.size()
+				&& tricks.get(completeTricks).getThirdCard() != null) {
+			Trick trick = tricks.get(completeTricks);
+			Player winner = trick.getTrickWinner();
+			if (winner == null) {
+				winner = rules.calculateTrickWinner(gameType, trick);
+			}
+			trickWinners[completeTricks] = winner;
+			points[winner.ordinal()] += trick.getValue();
+			completeTricks++;
+		}
+
+		double[][] outputs = new double[Player.values().length][];
+		for (Player player : Player.values()) {
+			outputs[player.ordinal()] = new double[] { getOutput(gameData,
+					player, points) };
+			prepareKnowledge(gameData, player);
+		}
+
+		int samplesBefore = samples.size();
+		for (int i = 0; i < completeTricks; i++) {
+			Trick trick = tricks.get(i);
+			for (Player player : Player.values()) {
+				Trick currentTrick = new Trick(trick.getTrickNumberInGame(),
+						trick.getForeHand());
+				currentTricks[player.ordinal()] = currentTrick;
+				knowledges[player.ordinal()].setCurrentTrick(currentTrick);
+			}
+
+			playCard(gameType, trick.getForeHand(),
+					trick.getFirstCard(), outputs, samples);
+			playCard(gameType, trick.getMiddleHand(),
+					trick.getSecondCard(), outputs, samples);
+			playCard(gameType, trick.getRearHand(),
+					trick.getThirdCard(), outputs, samples);
+
+			for (Player player : Player.values()) {
+				Trick currentTrick = currentTricks[player.ordinal()];
+				currentTrick.setTrickWinner(trickWinners[i]);
+				knowledges[player.ordinal()].addTrick(currentTrick);
+				knowledges[player.ordinal()].clearTrickCards();
+			}
+		}
+
+		return samples.size() - samplesBefore;
+	}
+
+	private static boolean isReplayable(final SkatGameData gameData) {
+
+		GameAnnouncement announcement = gameData.getAnnoucement();
+		if (announcement == null || announcement.getGameType() == null
+				|| GameType.PASSED_IN.equals(announcement.getGameType())
+				|| gameData.getDeclarer() == null) {
+			return false;
+		}
+		for (Player player : Player.values()) {
+			if (gameData.getDealtCards().get(player).size() != 10) {
+				return false;
+			}
+		}
+		return gameData.getDealtSkat().size() == 2;
+	}
+
+	private void prepareKnowledge(final SkatGameData gameData,
+			final Player player) {
+
+		PlayerKnowledge knowledge = knowledges[player.ordinal()];
+		GameAnnouncement announcement = gameData.getAnnoucement();
+		Player declarer = gameData.getDeclarer();
+
+		knowledge.initializeVariables();
+		knowledge.setPlayerPosition(player);
+		knowledge.addOwnCards(gameData.getDealtCards().get(player));
+		for (Player bidder : Player.values()) {
+			knowledge.setHighestBid(bidder,
+					Integer.valueOf(gameData.getMaxPlayerBid(bidder)));
+		}
+
+		CardList dealtSkat = gameData.getDealtSkat();
+		CardList discardedSkat = gameData.getSkat();
+		// the skat can be changed even if a hand game was announced
+		if (player == declarer
+				&& !GameType.RAMSCH.equals(announcement.getGameType())
+				&& (!announcement.isHand() || CardSet.of(discardedSkat) != CardSet
+						.of(dealtSkat))) {
+			knowledge.setSkat(dealtSkat);
+			knowledge.addOwnCards(dealtSkat);
+			knowledge.removeOwnCards(discardedSkat);
+			knowledge.setSkat(discardedSkat);
+		}
+
+		knowledge.setDeclarer(declarer);
+		knowledge.setGame(announcement);
+
+		if (announcement.isOuvert() && player != declarer) {
+			knowledge.setSinglePlayerCards(gameData.getCardsAfterDiscard()
+					.get(declarer));
+		}
+	}
+
+	private void playCard(final GameType gameType, final Player cardPlayer,
+			final Card card, final double[][] outputs,
+			final List<TrainingSample> samples) {
+
+		PlayerKnowledge playerKnowledge = knowledges[cardPlayer.ordinal()];
+		double[] inputs = new double[GenericNetworkInputGenerator
+				.getNeuronCountForAllStrategies()];
+		inputGenerator.getNetInputs(playerKnowledge, card, inputs);
+		samples.add(new TrainingSample(gameType, isDeclarer(gameType,
+				playerKnowledge), playerKnowledge.getCurrentTrickNumber(),
+				inputs, outputs[cardPlayer.ordinal()]));
+
+		for (Player player : Player.values()) {
+			PlayerKnowledge knowledge = knowledges[player.ordinal()];
+			knowledge.setCardPlayed(cardPlayer, card);
+			if (player == cardPlayer) {
+				knowledge.removeOwnCard(card);
+			} else {
+				knowledge.removeCard(card);
+			}
+		}
+	}
+
+	private static boolean isDeclarer(final GameType gameType,
+			final PlayerKnowledge knowledge) {
+		return GameType.RAMSCH.equals(gameType)
+				|| knowledge.getPlayerPosition() == knowledge.getDeclarer();
+	}
+
+	private static double getOutput(final SkatGameData gameData,
+			final Player player, final int[] points) {
+
+		boolean won;
+		if (GameType.RAMSCH.equals(gameData.getGameType())) {
+			// same rule as AIPlayerNN, the player with the most points loses
+			int highestPoints = 0;
+			for (int playerPoints : points) {
+				highestPoints = Math.max(highestPoints, playerPoints);
+			}
+			won = highestPoints > points[player.ordinal()];
+		} else if (player == gameData.getDeclarer()) {
+			won = gameData.isGameWon();
+		} else {
+			won = !gameData.isGameWon();
+		}
+		return won ? AIPlayerNN.WON : AIPlayerNN.LOST;
+	}
+}
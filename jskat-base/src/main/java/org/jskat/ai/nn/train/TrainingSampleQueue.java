@@ -0,0 +1,78 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn.train;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.jskat.ai.nn.data.TrainingSample;
+
+/**
+ * Bounded queue for the training samples of the self play workers<br />
+ * After the queue is closed, new samples are dropped instead of being put
+ * into the queue, so the workers never block on a queue without learners.
+ */
+class TrainingSampleQueue extends ArrayBlockingQueue<TrainingSample> {
+
+	private static final long serialVersionUID = 1L;
+
+	private volatile boolean closed = false;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param capacity
+	 *            Maximum number of samples in the queue
+	 */
+	TrainingSampleQueue(final int capacity) {
+		super(capacity);
+	}
+
+	/**
+	 * Closes the queue, samples that are already in the queue can still be
+	 * taken
+	 */
+	void close() {
+		closed = true;
+	}
+
+	/**
+	 * Checks whether the queue is closed
+	 * 
+	 * @return TRUE, if the queue is closed
+	 */
+	boolean isClosed() {
+		return closed;
+	}
+
+	@Override
+	public void put(final TrainingSample sample) throws InterruptedException {
+		if (!closed) {
+			super.put(sample);
+		}
+	}
+
+	@Override
+	public boolean offer(final TrainingSample sample) {
+		return !closed && super.offer(sample);
+	}
+
+	@Override
+	public boolean offer(final TrainingSample sample, final long timeout,
+			final TimeUnit unit) throws InterruptedException {
+		return !closed && super.offer(sample, timeout, unit);
+	}
+}
@@ -17,15 +17,9 @@ package org.jskat.ai.nn.util;
 
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
-import java.util.ArrayList;
-import java.util.List;
 
 import org.encog.engine.network.activation.ActivationSigmoid;
-import org.encog.ml.data.MLData;
-import org.encog.ml.data.MLDataPair;
 import org.encog.ml.data.MLDataSet;
-import org.encog.ml.data.basic.BasicMLData;
-import org.encog.ml.data.basic.BasicMLDataPair;
 import org.encog.ml.data.basic.BasicMLDataSet;
 import org.encog.ml.train.BasicTraining;
 import org.encog.neural.networks.BasicNetwork;
@@ -34,17 +28,18 @@ import org.encog.neural.networks.layers.BasicLayer;
 import org.encog.neural.networks.training.propagation.back.Backpropagation;
 
 /**
- * Wraps the Encog network to fulfill the interface {@link INeuralNetwork}
+ * Wraps the Encog network to fulfill the interface {@link INeuralNetwork}<br />
+ * Predictions are computed from an immutable {@link NetworkSnapshot} without
+ * locking. Changes to the weights are made on the Encog network under the
+ * lock and published as new snapshot afterwards (copy on write).
  */
 public class EncogNetworkWrapper implements INeuralNetwork {
 
 	private BasicNetwork network;
+	private volatile NetworkSnapshot snapshot;
+	private volatile double lastError = 0.0;
 	private final PersistBasicNetwork networkPersister;
 
-	private final List<MLDataPair> dataPairList = new ArrayList<MLDataPair>();
-	private final int MAX_SIZE = 10;
-	private final int currentIndex = -1;
-
 	/**
 	 * Constructor
 	 * 
@@ -62,10 +57,24 @@ public class EncogNetworkWrapper implements INeuralNetwork {
 		network.addLayer(new BasicLayer(new ActivationSigmoid(), useBias, 1));
 		network.getStructure().finalizeStructure();
 		network.reset();
+		publishSnapshot();
 
 		networkPersister = new PersistBasicNetwork();
 	}
 
+	private void publishSnapshot() {
+		snapshot = NetworkSnapshot.of(network);
+	}
+
+	/**
+	 * Gets the current weights of the network
+	 * 
+	 * @return Immutable snapshot of the weights
+	 */
+	public NetworkSnapshot getSnapshot() {
+		return snapshot;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -78,28 +87,37 @@ public class EncogNetworkWrapper implements INeuralNetwork {
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized double adjustWeights(final double[] inputValues,
+	public double adjustWeights(final double[] inputValues,
 			final double[] outputValues) {
 
-		// if (dataPairList.size() < MAX_SIZE) {
-		// dataPairList.add(new BasicMLDataPair(new BasicMLData(inputValues),
-		// new BasicMLData(outputValues)));
-		// currentIndex++;
-		// } else {
-		// currentIndex = (currentIndex + 1) % MAX_SIZE;
-		// dataPairList.set(currentIndex, new BasicMLDataPair(new BasicMLData(
-		// inputValues), new BasicMLData(outputValues)));
-		// }
-		List<MLDataPair> data = new ArrayList<MLDataPair>();
-		data.add(new BasicMLDataPair(new BasicMLData(inputValues),
-				new BasicMLData(outputValues)));
-		MLDataSet trainingSet = new BasicMLDataSet(data);
+		return adjustWeights(new double[][] { inputValues },
+				new double[][] { outputValues });
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized double adjustWeights(final double[][] inputValues,
+			final double[][] outputValues) {
+
+		MLDataSet trainingSet = new BasicMLDataSet(inputValues, outputValues);
 
 		// BasicTraining trainer = new ResilientPropagation(network,
 		// trainingSet);
 		BasicTraining trainer = new Backpropagation(network, trainingSet);
 		trainer.iteration();
-		return trainer.getError();
+		publishSnapshot();
+		lastError = trainer.getError();
+		return lastError;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getLastError() {
+		return lastError;
 	}
 
 	/**
@@ -108,15 +126,48 @@ public class EncogNetworkWrapper implements INeuralNetwork {
 	@Override
 	public synchronized void resetNetwork() {
 		network.reset();
+		publishSnapshot();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getPredictedOutcome(final double[] inputValues) {
+		return snapshot.compute(inputValues);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void getPredictedOutcomes(final double[][] inputs, final int count,
+			final double[] outputs) {
+		snapshot.compute(inputs, count, outputs);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public synchronized double[] getWeights() {
+		double[] result = new double[network.encodedArrayLength()];
+		network.encodeToArray(result);
+		return result;
 	}
 
 	/**
 	 * {@inheritDoc}
 	 */
 	@Override
-	public synchronized double getPredictedOutcome(final double[] inputValues) {
-		MLData output = network.compute(new BasicMLData(inputValues));
-		return output.getData(0);
+	public synchronized void setWeights(final double[] weights) {
+		if (weights.length != network.encodedArrayLength()) {
+			throw new IllegalArgumentException("Network needs " //$NON-NLS-1$
+					+ network.encodedArrayLength() + " weights, got " //$NON-NLS-1$
+					+ weights.length + "."); //$NON-NLS-1$
+		}
+		network.decodeFromArray(weights);
+		publishSnapshot();
 	}
 
 	/**
@@ -150,5 +201,6 @@ public class EncogNetworkWrapper implements INeuralNetwork {
 			final int outputNeurons) {
 		network = (BasicNetwork) networkPersister.read(getClass()
 				.getResourceAsStream(fileName));
+		publishSnapshot();
 	}
 }
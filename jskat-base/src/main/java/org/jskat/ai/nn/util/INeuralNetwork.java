@@ -35,6 +35,25 @@ public interface INeuralNetwork {
 	 */
 	public abstract double adjustWeights(double[] inputs, double[] outputs);
 
+	/**
+	 * Adjusts the weights of the net according a mini batch of inputs and
+	 * desired outputs
+	 * 
+	 * @param inputs
+	 *            Input attributes, one row per sample
+	 * @param outputs
+	 *            Output attributes, one row per sample
+	 * @return Error of the batch
+	 */
+	public abstract double adjustWeights(double[][] inputs, double[][] outputs);
+
+	/**
+	 * Gets the error of the last weight adjustment
+	 * 
+	 * @return Error of the last adjustment
+	 */
+	public abstract double getLastError();
+
 	/**
 	 * Resets the network, sets random values for all weights
 	 */
@@ -49,6 +68,34 @@ public interface INeuralNetwork {
 	 */
 	public abstract double getPredictedOutcome(double[] inputs);
 
+	/**
+	 * Gets the predicted outcomes of several inputs at once
+	 * 
+	 * @param inputs
+	 *            Input attributes, one row per sample
+	 * @param count
+	 *            Number of samples
+	 * @param outputs
+	 *            Buffer for the predicted outcomes, one per sample
+	 */
+	public abstract void getPredictedOutcomes(double[][] inputs, int count,
+			double[] outputs);
+
+	/**
+	 * Gets all weights of the network
+	 * 
+	 * @return Copy of the weights
+	 */
+	public abstract double[] getWeights();
+
+	/**
+	 * Sets all weights of the network
+	 * 
+	 * @param weights
+	 *            Weights in the order of {@link #getWeights()}
+	 */
+	public abstract void setWeights(double[] weights);
+
 	/**
 	 * Gets the number of iterations the NeuralNetwork was trained so far
 	 * 
@@ -0,0 +1,172 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn.util;
+
+/**
+ * Neural network whose weights are read from a {@link NetworkBundle} on first
+ * use<br />
+ * Networks that are never used are never materialized, so opening a bundle
+ * with many networks is cheap.
+ */
+public class LazyNetwork implements INeuralNetwork {
+
+	private final NetworkBundle bundle;
+	private final String name;
+
+	private volatile EncogNetworkWrapper network;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param bundle
+	 *            Bundle with the weights
+	 * @param name
+	 *            Name of the network in the bundle
+	 */
+	public LazyNetwork(final NetworkBundle bundle, final String name) {
+		if (!bundle.contains(name)) {
+			throw new IllegalArgumentException("Network " + name //$NON-NLS-1$
+					+ " is not in the bundle."); //$NON-NLS-1$
+		}
+		this.bundle = bundle;
+		this.name = name;
+	}
+
+	/**
+	 * Checks whether the weights were read already
+	 * 
+	 * @return TRUE, if the network was materialized
+	 */
+	public boolean isMaterialized() {
+		return network != null;
+	}
+
+	private EncogNetworkWrapper getNetwork() {
+		EncogNetworkWrapper result = network;
+		if (result == null) {
+			synchronized (this) {
+				result = network;
+				if (result == null) {
+					result = new EncogNetworkWrapper(bundle.getTopology(),
+							bundle.isUseBias());
+					result.setWeights(bundle.getWeights(name));
+					network = result;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getAvgDiff() {
+		return getNetwork().getAvgDiff();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double adjustWeights(final double[] inputs, final double[] outputs) {
+		return getNetwork().adjustWeights(inputs, outputs);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double adjustWeights(final double[][] inputs,
+			final double[][] outputs) {
+		return getNetwork().adjustWeights(inputs, outputs);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getLastError() {
+		return getNetwork().getLastError();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void resetNetwork() {
+		getNetwork().resetNetwork();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double getPredictedOutcome(final double[] inputs) {
+		return getNetwork().getPredictedOutcome(inputs);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void getPredictedOutcomes(final double[][] inputs, final int count,
+			final double[] outputs) {
+		getNetwork().getPredictedOutcomes(inputs, count, outputs);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public long getIterations() {
+		return getNetwork().getIterations();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public double[] getWeights() {
+		return getNetwork().getWeights();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setWeights(final double[] weights) {
+		getNetwork().setWeights(weights);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public boolean saveNetwork(final String fileName) {
+		return getNetwork().saveNetwork(fileName);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void loadNetwork(final String fileName, final int inputNeurons,
+			final int hiddenNeurons, final int outputNeurons) {
+		getNetwork().loadNetwork(fileName, inputNeurons, hiddenNeurons,
+				outputNeurons);
+	}
+}
@@ -0,0 +1,300 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn.util;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Binary bundle with the weights of several neural networks of the same
+ * topology<br />
+ * &nbsp;<br />
+ * Layout (big endian):
+ * <ul>
+ * <li>magic number and format version (int, int)</li>
+ * <li>topology: input neurons, number of hidden layers, neurons per hidden
+ * layer, output neurons (ints) and bias flag (byte)</li>
+ * <li>number of networks (int)</li>
+ * <li>directory, per network: name length (short), name (ASCII), number of
+ * weights (int), offset of the weights from the start of the bundle
+ * (long)</li>
+ * <li>weights as doubles</li>
+ * </ul>
+ * Files are memory mapped. Only header and directory are read when a bundle
+ * is opened, the weights of a network are read when they are requested.
+ */
+public final class NetworkBundle {
+
+	/** Magic number "JSNB" */
+	final static int MAGIC = 0x4A534E42;
+	/** Current format version */
+	final static int VERSION = 1;
+
+	private final static Charset NAME_CHARSET = Charset.forName("US-ASCII"); //$NON-NLS-1$
+
+	private final ByteBuffer buffer;
+	private final int version;
+	private final NetworkTopology topology;
+	private final boolean useBias;
+	private final Map<String, Entry> entries;
+
+	private static class Entry {
+		final int weightCount;
+		final long offset;
+
+		Entry(final int weightCount, final long offset) {
+			this.weightCount = weightCount;
+			this.offset = offset;
+		}
+	}
+
+	private NetworkBundle(final ByteBuffer buffer) throws IOException {
+
+		this.buffer = buffer;
+
+		if (buffer.remaining() < 8 || buffer.getInt() != MAGIC) {
+			throw new IOException("Not a network bundle."); //$NON-NLS-1$
+		}
+		version = buffer.getInt();
+		if (version != VERSION) {
+			throw new IOException("Unsupported network bundle version " //$NON-NLS-1$
+					+ version + "."); //$NON-NLS-1$
+		}
+
+		int inputs = buffer.getInt();
+		int[] hiddenLayers = new int[buffer.getInt()];
+		for (int i = 0; i < hiddenLayers.length; i++) {
+			hiddenLayers[i] = buffer.getInt();
+		}
+		int outputs = buffer.getInt();
+		topology = new NetworkTopology(inputs, hiddenLayers, outputs);
+		useBias = buffer.get() != 0;
+
+		int networkCount = buffer.getInt();
+		Map<String, Entry> newEntries = new LinkedHashMap<String, Entry>();
+		for (int i = 0; i < networkCount; i++) {
+			byte[] name = new byte[buffer.getShort()];
+			buffer.get(name);
+			int weightCount = buffer.getInt();
+			long offset = buffer.getLong();
+			if (offset + 8L * weightCount > buffer.limit()) {
+				throw new IOException("Network bundle is truncated."); //$NON-NLS-1$
+			}
+			newEntries.put(new String(name, NAME_CHARSET), new Entry(
+					weightCount, offset));
+		}
+		entries = Collections.unmodifiableMap(newEntries);
+	}
+
+	/**
+	 * Opens a bundle file, the file is memory mapped
+	 * 
+	 * @param file
+	 *            Bundle file
+	 * @return Network bundle
+	 * @throws IOException
+	 *             If the file can't be read or is no valid bundle
+	 */
+	public static NetworkBundle open(final File file) throws IOException {
+
+		RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r"); //$NON-NLS-1$
+		try {
+			FileChannel channel = randomAccessFile.getChannel();
+			// the mapping stays valid after the channel is closed
+			return new NetworkBundle(channel.map(
+					FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+		} finally {
+			randomAccessFile.close();
+		}
+	}
+
+	/**
+	 * Reads a bundle from a stream, e.g. a class path resource that can't be
+	 * memory mapped
+	 * 
+	 * @param inputStream
+	 *            Input stream, is not closed
+	 * @return Network bundle
+	 * @throws IOException
+	 *             If the stream can't be read or is no valid bundle
+	 */
+	public static NetworkBundle read(final InputStream inputStream)
+			throws IOException {
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		byte[] chunk = new byte[64 * 1024];
+		int read;
+		while ((read = inputStream.read(chunk)) != -1) {
+			bytes.write(chunk, 0, read);
+		}
+		return new NetworkBundle(ByteBuffer.wrap(bytes.toByteArray()));
+	}
+
+	/**
+	 * Writes networks into a bundle file
+	 * 
+	 * @param file
+	 *            Bundle file
+	 * @param topology
+	 *            Topology of all networks
+	 * @param useBias
+	 *            TRUE, if the networks use bias neurons
+	 * @param networks
+	 *            Networks by name, names must be ASCII
+	 * @throws IOException
+	 *             If the file can't be written
+	 */
+	public static void write(final File file, final NetworkTopology topology,
+			final boolean useBias,
+			final Map<String, ? extends INeuralNetwork> networks)
+			throws IOException {
+
+		Map<String, double[]> weights = new LinkedHashMap<String, double[]>();
+		for (Map.Entry<String, ? extends INeuralNetwork> network : networks
+				.entrySet()) {
+			weights.put(network.getKey(), network.getValue().getWeights());
+		}
+
+		long offset = 4 + 4 + 4 + 4 + 4 * topology.getHiddenLayerCount() + 4
+				+ 1 + 4;
+		for (String name : weights.keySet()) {
+			offset += 2 + name.getBytes(NAME_CHARSET).length + 4 + 8;
+		}
+
+		// the old bundle may still be memory mapped, so it is replaced and
+		// not overwritten
+		File tempFile = new File(file.getPath() + ".tmp"); //$NON-NLS-1$
+		DataOutputStream output = new DataOutputStream(
+				new BufferedOutputStream(new FileOutputStream(tempFile)));
+		try {
+			output.writeInt(MAGIC);
+			output.writeInt(VERSION);
+			output.writeInt(topology.getInputNeuronCount());
+			output.writeInt(topology.getHiddenLayerCount());
+			for (int i = 0; i < topology.getHiddenLayerCount(); i++) {
+				output.writeInt(topology.getHiddenNeuronCount(i));
+			}
+			output.writeInt(topology.getOutputNeuronCount());
+			output.writeByte(useBias ? 1 : 0);
+
+			output.writeInt(weights.size());
+			for (Map.Entry<String, double[]> network : weights.entrySet()) {
+				byte[] name = network.getKey().getBytes(NAME_CHARSET);
+				output.writeShort(name.length);
+				output.write(name);
+				output.writeInt(network.getValue().length);
+				output.writeLong(offset);
+				offset += 8L * network.getValue().length;
+			}
+
+			for (double[] networkWeights : weights.values()) {
+				for (double weight : networkWeights) {
+					output.writeDouble(weight);
+				}
+			}
+		} finally {
+			output.close();
+		}
+
+		Files.move(tempFile.toPath(), file.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Gets the format version
+	 * 
+	 * @return Format version
+	 */
+	public int getVersion() {
+		return version;
+	}
+
+	/**
+	 * Gets the topology of the networks
+	 * 
+	 * @return Network topology
+	 */
+	public NetworkTopology getTopology() {
+		return topology;
+	}
+
+	/**
+	 * Checks whether the networks use bias neurons
+	 * 
+	 * @return TRUE, if the networks use bias neurons
+	 */
+	public boolean isUseBias() {
+		return useBias;
+	}
+
+	/**
+	 * Gets the names of all networks
+	 * 
+	 * @return Network names in bundle order
+	 */
+	public Set<String> getNetworkNames() {
+		return entries.keySet();
+	}
+
+	/**
+	 * Checks whether the bundle contains a network
+	 * 
+	 * @param name
+	 *            Network name
+	 * @return TRUE, if the bundle contains the network
+	 */
+	public boolean contains(final String name) {
+		return entries.containsKey(name);
+	}
+
+	/**
+	 * Reads the weights of a network
+	 * 
+	 * @param name
+	 *            Network name
+	 * @return Weights in the order of {@link INeuralNetwork#getWeights()}
+	 */
+	public double[] getWeights(final String name) {
+
+		Entry entry = entries.get(name);
+		if (entry == null) {
+			throw new IllegalArgumentException("Network " + name //$NON-NLS-1$
+					+ " is not in the bundle."); //$NON-NLS-1$
+		}
+
+		double[] result = new double[entry.weightCount];
+		// a duplicate has its own position, so readers don't interfere
+		ByteBuffer weights = buffer.duplicate();
+		weights.position((int) entry.offset);
+		weights.asDoubleBuffer().get(result);
+		return result;
+	}
+}
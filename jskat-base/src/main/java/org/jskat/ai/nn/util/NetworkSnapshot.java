@@ -0,0 +1,179 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn.util;
+
+import org.encog.engine.network.activation.ActivationFunction;
+import org.encog.neural.networks.BasicNetwork;
+
+/**
+ * Immutable copy of the weights of a feed forward network<br />
+ * A snapshot is never changed after creation, so any number of threads can
+ * compute outputs from it without locking. Training publishes new snapshots
+ * instead of changing the weights a reader might be using.
+ */
+public final class NetworkSnapshot {
+
+	/** Number of neurons per layer without bias neurons */
+	private final int[] neuronCounts;
+	/**
+	 * Weights per layer, weights[layer][to * (from + 1) + from] where the last
+	 * index of every row holds the bias weight, empty for the input layer
+	 */
+	private final double[][] weights;
+	/** Bias activation per layer, 0 if the layer has no bias neuron */
+	private final double[] biasActivations;
+	/** Activation functions per layer */
+	private final ActivationFunction[] activationFunctions;
+
+	private NetworkSnapshot(final int[] neuronCounts, final double[][] weights,
+			final double[] biasActivations,
+			final ActivationFunction[] activationFunctions) {
+		this.neuronCounts = neuronCounts;
+		this.weights = weights;
+		this.biasActivations = biasActivations;
+		this.activationFunctions = activationFunctions;
+	}
+
+	/**
+	 * Copies the current weights of an Encog network
+	 * 
+	 * @param network
+	 *            Network
+	 * @return Snapshot of the network
+	 */
+	static NetworkSnapshot of(final BasicNetwork network) {
+
+		int layerCount = network.getLayerCount();
+		int[] neuronCounts = new int[layerCount];
+		double[][] weights = new double[layerCount][];
+		double[] biasActivations = new double[layerCount];
+		ActivationFunction[] activationFunctions = new ActivationFunction[layerCount];
+
+		for (int layer = 0; layer < layerCount; layer++) {
+			neuronCounts[layer] = network.getLayerNeuronCount(layer);
+			activationFunctions[layer] = network.getActivation(layer);
+			if (network.isLayerBiased(layer)) {
+				biasActivations[layer] = network.getLayerBiasActivation(layer);
+			}
+		}
+
+		weights[0] = new double[0];
+		for (int layer = 1; layer < layerCount; layer++) {
+			int fromLayer = layer - 1;
+			int fromCount = neuronCounts[fromLayer];
+			int rowLength = fromCount + 1;
+			double[] layerWeights = new double[neuronCounts[layer] * rowLength];
+			for (int to = 0; to < neuronCounts[layer]; to++) {
+				for (int from = 0; from < fromCount; from++) {
+					layerWeights[to * rowLength + from] = network.getWeight(
+							fromLayer, from, to);
+				}
+				if (network.isLayerBiased(fromLayer)) {
+					layerWeights[to * rowLength + fromCount] = network
+							.getWeight(fromLayer, fromCount, to);
+				}
+			}
+			weights[layer] = layerWeights;
+		}
+
+		return new NetworkSnapshot(neuronCounts, weights, biasActivations,
+				activationFunctions);
+	}
+
+	/**
+	 * Gets the number of input neurons
+	 * 
+	 * @return Number of input neurons
+	 */
+	public int getInputNeuronCount() {
+		return neuronCounts[0];
+	}
+
+	/**
+	 * Computes the first output of the network
+	 * 
+	 * @param inputs
+	 *            Input values
+	 * @return Output value
+	 */
+	public double compute(final double[] inputs) {
+
+		double[] outputs = new double[1];
+		compute(new double[][] { inputs }, 1, outputs);
+		return outputs[0];
+	}
+
+	/**
+	 * Computes the first output of the network for several inputs at once<br />
+	 * All inputs are pushed through the network layer by layer, so every
+	 * weight row is read once per layer for the whole batch.
+	 * 
+	 * @param inputs
+	 *            Input values, one row per sample
+	 * @param count
+	 *            Number of samples to compute
+	 * @param outputs
+	 *            Buffer for the output values, one per sample
+	 */
+	public void compute(final double[][] inputs, final int count,
+			final double[] outputs) {
+
+		if (count == 0) {
+			return;
+		}
+
+		double[][] current = inputs;
+		for (int layer = 1; layer < neuronCounts.length; layer++) {
+			current = computeLayer(layer, current, count);
+		}
+
+		for (int sample = 0; sample < count; sample++) {
+			outputs[sample] = current[sample][0];
+		}
+	}
+
+	private double[][] computeLayer(final int layer,
+			final double[][] layerInputs, final int count) {
+
+		int fromCount = neuronCounts[layer - 1];
+		int toCount = neuronCounts[layer];
+		int rowLength = fromCount + 1;
+		double bias = biasActivations[layer - 1];
+		double[] layerWeights = weights[layer];
+
+		double[][] result = new double[count][toCount];
+
+		for (int to = 0; to < toCount; to++) {
+			int rowStart = to * rowLength;
+			double biasWeight = layerWeights[rowStart + fromCount] * bias;
+			for (int sample = 0; sample < count; sample++) {
+				double[] sampleInputs = layerInputs[sample];
+				double sum = biasWeight;
+				for (int from = 0; from < fromCount; from++) {
+					sum += layerWeights[rowStart + from] * sampleInputs[from];
+				}
+				result[sample][to] = sum;
+			}
+		}
+
+		for (int sample = 0; sample < count; sample++) {
+			activationFunctions[layer].activationFunction(result[sample], 0,
+					toCount);
+		}
+
+		return result;
+	}
+}
@@ -45,7 +45,7 @@ public class NetworkTopology {
 	 * 
 	 * @return Number of input neurons
 	 */
-	int getInputNeuronCount() {
+	public int getInputNeuronCount() {
 
 		return this.inputSignals;
 	}
@@ -55,7 +55,7 @@ public class NetworkTopology {
 	 * 
 	 * @return Number of hidden layers
 	 */
-	int getHiddenLayerCount() {
+	public int getHiddenLayerCount() {
 
 		return hiddenNeurons.length;
 	}
@@ -67,7 +67,7 @@ public class NetworkTopology {
 	 *            ID of the hidden layer
 	 * @return Number of hidden neurons in the hidden layer
 	 */
-	int getHiddenNeuronCount(int layerID) {
+	public int getHiddenNeuronCount(int layerID) {
 
 		if (layerID < 0) {
 			throw new IllegalArgumentException(
@@ -85,7 +85,7 @@ public class NetworkTopology {
 	 * 
 	 * @return Number of output neurons
 	 */
-	int getOutputNeuronCount() {
+	public int getOutputNeuronCount() {
 
 		return this.outputSignals;
 	}
@@ -0,0 +1,231 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn.util;
+
+import java.util.Random;
+
+/**
+ * Bounded experience replay buffer for the training samples of one neural
+ * network<br />
+ * Inputs and outputs are stored in primitive slabs, one row per sample, so
+ * adding samples creates no objects. The slabs grow up to the capacity on
+ * demand. When the buffer is full, new samples replace old ones according
+ * to the {@link EvictionPolicy}.
+ */
+public class ReplayBuffer {
+
+	/**
+	 * Policy for replacing samples in a full buffer
+	 */
+	public enum EvictionPolicy {
+		/**
+		 * The oldest sample is replaced
+		 */
+		FIFO,
+		/**
+		 * A random sample is replaced with decreasing probability, so the
+		 * buffer holds a uniform sample of everything that was added
+		 */
+		RESERVOIR;
+	}
+
+	private final static int INITIAL_ROWS = 64;
+
+	private final int capacity;
+	private final int inputCount;
+	private final int outputCount;
+	private final EvictionPolicy evictionPolicy;
+	private final Random random;
+
+	private double[] inputSlab = new double[0];
+	private double[] outputSlab = new double[0];
+	private int allocatedRows = 0;
+	private int size = 0;
+	private int nextRow = 0;
+	private long addedSamples = 0;
+	private int newSamples = 0;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param capacity
+	 *            Maximum number of samples
+	 * @param inputCount
+	 *            Number of inputs per sample
+	 * @param outputCount
+	 *            Number of outputs per sample
+	 * @param evictionPolicy
+	 *            Policy for replacing samples in a full buffer
+	 * @param random
+	 *            Random generator for reservoir eviction and sampling
+	 */
+	public ReplayBuffer(final int capacity, final int inputCount,
+			final int outputCount, final EvictionPolicy evictionPolicy,
+			final Random random) {
+
+		if (capacity < 1) {
+			throw new IllegalArgumentException(
+					"Capacity must be greater than 0."); //$NON-NLS-1$
+		}
+
+		this.capacity = capacity;
+		this.inputCount = inputCount;
+		this.outputCount = outputCount;
+		this.evictionPolicy = evictionPolicy;
+		this.random = random;
+	}
+
+	/**
+	 * Adds a sample, the values are copied
+	 * 
+	 * @param inputs
+	 *            Inputs
+	 * @param outputs
+	 *            Desired outputs
+	 */
+	public synchronized void add(final double[] inputs, final double[] outputs) {
+
+		int row;
+		if (size < capacity) {
+			ensureRows(size + 1);
+			row = size;
+			size++;
+		} else if (evictionPolicy == EvictionPolicy.FIFO) {
+			row = nextRow;
+			nextRow = (nextRow + 1) % capacity;
+		} else {
+			// reservoir sampling: keep the new sample with probability
+			// capacity / added samples
+			long index = (long) (random.nextDouble() * (addedSamples + 1));
+			row = index < capacity ? (int) index : -1;
+		}
+
+		addedSamples++;
+		newSamples++;
+
+		if (row >= 0) {
+			System.arraycopy(inputs, 0, inputSlab, row * inputCount,
+					inputCount);
+			System.arraycopy(outputs, 0, outputSlab, row * outputCount,
+					outputCount);
+		}
+	}
+
+	private void ensureRows(final int rows) {
+
+		if (rows <= allocatedRows) {
+			return;
+		}
+
+		int newRows = Math.min(capacity,
+				Math.max(rows, Math.max(INITIAL_ROWS, allocatedRows * 2)));
+
+		double[] newInputSlab = new double[newRows * inputCount];
+		System.arraycopy(inputSlab, 0, newInputSlab, 0, inputSlab.length);
+		inputSlab = newInputSlab;
+
+		double[] newOutputSlab = new double[newRows * outputCount];
+		System.arraycopy(outputSlab, 0, newOutputSlab, 0, outputSlab.length);
+		outputSlab = newOutputSlab;
+
+		allocatedRows = newRows;
+	}
+
+	/**
+	 * Draws a random mini batch, samples are drawn with replacement<br />
+	 * Resets the number of new samples.
+	 * 
+	 * @param inputs
+	 *            Buffer for the inputs, every row must hold the inputs of
+	 *            one sample
+	 * @param outputs
+	 *            Buffer for the outputs, every row must hold the outputs of
+	 *            one sample
+	 * @return Number of samples written, the number of rows or the buffer
+	 *         size if it holds less samples
+	 */
+	public synchronized int sample(final double[][] inputs,
+			final double[][] outputs) {
+
+		int count = Math.min(inputs.length, size);
+		for (int i = 0; i < count; i++) {
+			int row;
+			if (size <= inputs.length) {
+				// all samples fit into the batch
+				row = i;
+			} else {
+				row = random.nextInt(size);
+			}
+			System.arraycopy(inputSlab, row * inputCount, inputs[i], 0,
+					inputCount);
+			System.arraycopy(outputSlab, row * outputCount, outputs[i], 0,
+					outputCount);
+		}
+
+		newSamples = 0;
+
+		return count;
+	}
+
+	/**
+	 * Gets the number of samples in the buffer
+	 * 
+	 * @return Number of samples
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the maximum number of samples
+	 * 
+	 * @return Capacity
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Gets the number of samples added since the buffer was created
+	 * 
+	 * @return Number of added samples
+	 */
+	public synchronized long getAddedSamples() {
+		return addedSamples;
+	}
+
+	/**
+	 * Gets the number of samples added since the last mini batch was drawn
+	 * 
+	 * @return Number of new samples
+	 */
+	public synchronized int getNewSamples() {
+		return newSamples;
+	}
+
+	/**
+	 * Removes all samples and frees the slabs
+	 */
+	public synchronized void clear() {
+		inputSlab = new double[0];
+		outputSlab = new double[0];
+		allocatedRows = 0;
+		size = 0;
+		nextRow = 0;
+		addedSamples = 0;
+		newSamples = 0;
+	}
+}
@@ -0,0 +1,211 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.pimc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.jskat.ai.newalgorithm.AlgorithmAI;
+import org.jskat.data.Trick;
+import org.jskat.util.Card;
+import org.jskat.util.CardSet;
+import org.jskat.util.GameType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Perfect information Monte Carlo player<br />
+ * &nbsp;<br />
+ * Bidding, discarding and the game announcement are taken from
+ * {@link AlgorithmAI}. For the card play the player simulates card
+ * distributions that fit to its knowledge, solves every distribution with a
+ * {@link org.jskat.ai.search.DoubleDummySolver} and plays the card that wins
+ * most of the distributions. Ties are broken by the sum of the scores.<br />
+ * &nbsp;<br />
+ * All players share one worker pool with one thread per available processor.
+ * Without a decision time budget {@link #DEFAULT_WORLD_COUNT} distributions
+ * are solved per card, otherwise the player solves as many distributions as
+ * possible within the budget.
+ */
+public class AIPlayerPIMC extends AlgorithmAI {
+
+	private static Logger log = LoggerFactory.getLogger(AIPlayerPIMC.class);
+
+	private final static ForkJoinPool SOLVER_POOL = new ForkJoinPool(Runtime
+			.getRuntime().availableProcessors());
+
+	/**
+	 * Number of solved distributions per card without a time budget
+	 */
+	public final static int DEFAULT_WORLD_COUNT = 48;
+
+	/**
+	 * Maximum number of solved distributions per card with a time budget
+	 */
+	public final static int MAX_WORLD_COUNT = 2000;
+
+	/**
+	 * Exact scores are calculated if the player holds at most this number of
+	 * cards, otherwise the solver only checks whether the declarer wins
+	 */
+	private final static int EXACT_SEARCH_MAX_CARDS = 6;
+
+	/**
+	 * Random generator for the seeds of the solving tasks
+	 */
+	private final Random random = new Random();
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Card playCard() {
+
+		int playableCards = getPlayableCardSet(knowledge.getTrickCards());
+		if (CardSet.size(playableCards) == 1) {
+			return CardSet.getLowest(playableCards);
+		}
+
+		GameType gameType = knowledge.getGameType();
+		if (gameType == GameType.RAMSCH || gameType == GameType.PASSED_IN) {
+			return super.playCard();
+		}
+
+		int declarerPoints = getDeclarerPoints();
+		if (gameType == GameType.NULL && declarerPoints > 0) {
+			// the declarer has lost already
+			return super.playCard();
+		}
+
+		Card card = solveWorlds(playableCards, declarerPoints);
+		if (card == null) {
+			return super.playCard();
+		}
+		return card;
+	}
+
+	/**
+	 * Gets the points of the declarer from the completed tricks<br />
+	 * For null games the number of tricks won by the declarer is returned.
+	 */
+	private int getDeclarerPoints() {
+
+		int result = 0;
+		for (Trick trick : knowledge.getCompletedTricks()) {
+			if (trick.getTrickWinner() == knowledge.getDeclarer()) {
+				if (knowledge.getGameType() == GameType.NULL) {
+					result++;
+				} else {
+					result += trick.getValue();
+				}
+			}
+		}
+		return result;
+	}
+
+	private Card solveWorlds(final int playableCards, final int declarerPoints) {
+
+		long timeBudget = getDecisionTimeBudget();
+		int maxWorlds = DEFAULT_WORLD_COUNT;
+		long endOfSolving = Long.MAX_VALUE;
+		if (timeBudget > 0) {
+			maxWorlds = MAX_WORLD_COUNT;
+			endOfSolving = System.currentTimeMillis() + timeBudget;
+		}
+
+		boolean exact = CardSet.size(knowledge.getOwnCardSet())
+				<= EXACT_SEARCH_MAX_CARDS;
+		int taskCount = SOLVER_POOL.getParallelism();
+		int worldsPerTask = (maxWorlds + taskCount - 1) / taskCount;
+
+		List<WorldSolvingTask> tasks = new ArrayList<WorldSolvingTask>();
+		for (int i = 0; i < taskCount; i++) {
+			tasks.add(new WorldSolvingTask(knowledge, declarerPoints, exact,
+					random.nextLong(), worldsPerTask, endOfSolving));
+		}
+
+		int[] wonWorlds = new int[Card.values().length];
+		long[] scoreSums = new long[Card.values().length];
+		int solvedWorlds = 0;
+		try {
+			for (Future<WorldSolvingTask> result : SOLVER_POOL
+					.invokeAll(tasks)) {
+				WorldSolvingTask task = result.get();
+				solvedWorlds += task.getSolvedWorlds();
+				for (int rest = playableCards; rest != CardSet.EMPTY; rest = CardSet
+						.removeLowest(rest)) {
+					Card card = CardSet.getLowest(rest);
+					wonWorlds[card.ordinal()] += task.getWonWorlds(card);
+					scoreSums[card.ordinal()] += task.getScoreSum(card);
+				}
+			}
+		} catch (InterruptedException e) {
+			log.warn("Solving was interrupted..."); //$NON-NLS-1$
+			Thread.currentThread().interrupt();
+			return null;
+		} catch (ExecutionException e) {
+			log.error("Solving failed: " + e.getCause()); //$NON-NLS-1$
+			return null;
+		}
+
+		Card bestCard = selectBestCard(playableCards, wonWorlds, scoreSums);
+
+		log.debug(solvedWorlds + " worlds solved, best card " + bestCard //$NON-NLS-1$
+				+ " wins " + wonWorlds[bestCard.ordinal()] + " worlds"); //$NON-NLS-1$ //$NON-NLS-2$
+
+		return bestCard;
+	}
+
+	private Card selectBestCard(final int playableCards,
+			final int[] wonWorlds, final long[] scoreSums) {
+
+		// the declarer maximizes, the opponents minimize the declarer result
+		int sign = knowledge.getPlayerPosition() == knowledge.getDeclarer() ? 1
+				: -1;
+
+		Card bestCard = null;
+		for (int rest = playableCards; rest != CardSet.EMPTY; rest = CardSet
+				.removeLowest(rest)) {
+			Card card = CardSet.getLowest(rest);
+			if (bestCard == null
+					|| isBetter(sign * wonWorlds[card.ordinal()], sign
+							* scoreSums[card.ordinal()], sign
+							* wonWorlds[bestCard.ordinal()], sign
+							* scoreSums[bestCard.ordinal()])) {
+				bestCard = card;
+			}
+		}
+		return bestCard;
+	}
+
+	private static boolean isBetter(final int wonWorlds, final long scoreSum,
+			final int bestWonWorlds, final long bestScoreSum) {
+		return wonWorlds > bestWonWorlds || wonWorlds == bestWonWorlds
+				&& scoreSum > bestScoreSum;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Boolean playGrandHand() {
+		return false;
+	}
+}
@@ -0,0 +1,166 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.pimc;
+
+import java.util.concurrent.Callable;
+
+import org.jskat.ai.nn.DealSampler;
+import org.jskat.ai.search.DoubleDummySolver;
+import org.jskat.player.ImmutablePlayerKnowledge;
+import org.jskat.util.Card;
+import org.jskat.util.CardList;
+import org.jskat.util.CardSet;
+import org.jskat.util.GameType;
+import org.jskat.util.Player;
+
+/**
+ * Helper class for solving a batch of simulated card distributions for
+ * {@link AIPlayerPIMC}
+ */
+class WorldSolvingTask implements Callable<WorldSolvingTask> {
+
+	/**
+	 * The solvers are reused by all tasks running on the same worker thread,
+	 * so the transposition table is kept from world to world
+	 */
+	private static final ThreadLocal<DoubleDummySolver> SOLVERS = new ThreadLocal<DoubleDummySolver>();
+
+	private final ImmutablePlayerKnowledge knowledge;
+	private final int declarerPoints;
+	private final boolean exact;
+	private final long seed;
+	private final int maxWorlds;
+	private final long maxTimestamp;
+
+	private final int[] wonWorlds = new int[Card.values().length];
+	private final long[] scoreSums = new long[Card.values().length];
+	private int solvedWorlds;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param newKnowledge
+	 *            Knowledge of the player to move
+	 * @param newDeclarerPoints
+	 *            Points of the declarer from the completed tricks
+	 * @param isExact
+	 *            TRUE, if the exact scores should be calculated
+	 * @param newSeed
+	 *            Seed for the card distribution sampler of the task
+	 * @param worlds
+	 *            Maximum number of worlds to solve
+	 * @param timestamp
+	 *            Point in time when the task has to stop, at least one world
+	 *            is solved in any case
+	 */
+	WorldSolvingTask(final ImmutablePlayerKnowledge newKnowledge,
+			final int newDeclarerPoints, final boolean isExact,
+			final long newSeed, final int worlds, final long timestamp) {
+
+		knowledge = newKnowledge;
+		declarerPoints = newDeclarerPoints;
+		exact = isExact;
+		seed = newSeed;
+		maxWorlds = worlds;
+		maxTimestamp = timestamp;
+	}
+
+	@Override
+	public WorldSolvingTask call() {
+
+		GameType gameType = knowledge.getGameType();
+		DoubleDummySolver solver = getSolver(gameType, knowledge.getDeclarer());
+
+		Player trickForeHand = knowledge.getCurrentTrickForeHand();
+		CardList trickCards = knowledge.getTrickCards();
+
+		DealSampler sampler = new DealSampler(seed);
+		sampler.reset(knowledge);
+
+		int[] world = new int[DealSampler.SKAT_INDEX + 1];
+		Card[] legalCards = new Card[10];
+		int[] scores = new int[10];
+
+		solvedWorlds = 0;
+		do {
+			sampler.sample(world);
+
+			int points = declarerPoints;
+			if (gameType != GameType.NULL) {
+				points += CardSet
+						.getTotalValue(world[DealSampler.SKAT_INDEX]);
+			}
+
+			int legalCardCount = solver.solveMoves(world, points,
+					trickForeHand, trickCards, legalCards, scores, exact);
+
+			for (int i = 0; i < legalCardCount; i++) {
+				int card = legalCards[i].ordinal();
+				scoreSums[card] += scores[i];
+				if (scores[i] >= DoubleDummySolver.WINNING_SCORE) {
+					wonWorlds[card]++;
+				}
+			}
+			solvedWorlds++;
+		} while (solvedWorlds < maxWorlds
+				&& System.currentTimeMillis() < maxTimestamp);
+
+		return this;
+	}
+
+	private static DoubleDummySolver getSolver(final GameType gameType,
+			final Player declarer) {
+
+		DoubleDummySolver solver = SOLVERS.get();
+		if (solver == null || solver.getGameType() != gameType
+				|| solver.getDeclarer() != declarer) {
+			solver = new DoubleDummySolver(gameType, declarer);
+			SOLVERS.set(solver);
+		}
+		return solver;
+	}
+
+	/**
+	 * Gets the number of solved worlds
+	 * 
+	 * @return Number of worlds
+	 */
+	int getSolvedWorlds() {
+		return solvedWorlds;
+	}
+
+	/**
+	 * Gets the number of worlds the declarer wins after playing a card
+	 * 
+	 * @param card
+	 *            Card
+	 * @return Number of won worlds
+	 */
+	int getWonWorlds(final Card card) {
+		return wonWorlds[card.ordinal()];
+	}
+
+	/**
+	 * Gets the sum of the scores of the declarer after playing a card
+	 * 
+	 * @param card
+	 *            Card
+	 * @return Sum of the scores over all solved worlds
+	 */
+	long getScoreSum(final Card card) {
+		return scoreSums[card.ordinal()];
+	}
+}
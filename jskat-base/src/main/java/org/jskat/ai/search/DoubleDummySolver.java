@@ -0,0 +1,767 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.search;
+
+import java.util.Random;
+
+import org.jskat.util.Card;
+import org.jskat.util.CardList;
+import org.jskat.util.CardSet;
+import org.jskat.util.GameType;
+import org.jskat.util.Player;
+import org.jskat.util.Rank;
+import org.jskat.util.rule.LegalMoveGenerator;
+import org.jskat.util.rule.SkatRule;
+import org.jskat.util.rule.SkatRuleFactory;
+
+/**
+ * Solves the card play of a skat game with perfect information<br />
+ * &nbsp;<br />
+ * All hands are known to all players. The declarer maximizes and the
+ * opponents minimize the score of the declarer:
+ * <ul>
+ * <li>suit and grand games: card points of the declarer at the end of the
+ * game</li>
+ * <li>null games: {@link #MAX_SCORE} if the declarer takes no trick, 0
+ * otherwise</li>
+ * </ul>
+ * So the declarer wins a game if the score is at least {@link #WINNING_SCORE}.
+ * <br />
+ * &nbsp;<br />
+ * Hands are {@link CardSet}s indexed by the ordinal of the player. The search
+ * is an alpha beta search over single cards. Cards of a hand that are next to
+ * each other in trick taking power and have the same points are searched only
+ * once. At the start of every trick the remaining card points are used as
+ * bounds and the results are stored in a transposition table with Zobrist
+ * keys of the card distribution.<br />
+ * &nbsp;<br />
+ * A solver is not thread safe, use one solver per thread. The transposition
+ * table stays valid between calls for the same game type and declarer.
+ */
+public class DoubleDummySolver {
+
+	/**
+	 * Maximum score
+	 */
+	public final static int MAX_SCORE = 120;
+	/**
+	 * Minimum score of the declarer to win the game
+	 */
+	public final static int WINNING_SCORE = 61;
+
+	private final static int DEFAULT_TABLE_BITS = 18;
+
+	private final static int PLAYER_COUNT = 3;
+	private final static int CARD_COUNT = 32;
+
+	private final static Card[] CARDS = Card.values();
+	private final static int[] POINTS = new int[CARD_COUNT];
+	private final static int[] RANK_MASKS = new int[Rank.values().length];
+	private final static int[] RANK_POINTS = new int[Rank.values().length];
+
+	private final static long[][] ZOBRIST_CARDS = new long[CARD_COUNT][PLAYER_COUNT];
+	private final static long[] ZOBRIST_LEADER = new long[PLAYER_COUNT];
+
+	static {
+		for (Card card : CARDS) {
+			POINTS[card.ordinal()] = card.getPoints();
+			RANK_MASKS[card.getRank().ordinal()] |= CardSet.bit(card);
+			RANK_POINTS[card.getRank().ordinal()] = card.getPoints();
+		}
+		// fixed seed, so keys are the same in every run
+		Random random = new Random(0x4A536B6174L);
+		for (int card = 0; card < CARD_COUNT; card++) {
+			for (int player = 0; player < PLAYER_COUNT; player++) {
+				ZOBRIST_CARDS[card][player] = random.nextLong();
+			}
+		}
+		for (int player = 0; player < PLAYER_COUNT; player++) {
+			ZOBRIST_LEADER[player] = random.nextLong();
+		}
+	}
+
+	private final GameType gameType;
+	private final int declarer;
+	private final boolean nullGame;
+
+	// beats[cardToBeat][card] is TRUE if card beats cardToBeat
+	private final boolean[][] beats = new boolean[CARD_COUNT][CARD_COUNT];
+	// all cards ordered by class (trump first) and trick taking power
+	private final int[] cardOrder = new int[CARD_COUNT];
+	private final int[] followCards = new int[CARD_COUNT];
+
+	private final long[] tableKeys;
+	private final int[] tableEntries;
+	private final int tableMask;
+
+	// search state
+	private final int[] hands = new int[PLAYER_COUNT];
+	private final int[] trickCards = new int[PLAYER_COUNT];
+	private int trickForeHand;
+	private long hash;
+	private long nodes;
+
+	// move buffers per search depth
+	private final int[][] moves = new int[PLAYER_COUNT * 10 + 1][10];
+	private final int[][] moveScores = new int[PLAYER_COUNT * 10 + 1][10];
+
+	/**
+	 * Constructor
+	 * 
+	 * @param gameType
+	 *            Game type, must not be ramsch or passed in
+	 * @param declarer
+	 *            Declarer
+	 */
+	public DoubleDummySolver(final GameType gameType, final Player declarer) {
+		this(gameType, declarer, DEFAULT_TABLE_BITS);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param gameType
+	 *            Game type, must not be ramsch or passed in
+	 * @param declarer
+	 *            Declarer
+	 * @param tableBits
+	 *            The transposition table holds 2^tableBits entries
+	 */
+	public DoubleDummySolver(final GameType gameType, final Player declarer,
+			final int tableBits) {
+
+		if (gameType == GameType.RAMSCH || gameType == GameType.PASSED_IN) {
+			throw new IllegalArgumentException("Game type " + gameType //$NON-NLS-1$
+					+ " has no declarer."); //$NON-NLS-1$
+		}
+
+		this.gameType = gameType;
+		this.declarer = declarer.ordinal();
+		nullGame = gameType == GameType.NULL;
+
+		tableKeys = new long[1 << tableBits];
+		tableEntries = new int[1 << tableBits];
+		tableMask = (1 << tableBits) - 1;
+
+		initCardTables();
+	}
+
+	private void initCardTables() {
+
+		SkatRule rules = SkatRuleFactory.getSkatRules(gameType);
+		for (Card cardToBeat : CARDS) {
+			followCards[cardToBeat.ordinal()] = LegalMoveGenerator
+					.getFollowCards(gameType, cardToBeat);
+			for (Card card : CARDS) {
+				beats[cardToBeat.ordinal()][card.ordinal()] = rules
+						.isCardBeatsCard(gameType, cardToBeat, card);
+			}
+		}
+
+		// group the cards by class, trump cards first
+		int index = 0;
+		int trumpCards = CardSet.getTrumpMask(gameType);
+		index = addToCardOrder(trumpCards, index);
+		for (Card card : CARDS) {
+			if (!CardSet.contains(trumpCards, card)
+					&& followCards[card.ordinal()] != 0
+					&& CardSet.getLowest(followCards[card.ordinal()]) == card) {
+				index = addToCardOrder(followCards[card.ordinal()], index);
+			}
+		}
+	}
+
+	private int addToCardOrder(final int cardSet, final int start) {
+
+		int end = start;
+		for (int rest = cardSet; rest != CardSet.EMPTY; rest = CardSet
+				.removeLowest(rest)) {
+			// insertion sort, strongest card first
+			int card = Integer.numberOfTrailingZeros(rest);
+			int position = end;
+			while (position > start && beats[cardOrder[position - 1]][card]) {
+				cardOrder[position] = cardOrder[position - 1];
+				position--;
+			}
+			cardOrder[position] = card;
+			end++;
+		}
+		return end;
+	}
+
+	/**
+	 * Solves a game from the first trick on, fore hand leads
+	 * 
+	 * @param dealtHands
+	 *            {@link CardSet}s of the hands after discarding, indexed by
+	 *            player ordinal
+	 * @param skat
+	 *            {@link CardSet} of the skat, its points count for the
+	 *            declarer
+	 * @return Score of the declarer
+	 */
+	public int solve(final int[] dealtHands, final int skat) {
+		return solve(dealtHands, getSkatPoints(skat), Player.FOREHAND,
+				new CardList());
+	}
+
+	/**
+	 * Checks whether the declarer wins a game from the first trick on, fore
+	 * hand leads<br />
+	 * This is faster than {@link #solve(int[], int)}, because only the
+	 * winner is searched.
+	 * 
+	 * @param dealtHands
+	 *            {@link CardSet}s of the hands after discarding, indexed by
+	 *            player ordinal
+	 * @param skat
+	 *            {@link CardSet} of the skat, its points count for the
+	 *            declarer
+	 * @return TRUE, if the declarer wins the game
+	 */
+	public boolean isDeclarerWinning(final int[] dealtHands, final int skat) {
+		int skatPoints = getSkatPoints(skat);
+		setPosition(dealtHands, Player.FOREHAND, new CardList());
+		int test = WINNING_SCORE - skatPoints;
+		return skatPoints + search(0, test - 1, test) >= WINNING_SCORE;
+	}
+
+	/**
+	 * Solves a game from a position during the card play
+	 * 
+	 * @param currentHands
+	 *            {@link CardSet}s of the hands, indexed by player ordinal
+	 * @param declarerPoints
+	 *            Points of the declarer from completed tricks and the skat,
+	 *            must be 0 for null games
+	 * @param trickForeHand
+	 *            Fore hand of the current trick
+	 * @param currentTrickCards
+	 *            Cards already played in the current trick
+	 * @return Score of the declarer
+	 */
+	public int solve(final int[] currentHands, final int declarerPoints,
+			final Player trickForeHand, final CardList currentTrickCards) {
+
+		setPosition(currentHands, trickForeHand, currentTrickCards);
+		return declarerPoints + searchExact(currentTrickCards.size());
+	}
+
+	/**
+	 * Solves every legal card of the player to move from a position during
+	 * the card play
+	 * 
+	 * @param currentHands
+	 *            {@link CardSet}s of the hands, indexed by player ordinal
+	 * @param declarerPoints
+	 *            Points of the declarer from completed tricks and the skat,
+	 *            must be 0 for null games
+	 * @param trickForeHand
+	 *            Fore hand of the current trick
+	 * @param currentTrickCards
+	 *            Cards already played in the current trick
+	 * @param legalCards
+	 *            Buffer for the legal cards, at least 10 elements
+	 * @param scores
+	 *            Buffer for the score of the declarer after every legal card
+	 * @param exact
+	 *            TRUE, if the exact scores are needed, otherwise the scores
+	 *            only tell whether the declarer wins and the search is much
+	 *            faster
+	 * @return Number of legal cards
+	 */
+	public int solveMoves(final int[] currentHands, final int declarerPoints,
+			final Player trickForeHand, final CardList currentTrickCards,
+			final Card[] legalCards, final int[] scores, final boolean exact) {
+
+		setPosition(currentHands, trickForeHand, currentTrickCards);
+
+		int ply = currentTrickCards.size();
+		int player = (this.trickForeHand + ply) % PLAYER_COUNT;
+		int ledCard = ply == 0 ? -1 : trickCards[0];
+		int legal = getLegalMoves(ledCard, hands[player]);
+
+		int count = 0;
+		for (int rest = legal; rest != CardSet.EMPTY; rest = CardSet
+				.removeLowest(rest)) {
+			int card = Integer.numberOfTrailingZeros(rest);
+			legalCards[count] = CARDS[card];
+			hands[player] &= ~(1 << card);
+			hash ^= ZOBRIST_CARDS[card][player];
+			trickCards[ply] = card;
+			if (exact) {
+				scores[count] = declarerPoints + searchExact(ply + 1);
+			} else {
+				int test = WINNING_SCORE - declarerPoints;
+				scores[count] = declarerPoints
+						+ searchWindow(ply + 1, test - 1, test);
+			}
+			hands[player] |= 1 << card;
+			hash ^= ZOBRIST_CARDS[card][player];
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the game type of the solver
+	 * 
+	 * @return Game type
+	 */
+	public GameType getGameType() {
+		return gameType;
+	}
+
+	/**
+	 * Gets the declarer of the solver
+	 * 
+	 * @return Declarer
+	 */
+	public Player getDeclarer() {
+		return Player.values()[declarer];
+	}
+
+	/**
+	 * Gets the number of searched positions since the creation of the solver
+	 * 
+	 * @return Number of positions
+	 */
+	public long getNodeCount() {
+		return nodes;
+	}
+
+	/**
+	 * Removes all entries from the transposition table
+	 */
+	public void clearTranspositionTable() {
+		for (int i = 0; i < tableEntries.length; i++) {
+			tableKeys[i] = 0L;
+			tableEntries[i] = 0;
+		}
+	}
+
+	private static int getPoints(final int cardSet) {
+		int result = 0;
+		for (int rank = 0; rank < RANK_MASKS.length; rank++) {
+			result += RANK_POINTS[rank]
+					* Integer.bitCount(cardSet & RANK_MASKS[rank]);
+		}
+		return result;
+	}
+
+	private int getSkatPoints(final int skat) {
+		return nullGame ? 0 : getPoints(skat);
+	}
+
+	private void setPosition(final int[] currentHands,
+			final Player currentTrickForeHand,
+			final CardList currentTrickCards) {
+
+		trickForeHand = currentTrickForeHand.ordinal();
+		hash = 0L;
+		for (int player = 0; player < PLAYER_COUNT; player++) {
+			hands[player] = currentHands[player];
+			for (int rest = hands[player]; rest != CardSet.EMPTY; rest = CardSet
+					.removeLowest(rest)) {
+				hash ^= ZOBRIST_CARDS[Integer.numberOfTrailingZeros(rest)][player];
+			}
+		}
+		for (int i = 0; i < currentTrickCards.size(); i++) {
+			trickCards[i] = currentTrickCards.get(i).ordinal();
+		}
+	}
+
+	private int getLegalMoves(final int ledCard, final int hand) {
+		if (ledCard < 0) {
+			return hand;
+		}
+		int serveCards = hand & followCards[ledCard];
+		return serveCards == CardSet.EMPTY ? hand : serveCards;
+	}
+
+	/**
+	 * Searches the exact score for the rest of the game with a binary search
+	 * over null window searches, they cut off much more than a search with
+	 * the full window
+	 * 
+	 * @param ply
+	 *            Number of cards in the current trick, 3 for a complete trick
+	 * @return Score
+	 */
+	private int searchExact(final int ply) {
+
+		int lower = 0;
+		int upper = MAX_SCORE;
+		if (!nullGame) {
+			upper = getPoints(hands[0] | hands[1] | hands[2]);
+			for (int i = 0; i < ply; i++) {
+				upper += POINTS[trickCards[i]];
+			}
+		}
+
+		while (lower < upper) {
+			int test = nullGame ? upper : (lower + upper + 1) / 2;
+			int value = searchWindow(ply, test - 1, test);
+			if (value >= test) {
+				lower = value;
+			} else {
+				upper = value;
+			}
+		}
+		return lower;
+	}
+
+	private int searchWindow(final int ply, final int alpha, final int beta) {
+		return ply < 3 ? search(ply, alpha, beta) : finishTrick(alpha, beta);
+	}
+
+	/**
+	 * Searches the score of the declarer for the rest of the game, including
+	 * the cards of the current trick
+	 * 
+	 * @param ply
+	 *            Number of cards in the current trick
+	 * @param alpha
+	 *            Lower bound
+	 * @param beta
+	 *            Upper bound
+	 * @return Score
+	 */
+	private int search(final int ply, int alpha, int beta) {
+
+		nodes++;
+
+		int player = (trickForeHand + ply) % PLAYER_COUNT;
+
+		long key = 0L;
+		int index = 0;
+		int tableMove = -1;
+
+		if (ply == 0) {
+			int remainingCards = hands[0] | hands[1] | hands[2];
+			if (remainingCards == CardSet.EMPTY) {
+				// no trick taken by the declarer in null games
+				return nullGame ? MAX_SCORE : 0;
+			}
+
+			// trick level bounds from the remaining points
+			int maxScore = nullGame ? MAX_SCORE : getPoints(remainingCards);
+			if (maxScore <= alpha) {
+				return maxScore;
+			}
+			if (beta <= 0) {
+				return 0;
+			}
+
+			if (Integer.bitCount(remainingCards) == PLAYER_COUNT) {
+				return searchLastTrick();
+			}
+
+			key = hash ^ ZOBRIST_LEADER[trickForeHand];
+			index = (int) (key ^ key >>> 32) & tableMask;
+			if (tableKeys[index] == key) {
+				tableMove = getMove(tableEntries[index]);
+				int lower = getLowerBound(tableEntries[index]);
+				int upper = getUpperBound(tableEntries[index]);
+				if (lower >= beta) {
+					return lower;
+				}
+				if (upper <= alpha || lower == upper) {
+					return upper;
+				}
+				alpha = Math.max(alpha, lower);
+				beta = Math.min(beta, upper);
+			}
+		}
+
+		// window after the transposition table lookup, for the stored bound
+		int alphaStart = alpha;
+		int betaStart = beta;
+
+		int ledCard = ply == 0 ? -1 : trickCards[0];
+		int legal = getLegalMoves(ledCard, hands[player]);
+		int moveCount = orderMoves(legal, ply);
+		int[] plyMoves = moves[getDepth()];
+		if (tableMove >= 0) {
+			moveToFront(plyMoves, moveCount, tableMove);
+		}
+
+		boolean maximize = player == declarer;
+		int best = maximize ? -1 : MAX_SCORE + 1;
+		int bestMove = -1;
+
+		for (int i = 0; i < moveCount; i++) {
+			int value = playCard(ply, player, plyMoves[i], alpha, beta);
+			if (maximize) {
+				if (value > best) {
+					best = value;
+					bestMove = plyMoves[i];
+					if (best > alpha) {
+						alpha = best;
+					}
+				}
+			} else {
+				if (value < best) {
+					best = value;
+					bestMove = plyMoves[i];
+					if (best < beta) {
+						beta = best;
+					}
+				}
+			}
+			if (alpha >= beta) {
+				break;
+			}
+		}
+
+		if (ply == 0) {
+			storeBounds(key, index, best, bestMove, alphaStart, betaStart);
+		}
+
+		return best;
+	}
+
+	private void storeBounds(final long key, final int index, final int value,
+			final int move, final int alpha, final int beta) {
+
+		int lower = 0;
+		int upper = MAX_SCORE;
+		if (tableKeys[index] == key) {
+			lower = getLowerBound(tableEntries[index]);
+			upper = getUpperBound(tableEntries[index]);
+		}
+		if (value <= alpha) {
+			upper = Math.min(upper, value);
+		} else if (value >= beta) {
+			lower = Math.max(lower, value);
+		} else {
+			lower = value;
+			upper = value;
+		}
+		tableKeys[index] = key;
+		tableEntries[index] = lower | upper << 8 | (move + 1) << 16;
+	}
+
+	private static int getMove(final int entry) {
+		return (entry >>> 16) - 1;
+	}
+
+	private static int getLowerBound(final int entry) {
+		return entry & 0xFF;
+	}
+
+	private static int getUpperBound(final int entry) {
+		return entry >>> 8 & 0xFF;
+	}
+
+	private static void moveToFront(final int[] plyMoves, final int count,
+			final int move) {
+		for (int i = 0; i < count; i++) {
+			if (plyMoves[i] == move) {
+				System.arraycopy(plyMoves, 0, plyMoves, 1, i);
+				plyMoves[0] = move;
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Every player has one card left, so there is nothing to decide
+	 */
+	private int searchLastTrick() {
+
+		for (int ply = 0; ply < PLAYER_COUNT; ply++) {
+			trickCards[ply] = Integer.numberOfTrailingZeros(hands[(trickForeHand + ply)
+					% PLAYER_COUNT]);
+		}
+		int winner = getTrickWinner();
+		if (nullGame) {
+			return winner == declarer ? 0 : MAX_SCORE;
+		}
+		return winner == declarer ? POINTS[trickCards[0]]
+				+ POINTS[trickCards[1]] + POINTS[trickCards[2]] : 0;
+	}
+
+	private int getTrickWinner() {
+
+		int first = trickCards[0];
+		int second = trickCards[1];
+		int third = trickCards[2];
+
+		int winner;
+		if (beats[first][second]) {
+			winner = beats[second][third] ? 2 : 1;
+		} else {
+			winner = beats[first][third] ? 2 : 0;
+		}
+		return (trickForeHand + winner) % PLAYER_COUNT;
+	}
+
+	private int getDepth() {
+		// every card reduces the number of cards in the hands
+		return Integer.bitCount(hands[0] | hands[1] | hands[2]);
+	}
+
+	/**
+	 * Plays a card and searches the rest of the game
+	 */
+	private int playCard(final int ply, final int player, final int card,
+			final int alpha, final int beta) {
+
+		hands[player] &= ~(1 << card);
+		hash ^= ZOBRIST_CARDS[card][player];
+		trickCards[ply] = card;
+
+		int result;
+		if (ply < 2) {
+			result = search(ply + 1, alpha, beta);
+		} else {
+			result = finishTrick(alpha, beta);
+		}
+
+		hands[player] |= 1 << card;
+		hash ^= ZOBRIST_CARDS[card][player];
+
+		return result;
+	}
+
+	/**
+	 * Calculates the trick winner like
+	 * {@link SkatRule#calculateTrickWinner(GameType, org.jskat.data.Trick)}
+	 * and searches the following tricks
+	 */
+	private int finishTrick(final int alpha, final int beta) {
+
+		int first = trickCards[0];
+		int second = trickCards[1];
+		int third = trickCards[2];
+
+		int winner = getTrickWinner();
+
+		int points = 0;
+		if (winner == declarer) {
+			if (nullGame) {
+				// declarer lost the null game
+				return 0;
+			}
+			points = POINTS[first] + POINTS[second] + POINTS[third];
+		}
+
+		int oldForeHand = trickForeHand;
+		trickForeHand = winner;
+		int result = points + search(0, alpha - points, beta - points);
+		trickForeHand = oldForeHand;
+		trickCards[0] = first;
+		trickCards[1] = second;
+		trickCards[2] = third;
+
+		return result;
+	}
+
+	/**
+	 * Orders the legal cards into the move buffer of the current depth<br />
+	 * Cards that are next to a card already in the buffer by trick taking
+	 * power and have the same points are left out. The fore hand tries strong
+	 * cards first. The other players try to take a trick from the other party
+	 * with the weakest winning card or add points to a trick of their party.
+	 * 
+	 * @return Number of moves
+	 */
+	private int orderMoves(final int legal, final int ply) {
+
+		int[] plyMoves = moves[getDepth()];
+		int count = 0;
+
+		int remaining = hands[0] | hands[1] | hands[2];
+		int trick = CardSet.EMPTY;
+		for (int i = 0; i < ply; i++) {
+			trick |= 1 << trickCards[i];
+		}
+		int previousCard = -1;
+		boolean gap = false;
+
+		for (int i = 0; i < CARD_COUNT; i++) {
+			int card = cardOrder[i];
+			int bit = 1 << card;
+			if ((remaining & bit) == 0) {
+				// played cards don't separate two cards, cards of the
+				// current trick are not in the hands anymore
+				if ((trick & bit) != 0) {
+					gap = true;
+				}
+				continue;
+			}
+			if ((legal & bit) == 0) {
+				gap = true;
+				continue;
+			}
+			if (previousCard >= 0 && !gap
+					&& followCards[previousCard] == followCards[card]
+					&& (nullGame || POINTS[previousCard] == POINTS[card])) {
+				// equivalent to the previous card
+				continue;
+			}
+			plyMoves[count++] = card;
+			previousCard = card;
+			gap = false;
+		}
+
+		if (ply > 0 && count > 1) {
+			sortMoves(plyMoves, count, ply);
+		}
+		return count;
+	}
+
+	private void sortMoves(final int[] plyMoves, final int count, final int ply) {
+
+		int winningCard = trickCards[0];
+		int winningPlayer = trickForeHand;
+		if (ply == 2 && beats[trickCards[0]][trickCards[1]]) {
+			winningCard = trickCards[1];
+			winningPlayer = (trickForeHand + 1) % PLAYER_COUNT;
+		}
+		int player = (trickForeHand + ply) % PLAYER_COUNT;
+		// in null games the declarer wants to lose the trick
+		boolean partnerWins = (winningPlayer == declarer) == (player == declarer);
+		if (nullGame && player == declarer) {
+			partnerWins = true;
+		}
+
+		int[] scores = moveScores[getDepth()];
+		for (int i = 0; i < count; i++) {
+			int card = plyMoves[i];
+			boolean wins = beats[winningCard][card];
+			int score;
+			if (partnerWins) {
+				// add points, don't take the trick from the partner
+				score = wins ? POINTS[card] : 100 + POINTS[card];
+			} else {
+				// take the trick with the weakest card or throw off few
+				// points, moves are ordered from strong to weak
+				score = wins ? 200 + i : 100 - POINTS[card];
+			}
+			// insertion sort, highest score first
+			int position = i;
+			while (position > 0 && scores[position - 1] < score) {
+				scores[position] = scores[position - 1];
+				plyMoves[position] = plyMoves[position - 1];
+				position--;
+			}
+			scores[position] = score;
+			plyMoves[position] = card;
+		}
+	}
+}
@@ -15,18 +15,22 @@
  */
 package org.jskat.control;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
 import org.jskat.ai.nn.data.SkatNetworks;
-import org.jskat.ai.nn.train.NNTrainer;
+import org.jskat.ai.nn.train.ParallelNNTrainer;
 import org.jskat.control.iss.IssController;
 import org.jskat.data.GameAnnouncement;
 import org.jskat.data.JSkatApplicationData;
 import org.jskat.data.JSkatOptions;
 import org.jskat.data.JSkatOptions.SupportedLanguage;
 import org.jskat.data.JSkatViewType;
+import org.jskat.data.checkpoint.SeriesCheckpoint;
+import org.jskat.data.checkpoint.SeriesCheckpointStore;
 import org.jskat.gui.JSkatView;
 import org.jskat.gui.action.JSkatAction;
 import org.jskat.gui.action.JSkatActionEvent;
@@ -50,6 +54,10 @@ public class JSkatMaster {
 
 	private static Logger log = LoggerFactory.getLogger(JSkatMaster.class);
 
+	private final static String SERIES_DIRECTORY = "series"; //$NON-NLS-1$
+	// same pause as for series that are started from the GUI
+	private final static int RESTORED_SERIES_SLEEP = 100;
+
 	private volatile static JSkatMaster instance = null;
 
 	private final JSkatOptions options;
@@ -57,7 +65,9 @@ public class JSkatMaster {
 	private JSkatView view;
 	private final IssController issControl;
 
-	private final List<NNTrainer> runningNNTrainers;
+	private final ParallelNNTrainer nnTrainer;
+
+	private SeriesCheckpointStore seriesCheckpoints;
 
 	/**
 	 * Gets the instance of the JSkat master controller
@@ -82,9 +92,12 @@ public class JSkatMaster {
 		options = JSkatOptions.instance();
 		data = JSkatApplicationData.instance();
 
+		// networks saved by the user are preferred
+		SkatNetworks.setBundleDirectory(options.getSavePath());
+
 		issControl = new IssController(this);
 
-		runningNNTrainers = new ArrayList<NNTrainer>();
+		nnTrainer = new ParallelNNTrainer();
 	}
 
 	/**
@@ -147,6 +160,7 @@ public class JSkatMaster {
 		SkatTable table = new SkatTable(data.getTableOptions());
 		table.setName(tableName);
 		table.setView(view);
+		table.setCheckpointStore(getSeriesCheckpointStore());
 		data.addLocalSkatTable(table);
 		data.registerHumanPlayerObject(table, humanPlayer);
 
@@ -435,41 +449,30 @@ public class JSkatMaster {
 
 		view.showTrainingOverview();
 
-		NNTrainer nullTrainer = new NNTrainer();
-		nullTrainer.setGameType(GameType.NULL);
-		nullTrainer.start();
-		runningNNTrainers.add(nullTrainer);
-		NNTrainer grandTrainer = new NNTrainer();
-		grandTrainer.setGameType(GameType.GRAND);
-		grandTrainer.start();
-		runningNNTrainers.add(grandTrainer);
-		NNTrainer clubsTrainer = new NNTrainer();
-		clubsTrainer.setGameType(GameType.CLUBS);
-		clubsTrainer.start();
-		runningNNTrainers.add(clubsTrainer);
-		NNTrainer spadesTrainer = new NNTrainer();
-		spadesTrainer.setGameType(GameType.SPADES);
-		spadesTrainer.start();
-		runningNNTrainers.add(spadesTrainer);
-		NNTrainer heartsTrainer = new NNTrainer();
-		heartsTrainer.setGameType(GameType.HEARTS);
-		heartsTrainer.start();
-		runningNNTrainers.add(heartsTrainer);
-		NNTrainer diamondsTrainer = new NNTrainer();
-		diamondsTrainer.setGameType(GameType.DIAMONDS);
-		diamondsTrainer.start();
-		runningNNTrainers.add(diamondsTrainer);
-		NNTrainer ramschTrainer = new NNTrainer();
-		ramschTrainer.setGameType(GameType.RAMSCH);
-		ramschTrainer.start();
-		runningNNTrainers.add(ramschTrainer);
+		if (nnTrainer.isRunning()) {
+			log.debug("Neural network training is already running."); //$NON-NLS-1$
+			return;
+		}
+
+		List<GameType> gameTypes = new ArrayList<GameType>();
+		gameTypes.add(GameType.NULL);
+		gameTypes.add(GameType.GRAND);
+		gameTypes.add(GameType.CLUBS);
+		gameTypes.add(GameType.SPADES);
+		gameTypes.add(GameType.HEARTS);
+		gameTypes.add(GameType.DIAMONDS);
+		gameTypes.add(GameType.RAMSCH);
+
+		int processors = Runtime.getRuntime().availableProcessors();
+		nnTrainer.setLearnerCount(Math.max(1, processors / 4));
+		nnTrainer.setWorkersPerGameType(Math.max(1, processors
+				/ gameTypes.size()));
+		nnTrainer.setCheckpointPath(options.getSavePath());
+		nnTrainer.start(gameTypes);
 	}
 
 	public void stopTrainNeuralNetworks() {
-		for (NNTrainer trainer : runningNNTrainers) {
-			trainer.stopTraining(true);
-		}
-		runningNNTrainers.clear();
+		nnTrainer.stop();
 	}
 
 	/**
@@ -623,22 +626,92 @@ public class JSkatMaster {
 	}
 
 	/**
-	 * Loads a series
+	 * Loads the unfinished series from their checkpoints, every series is
+	 * resumed on a local table with its former name
 	 */
 	public void loadSeries() {
-		// TODO saving/loading a skat series (here: load)
 
+		SeriesCheckpointStore store = getSeriesCheckpointStore();
+		if (store == null) {
+			return;
+		}
+
+		try {
+			for (SeriesCheckpoint restored : store.restoreAll()) {
+				if (!restored.isFinished()) {
+					loadSeries(restored);
+				}
+			}
+		} catch (IOException e) {
+			log.error("Could not load series.", e); //$NON-NLS-1$
+		}
+	}
+
+	private void loadSeries(final SeriesCheckpoint restored)
+			throws IOException {
+
+		String tableName = restored.getTableName();
+		if (!data.isExistingLocalSkatTable(tableName)) {
+			createLocalTable(tableName);
+		}
+		SkatTable table = data.getLocalSkatTable(tableName);
+		if (table.isSeriesRunning()) {
+			log.debug("Series on table " + tableName + " is running already."); //$NON-NLS-1$ //$NON-NLS-2$
+			return;
+		}
+
+		table.removePlayers();
+		for (int seat = 0; seat < SeriesCheckpoint.SEATS; seat++) {
+			String playerClass = restored.getPlayerClass(seat);
+			JSkatPlayer newPlayer = null;
+			if (JSkatPlayerResolver.HUMAN_PLAYER_CLASS.equals(playerClass)) {
+				newPlayer = data.getHumanPlayer(tableName);
+			} else {
+				newPlayer = createPlayer(playerClass);
+			}
+			if (newPlayer == null) {
+				log.error("Could not create player " + playerClass); //$NON-NLS-1$
+				return;
+			}
+			newPlayer.setPlayerName(restored.getPlayerName(seat));
+			table.placePlayer(newPlayer);
+		}
+
+		table.restoreSkatSeries(restored, RESTORED_SERIES_SLEEP);
 	}
 
 	/**
-	 * Saves a series
+	 * Saves a series<br />
+	 * Series are checkpointed after every game anyway, saving writes a
+	 * snapshot of the series at the active table.
 	 * 
 	 * @param newName
-	 *            TRUE, if a new name should be given to the save file
+	 *            TRUE, if a new name should be given to the save file, not
+	 *            supported, the checkpoints are named after the table
 	 */
 	public void saveSeries(final boolean newName) {
-		// TODO saving/loading a skat series (here: save)
 
+		if (!data.isExistingLocalSkatTable(data.getActiveView())) {
+			return;
+		}
+		try {
+			data.getLocalSkatTable(data.getActiveView()).saveSkatSeries();
+		} catch (IOException e) {
+			log.error("Could not save series.", e); //$NON-NLS-1$
+		}
+	}
+
+	private SeriesCheckpointStore getSeriesCheckpointStore() {
+
+		if (seriesCheckpoints == null) {
+			try {
+				seriesCheckpoints = new SeriesCheckpointStore(new File(
+						options.getSavePath(), SERIES_DIRECTORY));
+			} catch (IOException e) {
+				log.error("Could not open the series checkpoints.", e); //$NON-NLS-1$
+			}
+		}
+		return seriesCheckpoints;
 	}
 
 	/**
@@ -15,15 +15,21 @@
  */
 package org.jskat.control;
 
+import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
 
+import org.jskat.data.SeriesGameSummary;
+import org.jskat.data.SeriesHistory;
 import org.jskat.data.SkatGameData.GameState;
 import org.jskat.data.SkatSeriesData;
 import org.jskat.data.SkatSeriesData.SeriesState;
+import org.jskat.data.checkpoint.SeriesCheckpoint;
+import org.jskat.data.checkpoint.SeriesCheckpointWriter;
 import org.jskat.gui.JSkatView;
 import org.jskat.player.JSkatPlayer;
 import org.jskat.util.Card;
@@ -48,6 +54,16 @@ public class SkatSeries extends JSkatThread {
 	private boolean onlyPlayRamsch = false;
 	private final Map<Player, JSkatPlayer> player;
 	private SkatGame currSkatGame;
+	/**
+	 * Seat of the fore hand player, seats are the indices of the players given
+	 * to {@link #setPlayer(List)}
+	 */
+	private int foreHandSeat = 0;
+	private final List<JSkatPlayer> seats = new ArrayList<JSkatPlayer>();
+	private int gameInRound = 0;
+	private CardList currentDeck;
+	private CardList resumedDeck;
+	private SeriesCheckpointWriter checkpoint;
 
 	private JSkatView view;
 
@@ -90,10 +106,9 @@ public class SkatSeries extends JSkatThread {
 		// simple Collection.shuffle doesn't work here, because the order of
 		// players should be the same like in start skat series dialog
 		Random rand = new Random();
-		int startPlayer = rand.nextInt(3);
-		player.put(Player.FOREHAND, newPlayer.get(startPlayer));
-		player.put(Player.MIDDLEHAND, newPlayer.get((startPlayer + 1) % 3));
-		player.put(Player.REARHAND, newPlayer.get((startPlayer + 2) % 3));
+		seats.clear();
+		seats.addAll(newPlayer);
+		placePlayers(rand.nextInt(3));
 
 		// if an human player is playing, always show him/her at the bottom
 		// FIXME (jansch 09.05.2012) this is GUI logic, move it to the GUI
@@ -108,6 +123,121 @@ public class SkatSeries extends JSkatThread {
 		log.debug("Player order: " + player); //$NON-NLS-1$
 	}
 
+	private void placePlayers(final int newForeHandSeat) {
+
+		foreHandSeat = newForeHandSeat;
+		player.put(Player.FOREHAND, seats.get(foreHandSeat));
+		player.put(Player.MIDDLEHAND, seats.get((foreHandSeat + 1) % 3));
+		player.put(Player.REARHAND, seats.get((foreHandSeat + 2) % 3));
+	}
+
+	/**
+	 * Resumes a series from a checkpoint instead of setting the players and
+	 * the rounds<br />
+	 * A game that was interrupted is played again with the same cards.
+	 * 
+	 * @param restored
+	 *            Checkpoint of the series
+	 * @param newPlayer
+	 *            Skat series player in the order of the seats
+	 */
+	public void resume(final SeriesCheckpoint restored,
+			final List<JSkatPlayer> newPlayer) {
+
+		if (newPlayer.size() != 3) {
+			throw new IllegalArgumentException(
+					"Only three players are allowed at the moment."); //$NON-NLS-1$
+		}
+
+		view.setPlayerNames(data.getTableName(), newPlayer.get(0)
+				.getPlayerName(), newPlayer.get(1).getPlayerName(), newPlayer
+				.get(2).getPlayerName());
+
+		seats.clear();
+		seats.addAll(newPlayer);
+		placePlayers(restored.getForeHandSeat());
+		data.setBottomPlayer(restored.getBottomPlayer());
+		for (int seat = 0; seat < 3; seat++) {
+			data.addScore(seat, restored.getScore(seat));
+		}
+
+		onlyPlayRamsch = restored.isOnlyPlayRamsch();
+		roundsToGo = restored.getRoundsToGo();
+		unlimitedRounds = restored.isUnlimitedRounds();
+		if (restored.isGameRunning()) {
+			resumedDeck = restored.getDeck();
+			gameInRound = restored.getGameInRound();
+			data.setGameCount(restored.getGameCount() - 1);
+		} else if (restored.getGameCount() > 0) {
+			gameInRound = restored.getGameInRound() + 1;
+			data.setGameCount(restored.getGameCount());
+		}
+
+		data.setState(restored.isFinished() ? SeriesState.SERIES_FINISHED
+				: SeriesState.RUNNING);
+
+		log.debug("Resumed after game " + data.getGameCount() //$NON-NLS-1$
+				+ ", player order: " + player); //$NON-NLS-1$
+	}
+
+	/**
+	 * Sets the writer for the checkpoints of the series, the series history
+	 * is taken from the writer
+	 * 
+	 * @param newCheckpoint
+	 *            Checkpoint writer
+	 */
+	public void setCheckpoint(final SeriesCheckpointWriter newCheckpoint) {
+
+		checkpoint = newCheckpoint;
+		data.setHistory(checkpoint.getHistory());
+	}
+
+	/**
+	 * Creates a checkpoint of the current state of the series
+	 * 
+	 * @return Checkpoint
+	 */
+	public SeriesCheckpoint createCheckpoint() {
+
+		SeriesCheckpoint result = new SeriesCheckpoint();
+
+		result.setSeriesId(data.getTableName());
+		result.setTableName(data.getTableName());
+		for (int seat = 0; seat < seats.size(); seat++) {
+			result.setPlayer(seat, seats.get(seat).getClass().getName(), seats
+					.get(seat).getPlayerName());
+		}
+		result.setOnlyPlayRamsch(onlyPlayRamsch);
+		result.setUnlimitedRounds(unlimitedRounds);
+
+		result.setRoundsToGo(roundsToGo);
+		result.setGameInRound(gameInRound);
+		result.setGameCount(data.getGameCount());
+		result.setForeHandSeat(foreHandSeat);
+		result.setBottomPlayer(data.getBottomPlayer());
+		for (int seat = 0; seat < 3; seat++) {
+			result.setScore(seat, data.getScore(seat));
+		}
+		result.setHistorySize(data.getHistory().size());
+		result.setFinished(data.getState() == SeriesState.SERIES_FINISHED);
+		result.setDeck(currentDeck);
+
+		return result;
+	}
+
+	private void writeCheckpoint() {
+
+		if (checkpoint == null) {
+			return;
+		}
+		try {
+			checkpoint.checkpoint(createCheckpoint());
+		} catch (IOException e) {
+			log.error("Could not write series checkpoint.", e); //$NON-NLS-1$
+		}
+	}
+
 	/**
 	 * Checks whether a series is running
 	 * 
@@ -138,27 +268,26 @@ public class SkatSeries extends JSkatThread {
 	public void run() {
 
 		int roundsPlayed = 0;
-		int gameNumber = 0;
+		// change player positions after first game, an interrupted game is
+		// played again with the same positions
+		boolean rotatePlayers = data.getGameCount() > 0 && resumedDeck == null;
 
 		while ((roundsToGo > 0 || unlimitedRounds) && !isTerminated()) {
 
 			log.debug("Playing round " + (roundsPlayed + 1)); //$NON-NLS-1$
 
-			for (int j = 0; j < 3; j++) {
+			for (; gameInRound < 3; gameInRound++) {
 
-				if (j > 0 || roundsPlayed > 0) {
-					// change player positions after first game
-					JSkatPlayer helper = player.get(Player.REARHAND);
-					player.put(Player.REARHAND, player.get(Player.FOREHAND));
-					player.put(Player.FOREHAND, player.get(Player.MIDDLEHAND));
-					player.put(Player.MIDDLEHAND, helper);
+				if (rotatePlayers) {
+					placePlayers((foreHandSeat + 1) % 3);
 
 					data.setBottomPlayer(data.getBottomPlayer()
 							.getRightNeighbor());
 				}
+				rotatePlayers = true;
 
-				gameNumber++;
-				view.setGameNumber(data.getTableName(), gameNumber);
+				view.setGameNumber(data.getTableName(),
+						data.getGameCount() + 1);
 
 				if (onlyPlayRamsch) {
 					currSkatGame = new SkatGame(data.getTableName(),
@@ -178,15 +307,33 @@ public class SkatSeries extends JSkatThread {
 				currSkatGame.setView(view);
 				currSkatGame.setMaxSleep(maxSleep);
 
-				log.debug("Playing game " + (j + 1)); //$NON-NLS-1$
+				CardDeck deck;
+				if (resumedDeck != null) {
+					deck = new CardDeck(resumedDeck);
+					resumedDeck = null;
+				} else {
+					deck = new CardDeck();
+					deck.shuffle();
+				}
+				currentDeck = new CardList(deck);
+				currSkatGame.setCardDeck(deck);
+
+				log.debug("Playing game " + (gameInRound + 1)); //$NON-NLS-1$
 
 				data.addGame(currSkatGame);
+				writeCheckpoint();
 				currSkatGame.start();
 				try {
 					currSkatGame.join();
 
 					log.debug("Game ended: join"); //$NON-NLS-1$
 
+					if (currSkatGame.getGameState() == GameState.GAME_OVER) {
+						addToHistory(currSkatGame);
+						currentDeck = null;
+						writeCheckpoint();
+					}
+
 					sleep(maxSleep);
 
 				} catch (InterruptedException e) {
@@ -208,6 +355,7 @@ public class SkatSeries extends JSkatThread {
 				}
 			}
 
+			gameInRound = 0;
 			roundsToGo--;
 			roundsPlayed++;
 
@@ -215,11 +363,26 @@ public class SkatSeries extends JSkatThread {
 		}
 
 		data.setState(SeriesState.SERIES_FINISHED);
+		writeCheckpoint();
 		view.setSeriesState(data.getTableName(), SeriesState.SERIES_FINISHED);
 
 		log.debug(data.getState().name());
 	}
 
+	private void addToHistory(final SkatGame game) {
+
+		SeriesGameSummary summary = SeriesGameSummary.fromGameSummary(
+				foreHandSeat, game.getGameSummary());
+		if (summary.getDeclarerSeat() >= 0) {
+			data.addScore(summary.getDeclarerSeat(), summary.getGameValue());
+		}
+		try {
+			data.getHistory().add(summary);
+		} catch (IOException e) {
+			log.error("Could not write series history.", e); //$NON-NLS-1$
+		}
+	}
+
 	private CardDeck getGrandGame() {
 		CardList cards = new CardList();
 
@@ -300,6 +463,28 @@ public class SkatSeries extends JSkatThread {
 		return data.getCurrentGameID();
 	}
 
+	/**
+	 * Gets the history of the finished games
+	 * 
+	 * @return Series history
+	 */
+	public SeriesHistory getHistory() {
+
+		return data.getHistory();
+	}
+
+	/**
+	 * Sets the history of the finished games, must be called before the
+	 * series is started
+	 * 
+	 * @param newHistory
+	 *            Series history
+	 */
+	public void setHistory(final SeriesHistory newHistory) {
+
+		data.setHistory(newHistory);
+	}
+
 	/**
 	 * Pauses the current game
 	 */
@@ -15,12 +15,17 @@
  */
 package org.jskat.control;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.jskat.ai.AbstractAIPlayer;
 import org.jskat.data.SkatGameData.GameState;
 import org.jskat.data.SkatSeriesData.SeriesState;
 import org.jskat.data.SkatTableOptions;
+import org.jskat.data.checkpoint.SeriesCheckpoint;
+import org.jskat.data.checkpoint.SeriesCheckpointStore;
+import org.jskat.data.checkpoint.SeriesCheckpointWriter;
 import org.jskat.gui.JSkatView;
 import org.jskat.player.JSkatPlayer;
 import org.slf4j.Logger;
@@ -36,6 +41,8 @@ public class SkatTable {
 	private String tableName;
 	private final SkatTableOptions options;
 	private SkatSeries series;
+	private SeriesCheckpointStore checkpointStore;
+	private SeriesCheckpointWriter checkpoint;
 	private final List<JSkatPlayer> player = new ArrayList<JSkatPlayer>();
 
 	private JSkatView view;
@@ -76,7 +83,7 @@ public class SkatTable {
 			final int sleepBetweenMoves) {
 
 		if (!isSeriesRunning()) {
-			// TODO save old series data?
+			closeSeries();
 			series = new SkatSeries(tableName);
 			series.setView(view);
 
@@ -92,10 +99,101 @@ public class SkatTable {
 			series.setPlayer(player);
 			series.setOnlyPlayRamsch(onlyPlayRamsch);
 			series.setMaxRounds(rounds, unlimitedRounds);
+			if (checkpointStore != null) {
+				try {
+					checkpoint = checkpointStore.create(series
+							.createCheckpoint());
+					series.setCheckpoint(checkpoint);
+				} catch (IOException e) {
+					log.error("Could not create series checkpoint.", e); //$NON-NLS-1$
+				}
+			}
 			series.start();
 		}
 	}
 
+	/**
+	 * Restores a skat series from a checkpoint, the players must be placed in
+	 * the order of their seats before
+	 * 
+	 * @param restored
+	 *            Checkpoint of the series
+	 * @param sleepBetweenMoves
+	 *            Maximum sleep time between moves in milliseconds
+	 * @throws IOException
+	 *             If the checkpoints of the series can't be continued
+	 */
+	public void restoreSkatSeries(final SeriesCheckpoint restored,
+			final int sleepBetweenMoves) throws IOException {
+
+		if (isSeriesRunning()) {
+			throw new IllegalStateException("A series is running already."); //$NON-NLS-1$
+		}
+		if (player.size() < 3) {
+			throw new IllegalStateException("Not enough players at the table."); //$NON-NLS-1$
+		}
+
+		closeSeries();
+		series = new SkatSeries(tableName);
+		series.setView(view);
+		if (sleepBetweenMoves > 0) {
+			// set max sleep time only when using GUI
+			series.setMaxSleep(sleepBetweenMoves);
+		}
+		if (checkpointStore != null) {
+			checkpoint = checkpointStore.resume(restored);
+			series.setCheckpoint(checkpoint);
+		}
+
+		view.startSeries(tableName);
+		series.resume(restored, player);
+		series.start();
+	}
+
+	/**
+	 * Writes a snapshot of the running skat series in the background
+	 * 
+	 * @throws IOException
+	 *             If the snapshot can't be started
+	 */
+	public void saveSkatSeries() throws IOException {
+
+		if (checkpoint != null) {
+			checkpoint.snapshot();
+		}
+	}
+
+	/**
+	 * Sets the store for the checkpoints of the skat series, the series
+	 * aren't checkpointed without a store
+	 * 
+	 * @param newCheckpointStore
+	 *            Checkpoint store
+	 */
+	public void setCheckpointStore(
+			final SeriesCheckpointStore newCheckpointStore) {
+
+		checkpointStore = newCheckpointStore;
+	}
+
+	private void closeSeries() {
+
+		if (series == null) {
+			return;
+		}
+		try {
+			if (checkpoint != null) {
+				// closes the history, too
+				checkpoint.close();
+				checkpoint = null;
+			} else {
+				series.getHistory().close();
+			}
+		} catch (IOException e) {
+			log.warn("Could not close series history.", e); //$NON-NLS-1$
+		}
+	}
+
 	/**
 	 * Pauses a skat series
 	 */
@@ -188,6 +286,13 @@ public class SkatTable {
 
 		if (player.size() < options.getMaxPlayerCount()) {
 
+			if (newPlayer instanceof AbstractAIPlayer
+					&& options.getAiDecisionTimeBudget() != null
+					&& options.getAiDecisionTimeBudget().intValue() > 0) {
+				((AbstractAIPlayer) newPlayer).setDecisionTimeBudget(options
+						.getAiDecisionTimeBudget().longValue());
+			}
+
 			player.add(newPlayer);
 
 			result = true;
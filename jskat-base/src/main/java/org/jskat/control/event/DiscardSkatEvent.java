@@ -24,6 +24,8 @@ import org.jskat.util.Player;
  */
 public final class DiscardSkatEvent implements Event {
 
+	private static final CardList EMPTY_SKAT = new CardList();
+
 	private final Player player;
 	private final CardList discardedSkat = new CardList();
 
@@ -40,7 +42,7 @@ public final class DiscardSkatEvent implements Event {
 
 	@Override
 	public final void processBackward(SkatGameData data) {
-		data.setSkatCards(new CardList());
+		data.setSkatCards(EMPTY_SKAT);
 		data.addPlayerCards(player, discardedSkat);
 	}
 }
@@ -0,0 +1,233 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.event;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jskat.data.SkatGameData;
+
+/**
+ * Log of all events of a skat game<br />
+ * Every event is applied to the game data when it is added. Afterwards the
+ * game data can be moved to any position in the log by stepping forward and
+ * backward or by seeking. Stepping only processes a single event and does not
+ * create new objects.<br />
+ * &nbsp;<br />
+ * A copy of the game data is taken every {@link #getSnapshotInterval()}
+ * events. A seek starts from the nearest copy or from the current position,
+ * whatever is closer, so it processes less events than the snapshot interval,
+ * independent of the length of the game.
+ */
+public class GameEventLog {
+
+	/**
+	 * Default number of events between two snapshots
+	 */
+	public final static int DEFAULT_SNAPSHOT_INTERVAL = 8;
+
+	private final SkatGameData data;
+	private final int snapshotInterval;
+
+	private final List<Event> events = new ArrayList<Event>();
+	/**
+	 * Snapshot n holds the game data after n * snapshotInterval events
+	 */
+	private final List<SkatGameData> snapshots = new ArrayList<SkatGameData>();
+
+	/**
+	 * Number of events that are applied to the game data
+	 */
+	private int position;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param newData
+	 *            Game data the events are applied to
+	 */
+	public GameEventLog(final SkatGameData newData) {
+		this(newData, DEFAULT_SNAPSHOT_INTERVAL);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param newData
+	 *            Game data the events are applied to
+	 * @param newSnapshotInterval
+	 *            Number of events between two snapshots
+	 */
+	public GameEventLog(final SkatGameData newData,
+			final int newSnapshotInterval) {
+
+		if (newSnapshotInterval < 1) {
+			throw new IllegalArgumentException(
+					"Snapshot interval must be positive: " + newSnapshotInterval); //$NON-NLS-1$
+		}
+
+		data = newData;
+		snapshotInterval = newSnapshotInterval;
+		snapshots.add(createSnapshot());
+	}
+
+	/**
+	 * Adds an event at the end of the log and applies it to the game data
+	 * 
+	 * @param event
+	 *            Event
+	 */
+	public void add(final Event event) {
+
+		if (position != events.size()) {
+			throw new IllegalStateException(
+					"Events can only be added at the end of the log."); //$NON-NLS-1$
+		}
+
+		event.processForward(data);
+		events.add(event);
+		position++;
+
+		if (position % snapshotInterval == 0) {
+			snapshots.add(createSnapshot());
+		}
+	}
+
+	/**
+	 * Applies the next event to the game data
+	 * 
+	 * @return TRUE if there was a next event
+	 */
+	public boolean stepForward() {
+
+		if (position == events.size()) {
+			return false;
+		}
+
+		events.get(position).processForward(data);
+		position++;
+
+		return true;
+	}
+
+	/**
+	 * Takes back the last applied event from the game data
+	 * 
+	 * @return TRUE if there was an applied event
+	 */
+	public boolean stepBackward() {
+
+		if (position == 0) {
+			return false;
+		}
+
+		position--;
+		events.get(position).processBackward(data);
+
+		return true;
+	}
+
+	/**
+	 * Moves the game data to a position in the log
+	 * 
+	 * @param newPosition
+	 *            Number of events that should be applied to the game data
+	 */
+	public void seek(final int newPosition) {
+
+		if (newPosition < 0 || newPosition > events.size()) {
+			throw new IllegalArgumentException("Position " + newPosition //$NON-NLS-1$
+					+ " is outside of the log with " + events.size() //$NON-NLS-1$
+					+ " events."); //$NON-NLS-1$
+		}
+
+		int snapshotIndex = newPosition / snapshotInterval;
+		if (newPosition % snapshotInterval > snapshotInterval / 2
+				&& snapshotIndex + 1 < snapshots.size()) {
+			// the next snapshot is closer
+			snapshotIndex++;
+		}
+		final int snapshotPosition = snapshotIndex * snapshotInterval;
+
+		if (Math.abs(newPosition - snapshotPosition) < Math.abs(newPosition
+				- position)) {
+			data.copyFrom(snapshots.get(snapshotIndex));
+			position = snapshotPosition;
+		}
+
+		while (position < newPosition) {
+			stepForward();
+		}
+		while (position > newPosition) {
+			stepBackward();
+		}
+	}
+
+	/**
+	 * Gets the number of events that are applied to the game data
+	 * 
+	 * @return Position in the log
+	 */
+	public int getPosition() {
+		return position;
+	}
+
+	/**
+	 * Gets the number of events in the log
+	 * 
+	 * @return Number of events
+	 */
+	public int size() {
+		return events.size();
+	}
+
+	/**
+	 * Gets an event
+	 * 
+	 * @param index
+	 *            Index of the event
+	 * @return Event
+	 */
+	public Event getEvent(final int index) {
+		return events.get(index);
+	}
+
+	/**
+	 * Gets the game data the events are applied to
+	 * 
+	 * @return Game data
+	 */
+	public SkatGameData getGameData() {
+		return data;
+	}
+
+	/**
+	 * Gets the number of events between two snapshots
+	 * 
+	 * @return Snapshot interval
+	 */
+	public int getSnapshotInterval() {
+		return snapshotInterval;
+	}
+
+	private SkatGameData createSnapshot() {
+
+		final SkatGameData snapshot = new SkatGameData();
+		snapshot.copyFrom(data);
+
+		return snapshot;
+	}
+}
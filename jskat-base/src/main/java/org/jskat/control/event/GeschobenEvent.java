@@ -0,0 +1,45 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.event;
+
+import org.jskat.data.SkatGameData;
+import org.jskat.util.Player;
+
+/**
+ * Event for handing over the skat in a schieberamsch game.
+ */
+public final class GeschobenEvent implements Event {
+
+	private final Player player;
+
+	public GeschobenEvent(Player player) {
+		this.player = player;
+	}
+
+	public Player getPlayer() {
+		return player;
+	}
+
+	@Override
+	public final void processForward(SkatGameData data) {
+		data.addGeschoben();
+	}
+
+	@Override
+	public final void processBackward(SkatGameData data) {
+		data.removeGeschoben();
+	}
+}
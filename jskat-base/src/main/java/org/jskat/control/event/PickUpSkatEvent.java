@@ -16,14 +16,16 @@
 package org.jskat.control.event;
 
 import org.jskat.data.SkatGameData;
+import org.jskat.util.CardList;
 import org.jskat.util.Player;
 
 /**
- * Event for passing a bid.
+ * Event for picking up the skat.
  */
 public final class PickUpSkatEvent implements Event {
 
 	private final Player player;
+	private final CardList skat = new CardList();
 
 	public PickUpSkatEvent(Player player) {
 		this.player = player;
@@ -31,11 +33,14 @@ public final class PickUpSkatEvent implements Event {
 
 	@Override
 	public final void processForward(SkatGameData data) {
+		// in schieberamsch the skat holds the cards of the player before
+		skat.clear();
+		skat.addAll(data.getSkat());
 		data.addSkatToPlayer(player);
 	}
 
 	@Override
 	public final void processBackward(SkatGameData data) {
-		data.removeSkatFromPlayer(player);
+		data.removeSkatFromPlayer(player, skat);
 	}
 }
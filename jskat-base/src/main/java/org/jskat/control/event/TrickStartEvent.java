@@ -0,0 +1,46 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.event;
+
+import org.jskat.data.SkatGameData;
+import org.jskat.data.Trick;
+import org.jskat.util.Player;
+
+/**
+ * Event for starting a new trick.<br />
+ * The event owns its trick, so stepping through a game does not create new
+ * tricks.
+ */
+public final class TrickStartEvent implements Event {
+
+	private final Trick trick;
+
+	public TrickStartEvent(int trickNumber, Player trickForeHand) {
+		trick = new Trick(trickNumber, trickForeHand);
+	}
+
+	@Override
+	public final void processForward(SkatGameData data) {
+		// the trick still holds the cards when stepping forward again
+		trick.reset();
+		data.addTrick(trick);
+	}
+
+	@Override
+	public final void processBackward(SkatGameData data) {
+		data.removeLastTrick();
+	}
+}
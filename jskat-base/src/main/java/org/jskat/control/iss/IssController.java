@@ -122,6 +122,7 @@ public class IssController {
 
 			issConnector = new StreamConnector();
 			// issConnector = new WebSocketConnector();
+			// issConnector = new NioIssConnector();
 		}
 
 		log.debug("connector created"); //$NON-NLS-1$
@@ -0,0 +1,638 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.iss;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jskat.data.SkatGameData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the game archives provided by the ISS team<br />
+ * An archive contains one game summary per line. The file is read in large
+ * chunks that end on a line boundary, the lines of a chunk are decoded in
+ * parallel. The games are delivered in the order of the archive, either one by
+ * one through {@link #iterator()} or combined by a {@link GameAggregator}.
+ */
+public class IssGameArchive implements Iterable<IssGameArchive.ArchiveGame>,
+		Closeable {
+
+	private static Logger log = LoggerFactory.getLogger(IssGameArchive.class);
+
+	/**
+	 * Default size of the read buffer
+	 */
+	final static int DEFAULT_CHUNK_SIZE = 8 * 1024 * 1024;
+
+	/**
+	 * Number of tasks per thread for decoding a chunk, more tasks balance the
+	 * load better when the lines have different lengths
+	 */
+	private final static int TASKS_PER_THREAD = 4;
+
+	private final static GameAggregator<List<ArchiveGame>> COLLECTOR = new GameAggregator<List<ArchiveGame>>() {
+
+		@Override
+		public List<ArchiveGame> createResult() {
+			return new ArrayList<ArchiveGame>();
+		}
+
+		@Override
+		public void addGame(final List<ArchiveGame> result,
+				final ArchiveGame game) {
+			result.add(game);
+		}
+
+		@Override
+		public List<ArchiveGame> merge(final List<ArchiveGame> first,
+				final List<ArchiveGame> second) {
+			first.addAll(second);
+			return first;
+		}
+	};
+
+	private final File file;
+	private int threadCount = Runtime.getRuntime().availableProcessors();
+	private int chunkSize = DEFAULT_CHUNK_SIZE;
+	private Charset charset = Charset.defaultCharset();
+	private boolean parseMoves = true;
+	private GameFilter filter;
+
+	private ForkJoinPool pool;
+	private final List<ChunkReader> openReaders = new ArrayList<ChunkReader>();
+
+	private final AtomicLong readGames = new AtomicLong();
+	private final AtomicLong failedGames = new AtomicLong();
+
+	/**
+	 * Filters the games of an archive
+	 */
+	public interface GameFilter {
+
+		/**
+		 * Checks whether a game should be delivered<br />
+		 * The filter is called from several threads at once.
+		 * 
+		 * @param game
+		 *            Game
+		 * @return TRUE if the game should be delivered
+		 */
+		boolean accept(ArchiveGame game);
+	}
+
+	/**
+	 * Combines the games of an archive into a result<br />
+	 * Every decoding task creates its own result, so {@link #addGame} needs no
+	 * synchronization. The results are merged in the order of the archive.
+	 * 
+	 * @param <T>
+	 *            Type of the result
+	 */
+	public interface GameAggregator<T> {
+
+		/**
+		 * Creates an empty result
+		 * 
+		 * @return Empty result
+		 */
+		T createResult();
+
+		/**
+		 * Adds a game to a result
+		 * 
+		 * @param result
+		 *            Result
+		 * @param game
+		 *            Game
+		 */
+		void addGame(T result, ArchiveGame game);
+
+		/**
+		 * Merges two results
+		 * 
+		 * @param first
+		 *            Result of the earlier games
+		 * @param second
+		 *            Result of the later games
+		 * @return Merged result, can be one of the given results
+		 */
+		T merge(T first, T second);
+	}
+
+	/**
+	 * Game read from an archive
+	 */
+	public final static class ArchiveGame {
+
+		private final long gameNumber;
+		private final String summary;
+		private final SkatGameData gameData;
+
+		ArchiveGame(final long newGameNumber, final String newSummary,
+				final SkatGameData newGameData) {
+			gameNumber = newGameNumber;
+			summary = newSummary;
+			gameData = newGameData;
+		}
+
+		/**
+		 * Gets the number of the game, it's the line number in the archive
+		 * 
+		 * @return Game number, starting with 1
+		 */
+		public long getGameNumber() {
+			return gameNumber;
+		}
+
+		/**
+		 * Gets the game summary as found in the archive
+		 * 
+		 * @return Game summary
+		 */
+		public String getSummary() {
+			return summary;
+		}
+
+		/**
+		 * Gets the parsed game data
+		 * 
+		 * @return Game data, without announcement, bids and tricks if the
+		 *         moves are not parsed, {@link SkatGameData#getResult()}
+		 *         holds the result from the archive
+		 */
+		public SkatGameData getGameData() {
+			return gameData;
+		}
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param newFile
+	 *            Game archive
+	 */
+	public IssGameArchive(final File newFile) {
+		file = newFile;
+	}
+
+	/**
+	 * Sets the number of threads for decoding the games
+	 * 
+	 * @param newThreadCount
+	 *            Number of threads
+	 */
+	public void setThreadCount(final int newThreadCount) {
+		if (newThreadCount < 1) {
+			throw new IllegalArgumentException(
+					"At least one thread is needed."); //$NON-NLS-1$
+		}
+		threadCount = newThreadCount;
+	}
+
+	/**
+	 * Sets the size of the read buffer<br />
+	 * The buffer grows if a single line doesn't fit into it.
+	 * 
+	 * @param newChunkSize
+	 *            Chunk size in bytes
+	 */
+	public void setChunkSize(final int newChunkSize) {
+		if (newChunkSize < 1) {
+			throw new IllegalArgumentException(
+					"The chunk size must be positive."); //$NON-NLS-1$
+		}
+		chunkSize = newChunkSize;
+	}
+
+	/**
+	 * Sets the charset of the archive
+	 * 
+	 * @param newCharset
+	 *            Charset, the platform default is used otherwise
+	 */
+	public void setCharset(final Charset newCharset) {
+		charset = newCharset;
+	}
+
+	/**
+	 * Sets whether the moves of the games are parsed<br />
+	 * Parsing the moves takes most of the time, the player names and the game
+	 * result are always parsed.
+	 * 
+	 * @param isParseMoves
+	 *            TRUE if the moves should be parsed
+	 */
+	public void setParseMoves(final boolean isParseMoves) {
+		parseMoves = isParseMoves;
+	}
+
+	/**
+	 * Sets a filter for the games
+	 * 
+	 * @param newFilter
+	 *            Filter, NULL for all games
+	 */
+	public void setFilter(final GameFilter newFilter) {
+		filter = newFilter;
+	}
+
+	/**
+	 * Gets the number of games read successfully, including the games that
+	 * were filtered
+	 * 
+	 * @return Number of games
+	 */
+	public long getReadGames() {
+		return readGames.get();
+	}
+
+	/**
+	 * Gets the number of games that could not be parsed
+	 * 
+	 * @return Number of games
+	 */
+	public long getFailedGames() {
+		return failedGames.get();
+	}
+
+	/**
+	 * Iterates over the games of the archive<br />
+	 * The games are decoded chunk by chunk in the background of
+	 * {@link Iterator#hasNext()}. Read errors are thrown as
+	 * {@link IllegalStateException}.
+	 * 
+	 * @return Iterator over the games
+	 */
+	@Override
+	public Iterator<ArchiveGame> iterator() {
+		try {
+			return new ArchiveIterator(openReader());
+		} catch (final IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Combines all games of the archive
+	 * 
+	 * @param aggregator
+	 *            Aggregator
+	 * @return Result for all games that pass the filter
+	 * @throws IOException
+	 *             If the archive can't be read
+	 */
+	public <T> T aggregate(final GameAggregator<T> aggregator)
+			throws IOException {
+
+		final ChunkReader reader = openReader();
+		try {
+			T result = aggregator.createResult();
+			T chunkResult;
+			while ((chunkResult = readChunk(reader, aggregator)) != null) {
+				result = aggregator.merge(result, chunkResult);
+			}
+			return result;
+		} finally {
+			closeReader(reader);
+		}
+	}
+
+	/**
+	 * Closes all open iterators and stops the decoding threads
+	 */
+	@Override
+	public void close() throws IOException {
+
+		final List<ChunkReader> readers;
+		synchronized (openReaders) {
+			readers = new ArrayList<ChunkReader>(openReaders);
+		}
+		for (final ChunkReader reader : readers) {
+			closeReader(reader);
+		}
+
+		synchronized (this) {
+			if (pool != null) {
+				pool.shutdown();
+				pool = null;
+			}
+		}
+	}
+
+	private ChunkReader openReader() throws IOException {
+		final ChunkReader reader = new ChunkReader(file, chunkSize);
+		synchronized (openReaders) {
+			openReaders.add(reader);
+		}
+		return reader;
+	}
+
+	private void closeReader(final ChunkReader reader) throws IOException {
+		synchronized (openReaders) {
+			openReaders.remove(reader);
+		}
+		reader.close();
+	}
+
+	private synchronized ForkJoinPool getPool() {
+		if (pool == null) {
+			pool = new ForkJoinPool(threadCount);
+		}
+		return pool;
+	}
+
+	/**
+	 * Reads the next chunk of complete lines and decodes them
+	 * 
+	 * @return Result of the chunk, NULL at the end of the archive
+	 */
+	private <T> T readChunk(final ChunkReader reader,
+			final GameAggregator<T> aggregator) throws IOException {
+
+		final int end = reader.fill();
+		if (end == 0) {
+			return null;
+		}
+
+		final byte[] data = reader.getData();
+		final List<DecodingTask<T>> tasks = new ArrayList<DecodingTask<T>>();
+		final int taskCount = threadCount * TASKS_PER_THREAD;
+		long gameNumber = reader.getLineNumber() + 1;
+		int start = 0;
+		for (int i = 1; i <= taskCount && start < end; i++) {
+
+			int taskEnd = Math.max(start + 1,
+					(int) ((long) end * i / taskCount));
+			while (taskEnd < end && data[taskEnd - 1] != '\n') {
+				taskEnd++;
+			}
+			tasks.add(new DecodingTask<T>(aggregator, data, start, taskEnd,
+					gameNumber));
+			gameNumber += countLines(data, start, taskEnd);
+			start = taskEnd;
+		}
+
+		T result = null;
+		try {
+			for (final Future<DecodingTask<T>> task : getPool()
+					.invokeAll(tasks)) {
+				final T taskResult = task.get().result;
+				result = result == null ? taskResult : aggregator.merge(
+						result, taskResult);
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Reading the archive was interrupted.", e); //$NON-NLS-1$
+		} catch (final ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+
+		reader.consume(end, gameNumber - 1);
+
+		return result;
+	}
+
+	private static int countLines(final byte[] data, final int start,
+			final int end) {
+		int result = 0;
+		for (int i = start; i < end; i++) {
+			if (data[i] == '\n') {
+				result++;
+			}
+		}
+		if (end > start && data[end - 1] != '\n') {
+			// last line of the archive without line break
+			result++;
+		}
+		return result;
+	}
+
+	/**
+	 * Decodes the lines of a part of a chunk
+	 */
+	private final class DecodingTask<T> implements Callable<DecodingTask<T>> {
+
+		private final GameAggregator<T> aggregator;
+		private final byte[] data;
+		private final int start;
+		private final int end;
+		private final long firstGameNumber;
+
+		T result;
+
+		DecodingTask(final GameAggregator<T> newAggregator,
+				final byte[] newData, final int newStart, final int newEnd,
+				final long newFirstGameNumber) {
+			aggregator = newAggregator;
+			data = newData;
+			start = newStart;
+			end = newEnd;
+			firstGameNumber = newFirstGameNumber;
+		}
+
+		@Override
+		public DecodingTask<T> call() {
+
+			result = aggregator.createResult();
+
+			long gameNumber = firstGameNumber;
+			int lineStart = start;
+			while (lineStart < end) {
+
+				int lineEnd = lineStart;
+				while (lineEnd < end && data[lineEnd] != '\n') {
+					lineEnd++;
+				}
+				int contentEnd = lineEnd;
+				if (contentEnd > lineStart && data[contentEnd - 1] == '\r') {
+					contentEnd--;
+				}
+
+				if (contentEnd > lineStart) {
+					decodeGame(gameNumber, new String(data, lineStart,
+							contentEnd - lineStart, charset));
+				}
+
+				gameNumber++;
+				lineStart = lineEnd + 1;
+			}
+
+			return this;
+		}
+
+		private void decodeGame(final long gameNumber, final String summary) {
+
+			final SkatGameData gameData;
+			try {
+				gameData = MessageParser.parseGameSummary(summary, parseMoves);
+			} catch (final RuntimeException except) {
+				failedGames.incrementAndGet();
+				log.error("Failed reading game no. " + gameNumber + ": " //$NON-NLS-1$ //$NON-NLS-2$
+						+ summary, except);
+				return;
+			}
+			readGames.incrementAndGet();
+
+			final ArchiveGame game = new ArchiveGame(gameNumber, summary,
+					gameData);
+			if (filter == null || filter.accept(game)) {
+				aggregator.addGame(result, game);
+			}
+		}
+	}
+
+	/**
+	 * Delivers the games chunk by chunk
+	 */
+	private final class ArchiveIterator implements Iterator<ArchiveGame> {
+
+		private ChunkReader reader;
+		private Iterator<ArchiveGame> chunk = Collections
+				.<ArchiveGame> emptyList().iterator();
+
+		ArchiveIterator(final ChunkReader newReader) {
+			reader = newReader;
+		}
+
+		@Override
+		public boolean hasNext() {
+
+			try {
+				while (!chunk.hasNext() && reader != null) {
+					final List<ArchiveGame> games = readChunk(reader,
+							COLLECTOR);
+					if (games == null) {
+						closeReader(reader);
+						reader = null;
+					} else {
+						chunk = games.iterator();
+					}
+				}
+			} catch (final IOException e) {
+				throw new IllegalStateException(e);
+			}
+
+			return chunk.hasNext();
+		}
+
+		@Override
+		public ArchiveGame next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return chunk.next();
+		}
+
+		@Override
+		public void remove() {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	/**
+	 * Reads the archive into a reusable buffer that always ends on a line
+	 * boundary
+	 */
+	private final static class ChunkReader implements Closeable {
+
+		private final FileInputStream input;
+		private final FileChannel channel;
+		private ByteBuffer buffer;
+		private long lineNumber;
+		private boolean endOfFile;
+
+		ChunkReader(final File file, final int chunkSize) throws IOException {
+			input = new FileInputStream(file);
+			channel = input.getChannel();
+			buffer = ByteBuffer.allocate(chunkSize);
+		}
+
+		/**
+		 * Fills the buffer
+		 * 
+		 * @return End of the last complete line in the buffer, 0 at the end
+		 *         of the archive
+		 */
+		int fill() throws IOException {
+
+			while (true) {
+				while (buffer.hasRemaining() && !endOfFile) {
+					if (channel.read(buffer) < 0) {
+						endOfFile = true;
+					}
+				}
+
+				if (endOfFile) {
+					return buffer.position();
+				}
+
+				for (int i = buffer.position() - 1; i >= 0; i--) {
+					if (buffer.get(i) == '\n') {
+						return i + 1;
+					}
+				}
+
+				// a single line is longer than the buffer
+				final ByteBuffer largerBuffer = ByteBuffer.allocate(buffer
+						.capacity() * 2);
+				buffer.flip();
+				largerBuffer.put(buffer);
+				buffer = largerBuffer;
+			}
+		}
+
+		byte[] getData() {
+			return buffer.array();
+		}
+
+		long getLineNumber() {
+			return lineNumber;
+		}
+
+		/**
+		 * Removes the decoded lines from the buffer
+		 */
+		void consume(final int end, final long lastLineNumber) {
+			buffer.flip();
+			buffer.position(end);
+			buffer.compact();
+			lineNumber = lastLineNumber;
+		}
+
+		@Override
+		public void close() throws IOException {
+			channel.close();
+			input.close();
+		}
+	}
+}
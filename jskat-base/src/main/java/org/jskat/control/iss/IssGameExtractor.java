@@ -15,14 +15,12 @@
  */
 package org.jskat.control.iss;
 
-import java.io.BufferedReader;
-import java.io.DataInputStream;
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.InputStreamReader;
+import java.io.IOException;
 
 import org.apache.log4j.PropertyConfigurator;
-import org.jskat.data.SkatGameData;
+import org.jskat.control.iss.IssGameArchive.ArchiveGame;
+import org.jskat.control.iss.IssGameArchive.GameFilter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -44,44 +42,41 @@ public class IssGameExtractor {
 
 		PropertyConfigurator.configure(ClassLoader
 				.getSystemResource("org/jskat/config/log4j.properties")); //$NON-NLS-1$
-		IssGameExtractor gameExtractor = new IssGameExtractor();
-		gameExtractor
-				.setFilePath("/home/jan/Projekte/jskat/iss/issgames-1-2012.sgf"); //$NON-NLS-1$
+
+		if (args.length != 1) {
+			System.err.println("Usage: IssGameExtractor <game archive>"); //$NON-NLS-1$
+			System.exit(1);
+		}
+		setFilePath(args[0]);
 
 		filterGameDatabase();
 	}
 
-	private static void filterGameDatabase() throws Exception {
-		FileInputStream inputStream = new FileInputStream(new File(filePath));
-		DataInputStream in = new DataInputStream(inputStream);
-		BufferedReader br = new BufferedReader(new InputStreamReader(in));
-		String strLine;
-
-		long gameNo = 1;
+	private static void filterGameDatabase() throws IOException {
 
-		// Read File Line By Line
-		while ((strLine = br.readLine()) != null) {
-			try {
-				SkatGameData gameData = MessageParser.parseGameSummary(strLine);
-				int declarerPoints = gameData.getGameResult()
+		IssGameArchive archive = new IssGameArchive(new File(filePath));
+		// only the game result is needed
+		archive.setParseMoves(false);
+		archive.setFilter(new GameFilter() {
+			@Override
+			public boolean accept(final ArchiveGame game) {
+				int declarerPoints = game.getGameData().getResult()
 						.getFinalDeclarerPoints();
-				if (declarerPoints > 60 && declarerPoints < 65) {
-					log.warn("Game no. " + gameNo + ": " + strLine); //$NON-NLS-1$//$NON-NLS-2$
-					// log.debug("Game type: " + gameData.getGameType());
-				}
-			} catch (Exception except) {
-				log.error("Failed reading game no. " + gameNo + ": " + strLine); //$NON-NLS-1$ //$NON-NLS-2$
-				log.error(except.toString());
+				return declarerPoints > 60 && declarerPoints < 65;
 			}
+		});
 
-			if (gameNo % 10000 == 0) {
-				log.error("Read " + gameNo + " games."); //$NON-NLS-1$//$NON-NLS-2$
+		try {
+			for (ArchiveGame game : archive) {
+				log.warn("Game no. " + game.getGameNumber() + ": " //$NON-NLS-1$//$NON-NLS-2$
+						+ game.getSummary());
 			}
-
-			gameNo++;
+		} finally {
+			archive.close();
 		}
-		// Close the input stream
-		in.close();
+
+		log.error("Read " + archive.getReadGames() + " games, " //$NON-NLS-1$//$NON-NLS-2$
+				+ archive.getFailedGames() + " failed."); //$NON-NLS-1$
 	}
 
 	/**
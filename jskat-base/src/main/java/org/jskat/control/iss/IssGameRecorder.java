@@ -0,0 +1,279 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.iss;
+
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import org.jskat.control.SkatGameEngine;
+import org.jskat.data.GameAnnouncement;
+import org.jskat.data.GameSummary;
+import org.jskat.data.Trick;
+import org.jskat.gui.NullView;
+import org.jskat.player.JSkatPlayer;
+import org.jskat.util.Card;
+import org.jskat.util.CardDeck;
+import org.jskat.util.CardList;
+import org.jskat.util.GameType;
+import org.jskat.util.GameVariant;
+import org.jskat.util.Player;
+import org.slf4j.helpers.NOPLogger;
+
+/**
+ * Records the moves of a game played by a {@link SkatGameEngine} in the ISS
+ * protocol<br />
+ * The recorded game can be written as an ISS game summary, like the ones in
+ * the ISS game database, which is understood by
+ * {@link MessageParser#parseGameSummary(String)}.
+ */
+public class IssGameRecorder extends NullView {
+
+	private final List<String> moves = new ArrayList<String>();
+	private final List<CardList> dealtCards = new ArrayList<CardList>();
+	private Player declarer;
+	private boolean skatPickedUp;
+	private CardList discardedCards;
+
+	/**
+	 * Plays a game and records it as ISS game summary
+	 * 
+	 * @param players
+	 *            Players in the order fore hand, middle hand, rear hand
+	 * @param deck
+	 *            Card deck, is consumed by the game
+	 * @param gameNumber
+	 *            Game number for the summary
+	 * @return ISS game summary
+	 */
+	public static String recordGame(final JSkatPlayer[] players,
+			final CardDeck deck, final int gameNumber) {
+
+		final SkatGameEngine engine = new SkatGameEngine("ISS recorder", //$NON-NLS-1$
+				GameVariant.STANDARD, players[0], players[1], players[2]);
+		final IssGameRecorder recorder = new IssGameRecorder();
+		engine.setView(recorder);
+		engine.setLogger(NOPLogger.NOP_LOGGER);
+		engine.setCardDeck(deck);
+		engine.play();
+
+		final String[] names = new String[players.length];
+		for (int i = 0; i < players.length; i++) {
+			names[i] = players[i].getPlayerName().replace(' ', '_');
+		}
+
+		return recorder.getGameSummary(gameNumber, names,
+				engine.getGameSummary());
+	}
+
+	/**
+	 * Gets the recorded moves<br />
+	 * Every move consists of the moving player (w for the server, 0, 1 or 2
+	 * for the players) and the move itself.
+	 * 
+	 * @return Recorded moves
+	 */
+	public List<String> getMoves() {
+		return moves;
+	}
+
+	/**
+	 * Creates the ISS game summary of the recorded game
+	 * 
+	 * @param gameNumber
+	 *            Game number
+	 * @param playerNames
+	 *            Player names in the order fore hand, middle hand, rear hand
+	 * @param summary
+	 *            Summary of the played game
+	 * @return ISS game summary
+	 */
+	public String getGameSummary(final int gameNumber,
+			final String[] playerNames, final GameSummary summary) {
+
+		final SimpleDateFormat dateFormat = new SimpleDateFormat(
+				"yyyy-MM-dd/HH:mm:ss/'UTC'"); //$NON-NLS-1$
+		dateFormat.setTimeZone(TimeZone.getTimeZone("UTC")); //$NON-NLS-1$
+
+		final StringBuilder result = new StringBuilder();
+		result.append("(;GM[Skat]PC[JSkat ISS stand-in]SE[1]ID[") //$NON-NLS-1$
+				.append(gameNumber).append("]DT[") //$NON-NLS-1$
+				.append(dateFormat.format(new Date()))
+				.append("]P0[").append(playerNames[0]) //$NON-NLS-1$
+				.append("]P1[").append(playerNames[1]) //$NON-NLS-1$
+				.append("]P2[").append(playerNames[2]) //$NON-NLS-1$
+				.append("]R0[]R1[]R2[]MV["); //$NON-NLS-1$
+		for (final String move : moves) {
+			result.append(move).append(' ');
+		}
+		result.append("]R[").append(getResultString(summary)) //$NON-NLS-1$
+				.append("] ;)"); //$NON-NLS-1$
+
+		return result.toString();
+	}
+
+	private String getResultString(final GameSummary summary) {
+
+		if (summary.getGameType() == GameType.PASSED_IN
+				|| summary.getDeclarer() == null) {
+			return "passed"; //$NON-NLS-1$
+		}
+
+		final int gameValue = summary.isGameWon() ? Math.abs(summary
+				.getGameValue()) : -Math.abs(summary.getGameValue());
+
+		int declarerTricks = 0;
+		for (final Trick trick : summary.getTricks()) {
+			if (trick.getTrickWinner() == summary.getDeclarer()) {
+				declarerTricks++;
+			}
+		}
+
+		return "d:" + getIssPlayer(summary.getDeclarer()) //$NON-NLS-1$
+				+ (summary.isGameWon() ? " win" : " loss") //$NON-NLS-1$ //$NON-NLS-2$
+				+ " v:" + gameValue + " m:0 bidok" //$NON-NLS-1$ //$NON-NLS-2$
+				+ " p:" + summary.getFinalDeclarerPoints() //$NON-NLS-1$
+				+ " t:" + declarerTricks //$NON-NLS-1$
+				+ " s:" + (summary.isSchneider() ? '1' : '0') //$NON-NLS-1$
+				+ " z:" + (summary.isSchwarz() ? '1' : '0') //$NON-NLS-1$
+				+ " p0:0 p1:0 p2:0 l:-1 to:-1 r:0"; //$NON-NLS-1$
+	}
+
+	private void addMove(final String movePlayer, final String move) {
+		moves.add(movePlayer + ' ' + move);
+	}
+
+	private static String getIssPlayer(final Player player) {
+		return Integer.toString(player.ordinal());
+	}
+
+	private static String getIssCards(final CardList cards) {
+
+		final StringBuilder result = new StringBuilder();
+		for (final Card card : cards) {
+			if (result.length() > 0) {
+				result.append('.');
+			}
+			result.append(MessageGenerator.getIssCardString(card));
+		}
+		return result.toString();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void addCards(final String tableName, final Player player,
+			final CardList cards) {
+
+		dealtCards.add(new CardList(cards));
+
+		if (dealtCards.size() == 3) {
+			final CardList deal = new CardList();
+			final CardList skat = new CardList(Card.values());
+			for (final CardList hand : dealtCards) {
+				deal.addAll(hand);
+				skat.removeAll(hand);
+			}
+			deal.addAll(skat);
+			addMove("w", getIssCards(deal)); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setBid(final String tableName, final Player player,
+			final int bidValue, final boolean madeBid) {
+
+		addMove(getIssPlayer(player),
+				madeBid ? Integer.toString(bidValue) : "y"); //$NON-NLS-1$
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setPass(final String tableName, final Player player) {
+		addMove(getIssPlayer(player), "p"); //$NON-NLS-1$
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setDeclarer(final String tableName, final Player newDeclarer) {
+		declarer = newDeclarer;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setSkat(final String tableName, final CardList skat) {
+
+		skatPickedUp = true;
+		addMove(getIssPlayer(declarer), "s"); //$NON-NLS-1$
+		addMove("w", getIssCards(skat)); //$NON-NLS-1$
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setDiscardedSkat(final String tableName,
+			final Player activePlayer, final CardList skatBefore,
+			final CardList discardedSkat) {
+
+		discardedCards = new CardList(discardedSkat);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void setGameAnnouncement(final String tableName,
+			final Player newDeclarer, final GameAnnouncement ann) {
+
+		if (ann.getGameType() == GameType.PASSED_IN
+				|| ann.getGameType() == GameType.RAMSCH) {
+			// no game announcement on ISS
+			return;
+		}
+
+		// on ISS every game without a skat request is a hand game
+		final boolean hand = ann.isHand() || !skatPickedUp;
+		String move = MessageGenerator.getGameTypeString(ann.getGameType(),
+				hand, ann.isOuvert(), ann.isSchneider(), ann.isSchwarz());
+		if (!hand && discardedCards != null) {
+			move += '.' + getIssCards(discardedCards);
+		}
+		addMove(getIssPlayer(newDeclarer), move);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void playTrickCard(final String tableName, final Player position,
+			final Card card) {
+
+		addMove(getIssPlayer(position), MessageGenerator.getIssCardString(card));
+	}
+}
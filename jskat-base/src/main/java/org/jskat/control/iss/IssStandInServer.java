@@ -0,0 +1,451 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.iss;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.StringTokenizer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.log4j.PropertyConfigurator;
+import org.jskat.data.DesktopSavePathResolver;
+import org.jskat.data.JSkatOptions;
+import org.jskat.player.JSkatPlayer;
+import org.jskat.util.CardDeck;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Local stand-in for the International Skat Server ISS<br />
+ * Speaks the part of the ISS protocol that {@link MessageHandler} understands:
+ * login, table creation, game start, moves and game summaries. Every
+ * connection gets its own table on which recorded games are replayed move by
+ * move, either from an ISS game database or from games played by JSkat AI
+ * players.<br />
+ * The server is meant for load and latency tests of the connectors and the
+ * message parsing, it does not check any moves of the clients.
+ */
+public class IssStandInServer {
+
+	private static Logger log = LoggerFactory.getLogger(IssStandInServer.class);
+
+	private final static String PLAYER_TIMES = " 180.0 180.0 180.0"; //$NON-NLS-1$
+
+	private final static Pattern SUMMARY_PART = Pattern
+			.compile("(\\w+)\\[(.*?)\\]"); //$NON-NLS-1$
+
+	private final List<String> gameSummaries;
+	private int gamesPerSession = 1;
+	private double movesPerSecond;
+	private boolean recordMoveTimes;
+
+	private ServerSocket serverSocket;
+	private Thread acceptThread;
+	private final AtomicInteger sessionCount = new AtomicInteger();
+	private final AtomicInteger finishedSessions = new AtomicInteger();
+	private final AtomicLong sentMessages = new AtomicLong();
+	private final ConcurrentMap<String, Queue<Long>> moveTimes = new ConcurrentHashMap<String, Queue<Long>>();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param newGameSummaries
+	 *            ISS game summaries of the games that are replayed
+	 */
+	public IssStandInServer(final List<String> newGameSummaries) {
+
+		if (newGameSummaries.isEmpty()) {
+			throw new IllegalArgumentException("No games to replay."); //$NON-NLS-1$
+		}
+		gameSummaries = new ArrayList<String>(newGameSummaries);
+	}
+
+	/**
+	 * Reads the game summaries of an ISS game database<br />
+	 * The file contains one game summary per line.
+	 * 
+	 * @param file
+	 *            Game database
+	 * @return Game summaries
+	 * @throws IOException
+	 *             If the file can't be read
+	 */
+	public static List<String> readGameSummaries(final File file)
+			throws IOException {
+
+		final List<String> result = new ArrayList<String>();
+		final BufferedReader reader = new BufferedReader(new InputStreamReader(
+				new FileInputStream(file)));
+		try {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				if (line.startsWith("(;GM[Skat]")) { //$NON-NLS-1$
+					result.add(line);
+				}
+			}
+		} finally {
+			reader.close();
+		}
+		return result;
+	}
+
+	/**
+	 * Plays games with JSkat AI players and records them
+	 * 
+	 * @param playerClass
+	 *            Class name of the players
+	 * @param numberOfGames
+	 *            Number of games
+	 * @param seed
+	 *            Seed for the card decks
+	 * @return Game summaries
+	 * @throws ReflectiveOperationException
+	 *             If the players can't be instantiated
+	 */
+	public static List<String> playGames(final String playerClass,
+			final int numberOfGames, final long seed)
+			throws ReflectiveOperationException {
+
+		final Random random = new Random(seed);
+		final List<String> result = new ArrayList<String>();
+		for (int game = 0; game < numberOfGames; game++) {
+
+			final JSkatPlayer[] players = new JSkatPlayer[3];
+			for (int i = 0; i < players.length; i++) {
+				players[i] = (JSkatPlayer) Class.forName(playerClass)
+						.getDeclaredConstructor().newInstance();
+				players[i].setPlayerName(players[i].getClass().getSimpleName()
+						+ "_" + (i + 1)); //$NON-NLS-1$
+			}
+
+			final CardDeck deck = new CardDeck();
+			deck.shuffle(random);
+			result.add(IssGameRecorder.recordGame(players, deck, game + 1));
+		}
+		return result;
+	}
+
+	/**
+	 * Sets the number of games that are replayed on every table
+	 * 
+	 * @param newGamesPerSession
+	 *            Number of games
+	 */
+	public void setGamesPerSession(final int newGamesPerSession) {
+		gamesPerSession = newGamesPerSession;
+	}
+
+	/**
+	 * Sets the replay speed
+	 * 
+	 * @param newMovesPerSecond
+	 *            Moves per second and table, 0 for replaying as fast as
+	 *            possible
+	 */
+	public void setMovesPerSecond(final double newMovesPerSecond) {
+		movesPerSecond = newMovesPerSecond;
+	}
+
+	/**
+	 * Sets whether the send times of the moves are recorded<br />
+	 * The times can be used to measure the latency of clients that run in the
+	 * same JVM, see {@link #getMoveTimes(String)}.
+	 * 
+	 * @param newRecordMoveTimes
+	 *            TRUE if the send times should be recorded
+	 */
+	public void setRecordMoveTimes(final boolean newRecordMoveTimes) {
+		recordMoveTimes = newRecordMoveTimes;
+	}
+
+	/**
+	 * Starts the server
+	 * 
+	 * @param port
+	 *            Port, 0 for any free port
+	 * @return Port the server listens on
+	 * @throws IOException
+	 *             If the server socket can't be opened
+	 */
+	public int start(final int port) throws IOException {
+
+		serverSocket = new ServerSocket(port);
+		acceptThread = new Thread("ISS stand-in server") { //$NON-NLS-1$
+			@Override
+			public void run() {
+				acceptConnections();
+			}
+		};
+		acceptThread.setDaemon(true);
+		acceptThread.start();
+
+		log.info("ISS stand-in listens on port " + serverSocket.getLocalPort()); //$NON-NLS-1$
+
+		return serverSocket.getLocalPort();
+	}
+
+	/**
+	 * Stops accepting new connections
+	 */
+	public void stop() {
+
+		try {
+			serverSocket.close();
+		} catch (final IOException e) {
+			log.warn("Cannot close server socket", e); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Gets the number of sessions that replayed all their games
+	 * 
+	 * @return Number of finished sessions
+	 */
+	public int getFinishedSessions() {
+		return finishedSessions.get();
+	}
+
+	/**
+	 * Gets the number of sent messages
+	 * 
+	 * @return Number of sent messages
+	 */
+	public long getSentMessages() {
+		return sentMessages.get();
+	}
+
+	/**
+	 * Gets the send times of the moves for a login<br />
+	 * The times are taken with {@link System#nanoTime()} right before a move
+	 * is sent, in the order of the moves.
+	 * 
+	 * @param login
+	 *            Login name
+	 * @return Send times, NULL if the login is unknown
+	 */
+	public Queue<Long> getMoveTimes(final String login) {
+		return moveTimes.get(login);
+	}
+
+	private void acceptConnections() {
+
+		while (!serverSocket.isClosed()) {
+			try {
+				final Socket socket = serverSocket.accept();
+				final int sessionNumber = sessionCount.incrementAndGet();
+				final Thread session = new Thread("ISS stand-in session " //$NON-NLS-1$
+						+ sessionNumber) {
+					@Override
+					public void run() {
+						serveSession(socket, sessionNumber);
+					}
+				};
+				session.setDaemon(true);
+				session.start();
+			} catch (final IOException e) {
+				if (!serverSocket.isClosed()) {
+					log.error("Cannot accept connection", e); //$NON-NLS-1$
+				}
+			}
+		}
+	}
+
+	private void serveSession(final Socket socket, final int sessionNumber) {
+
+		try {
+			final BufferedReader input = new BufferedReader(
+					new InputStreamReader(socket.getInputStream()));
+			final PrintWriter output = new PrintWriter(socket.getOutputStream());
+
+			final String login = input.readLine();
+			if (login == null) {
+				return;
+			}
+			send(output, "password:"); //$NON-NLS-1$
+			if (input.readLine() == null) {
+				return;
+			}
+
+			Queue<Long> sendTimes = null;
+			if (recordMoveTimes) {
+				sendTimes = new ConcurrentLinkedQueue<Long>();
+				moveTimes.put(login, sendTimes);
+			}
+
+			final String tableName = "." + sessionNumber; //$NON-NLS-1$
+			final String tablePrefix = "table " + tableName + ' ' + login + ' '; //$NON-NLS-1$
+			send(output, "Welcome " + login + " to the ISS stand-in 14.0"); //$NON-NLS-1$ //$NON-NLS-2$
+			send(output, "create " + tableName + ' ' + login + " 3"); //$NON-NLS-1$ //$NON-NLS-2$
+
+			final long startTime = System.nanoTime();
+			long moveNumber = 0;
+
+			for (int game = 0; game < gamesPerSession; game++) {
+
+				final String summary = gameSummaries.get((sessionNumber + game)
+						% gameSummaries.size());
+				final String[] names = new String[3];
+				String moves = ""; //$NON-NLS-1$
+				final Matcher matcher = SUMMARY_PART.matcher(summary);
+				while (matcher.find()) {
+					final String part = matcher.group(1);
+					if ("P0".equals(part)) { //$NON-NLS-1$
+						names[0] = matcher.group(2);
+					} else if ("P1".equals(part)) { //$NON-NLS-1$
+						names[1] = matcher.group(2);
+					} else if ("P2".equals(part)) { //$NON-NLS-1$
+						names[2] = matcher.group(2);
+					} else if ("MV".equals(part)) { //$NON-NLS-1$
+						moves = matcher.group(2);
+					}
+				}
+
+				send(output, tablePrefix + "start " + (game + 1) + ' ' //$NON-NLS-1$
+						+ names[0] + " 180.0 " + names[1] + " 180.0 " //$NON-NLS-1$ //$NON-NLS-2$
+						+ names[2] + " 180.0"); //$NON-NLS-1$
+				send(output, tablePrefix + "go"); //$NON-NLS-1$
+
+				final StringTokenizer tokens = new StringTokenizer(moves);
+				while (tokens.hasMoreTokens()) {
+					final String movePlayer = tokens.nextToken();
+					final String move = tokens.nextToken();
+
+					waitForMove(startTime, moveNumber++);
+					if (sendTimes != null) {
+						sendTimes.add(Long.valueOf(System.nanoTime()));
+					}
+					send(output, tablePrefix + "play " + movePlayer + ' ' //$NON-NLS-1$
+							+ move + PLAYER_TIMES);
+				}
+
+				send(output, tablePrefix + "end " + summary); //$NON-NLS-1$
+			}
+
+			send(output, "destroy " + tableName); //$NON-NLS-1$
+			finishedSessions.incrementAndGet();
+
+		} catch (final IOException e) {
+			log.warn("Session " + sessionNumber + " failed", e); //$NON-NLS-1$ //$NON-NLS-2$
+		} catch (final InterruptedException e) {
+			log.warn("Session " + sessionNumber + " interrupted"); //$NON-NLS-1$ //$NON-NLS-2$
+		} finally {
+			try {
+				socket.close();
+			} catch (final IOException e) {
+				log.warn("Cannot close session " + sessionNumber, e); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private void waitForMove(final long startTime, final long moveNumber)
+			throws InterruptedException {
+
+		if (movesPerSecond > 0.0) {
+			final long moveTime = startTime
+					+ (long) (moveNumber * 1000000000L / movesPerSecond);
+			final long waitMillis = (moveTime - System.nanoTime()) / 1000000L;
+			if (waitMillis > 0) {
+				Thread.sleep(waitMillis);
+			}
+		}
+	}
+
+	private void send(final PrintWriter output, final String message)
+			throws IOException {
+
+		output.print(message);
+		output.print('\n');
+		output.flush();
+		if (output.checkError()) {
+			throw new IOException("Connection closed by client"); //$NON-NLS-1$
+		}
+		sentMessages.incrementAndGet();
+	}
+
+	/**
+	 * Starts a stand-in server
+	 * 
+	 * @param args
+	 *            --port, --replay FILE or --players CLASS with --games, and
+	 *            --rate MOVES_PER_SECOND, --session-games
+	 */
+	public static void main(final String[] args) throws Exception {
+
+		final URL logConfiguration = ClassLoader
+				.getSystemResource("org/jskat/config/log4j.properties"); //$NON-NLS-1$
+		if (logConfiguration != null) {
+			PropertyConfigurator.configure(logConfiguration);
+		}
+		// recorded games are played with the default rules
+		JSkatOptions.instance(new DesktopSavePathResolver()).resetToDefault(
+				new DesktopSavePathResolver());
+
+		int port = 7000;
+		String replayFile = null;
+		String playerClass = "org.jskat.ai.rnd.AIPlayerRND"; //$NON-NLS-1$
+		int numberOfGames = 100;
+		int sessionGames = 10;
+		double rate = 0.0;
+
+		for (int i = 0; i < args.length; i++) {
+			if ("--port".equals(args[i])) { //$NON-NLS-1$
+				port = Integer.parseInt(args[++i]);
+			} else if ("--replay".equals(args[i])) { //$NON-NLS-1$
+				replayFile = args[++i];
+			} else if ("--players".equals(args[i])) { //$NON-NLS-1$
+				playerClass = args[++i];
+			} else if ("--games".equals(args[i])) { //$NON-NLS-1$
+				numberOfGames = Integer.parseInt(args[++i]);
+			} else if ("--session-games".equals(args[i])) { //$NON-NLS-1$
+				sessionGames = Integer.parseInt(args[++i]);
+			} else if ("--rate".equals(args[i])) { //$NON-NLS-1$
+				rate = Double.parseDouble(args[++i]);
+			} else {
+				System.err.println("Unknown option " + args[i]); //$NON-NLS-1$
+				System.exit(1);
+			}
+		}
+
+		final List<String> games = replayFile != null ? readGameSummaries(new File(
+				replayFile)) : playGames(playerClass, numberOfGames, 1L);
+
+		final IssStandInServer server = new IssStandInServer(games);
+		server.setGamesPerSession(sessionGames);
+		server.setMovesPerSecond(rate);
+		server.start(port);
+
+		System.out.println("ISS stand-in with " + games.size() //$NON-NLS-1$
+				+ " games listens on port " + port); //$NON-NLS-1$
+		server.acceptThread.join();
+	}
+}
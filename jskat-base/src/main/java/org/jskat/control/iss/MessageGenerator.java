@@ -128,7 +128,7 @@ class MessageGenerator {
 		return "table " + tableName + ' ' + loginName + " play " + gameAnnouncementString; //$NON-NLS-1$//$NON-NLS-2$
 	}
 
-	private String getGameTypeString(final GameType gameType,
+	static String getGameTypeString(final GameType gameType,
 			final boolean hand, final boolean ouvert, final boolean schneider,
 			final boolean schwarz) {
 
@@ -142,11 +142,12 @@ class MessageGenerator {
 			result += "O"; //$NON-NLS-1$
 		}
 
-		if (schneider) {
+		// schneider and schwarz are implied by ouvert, schneider by schwarz
+		if (schneider && !schwarz && !ouvert) {
 			result += "S"; //$NON-NLS-1$
 		}
 
-		if (schwarz) {
+		if (schwarz && !ouvert) {
 			result += "Z"; //$NON-NLS-1$
 		}
 
@@ -177,7 +178,7 @@ class MessageGenerator {
 		return "table " + tableName + ' ' + loginName + " play " + getIssCardString(card); //$NON-NLS-1$//$NON-NLS-2$
 	}
 
-	private static String getIssCardString(final Card card) {
+	static String getIssCardString(final Card card) {
 		return card.getSuit().shortString() + card.getRank().shortString();
 	}
 
@@ -19,6 +19,8 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.StringTokenizer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
 import org.jskat.data.SkatGameData;
 import org.jskat.data.iss.MoveInformation;
@@ -33,12 +35,23 @@ public class MessageHandler extends Thread {
 
 	private static Logger log = LoggerFactory.getLogger(MessageHandler.class);
 
-	StreamConnector connect;
+	IssConnector connect;
 	IssController issControl;
 
 	JSkatResourceBundle strings;
 
-	List<String> messageList;
+	/**
+	 * Default number of messages that can wait for handling before the
+	 * connection stops reading from ISS
+	 */
+	final static int DEFAULT_QUEUE_CAPACITY = 1000;
+
+	private final BlockingQueue<QueuedMessage> messageQueue;
+
+	private volatile long messageCount;
+	private volatile long totalLatencyNanos;
+	private volatile long maxLatencyNanos;
+	private volatile long totalHandlingNanos;
 
 	private final static int protocolVersion = 14;
 
@@ -50,52 +63,201 @@ public class MessageHandler extends Thread {
 	 * @param controller
 	 *            ISS controller for JSkat
 	 */
-	public MessageHandler(final StreamConnector conn,
+	public MessageHandler(final IssConnector conn,
 			final IssController controller) {
 
-		connect = conn;
-		issControl = controller;
+		this(conn, controller, DEFAULT_QUEUE_CAPACITY);
+	}
 
-		strings = JSkatResourceBundle.instance();
+	/**
+	 * Constructor
+	 * 
+	 * @param controller
+	 *            ISS controller for JSkat
+	 */
+	public MessageHandler(final IssController controller) {
 
-		messageList = new ArrayList<String>();
+		this(null, controller, DEFAULT_QUEUE_CAPACITY);
 	}
 
-	public MessageHandler(final IssController controller) {
+	/**
+	 * Constructor
+	 * 
+	 * @param conn
+	 *            Connection to ISS, NULL if the connection closes itself
+	 * @param controller
+	 *            ISS controller for JSkat
+	 * @param queueCapacity
+	 *            Maximum number of messages waiting for handling
+	 */
+	MessageHandler(final IssConnector conn, final IssController controller,
+			final int queueCapacity) {
+
+		setName("ISS message handler"); //$NON-NLS-1$
+
+		connect = conn;
 		issControl = controller;
+
 		strings = JSkatResourceBundle.instance();
 
-		messageList = new ArrayList<String>();
+		messageQueue = new ArrayBlockingQueue<QueuedMessage>(queueCapacity);
 	}
 
 	/**
-	 * {@inheritDoc}
+	 * Handles the messages in the order they were received until the
+	 * connection is closed or the thread is interrupted
 	 */
 	@Override
 	public void run() {
-		while (true) {
-			if (messageList.size() > 0) {
 
-				final String message = getNextMessage();
-				handleMessage(message);
-			} else {
-				try {
-					Thread.sleep(100);
-				} catch (final InterruptedException e) {
-					log.warn("Thread.sleep() was interrupted"); //$NON-NLS-1$
-				}
+		boolean connectionClosed = false;
+
+		while (!connectionClosed) {
+
+			QueuedMessage queuedMessage;
+			try {
+				queuedMessage = messageQueue.take();
+			} catch (final InterruptedException e) {
+				log.debug("Message handler interrupted"); //$NON-NLS-1$
+				return;
 			}
+
+			connectionClosed = dispatch(queuedMessage);
+		}
+
+		log.debug("Handled " + messageCount + " messages, average latency " //$NON-NLS-1$ //$NON-NLS-2$
+				+ getAverageLatencyMillis() + " ms"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Adds a message read from ISS<br />
+	 * Blocks the reading thread while the message queue is full.
+	 * 
+	 * @param newMessage
+	 *            Message, NULL if the connection was closed
+	 */
+	void addMessage(final String newMessage) {
+
+		final QueuedMessage queuedMessage = new QueuedMessage(newMessage,
+				System.nanoTime());
+		try {
+			messageQueue.put(queuedMessage);
+		} catch (final InterruptedException e) {
+			log.warn("Waiting for the message queue was interrupted"); //$NON-NLS-1$
+			Thread.currentThread().interrupt();
 		}
 	}
 
-	synchronized void addMessage(final String newMessage) {
+	/**
+	 * Adds a message read from ISS without waiting for space in the message
+	 * queue<br />
+	 * Used by connectors that handle the messages with
+	 * {@link #handleQueuedMessages()} instead of starting the thread.
+	 * 
+	 * @param newMessage
+	 *            Message, NULL if the connection was closed
+	 * @return TRUE if the message was added, FALSE if the queue is full
+	 */
+	boolean offerMessage(final String newMessage) {
 
-		messageList.add(newMessage);
+		return messageQueue.offer(new QueuedMessage(newMessage, System
+				.nanoTime()));
 	}
 
-	private synchronized String getNextMessage() {
+	/**
+	 * Handles all queued messages in the calling thread<br />
+	 * Must not be called concurrently or while the thread is running.
+	 * 
+	 * @return Number of handled messages
+	 */
+	int handleQueuedMessages() {
+
+		int handledMessages = 0;
+		QueuedMessage queuedMessage = messageQueue.poll();
+		while (queuedMessage != null) {
+			dispatch(queuedMessage);
+			handledMessages++;
+			queuedMessage = messageQueue.poll();
+		}
+		return handledMessages;
+	}
+
+	private boolean dispatch(final QueuedMessage queuedMessage) {
+
+		final long dispatchTime = System.nanoTime();
+		handleMessage(queuedMessage.message);
+		recordLatency(dispatchTime - queuedMessage.receiveTime,
+				System.nanoTime() - dispatchTime);
+
+		return queuedMessage.message == null;
+	}
+
+	private void recordLatency(final long latencyNanos,
+			final long handlingNanos) {
+
+		// messages are handled by one thread at a time
+		messageCount++;
+		totalLatencyNanos += latencyNanos;
+		totalHandlingNanos += handlingNanos;
+		if (latencyNanos > maxLatencyNanos) {
+			maxLatencyNanos = latencyNanos;
+		}
+	}
+
+	/**
+	 * Gets the number of handled messages
+	 * 
+	 * @return Number of handled messages
+	 */
+	public long getMessageCount() {
+		return messageCount;
+	}
+
+	/**
+	 * Gets the number of messages waiting for handling
+	 * 
+	 * @return Number of waiting messages
+	 */
+	public int getQueuedMessageCount() {
+		return messageQueue.size();
+	}
+
+	/**
+	 * Gets the average time between reading a message from ISS and
+	 * dispatching it
+	 * 
+	 * @return Average latency in milliseconds
+	 */
+	public double getAverageLatencyMillis() {
+		return getAverageMillis(totalLatencyNanos);
+	}
+
+	/**
+	 * Gets the maximum time between reading a message from ISS and
+	 * dispatching it
+	 * 
+	 * @return Maximum latency in milliseconds
+	 */
+	public double getMaxLatencyMillis() {
+		return maxLatencyNanos / 1000000.0;
+	}
+
+	/**
+	 * Gets the average time needed for handling a message
+	 * 
+	 * @return Average handling time in milliseconds
+	 */
+	public double getAverageHandlingMillis() {
+		return getAverageMillis(totalHandlingNanos);
+	}
+
+	private double getAverageMillis(final long totalNanos) {
 
-		return messageList.remove(0);
+		final long count = messageCount;
+		if (count == 0) {
+			return 0.0;
+		}
+		return totalNanos / 1000000.0 / count;
 	}
 
 	void handleMessage(final String message) {
@@ -104,7 +266,9 @@ public class MessageHandler extends Thread {
 
 		if (message == null) {
 
-			connect.closeConnection();
+			if (connect != null) {
+				connect.closeConnection();
+			}
 			issControl.closeIssPanels();
 		} else {
 
@@ -468,4 +632,17 @@ public class MessageHandler extends Thread {
 		issControl.removeISSTableFromList(params.get(0));
 	}
 
+	/**
+	 * Message together with the time it was read from ISS
+	 */
+	private final static class QueuedMessage {
+
+		final String message;
+		final long receiveTime;
+
+		QueuedMessage(final String newMessage, final long newReceiveTime) {
+			message = newMessage;
+			receiveTime = newReceiveTime;
+		}
+	}
 }
@@ -18,8 +18,6 @@ package org.jskat.control.iss;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.StringTokenizer;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import org.jskat.data.GameAnnouncement;
 import org.jskat.data.GameAnnouncement.GameAnnouncementFactory;
@@ -135,13 +133,20 @@ public class MessageParser {
 
 	static MoveInformation getMoveInformation(final List<String> params) {
 
+		return getMoveInformation(params.get(0), params.get(1));
+	}
+
+	static MoveInformation getMoveInformation(final String movePlayer,
+			final String move) {
+
 		final MoveInformation info = new MoveInformation();
 
-		getMovePlayer(params.get(0), info);
+		getMovePlayer(movePlayer, info);
 
 		// FIXME Unhandled moves
-		final String move = params.get(1);
-		log.debug("Move: " + move); //$NON-NLS-1$
+		if (log.isDebugEnabled()) {
+			log.debug("Move: " + move); //$NON-NLS-1$
+		}
 		if ("y".equals(move)) { //$NON-NLS-1$
 			// holding bid move
 			info.setType(MoveType.HOLD_BID);
@@ -186,16 +191,7 @@ public class MessageParser {
 				// card parsing failed
 
 				// test bidding
-				int bid = -1;
-				try {
-
-					bid = Integer.parseInt(move);
-
-				} catch (final NumberFormatException e) {
-
-					bid = -1;
-				}
-				if (bid > -1) {
+				if (isBidValue(move)) {
 					// bidding
 					info.setType(MoveType.BID);
 					info.setBidValue(Integer.parseInt(move));
@@ -221,6 +217,23 @@ public class MessageParser {
 		return info;
 	}
 
+	/**
+	 * Checks for a bid value without throwing exceptions for all the other
+	 * moves
+	 */
+	private static boolean isBidValue(final String move) {
+
+		if (move.isEmpty() || move.length() > 9) {
+			return false;
+		}
+		for (int i = 0; i < move.length(); i++) {
+			if (!Character.isDigit(move.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	static void parsePlayerTimes(final List<String> params,
 			final MoveInformation info) {
 		// parse player times
@@ -247,7 +260,9 @@ public class MessageParser {
 	private static void getMovePlayer(final String movePlayer,
 			final MoveInformation info) {
 
-		log.debug("Move player: " + movePlayer); //$NON-NLS-1$
+		if (log.isDebugEnabled()) {
+			log.debug("Move player: " + movePlayer); //$NON-NLS-1$
+		}
 		if ("w".equals(movePlayer)) { //$NON-NLS-1$
 			// world move
 			info.setMovePlayer(MovePlayer.WORLD);
@@ -479,28 +494,75 @@ public class MessageParser {
 
 	static SkatGameData parseGameSummary(final String gameSummary) {
 
+		return parseGameSummary(gameSummary, true);
+	}
+
+	/**
+	 * Parses a game summary<br />
+	 * The summary consists of parts like MV[...], every part is found by
+	 * scanning for the brackets instead of using a regular expression, because
+	 * archive scans parse millions of summaries.
+	 * 
+	 * @param gameSummary
+	 *            Game summary
+	 * @param parseMoves
+	 *            TRUE if the moves should be parsed too, FALSE if only the
+	 *            player names and the game result are needed
+	 * @return Game data
+	 */
+	static SkatGameData parseGameSummary(final String gameSummary,
+			final boolean parseMoves) {
+
 		final SkatGameData result = new SkatGameData();
 
-		final Pattern summaryPartPattern = Pattern.compile("(\\w+)\\[(.*?)\\]"); //$NON-NLS-1$
-		final Matcher summaryPartMatcher = summaryPartPattern
-				.matcher(gameSummary);
+		int index = 0;
+		int openingBracket;
+		while ((openingBracket = gameSummary.indexOf('[', index)) > -1) {
 
-		while (summaryPartMatcher.find()) {
+			int markerStart = openingBracket;
+			while (markerStart > index
+					&& isWordCharacter(gameSummary.charAt(markerStart - 1))) {
+				markerStart--;
+			}
+			if (markerStart == openingBracket) {
+				// bracket without marker
+				index = openingBracket + 1;
+				continue;
+			}
 
-			log.debug(summaryPartMatcher.group());
+			final int closingBracket = gameSummary.indexOf(']',
+					openingBracket + 1);
+			if (closingBracket < 0) {
+				break;
+			}
 
-			final String summaryPartMarker = summaryPartMatcher.group(1);
-			final String summeryPart = summaryPartMatcher.group(2);
+			final String summaryPartMarker = gameSummary.substring(
+					markerStart, openingBracket);
+			if (parseMoves || !"MV".equals(summaryPartMarker)) { //$NON-NLS-1$
+				parseSummaryPart(result, summaryPartMarker,
+						gameSummary.substring(openingBracket + 1,
+								closingBracket));
+			}
 
-			parseSummaryPart(result, summaryPartMarker, summeryPart);
+			index = closingBracket + 1;
 		}
 
 		return result;
 	}
 
+	private static boolean isWordCharacter(final char character) {
+		return character >= 'a' && character <= 'z' || character >= 'A'
+				&& character <= 'Z' || character >= '0' && character <= '9'
+				|| character == '_';
+	}
+
 	private static void parseSummaryPart(final SkatGameData result,
 			final String summaryPartMarker, final String summaryPart) {
 
+		if (log.isDebugEnabled()) {
+			log.debug(summaryPartMarker + "[" + summaryPart + "]"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+
 		if ("P0".equals(summaryPartMarker)) { //$NON-NLS-1$
 
 			result.setPlayerName(Player.FOREHAND, summaryPart);
@@ -535,11 +597,9 @@ public class MessageParser {
 
 		while (token.hasMoreTokens()) {
 
-			final List<String> moveToken = new ArrayList<String>();
-			moveToken.add(token.nextToken());
-			moveToken.add(token.nextToken());
-
-			final MoveInformation moveInfo = getMoveInformation(moveToken);
+			final String movePlayer = token.nextToken();
+			final MoveInformation moveInfo = getMoveInformation(movePlayer,
+					token.nextToken());
 
 			switch (moveInfo.getType()) {
 			case DEAL:
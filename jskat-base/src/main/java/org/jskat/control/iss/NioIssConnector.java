@@ -0,0 +1,425 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.iss;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jskat.data.JSkatOptions.Option;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Connector to International Skat Server ISS that uses non blocking IO<br />
+ * All connectors share the threads of a {@link NioIssSelector}, so one JVM can
+ * hold many ISS sessions, e.g. for bot accounts. Every connection keeps its
+ * own {@link IssController} and {@link MessageHandler}; the messages of one
+ * connection are handled in the order they were received.
+ */
+class NioIssConnector extends AbstractIssConnector implements OutputChannel {
+
+	private static Logger log = LoggerFactory.getLogger(NioIssConnector.class);
+
+	// same encoding as the readers of the stream connector
+	private final static Charset CHARSET = Charset.defaultCharset();
+
+	private final static int READ_BUFFER_SIZE = 8192;
+	private final static int INITIAL_LINE_LENGTH = 256;
+
+	private NioIssSelector nioSelector;
+	private SocketChannel channel;
+	private MessageHandler messageHandler;
+	private volatile boolean closed;
+
+	// accessed by the selector thread only
+	private SelectionKey selectionKey;
+	private final ByteBuffer readBuffer = ByteBuffer
+			.allocate(READ_BUFFER_SIZE);
+	private byte[] lineBuffer = new byte[INITIAL_LINE_LENGTH];
+	private int lineLength;
+	private boolean endOfStream;
+	private boolean closeMessageQueued;
+	private boolean hasPendingLine;
+	private String pendingLine;
+
+	private volatile boolean readPaused;
+	private final AtomicBoolean dispatchScheduled = new AtomicBoolean();
+
+	private final Queue<ByteBuffer> writeQueue = new ConcurrentLinkedQueue<ByteBuffer>();
+
+	/**
+	 * Constructor for a connector that uses the default selector
+	 */
+	NioIssConnector() {
+		this(null);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param newSelector
+	 *            Selector that serves the connection, NULL for the default
+	 *            selector
+	 */
+	NioIssConnector(final NioIssSelector newSelector) {
+		nioSelector = newSelector;
+	}
+
+	/**
+	 * Establishes a connection with ISS
+	 * 
+	 * @return TRUE if the connection was successful
+	 */
+	@Override
+	public boolean establishConnection(final IssController issControl) {
+
+		log.debug("NioIssConnector.establishConnection()"); //$NON-NLS-1$
+
+		final InetSocketAddress address = new InetSocketAddress(
+				options.getString(Option.ISS_ADDRESS),
+				options.getInteger(Option.ISS_PORT));
+
+		if (address.isUnresolved()) {
+			log.error("Cannot open connection to ISS"); //$NON-NLS-1$
+			issControl.showErrorMessage(strings
+					.getString("cant_connect_to_iss")); //$NON-NLS-1$
+			return false;
+		}
+
+		try {
+			connect(address, issControl);
+		} catch (final IOException e) {
+			log.error("IOException: " + e.toString()); //$NON-NLS-1$
+			return false;
+		}
+
+		return true;
+	}
+
+	/**
+	 * Connects to a server
+	 * 
+	 * @param address
+	 *            Server address
+	 * @param issControl
+	 *            ISS controller for the connection
+	 * @throws IOException
+	 *             If the connection can't be established
+	 */
+	void connect(final InetSocketAddress address,
+			final IssController issControl) throws IOException {
+
+		if (nioSelector == null) {
+			nioSelector = NioIssSelector.getDefault();
+		}
+
+		channel = SocketChannel.open(address);
+		channel.configureBlocking(false);
+		closed = false;
+		messageHandler = createMessageHandler(issControl);
+		nioSelector.register(channel, this);
+
+		log.debug("Connection established..."); //$NON-NLS-1$
+	}
+
+	/**
+	 * Creates the message handler for the connection<br />
+	 * The handler thread is not started, the messages are handled on the
+	 * dispatcher pool of the selector.
+	 * 
+	 * @param issControl
+	 *            ISS controller
+	 * @return Message handler
+	 */
+	MessageHandler createMessageHandler(final IssController issControl) {
+		return new MessageHandler(this, issControl,
+				MessageHandler.DEFAULT_QUEUE_CAPACITY);
+	}
+
+	/**
+	 * Gets the message handler of the connection
+	 * 
+	 * @return Message handler
+	 */
+	MessageHandler getMessageHandler() {
+		return messageHandler;
+	}
+
+	@Override
+	public OutputChannel getOutputChannel() {
+		return this;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public void sendMessage(final String message) {
+
+		log.debug("ISS <--|    " + message); //$NON-NLS-1$
+
+		writeQueue.add(ByteBuffer.wrap((message + '\n').getBytes(CHARSET)));
+		nioSelector.execute(new Runnable() {
+			@Override
+			public void run() {
+				if (selectionKey != null && selectionKey.isValid()) {
+					selectionKey.interestOps(selectionKey.interestOps()
+							| SelectionKey.OP_WRITE);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Closes the connection to ISS
+	 */
+	@Override
+	public void closeConnection() {
+
+		log.debug("closing connection"); //$NON-NLS-1$
+
+		closed = true;
+		nioSelector.execute(new Runnable() {
+			@Override
+			public void run() {
+				closeChannel();
+			}
+		});
+	}
+
+	/**
+	 * Checks whether there is an open connection
+	 * 
+	 * @return TRUE if there is an open connection
+	 */
+	@Override
+	public boolean isConnected() {
+
+		return !closed && channel != null && channel.isOpen();
+	}
+
+	void setSelectionKey(final SelectionKey newSelectionKey) {
+		selectionKey = newSelectionKey;
+	}
+
+	/**
+	 * Reads from the channel, called by the selector thread
+	 */
+	void read() {
+
+		int bytesRead;
+		try {
+			bytesRead = channel.read(readBuffer);
+		} catch (final IOException e) {
+			log.debug("IO exception --> lost connection to ISS"); //$NON-NLS-1$
+			bytesRead = -1;
+		}
+
+		if (bytesRead < 0) {
+			endOfStream = true;
+			selectionKey.interestOps(selectionKey.interestOps()
+					& ~SelectionKey.OP_READ);
+		}
+
+		processReadBuffer();
+	}
+
+	/**
+	 * Frames the read bytes into lines and hands them to the message handler
+	 */
+	private void processReadBuffer() {
+
+		readBuffer.flip();
+		while (readBuffer.hasRemaining() && !readPaused) {
+			final byte nextByte = readBuffer.get();
+			if (nextByte == '\n') {
+				offerLine(decodeLine());
+			} else {
+				appendToLine(nextByte);
+			}
+		}
+		readBuffer.compact();
+
+		if (endOfStream && !readPaused) {
+			if (!closeMessageQueued) {
+				// tells the message handler that the connection was closed
+				offerLine(null);
+			}
+			if (closeMessageQueued) {
+				closeChannel();
+			}
+		}
+
+		scheduleDispatch();
+	}
+
+	private void appendToLine(final byte nextByte) {
+
+		if (lineLength == lineBuffer.length) {
+			lineBuffer = Arrays.copyOf(lineBuffer, 2 * lineBuffer.length);
+		}
+		lineBuffer[lineLength++] = nextByte;
+	}
+
+	private String decodeLine() {
+
+		int length = lineLength;
+		if (length > 0 && lineBuffer[length - 1] == '\r') {
+			length--;
+		}
+		lineLength = 0;
+
+		final String line = new String(lineBuffer, 0, length, CHARSET);
+		log.debug("ISS -->| " + line); //$NON-NLS-1$
+		return line;
+	}
+
+	private void offerLine(final String line) {
+
+		if (messageHandler.offerMessage(line)) {
+			if (line == null) {
+				closeMessageQueued = true;
+			}
+		} else {
+			// stop reading until the message handler caught up
+			hasPendingLine = true;
+			pendingLine = line;
+			readPaused = true;
+			if (selectionKey.isValid()) {
+				selectionKey.interestOps(selectionKey.interestOps()
+						& ~SelectionKey.OP_READ);
+			}
+		}
+	}
+
+	/**
+	 * Continues reading after the message handler caught up, called by the
+	 * selector thread
+	 */
+	private void resumeReading() {
+
+		if (!readPaused) {
+			return;
+		}
+
+		if (hasPendingLine) {
+			if (!messageHandler.offerMessage(pendingLine)) {
+				scheduleDispatch();
+				return;
+			}
+			if (pendingLine == null) {
+				closeMessageQueued = true;
+			}
+			hasPendingLine = false;
+			pendingLine = null;
+		}
+
+		readPaused = false;
+		processReadBuffer();
+
+		if (!readPaused && !endOfStream && selectionKey.isValid()) {
+			selectionKey.interestOps(selectionKey.interestOps()
+					| SelectionKey.OP_READ);
+		}
+	}
+
+	private void scheduleDispatch() {
+
+		if (messageHandler.getQueuedMessageCount() > 0
+				&& dispatchScheduled.compareAndSet(false, true)) {
+			nioSelector.dispatch(new Runnable() {
+				@Override
+				public void run() {
+					dispatchMessages();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Handles the queued messages, called by the dispatcher pool
+	 */
+	private void dispatchMessages() {
+
+		boolean moreMessages = true;
+		while (moreMessages) {
+			messageHandler.handleQueuedMessages();
+			dispatchScheduled.set(false);
+			moreMessages = messageHandler.getQueuedMessageCount() > 0
+					&& dispatchScheduled.compareAndSet(false, true);
+		}
+
+		if (readPaused) {
+			nioSelector.execute(new Runnable() {
+				@Override
+				public void run() {
+					resumeReading();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Writes the queued messages, called by the selector thread
+	 */
+	void write() {
+
+		try {
+			ByteBuffer buffer = writeQueue.peek();
+			while (buffer != null) {
+				channel.write(buffer);
+				if (buffer.hasRemaining()) {
+					// socket buffer is full, continue when writable again
+					return;
+				}
+				writeQueue.poll();
+				buffer = writeQueue.peek();
+			}
+			selectionKey.interestOps(selectionKey.interestOps()
+					& ~SelectionKey.OP_WRITE);
+		} catch (final IOException e) {
+			log.error("Cannot send message to ISS", e); //$NON-NLS-1$
+			closeChannel();
+		}
+	}
+
+	/**
+	 * Closes the channel, called by the selector thread
+	 */
+	void closeChannel() {
+
+		closed = true;
+		if (selectionKey != null) {
+			selectionKey.cancel();
+		}
+		try {
+			if (channel.isOpen()) {
+				channel.close();
+				log.debug("socket closed"); //$NON-NLS-1$
+			}
+		} catch (final IOException e) {
+			log.debug("ISS connector IOException"); //$NON-NLS-1$
+		}
+	}
+}
@@ -0,0 +1,236 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.iss;
+
+import java.io.IOException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Serves the sockets of many {@link NioIssConnector}s with one selector
+ * thread<br />
+ * Incoming lines are handled on a small dispatcher pool that is shared by
+ * all connections, so the number of threads does not grow with the number of
+ * ISS sessions.
+ */
+class NioIssSelector implements Runnable {
+
+	private static Logger log = LoggerFactory.getLogger(NioIssSelector.class);
+
+	private static NioIssSelector defaultSelector;
+
+	private final Selector selector;
+	private final ExecutorService dispatcher;
+	private final Queue<Runnable> selectorTasks = new ConcurrentLinkedQueue<Runnable>();
+	private final Thread selectorThread;
+
+	private volatile boolean running;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param dispatcherThreads
+	 *            Number of threads that handle the incoming messages
+	 * @throws IOException
+	 *             If the selector can't be opened
+	 */
+	NioIssSelector(final int dispatcherThreads) throws IOException {
+
+		selector = Selector.open();
+		dispatcher = Executors.newFixedThreadPool(dispatcherThreads,
+				new DaemonThreadFactory());
+		selectorThread = new Thread(this, "ISS selector"); //$NON-NLS-1$
+		selectorThread.setDaemon(true);
+	}
+
+	/**
+	 * Gets the selector shared by all connectors that are created without an
+	 * explicit selector
+	 * 
+	 * @return Default selector
+	 * @throws IOException
+	 *             If the selector can't be opened
+	 */
+	static synchronized NioIssSelector getDefault() throws IOException {
+
+		if (defaultSelector == null || !defaultSelector.running) {
+			defaultSelector = new NioIssSelector(Runtime.getRuntime()
+					.availableProcessors());
+			defaultSelector.start();
+		}
+		return defaultSelector;
+	}
+
+	/**
+	 * Starts the selector thread
+	 */
+	void start() {
+
+		running = true;
+		selectorThread.start();
+	}
+
+	/**
+	 * Stops the selector thread and closes all connections
+	 */
+	void shutdown() {
+
+		running = false;
+		selector.wakeup();
+	}
+
+	/**
+	 * Checks whether the selector thread is running
+	 * 
+	 * @return TRUE if the selector is running
+	 */
+	boolean isRunning() {
+		return running;
+	}
+
+	/**
+	 * Registers a connected channel for reading
+	 * 
+	 * @param channel
+	 *            Channel in non blocking mode
+	 * @param connector
+	 *            Connector that handles the channel events
+	 */
+	void register(final SocketChannel channel, final NioIssConnector connector) {
+
+		execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					connector.setSelectionKey(channel.register(selector,
+							SelectionKey.OP_READ, connector));
+				} catch (final IOException e) {
+					log.error("Cannot register ISS connection", e); //$NON-NLS-1$
+					connector.closeChannel();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Runs a task in the selector thread<br />
+	 * All changes of selection keys have to be done there.
+	 * 
+	 * @param task
+	 *            Task
+	 */
+	void execute(final Runnable task) {
+
+		selectorTasks.add(task);
+		selector.wakeup();
+	}
+
+	/**
+	 * Runs a task on the dispatcher pool
+	 * 
+	 * @param task
+	 *            Task
+	 */
+	void dispatch(final Runnable task) {
+		dispatcher.execute(task);
+	}
+
+	/**
+	 * Gets the number of registered connections
+	 * 
+	 * @return Number of connections
+	 */
+	int getConnectionCount() {
+		return selector.keys().size();
+	}
+
+	/**
+	 * @see Runnable#run()
+	 */
+	@Override
+	public void run() {
+
+		log.debug("Selector started"); //$NON-NLS-1$
+
+		while (running) {
+			try {
+				selector.select();
+			} catch (final IOException e) {
+				log.error("Selector failed", e); //$NON-NLS-1$
+				running = false;
+				break;
+			}
+
+			Runnable task = selectorTasks.poll();
+			while (task != null) {
+				task.run();
+				task = selectorTasks.poll();
+			}
+
+			final Iterator<SelectionKey> keys = selector.selectedKeys()
+					.iterator();
+			while (keys.hasNext()) {
+				final SelectionKey key = keys.next();
+				keys.remove();
+
+				final NioIssConnector connector = (NioIssConnector) key
+						.attachment();
+				if (key.isValid() && key.isReadable()) {
+					connector.read();
+				}
+				if (key.isValid() && key.isWritable()) {
+					connector.write();
+				}
+			}
+		}
+
+		for (final SelectionKey key : selector.keys()) {
+			((NioIssConnector) key.attachment()).closeChannel();
+		}
+		try {
+			selector.close();
+		} catch (final IOException e) {
+			log.warn("Cannot close selector", e); //$NON-NLS-1$
+		}
+		dispatcher.shutdown();
+
+		log.debug("Selector stopped"); //$NON-NLS-1$
+	}
+
+	private static class DaemonThreadFactory implements ThreadFactory {
+
+		private final AtomicInteger threadNumber = new AtomicInteger();
+
+		@Override
+		public Thread newThread(final Runnable runnable) {
+			final Thread thread = new Thread(runnable, "ISS dispatcher " //$NON-NLS-1$
+					+ threadNumber.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
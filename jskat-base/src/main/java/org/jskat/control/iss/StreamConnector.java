@@ -17,7 +17,9 @@ package org.jskat.control.iss;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.UnknownHostException;
 
 import org.jskat.data.JSkatOptions;
 import org.jskat.data.JSkatOptions.Option;
@@ -51,16 +53,10 @@ class StreamConnector extends AbstractIssConnector {
 		log.debug("StreamConnector.establishConnection()"); //$NON-NLS-1$
 
 		try {
-			socket = new Socket(options.getString(Option.ISS_ADDRESS),
-					options.getInteger(Option.ISS_PORT));
-
-			output = new PrintWriter(socket.getOutputStream(), true);
-			issOut = new StreamOutputChannel(output);
-			issIn = new InputChannel(issControl, this, socket.getInputStream());
-			issIn.start();
-			log.debug("Connection established..."); //$NON-NLS-1$
-
-		} catch (java.net.UnknownHostException e) {
+			connect(new InetSocketAddress(
+					options.getString(Option.ISS_ADDRESS),
+					options.getInteger(Option.ISS_PORT)), issControl);
+		} catch (UnknownHostException e) {
 			log.error("Cannot open connection to ISS"); //$NON-NLS-1$
 			issControl.showErrorMessage(strings
 					.getString("cant_connect_to_iss")); //$NON-NLS-1$
@@ -73,6 +69,41 @@ class StreamConnector extends AbstractIssConnector {
 		return true;
 	}
 
+	/**
+	 * Connects to a server
+	 * 
+	 * @param address
+	 *            Server address
+	 * @param issControl
+	 *            ISS controller for the connection
+	 * @throws IOException
+	 *             If the connection can't be established
+	 */
+	void connect(final InetSocketAddress address,
+			final IssController issControl) throws IOException {
+
+		if (address.isUnresolved()) {
+			throw new UnknownHostException(address.getHostName());
+		}
+
+		socket = new Socket(address.getAddress(), address.getPort());
+
+		output = new PrintWriter(socket.getOutputStream(), true);
+		issOut = new StreamOutputChannel(output);
+		issIn = new InputChannel(issControl, this, socket.getInputStream());
+		issIn.start();
+		log.debug("Connection established..."); //$NON-NLS-1$
+	}
+
+	/**
+	 * Gets the message handler of the connection
+	 * 
+	 * @return Message handler
+	 */
+	MessageHandler getMessageHandler() {
+		return issIn.messageHandler;
+	}
+
 	@Override
 	public OutputChannel getOutputChannel() {
 		return issOut;
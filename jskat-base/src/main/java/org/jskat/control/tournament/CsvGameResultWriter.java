@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.tournament;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import org.jskat.data.GameSummary;
+import org.jskat.util.Player;
+
+/**
+ * Writes the game results as comma separated values with a header line
+ */
+public class CsvGameResultWriter implements GameResultWriter {
+
+	private static final String HEADER = "series,game,forehand,middlehand,rearhand,declarer,gameType,hand,ouvert,won,gameValue,declarerPoints,durationMicros"; //$NON-NLS-1$
+
+	private final Writer writer;
+	private final StringBuilder line = new StringBuilder();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param newWriter
+	 *            Writer for the results
+	 * @throws IOException
+	 *             If the header can't be written
+	 */
+	public CsvGameResultWriter(final Writer newWriter) throws IOException {
+		writer = new BufferedWriter(newWriter);
+		writer.write(HEADER);
+		writer.write('\n');
+	}
+
+	@Override
+	public synchronized void writeGame(final int series, final int game,
+			final String[] playerClasses, final GameSummary summary,
+			final long durationNanos) throws IOException {
+
+		Player declarer = summary.getDeclarer();
+
+		line.setLength(0);
+		line.append(series).append(',');
+		line.append(game).append(',');
+		for (String playerClass : playerClasses) {
+			line.append(playerClass).append(',');
+		}
+		if (declarer != null) {
+			line.append(playerClasses[declarer.ordinal()]);
+		}
+		line.append(',');
+		line.append(summary.getGameType()).append(',');
+		line.append(summary.isHand()).append(',');
+		line.append(summary.isOuvert()).append(',');
+		line.append(summary.isGameWon()).append(',');
+		line.append(summary.getGameValue()).append(',');
+		line.append(summary.getFinalDeclarerPoints()).append(',');
+		line.append(durationNanos / 1000).append('\n');
+
+		writer.append(line);
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		writer.close();
+	}
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.tournament;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.jskat.data.GameSummary;
+import org.jskat.player.JSkatPlayer;
+import org.jskat.util.CardDeck;
+import org.jskat.util.Player;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Plays a deal of a duplicate tournament with one permutation of the players
+ * at the table
+ */
+class DealTask extends TournamentTask {
+
+	private static Logger log = LoggerFactory.getLogger(DealTask.class);
+
+	private final int dealNumber;
+	private final int gameNumber;
+	private final String[] playerClasses;
+	private final long dealSeed;
+
+	private final String[] names;
+	private final int[] scores;
+	private boolean failed;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param newDealNumber
+	 *            Number of the deal
+	 * @param newGameNumber
+	 *            Number of the permutation of the players
+	 * @param newPlayerClasses
+	 *            Class names of the players in the order fore hand, middle
+	 *            hand, rear hand
+	 * @param newDealSeed
+	 *            Seed for shuffling the card deck, it's the same for all
+	 *            games of the deal
+	 * @param newDecisionTimeBudget
+	 *            Time budget for a single decision in milliseconds, 0 for no
+	 *            budget
+	 * @param newWriter
+	 *            Writer for the game results, can be NULL
+	 */
+	DealTask(final int newDealNumber, final int newGameNumber,
+			final String[] newPlayerClasses, final long newDealSeed,
+			final long newDecisionTimeBudget, final GameResultWriter newWriter) {
+
+		super(newDecisionTimeBudget, newWriter);
+		dealNumber = newDealNumber;
+		gameNumber = newGameNumber;
+		playerClasses = newPlayerClasses;
+		dealSeed = newDealSeed;
+		names = new String[newPlayerClasses.length];
+		scores = new int[newPlayerClasses.length];
+	}
+
+	@Override
+	public DealTask call() throws ReflectiveOperationException, IOException {
+
+		JSkatPlayer[] players = createPlayers(playerClasses, names);
+
+		CardDeck deck = new CardDeck();
+		deck.shuffle(new Random(dealSeed));
+
+		try {
+			GameSummary summary = playGame("Duplicate deal " + dealNumber, //$NON-NLS-1$
+					dealNumber, gameNumber, players, names, deck);
+			for (Player position : Player.values()) {
+				scores[position.ordinal()] = PlayerStatistics.getScore(
+						summary, position);
+			}
+		} catch (RuntimeException exception) {
+			log.error("Game " + gameNumber + " of deal " + dealNumber //$NON-NLS-1$ //$NON-NLS-2$
+					+ " failed", exception); //$NON-NLS-1$
+			addFailedGame();
+			failed = true;
+		}
+
+		return this;
+	}
+
+	/**
+	 * Checks whether the game failed with an exception
+	 * 
+	 * @return TRUE if the game failed
+	 */
+	boolean isFailed() {
+		return failed;
+	}
+
+	/**
+	 * Gets the simple class names of the players
+	 * 
+	 * @return Class names indexed by the ordinal of the player position
+	 */
+	String[] getNames() {
+		return names;
+	}
+
+	/**
+	 * Gets the scores of the players after the Seeger-Fabian system
+	 * 
+	 * @return Scores indexed by the ordinal of the player position
+	 */
+	int[] getScores() {
+		return scores;
+	}
+}
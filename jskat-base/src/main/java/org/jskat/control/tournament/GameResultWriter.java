@@ -0,0 +1,48 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.tournament;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+import org.jskat.data.GameSummary;
+
+/**
+ * Streams the results of the games of a tournament<br />
+ * Implementations must be thread safe, the games of all series are written
+ * by the worker threads as soon as they are finished.
+ */
+public interface GameResultWriter extends Closeable {
+
+	/**
+	 * Writes the result of a game
+	 * 
+	 * @param series
+	 *            Number of the series or of the duplicate deal
+	 * @param game
+	 *            Number of the game in the series or the deal
+	 * @param playerClasses
+	 *            Player classes indexed by the ordinal of the player position
+	 * @param summary
+	 *            Game summary
+	 * @param durationNanos
+	 *            Duration of the game in nano seconds
+	 * @throws IOException
+	 *             If the result can't be written
+	 */
+	void writeGame(int series, int game, String[] playerClasses,
+			GameSummary summary, long durationNanos) throws IOException;
+}
@@ -0,0 +1,96 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.tournament;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+import org.jskat.data.GameSummary;
+import org.jskat.util.Player;
+
+/**
+ * Writes the game results as JSON lines, one JSON object per game and line
+ */
+public class JsonGameResultWriter implements GameResultWriter {
+
+	private final Writer writer;
+	private final StringBuilder line = new StringBuilder();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param newWriter
+	 *            Writer for the results
+	 */
+	public JsonGameResultWriter(final Writer newWriter) {
+		writer = new BufferedWriter(newWriter);
+	}
+
+	@Override
+	public synchronized void writeGame(final int series, final int game,
+			final String[] playerClasses, final GameSummary summary,
+			final long durationNanos) throws IOException {
+
+		Player declarer = summary.getDeclarer();
+
+		line.setLength(0);
+		line.append("{\"series\":").append(series); //$NON-NLS-1$
+		line.append(",\"game\":").append(game); //$NON-NLS-1$
+		line.append(",\"players\":["); //$NON-NLS-1$
+		for (int i = 0; i < playerClasses.length; i++) {
+			if (i > 0) {
+				line.append(',');
+			}
+			appendString(playerClasses[i]);
+		}
+		line.append("],\"declarer\":"); //$NON-NLS-1$
+		if (declarer != null) {
+			appendString(playerClasses[declarer.ordinal()]);
+		} else {
+			line.append("null"); //$NON-NLS-1$
+		}
+		line.append(",\"gameType\":"); //$NON-NLS-1$
+		appendString(String.valueOf(summary.getGameType()));
+		line.append(",\"hand\":").append(summary.isHand()); //$NON-NLS-1$
+		line.append(",\"ouvert\":").append(summary.isOuvert()); //$NON-NLS-1$
+		line.append(",\"won\":").append(summary.isGameWon()); //$NON-NLS-1$
+		line.append(",\"gameValue\":").append(summary.getGameValue()); //$NON-NLS-1$
+		line.append(",\"declarerPoints\":").append( //$NON-NLS-1$
+				summary.getFinalDeclarerPoints());
+		line.append(",\"durationMicros\":").append(durationNanos / 1000); //$NON-NLS-1$
+		line.append("}\n"); //$NON-NLS-1$
+
+		writer.append(line);
+	}
+
+	private void appendString(final String value) {
+		line.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char character = value.charAt(i);
+			if (character == '"' || character == '\\') {
+				line.append('\\');
+			}
+			line.append(character);
+		}
+		line.append('"');
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		writer.close();
+	}
+}
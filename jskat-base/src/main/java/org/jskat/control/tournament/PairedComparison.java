@@ -0,0 +1,127 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.tournament;
+
+import org.jskat.util.ConfidenceIntervals;
+
+/**
+ * Paired comparison of two player classes that played the same deals<br />
+ * For every deal the difference of the average scores of both player classes
+ * is taken, so the luck of the cards cancels out.
+ */
+public class PairedComparison {
+
+	private final String playerClass;
+	private final String otherPlayerClass;
+
+	private long deals;
+	private double differenceSum;
+	private double differenceSquareSum;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param newPlayerClass
+	 *            Player class
+	 * @param newOtherPlayerClass
+	 *            Player class to compare with
+	 */
+	public PairedComparison(final String newPlayerClass,
+			final String newOtherPlayerClass) {
+		playerClass = newPlayerClass;
+		otherPlayerClass = newOtherPlayerClass;
+	}
+
+	/**
+	 * Adds a deal
+	 * 
+	 * @param difference
+	 *            Score of the player class minus score of the other player
+	 *            class
+	 */
+	void addDeal(final double difference) {
+		deals++;
+		differenceSum += difference;
+		differenceSquareSum += difference * difference;
+	}
+
+	/**
+	 * Gets the player class
+	 * 
+	 * @return Player class
+	 */
+	public String getPlayerClass() {
+		return playerClass;
+	}
+
+	/**
+	 * Gets the player class to compare with
+	 * 
+	 * @return Other player class
+	 */
+	public String getOtherPlayerClass() {
+		return otherPlayerClass;
+	}
+
+	/**
+	 * Gets the number of deals
+	 * 
+	 * @return Number of deals
+	 */
+	public long getDeals() {
+		return deals;
+	}
+
+	/**
+	 * Gets the mean score difference per deal
+	 * 
+	 * @return Mean difference, positive if the player class is better
+	 */
+	public double getMeanDifference() {
+		if (deals == 0) {
+			return 0.0;
+		}
+		return differenceSum / deals;
+	}
+
+	/**
+	 * Gets the 95% confidence interval of the mean score difference
+	 * 
+	 * @return Lower and upper bound of the interval
+	 */
+	public double[] getConfidenceInterval() {
+		double mean = getMeanDifference();
+		if (deals < 2) {
+			return new double[] { Double.NEGATIVE_INFINITY,
+					Double.POSITIVE_INFINITY };
+		}
+		double variance = Math.max(0.0, (differenceSquareSum - deals * mean
+				* mean)
+				/ (deals - 1));
+		double halfWidth = ConfidenceIntervals.getMeanHalfWidth(variance,
+				deals);
+		return new double[] { mean - halfWidth, mean + halfWidth };
+	}
+
+	@Override
+	public String toString() {
+		double[] interval = getConfidenceInterval();
+		return String.format(
+				"%s vs. %s: %.2f [%.2f, %.2f] points per game over %d deals", //$NON-NLS-1$
+				playerClass, otherPlayerClass, getMeanDifference(),
+				interval[0], interval[1], deals);
+	}
+}
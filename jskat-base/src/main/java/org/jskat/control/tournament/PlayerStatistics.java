@@ -0,0 +1,245 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.tournament;
+
+import org.jskat.data.GameSummary;
+import org.jskat.util.ConfidenceIntervals;
+import org.jskat.util.GameType;
+import org.jskat.util.Player;
+import org.jskat.util.SkatConstants;
+
+/**
+ * Statistics of all players of a player class in a tournament<br />
+ * Instances are not thread safe, every series collects its own statistics and
+ * they are added up afterwards.
+ */
+public class PlayerStatistics {
+
+	private final String playerClass;
+
+	private long games;
+	private long score;
+	private long declarerGames;
+	private long declarerWins;
+	private long declarerScore;
+	private long decisions;
+	private long decisionNanos;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param newPlayerClass
+	 *            Player class
+	 */
+	public PlayerStatistics(final String newPlayerClass) {
+		playerClass = newPlayerClass;
+	}
+
+	/**
+	 * Gets the score of a player in a game after the Seeger-Fabian system
+	 * 
+	 * @param summary
+	 *            Game summary
+	 * @param position
+	 *            Player position
+	 * @return Score, 0 for passed in and ramsch games
+	 */
+	static int getScore(final GameSummary summary, final Player position) {
+
+		if (summary.getDeclarer() == null
+				|| summary.getGameType() == GameType.PASSED_IN
+				|| summary.getGameType() == GameType.RAMSCH) {
+			return 0;
+		}
+		return SkatConstants.getTournamentGameValue(
+				summary.getDeclarer() == position, summary.getGameValue(), 3);
+	}
+
+	/**
+	 * Adds a game the player took part in
+	 * 
+	 * @param gameScore
+	 *            Score of the player after the Seeger-Fabian system
+	 */
+	void addGame(final int gameScore) {
+		games++;
+		score += gameScore;
+	}
+
+	/**
+	 * Adds a game the player played as declarer
+	 * 
+	 * @param won
+	 *            TRUE if the game was won
+	 * @param gameValue
+	 *            Game value, negative for lost games
+	 */
+	void addDeclarerGame(final boolean won, final int gameValue) {
+		declarerGames++;
+		if (won) {
+			declarerWins++;
+		}
+		declarerScore += gameValue;
+	}
+
+	/**
+	 * Adds a decision
+	 * 
+	 * @param nanos
+	 *            Duration of the decision in nano seconds
+	 */
+	void addDecision(final long nanos) {
+		decisions++;
+		decisionNanos += nanos;
+	}
+
+	/**
+	 * Adds the statistics of other players of the same player class
+	 * 
+	 * @param other
+	 *            Other statistics
+	 */
+	public void add(final PlayerStatistics other) {
+		games += other.games;
+		score += other.score;
+		declarerGames += other.declarerGames;
+		declarerWins += other.declarerWins;
+		declarerScore += other.declarerScore;
+		decisions += other.decisions;
+		decisionNanos += other.decisionNanos;
+	}
+
+	/**
+	 * Gets the player class
+	 * 
+	 * @return Player class
+	 */
+	public String getPlayerClass() {
+		return playerClass;
+	}
+
+	/**
+	 * Gets the number of games, every seat at the table counts
+	 * 
+	 * @return Number of games
+	 */
+	public long getGames() {
+		return games;
+	}
+
+	/**
+	 * Gets the score after the Seeger-Fabian system
+	 * 
+	 * @return Score
+	 */
+	public long getScore() {
+		return score;
+	}
+
+	/**
+	 * Gets the average score of a game
+	 * 
+	 * @return Score per game
+	 */
+	public double getAverageScore() {
+		if (games == 0) {
+			return 0.0;
+		}
+		return (double) score / games;
+	}
+
+	/**
+	 * Gets the number of games played as declarer
+	 * 
+	 * @return Number of declarer games
+	 */
+	public long getDeclarerGames() {
+		return declarerGames;
+	}
+
+	/**
+	 * Gets the number of games won as declarer
+	 * 
+	 * @return Number of won declarer games
+	 */
+	public long getDeclarerWins() {
+		return declarerWins;
+	}
+
+	/**
+	 * Gets the sum of the game values of all declarer games
+	 * 
+	 * @return Declarer score
+	 */
+	public long getDeclarerScore() {
+		return declarerScore;
+	}
+
+	/**
+	 * Gets the number of decisions
+	 * 
+	 * @return Number of decisions
+	 */
+	public long getDecisions() {
+		return decisions;
+	}
+
+	/**
+	 * Gets the win rate of the declarer games
+	 * 
+	 * @return Win rate between 0 and 1, 0 if no declarer games were played
+	 */
+	public double getWinRate() {
+		if (declarerGames == 0) {
+			return 0.0;
+		}
+		return (double) declarerWins / declarerGames;
+	}
+
+	/**
+	 * Gets the 95% confidence interval of the win rate<br />
+	 * The Wilson score interval is used, it stays within 0 and 1 also for
+	 * few games and extreme win rates.
+	 * 
+	 * @return Lower and upper bound of the interval
+	 */
+	public double[] getWinRateConfidenceInterval() {
+		return ConfidenceIntervals.getWilsonInterval(declarerWins,
+				declarerGames);
+	}
+
+	/**
+	 * Gets the average duration of a decision
+	 * 
+	 * @return Average duration in milli seconds
+	 */
+	public double getAverageDecisionMillis() {
+		if (decisions == 0) {
+			return 0.0;
+		}
+		return decisionNanos / 1000000.0 / decisions;
+	}
+
+	@Override
+	public String toString() {
+		double[] interval = getWinRateConfidenceInterval();
+		return String
+				.format("%s: %d games, %.2f points per game, %d declarer games, win rate %.3f [%.3f, %.3f], declarer score %d, %.3f ms per decision", //$NON-NLS-1$
+						playerClass, games, getAverageScore(), declarerGames,
+						getWinRate(), interval[0], interval[1],
+						declarerScore, getAverageDecisionMillis());
+	}
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.tournament;
+
+import java.io.IOException;
+import java.util.Random;
+
+import org.jskat.player.JSkatPlayer;
+import org.jskat.util.CardDeck;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Plays a skat series of a tournament<br />
+ * Every round consists of three games, the player positions change after
+ * every game like in {@link org.jskat.control.SkatSeries}.
+ */
+class SeriesTask extends TournamentTask {
+
+	private static Logger log = LoggerFactory.getLogger(SeriesTask.class);
+
+	private final int seriesNumber;
+	private final String[] playerClasses;
+	private final int rounds;
+	private final long seed;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param newSeriesNumber
+	 *            Number of the series
+	 * @param newPlayerClasses
+	 *            Class names of the three players
+	 * @param newRounds
+	 *            Number of rounds
+	 * @param newSeed
+	 *            Seed for shuffling the card decks
+	 * @param newDecisionTimeBudget
+	 *            Time budget for a single decision in milliseconds, 0 for no
+	 *            budget
+	 * @param newWriter
+	 *            Writer for the game results, can be NULL
+	 */
+	SeriesTask(final int newSeriesNumber, final String[] newPlayerClasses,
+			final int newRounds, final long newSeed,
+			final long newDecisionTimeBudget, final GameResultWriter newWriter) {
+
+		super(newDecisionTimeBudget, newWriter);
+		seriesNumber = newSeriesNumber;
+		playerClasses = newPlayerClasses;
+		rounds = newRounds;
+		seed = newSeed;
+	}
+
+	@Override
+	public SeriesTask call() throws ReflectiveOperationException, IOException {
+
+		String[] names = new String[playerClasses.length];
+		JSkatPlayer[] players = createPlayers(playerClasses, names);
+
+		Random random = new Random(seed);
+		String tableName = "Tournament series " + seriesNumber; //$NON-NLS-1$
+		int gameNumber = 0;
+
+		for (int round = 0; round < rounds; round++) {
+			for (int j = 0; j < 3; j++) {
+
+				if (gameNumber > 0) {
+					// change player positions after first game
+					rotate(players);
+					rotate(names);
+				}
+				gameNumber++;
+
+				CardDeck deck = new CardDeck();
+				deck.shuffle(random);
+
+				try {
+					playGame(tableName, seriesNumber, gameNumber, players,
+							names, deck);
+				} catch (RuntimeException exception) {
+					log.error("Game " + gameNumber + " of series " //$NON-NLS-1$ //$NON-NLS-2$
+							+ seriesNumber + " failed", exception); //$NON-NLS-1$
+					addFailedGame();
+				}
+			}
+		}
+
+		return this;
+	}
+
+	/**
+	 * Fore hand becomes rear hand, middle hand becomes fore hand and rear hand
+	 * becomes middle hand
+	 */
+	private static <T> void rotate(final T[] positions) {
+		T rearHand = positions[2];
+		positions[2] = positions[0];
+		positions[0] = positions[1];
+		positions[1] = rearHand;
+	}
+}
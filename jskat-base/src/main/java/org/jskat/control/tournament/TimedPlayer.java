@@ -0,0 +1,234 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.tournament;
+
+import org.jskat.data.GameAnnouncement;
+import org.jskat.data.GameSummary;
+import org.jskat.data.Trick;
+import org.jskat.player.JSkatPlayer;
+import org.jskat.util.Card;
+import org.jskat.util.CardList;
+import org.jskat.util.Player;
+
+/**
+ * Wraps a player and measures the time of all its decisions<br />
+ * Notifications like {@link #cardPlayed(Player, Card)} are passed through
+ * without measurement.
+ */
+class TimedPlayer implements JSkatPlayer {
+
+	private final JSkatPlayer player;
+	private final PlayerStatistics statistics;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param newPlayer
+	 *            Wrapped player
+	 * @param newStatistics
+	 *            Statistics that collects the decision times
+	 */
+	TimedPlayer(final JSkatPlayer newPlayer,
+			final PlayerStatistics newStatistics) {
+		player = newPlayer;
+		statistics = newStatistics;
+	}
+
+	private void addDecision(final long startTime) {
+		statistics.addDecision(System.nanoTime() - startTime);
+	}
+
+	@Override
+	public void preparateForNewGame() {
+		player.preparateForNewGame();
+	}
+
+	@Override
+	public void finalizeGame() {
+		player.finalizeGame();
+	}
+
+	@Override
+	public void newGame(final Player position) {
+		player.newGame(position);
+	}
+
+	@Override
+	public void setUpBidding() {
+		player.setUpBidding();
+	}
+
+	@Override
+	public Integer bidMore(final int nextBidValue) {
+		long startTime = System.nanoTime();
+		try {
+			return player.bidMore(nextBidValue);
+		} finally {
+			addDecision(startTime);
+		}
+	}
+
+	@Override
+	public Boolean holdBid(final int currBidValue) {
+		long startTime = System.nanoTime();
+		try {
+			return player.holdBid(currBidValue);
+		} finally {
+			addDecision(startTime);
+		}
+	}
+
+	@Override
+	public void bidByPlayer(final Player otherPlayer, final int bidValue) {
+		player.bidByPlayer(otherPlayer, bidValue);
+	}
+
+	@Override
+	public void takeCards(final CardList cards) {
+		player.takeCards(cards);
+	}
+
+	@Override
+	public Boolean playGrandHand() {
+		long startTime = System.nanoTime();
+		try {
+			return player.playGrandHand();
+		} finally {
+			addDecision(startTime);
+		}
+	}
+
+	@Override
+	public Boolean callContra() {
+		long startTime = System.nanoTime();
+		try {
+			return player.callContra();
+		} finally {
+			addDecision(startTime);
+		}
+	}
+
+	@Override
+	public Boolean callRe() {
+		long startTime = System.nanoTime();
+		try {
+			return player.callRe();
+		} finally {
+			addDecision(startTime);
+		}
+	}
+
+	@Override
+	public Boolean pickUpSkat() {
+		long startTime = System.nanoTime();
+		try {
+			return player.pickUpSkat();
+		} finally {
+			addDecision(startTime);
+		}
+	}
+
+	@Override
+	public void takeSkat(final CardList skat) {
+		player.takeSkat(skat);
+	}
+
+	@Override
+	public GameAnnouncement announceGame() {
+		long startTime = System.nanoTime();
+		try {
+			return player.announceGame();
+		} finally {
+			addDecision(startTime);
+		}
+	}
+
+	@Override
+	public void startGame(final Player singlePlayer,
+			final GameAnnouncement game) {
+		player.startGame(singlePlayer, game);
+	}
+
+	@Override
+	public void lookAtOuvertCards(final CardList ouvertCards) {
+		player.lookAtOuvertCards(ouvertCards);
+	}
+
+	@Override
+	public Card playCard() {
+		long startTime = System.nanoTime();
+		try {
+			return player.playCard();
+		} finally {
+			addDecision(startTime);
+		}
+	}
+
+	@Override
+	public void cardPlayed(final Player otherPlayer, final Card card) {
+		player.cardPlayed(otherPlayer, card);
+	}
+
+	@Override
+	public void newTrick(final Trick trick) {
+		player.newTrick(trick);
+	}
+
+	@Override
+	public void showTrick(final Trick trick) {
+		player.showTrick(trick);
+	}
+
+	@Override
+	public String getPlayerName() {
+		return player.getPlayerName();
+	}
+
+	@Override
+	public void setPlayerName(final String newPlayerName) {
+		player.setPlayerName(newPlayerName);
+	}
+
+	@Override
+	public Boolean isHumanPlayer() {
+		return player.isHumanPlayer();
+	}
+
+	@Override
+	public Boolean isAIPlayer() {
+		return player.isAIPlayer();
+	}
+
+	@Override
+	public Boolean isDeclarer() {
+		return player.isDeclarer();
+	}
+
+	@Override
+	public CardList discardSkat() {
+		long startTime = System.nanoTime();
+		try {
+			return player.discardSkat();
+		} finally {
+			addDecision(startTime);
+		}
+	}
+
+	@Override
+	public void setGameSummary(final GameSummary gameSummary) {
+		player.setGameSummary(gameSummary);
+	}
+}
@@ -0,0 +1,191 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.tournament;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Result of a tournament
+ */
+public class TournamentResult {
+
+	private final Map<String, PlayerStatistics> statistics = new LinkedHashMap<String, PlayerStatistics>();
+	private final Map<String, PairedComparison> comparisons = new LinkedHashMap<String, PairedComparison>();
+	private long playedGames;
+	private long failedGames;
+	private long elapsedNanos;
+
+	/**
+	 * Adds the results of a finished task
+	 * 
+	 * @param task
+	 *            Series or game of a deal
+	 */
+	void addTask(final TournamentTask task) {
+		playedGames += task.getPlayedGames();
+		failedGames += task.getFailedGames();
+		for (PlayerStatistics taskStatistics : task.getStatistics()
+				.values()) {
+			PlayerStatistics playerStatistics = statistics.get(taskStatistics
+					.getPlayerClass());
+			if (playerStatistics == null) {
+				playerStatistics = new PlayerStatistics(
+						taskStatistics.getPlayerClass());
+				statistics.put(taskStatistics.getPlayerClass(),
+						playerStatistics);
+			}
+			playerStatistics.add(taskStatistics);
+		}
+	}
+
+	/**
+	 * Adds the paired comparisons of a duplicate deal<br />
+	 * The average scores per game of every two player classes at the table
+	 * are compared. Deals with a failed game are left out.
+	 * 
+	 * @param games
+	 *            All games of the deal
+	 */
+	void addDeal(final List<DealTask> games) {
+
+		Map<String, int[]> scores = new LinkedHashMap<String, int[]>();
+		for (DealTask game : games) {
+			if (game.isFailed()) {
+				return;
+			}
+			for (int i = 0; i < game.getNames().length; i++) {
+				int[] scoreAndSeats = scores.get(game.getNames()[i]);
+				if (scoreAndSeats == null) {
+					scoreAndSeats = new int[2];
+					scores.put(game.getNames()[i], scoreAndSeats);
+				}
+				scoreAndSeats[0] += game.getScores()[i];
+				scoreAndSeats[1]++;
+			}
+		}
+
+		List<String> names = new ArrayList<String>(scores.keySet());
+		for (int i = 0; i < names.size(); i++) {
+			int[] first = scores.get(names.get(i));
+			for (int j = i + 1; j < names.size(); j++) {
+				int[] second = scores.get(names.get(j));
+				getComparison(names.get(i), names.get(j)).addDeal(
+						(double) first[0] / first[1] - (double) second[0]
+								/ second[1]);
+			}
+		}
+	}
+
+	private PairedComparison getComparison(final String playerClass,
+			final String otherPlayerClass) {
+		String key = playerClass + '|' + otherPlayerClass;
+		PairedComparison result = comparisons.get(key);
+		if (result == null) {
+			result = new PairedComparison(playerClass, otherPlayerClass);
+			comparisons.put(key, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Sets the duration of the tournament
+	 * 
+	 * @param nanos
+	 *            Duration in nano seconds
+	 */
+	void setElapsedNanos(final long nanos) {
+		elapsedNanos = nanos;
+	}
+
+	/**
+	 * Gets the statistics of all player classes
+	 * 
+	 * @return Statistics per player class
+	 */
+	public Collection<PlayerStatistics> getPlayerStatistics() {
+		return statistics.values();
+	}
+
+	/**
+	 * Gets the statistics of a player class
+	 * 
+	 * @param playerClass
+	 *            Simple name of the player class
+	 * @return Statistics, NULL if the player class didn't play
+	 */
+	public PlayerStatistics getPlayerStatistics(final String playerClass) {
+		return statistics.get(playerClass);
+	}
+
+	/**
+	 * Gets the paired comparisons of the player classes, they are only
+	 * available for duplicate tournaments
+	 * 
+	 * @return Paired comparisons
+	 */
+	public Collection<PairedComparison> getPairedComparisons() {
+		return comparisons.values();
+	}
+
+	/**
+	 * Gets the number of played games
+	 * 
+	 * @return Number of played games
+	 */
+	public long getPlayedGames() {
+		return playedGames;
+	}
+
+	/**
+	 * Gets the number of games that failed with an exception
+	 * 
+	 * @return Number of failed games
+	 */
+	public long getFailedGames() {
+		return failedGames;
+	}
+
+	/**
+	 * Gets the number of played games per second
+	 * 
+	 * @return Games per second
+	 */
+	public double getGamesPerSecond() {
+		if (elapsedNanos == 0) {
+			return 0.0;
+		}
+		return playedGames * 1000000000.0 / elapsedNanos;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder result = new StringBuilder();
+		result.append(String.format(
+				"%d games, %d failed, %.1f s, %.1f games/s", playedGames, //$NON-NLS-1$
+				failedGames, elapsedNanos / 1000000000.0, getGamesPerSecond()));
+		for (PlayerStatistics playerStatistics : statistics.values()) {
+			result.append('\n').append(playerStatistics);
+		}
+		for (PairedComparison comparison : comparisons.values()) {
+			result.append('\n').append(comparison);
+		}
+		return result.toString();
+	}
+}
@@ -0,0 +1,416 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.tournament;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import org.apache.log4j.PropertyConfigurator;
+import org.jskat.data.DesktopSavePathResolver;
+import org.jskat.data.JSkatOptions;
+import org.jskat.player.JSkatPlayerResolver;
+
+/**
+ * Runs skat series of AI players without view on all processors<br />
+ * &nbsp;<br />
+ * With three or more player classes every combination of three classes plays
+ * at its own table, with less classes the tables are filled up with
+ * additional instances. Every table plays the same card decks, the decks of a
+ * series only depend on the seed and the number of the series at the
+ * table.<br />
+ * &nbsp;<br />
+ * In duplicate mode every deal is played with all permutations of the
+ * players at the table, the games of a deal run in parallel. The scores of
+ * the player classes are compared per deal, so the luck of the cards cancels
+ * out and much less games are needed for significant results.<br />
+ * &nbsp;<br />
+ * Usage: TournamentRunner --players &lt;class&gt;[,&lt;class&gt;...]
+ * [--series &lt;series per table&gt;] [--rounds &lt;rounds per series&gt;]
+ * [--duplicate &lt;deals per table&gt;] [--seed &lt;seed&gt;] [--threads
+ * &lt;threads&gt;] [--budget &lt;milli seconds per decision&gt;] [--output
+ * &lt;file&gt;] [--format csv|json]<br />
+ * Player classes can be given with their full or simple class name.
+ */
+public class TournamentRunner {
+
+	/**
+	 * Multiplier for deriving the seeds of the series from the tournament
+	 * seed
+	 */
+	private static final long SEED_INCREMENT = 0x9E3779B97F4A7C15L;
+
+	private final List<String> playerClasses;
+	private int seriesCount = 1;
+	private int rounds = 1;
+	private int duplicateDeals = 0;
+	private long seed = System.nanoTime();
+	private int threadCount = Runtime.getRuntime().availableProcessors();
+	private long decisionTimeBudget = 0;
+	private GameResultWriter writer;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param newPlayerClasses
+	 *            Full class names of the player classes
+	 */
+	public TournamentRunner(final List<String> newPlayerClasses) {
+
+		if (newPlayerClasses.isEmpty()) {
+			throw new IllegalArgumentException(
+					"At least one player class is needed."); //$NON-NLS-1$
+		}
+		playerClasses = new ArrayList<String>(newPlayerClasses);
+	}
+
+	/**
+	 * Finds a player class of the AI players<br />
+	 * The AI players that are excluded from the skat series of the GUI can
+	 * play in tournaments, too.
+	 * 
+	 * @param name
+	 *            Full or simple class name
+	 * @return Full class name
+	 */
+	public static String resolvePlayerClass(final String name) {
+
+		Set<String> playerClasses = getTournamentPlayerClasses();
+		for (String playerClass : playerClasses) {
+			if (playerClass.equals(name)
+					|| playerClass.substring(playerClass.lastIndexOf('.') + 1)
+							.equalsIgnoreCase(name)) {
+				return playerClass;
+			}
+		}
+
+		throw new IllegalArgumentException("Unknown player class " + name //$NON-NLS-1$
+				+ ", available classes: " + playerClasses); //$NON-NLS-1$
+	}
+
+	private static Set<String> getTournamentPlayerClasses() {
+		Set<String> result = new TreeSet<String>(
+				JSkatPlayerResolver.getAllAIPlayerImplementations());
+		result.addAll(JSkatPlayerResolver.EXCLUDED_PLAYER_CLASSES);
+		return result;
+	}
+
+	/**
+	 * Sets the number of series that are played at every table
+	 * 
+	 * @param newSeriesCount
+	 *            Number of series
+	 */
+	public void setSeriesCount(final int newSeriesCount) {
+		seriesCount = newSeriesCount;
+	}
+
+	/**
+	 * Sets the number of rounds of a series, every round has three games
+	 * 
+	 * @param newRounds
+	 *            Number of rounds
+	 */
+	public void setRounds(final int newRounds) {
+		rounds = newRounds;
+	}
+
+	/**
+	 * Sets the number of duplicate deals that are played at every table
+	 * 
+	 * @param newDuplicateDeals
+	 *            Number of deals, 0 for playing series
+	 */
+	public void setDuplicateDeals(final int newDuplicateDeals) {
+		duplicateDeals = newDuplicateDeals;
+	}
+
+	/**
+	 * Sets the seed for shuffling the card decks
+	 * 
+	 * @param newSeed
+	 *            Seed
+	 */
+	public void setSeed(final long newSeed) {
+		seed = newSeed;
+	}
+
+	/**
+	 * Sets the number of threads
+	 * 
+	 * @param newThreadCount
+	 *            Number of threads
+	 */
+	public void setThreadCount(final int newThreadCount) {
+		threadCount = newThreadCount;
+	}
+
+	/**
+	 * Sets the time budget for a single decision of the AI players
+	 * 
+	 * @param newDecisionTimeBudget
+	 *            Time budget in milliseconds, 0 for no budget
+	 */
+	public void setDecisionTimeBudget(final long newDecisionTimeBudget) {
+		decisionTimeBudget = newDecisionTimeBudget;
+	}
+
+	/**
+	 * Sets the writer for the game results
+	 * 
+	 * @param newWriter
+	 *            Writer, NULL if the results should not be written
+	 */
+	public void setGameResultWriter(final GameResultWriter newWriter) {
+		writer = newWriter;
+	}
+
+	/**
+	 * Plays all series of the tournament
+	 * 
+	 * @return Result of the tournament
+	 * @throws InterruptedException
+	 *             If the tournament was interrupted
+	 * @throws ExecutionException
+	 *             If a series could not be played
+	 */
+	public TournamentResult run() throws InterruptedException,
+			ExecutionException {
+
+		List<TournamentTask> tasks = new ArrayList<TournamentTask>();
+		List<List<DealTask>> deals = new ArrayList<List<DealTask>>();
+		if (duplicateDeals > 0) {
+			deals = createDeals();
+			for (List<DealTask> deal : deals) {
+				tasks.addAll(deal);
+			}
+		} else {
+			tasks.addAll(createSeries());
+		}
+
+		TournamentResult result = new TournamentResult();
+		ForkJoinPool pool = new ForkJoinPool(threadCount);
+		long startTime = System.nanoTime();
+		try {
+			for (Future<TournamentTask> task : pool.invokeAll(tasks)) {
+				result.addTask(task.get());
+			}
+		} finally {
+			pool.shutdown();
+		}
+		result.setElapsedNanos(System.nanoTime() - startTime);
+
+		for (List<DealTask> deal : deals) {
+			result.addDeal(deal);
+		}
+
+		return result;
+	}
+
+	private List<SeriesTask> createSeries() {
+
+		List<SeriesTask> result = new ArrayList<SeriesTask>();
+		int seriesNumber = 0;
+		for (String[] table : createTables()) {
+			for (int series = 0; series < seriesCount; series++) {
+				seriesNumber++;
+				result.add(new SeriesTask(seriesNumber, table, rounds, seed
+						+ series * SEED_INCREMENT, decisionTimeBudget, writer));
+			}
+		}
+		return result;
+	}
+
+	private List<List<DealTask>> createDeals() {
+
+		List<List<DealTask>> result = new ArrayList<List<DealTask>>();
+		int dealNumber = 0;
+		for (String[] table : createTables()) {
+			List<String[]> permutations = createPermutations(table);
+			for (int deal = 0; deal < duplicateDeals; deal++) {
+				dealNumber++;
+				List<DealTask> games = new ArrayList<DealTask>();
+				for (int game = 0; game < permutations.size(); game++) {
+					games.add(new DealTask(dealNumber, game + 1, permutations
+							.get(game), seed + deal * SEED_INCREMENT,
+							decisionTimeBudget, writer));
+				}
+				result.add(games);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Creates all different orders of the players at a table, the first
+	 * permutation is the table itself
+	 */
+	static List<String[]> createPermutations(final String[] table) {
+
+		int[][] orders = { { 0, 1, 2 }, { 1, 2, 0 }, { 2, 0, 1 },
+				{ 0, 2, 1 }, { 2, 1, 0 }, { 1, 0, 2 } };
+
+		List<String[]> result = new ArrayList<String[]>();
+		for (int[] order : orders) {
+			String[] permutation = { table[order[0]], table[order[1]],
+					table[order[2]] };
+			boolean found = false;
+			for (String[] existing : result) {
+				found |= Arrays.equals(existing, permutation);
+			}
+			if (!found) {
+				result.add(permutation);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Creates the player classes of all tables
+	 */
+	List<String[]> createTables() {
+
+		List<String[]> result = new ArrayList<String[]>();
+		int classCount = playerClasses.size();
+
+		if (classCount >= 3) {
+			for (int first = 0; first < classCount; first++) {
+				for (int second = first + 1; second < classCount; second++) {
+					for (int third = second + 1; third < classCount; third++) {
+						result.add(new String[] { playerClasses.get(first),
+								playerClasses.get(second),
+								playerClasses.get(third) });
+					}
+				}
+			}
+		} else if (classCount == 2) {
+			String first = playerClasses.get(0);
+			String second = playerClasses.get(1);
+			result.add(new String[] { first, first, second });
+			result.add(new String[] { first, second, second });
+		} else {
+			String first = playerClasses.get(0);
+			result.add(new String[] { first, first, first });
+		}
+
+		return result;
+	}
+
+	public static void main(final String args[]) throws Exception {
+
+		URL logConfiguration = ClassLoader
+				.getSystemResource("org/jskat/config/log4j.properties"); //$NON-NLS-1$
+		if (logConfiguration != null) {
+			PropertyConfigurator.configure(logConfiguration);
+		}
+		// tournaments are always played with the default rules
+		JSkatOptions.instance(new DesktopSavePathResolver()).resetToDefault(
+				new DesktopSavePathResolver());
+
+		List<String> players = new ArrayList<String>();
+		int seriesCount = 1;
+		int rounds = 1;
+		int duplicateDeals = 0;
+		Long seed = null;
+		Integer threads = null;
+		long budget = 0;
+		String output = null;
+		String format = "csv"; //$NON-NLS-1$
+
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			String option = args[i];
+			String value = args[i + 1];
+			if ("--players".equals(option)) { //$NON-NLS-1$
+				for (String player : value.split(",")) { //$NON-NLS-1$
+					players.add(resolvePlayerClass(player.trim()));
+				}
+			} else if ("--series".equals(option)) { //$NON-NLS-1$
+				seriesCount = Integer.parseInt(value);
+			} else if ("--rounds".equals(option)) { //$NON-NLS-1$
+				rounds = Integer.parseInt(value);
+			} else if ("--duplicate".equals(option)) { //$NON-NLS-1$
+				duplicateDeals = Integer.parseInt(value);
+			} else if ("--seed".equals(option)) { //$NON-NLS-1$
+				seed = Long.valueOf(value);
+			} else if ("--threads".equals(option)) { //$NON-NLS-1$
+				threads = Integer.valueOf(value);
+			} else if ("--budget".equals(option)) { //$NON-NLS-1$
+				budget = Long.parseLong(value);
+			} else if ("--output".equals(option)) { //$NON-NLS-1$
+				output = value;
+			} else if ("--format".equals(option)) { //$NON-NLS-1$
+				format = value;
+			} else {
+				throw new IllegalArgumentException("Unknown option " + option); //$NON-NLS-1$
+			}
+		}
+
+		if (players.isEmpty()) {
+			System.err
+					.println("Usage: TournamentRunner --players <class>[,<class>...] [--series <series per table>] [--rounds <rounds per series>] [--duplicate <deals per table>] [--seed <seed>] [--threads <threads>] [--budget <ms per decision>] [--output <file>] [--format csv|json]"); //$NON-NLS-1$
+			System.err.println("Available player classes: " //$NON-NLS-1$
+					+ getTournamentPlayerClasses());
+			return;
+		}
+
+		TournamentRunner runner = new TournamentRunner(players);
+		runner.setSeriesCount(seriesCount);
+		runner.setRounds(rounds);
+		runner.setDuplicateDeals(duplicateDeals);
+		if (seed != null) {
+			runner.setSeed(seed);
+		}
+		if (threads != null) {
+			runner.setThreadCount(threads);
+		}
+		runner.setDecisionTimeBudget(budget);
+
+		GameResultWriter writer = null;
+		if (output != null) {
+			writer = createWriter(new File(output), format);
+			runner.setGameResultWriter(writer);
+		}
+
+		try {
+			System.out.println(runner.run());
+		} finally {
+			if (writer != null) {
+				writer.close();
+			}
+		}
+	}
+
+	private static GameResultWriter createWriter(final File file,
+			final String format) throws IOException {
+
+		OutputStreamWriter fileWriter = new OutputStreamWriter(
+				new FileOutputStream(file), "UTF-8"); //$NON-NLS-1$
+		if ("json".equalsIgnoreCase(format)) { //$NON-NLS-1$
+			return new JsonGameResultWriter(fileWriter);
+		}
+		return new CsvGameResultWriter(fileWriter);
+	}
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.tournament;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import org.jskat.ai.AbstractAIPlayer;
+import org.jskat.control.SkatGameEngine;
+import org.jskat.data.GameSummary;
+import org.jskat.player.JSkatPlayer;
+import org.jskat.util.CardDeck;
+import org.jskat.util.GameType;
+import org.jskat.util.GameVariant;
+import org.jskat.util.Player;
+import org.slf4j.helpers.NOPLogger;
+
+/**
+ * Base class for the tasks that play the games of a tournament without view
+ * and pauses
+ */
+abstract class TournamentTask implements Callable<TournamentTask> {
+
+	private final long decisionTimeBudget;
+	private final GameResultWriter writer;
+
+	private final Map<String, PlayerStatistics> statistics = new LinkedHashMap<String, PlayerStatistics>();
+	private int playedGames;
+	private int failedGames;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param newDecisionTimeBudget
+	 *            Time budget for a single decision in milliseconds, 0 for no
+	 *            budget
+	 * @param newWriter
+	 *            Writer for the game results, can be NULL
+	 */
+	TournamentTask(final long newDecisionTimeBudget,
+			final GameResultWriter newWriter) {
+		decisionTimeBudget = newDecisionTimeBudget;
+		writer = newWriter;
+	}
+
+	/**
+	 * Creates the players
+	 * 
+	 * @param playerClasses
+	 *            Class names of the players
+	 * @param names
+	 *            Buffer for the simple class names of the players
+	 * @return Players, their decisions are measured
+	 * @throws ReflectiveOperationException
+	 *             If a player can't be instantiated
+	 */
+	JSkatPlayer[] createPlayers(final String[] playerClasses,
+			final String[] names) throws ReflectiveOperationException {
+
+		JSkatPlayer[] players = new JSkatPlayer[playerClasses.length];
+		for (int i = 0; i < players.length; i++) {
+			JSkatPlayer player = (JSkatPlayer) Class.forName(
+					playerClasses[i]).getDeclaredConstructor().newInstance();
+			names[i] = player.getClass().getSimpleName();
+			player.setPlayerName(names[i] + " " + (i + 1)); //$NON-NLS-1$
+			if (player instanceof AbstractAIPlayer) {
+				((AbstractAIPlayer) player)
+						.setDecisionTimeBudget(decisionTimeBudget);
+			}
+			players[i] = new TimedPlayer(player, getStatistics(names[i]));
+		}
+		return players;
+	}
+
+	/**
+	 * Plays a game and adds it to the statistics
+	 * 
+	 * @param tableName
+	 *            Table name
+	 * @param seriesNumber
+	 *            Number of the series or the deal
+	 * @param gameNumber
+	 *            Number of the game
+	 * @param players
+	 *            Players in the order fore hand, middle hand, rear hand
+	 * @param names
+	 *            Simple class names of the players
+	 * @param deck
+	 *            Card deck
+	 * @return Game summary
+	 * @throws IOException
+	 *             If the game result can't be written
+	 */
+	GameSummary playGame(final String tableName, final int seriesNumber,
+			final int gameNumber, final JSkatPlayer[] players,
+			final String[] names, final CardDeck deck) throws IOException {
+
+		SkatGameEngine engine = new SkatGameEngine(tableName,
+				GameVariant.STANDARD, players[0], players[1], players[2]);
+		engine.setLogger(NOPLogger.NOP_LOGGER);
+		engine.setCardDeck(deck);
+
+		long startTime = System.nanoTime();
+		engine.play();
+		long duration = System.nanoTime() - startTime;
+
+		GameSummary summary = engine.getGameSummary();
+		for (Player position : Player.values()) {
+			getStatistics(names[position.ordinal()]).addGame(
+					PlayerStatistics.getScore(summary, position));
+		}
+		if (summary.getDeclarer() != null
+				&& summary.getGameType() != GameType.PASSED_IN
+				&& summary.getGameType() != GameType.RAMSCH) {
+			getStatistics(names[summary.getDeclarer().ordinal()])
+					.addDeclarerGame(summary.isGameWon(),
+							summary.getGameValue());
+		}
+		playedGames++;
+
+		if (writer != null) {
+			writer.writeGame(seriesNumber, gameNumber, names, summary,
+					duration);
+		}
+
+		return summary;
+	}
+
+	/**
+	 * Counts a game that failed with an exception
+	 */
+	void addFailedGame() {
+		failedGames++;
+	}
+
+	private PlayerStatistics getStatistics(final String name) {
+		PlayerStatistics result = statistics.get(name);
+		if (result == null) {
+			result = new PlayerStatistics(name);
+			statistics.put(name, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the statistics of the players
+	 * 
+	 * @return Statistics per player class
+	 */
+	Map<String, PlayerStatistics> getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Gets the number of played games
+	 * 
+	 * @return Number of played games
+	 */
+	int getPlayedGames() {
+		return playedGames;
+	}
+
+	/**
+	 * Gets the number of games that failed with an exception
+	 * 
+	 * @return Number of failed games
+	 */
+	int getFailedGames() {
+		return failedGames;
+	}
+}
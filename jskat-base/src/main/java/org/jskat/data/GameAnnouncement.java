@@ -67,6 +67,23 @@ public class GameAnnouncement {
 	GameAnnouncement() {
 	}
 
+	/**
+	 * Copy constructor
+	 * 
+	 * @param original
+	 *            Announcement to copy
+	 */
+	GameAnnouncement(final GameAnnouncement original) {
+		gameType = original.gameType;
+		discardedCards.addAll(original.discardedCards);
+		ouvert = original.ouvert;
+		hand = original.hand;
+		schneider = original.schneider;
+		schwarz = original.schwarz;
+		contra = original.contra;
+		re = original.re;
+	}
+
 	/**
 	 * Gets the factory for a {@link GameAnnouncement}
 	 * 
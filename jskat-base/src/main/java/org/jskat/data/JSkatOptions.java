@@ -81,6 +81,11 @@ public final class JSkatOptions {
 		 * Maximum players on a table
 		 */
 		MAX_PLAYER_COUNT(Integer.class),
+		/**
+		 * Time budget in milliseconds for the decisions of AI players, 0 for
+		 * no budget
+		 */
+		AI_DECISION_TIME_BUDGET(Integer.class),
 		/**
 		 * Web address of the ISS
 		 */
@@ -314,6 +319,15 @@ public final class JSkatOptions {
 		return getInteger(Option.MAX_PLAYER_COUNT);
 	}
 
+	/**
+	 * Gets the time budget for the decisions of AI players
+	 * 
+	 * @return Time budget in milliseconds, 0 for no budget
+	 */
+	public Integer getAiDecisionTimeBudget() {
+		return getInteger(Option.AI_DECISION_TIME_BUDGET);
+	}
+
 	/**
 	 * Getter for property ramschSkatOwner.
 	 * 
@@ -351,6 +365,7 @@ public final class JSkatOptions {
 		SkatTableOptions result = new SkatTableOptions();
 
 		result.setMaxPlayerCount(getMaxPlayerCount());
+		result.setAiDecisionTimeBudget(getAiDecisionTimeBudget());
 
 		result.setPlayBock(isPlayBock());
 
@@ -798,6 +813,16 @@ public final class JSkatOptions {
 		setOption(Option.MAX_PLAYER_COUNT, count);
 	}
 
+	/**
+	 * Sets the time budget for the decisions of AI players
+	 * 
+	 * @param timeBudget
+	 *            Time budget in milliseconds, 0 for no budget
+	 */
+	public void setAiDecisionTimeBudget(final Integer timeBudget) {
+		setOption(Option.AI_DECISION_TIME_BUDGET, timeBudget);
+	}
+
 	/**
 	 * Setter for property playBock.
 	 * 
@@ -1035,6 +1060,9 @@ public final class JSkatOptions {
 		case MAX_PLAYER_COUNT:
 			setMaxPlayerCount(Integer.valueOf(value));
 			break;
+		case AI_DECISION_TIME_BUDGET:
+			setAiDecisionTimeBudget(Integer.valueOf(value));
+			break;
 		case PLAY_BOCK:
 			setPlayBock(Boolean.valueOf(value));
 			break;
@@ -1157,6 +1185,7 @@ public final class JSkatOptions {
 		setOption(Option.CARD_SET, CardSet.ISS_TOURNAMENT);
 		setOption(Option.CHEAT_DEBUG_MODE, Boolean.FALSE);
 		setOption(Option.MAX_PLAYER_COUNT, 3);
+		setOption(Option.AI_DECISION_TIME_BUDGET, 0);
 		setOption(Option.RULES, RuleSet.ISPA);
 		setOption(Option.PLAY_CONTRA, Boolean.TRUE);
 		setOption(Option.CONTRA_CALLING_TIME,
@@ -0,0 +1,292 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.data;
+
+import java.nio.ByteBuffer;
+
+import org.jskat.util.GameType;
+import org.jskat.util.Player;
+
+/**
+ * Compact summary of a finished game in a skat series<br />
+ * Holds only what the skat list needs. Unlike {@link GameSummary} it keeps no
+ * tricks or player names, and it has a fixed size when written by
+ * {@link SeriesHistory}.
+ */
+public final class SeriesGameSummary {
+
+	/**
+	 * Size of a written summary in bytes
+	 */
+	public final static int ENCODED_SIZE = 10;
+
+	private final static int NONE = -1;
+
+	private final static int HAND = 1;
+	private final static int OUVERT = 1 << 1;
+	private final static int SCHNEIDER = 1 << 2;
+	private final static int SCHWARZ = 1 << 3;
+	private final static int CONTRA = 1 << 4;
+	private final static int RE = 1 << 5;
+	private final static int WON = 1 << 6;
+
+	private final static Player[] PLAYERS = Player.values();
+	private final static GameType[] GAME_TYPES = GameType.values();
+
+	private final int foreHandSeat;
+	private final Player declarer;
+	private final GameType gameType;
+	private final int flags;
+	private final int gameValue;
+	private final int declarerPoints;
+
+	private SeriesGameSummary(final int newForeHandSeat,
+			final Player newDeclarer, final GameType newGameType,
+			final int newFlags, final int newGameValue,
+			final int newDeclarerPoints) {
+		foreHandSeat = newForeHandSeat;
+		declarer = newDeclarer;
+		gameType = newGameType;
+		flags = newFlags;
+		gameValue = newGameValue;
+		declarerPoints = newDeclarerPoints;
+	}
+
+	/**
+	 * Creates the summary of a finished game
+	 * 
+	 * @param foreHandSeat
+	 *            Seat of the fore hand player in the series, from 0 to 2
+	 * @param summary
+	 *            Game summary
+	 * @return Series game summary
+	 */
+	public static SeriesGameSummary fromGameSummary(final int foreHandSeat,
+			final GameSummary summary) {
+
+		if (foreHandSeat < 0 || foreHandSeat > 2) {
+			throw new IllegalArgumentException("Invalid seat " + foreHandSeat); //$NON-NLS-1$
+		}
+
+		int flags = 0;
+		flags |= summary.isHand() ? HAND : 0;
+		flags |= summary.isOuvert() ? OUVERT : 0;
+		flags |= summary.isSchneider() ? SCHNEIDER : 0;
+		flags |= summary.isSchwarz() ? SCHWARZ : 0;
+		flags |= Boolean.TRUE.equals(summary.isContra()) ? CONTRA : 0;
+		flags |= Boolean.TRUE.equals(summary.isRe()) ? RE : 0;
+		flags |= summary.isGameWon() ? WON : 0;
+
+		return new SeriesGameSummary(foreHandSeat, summary.getDeclarer(),
+				summary.getGameType(), flags, summary.getGameValue(),
+				summary.getFinalDeclarerPoints());
+	}
+
+	/**
+	 * Writes the summary
+	 * 
+	 * @param buffer
+	 *            Buffer with at least {@link #ENCODED_SIZE} bytes remaining
+	 */
+	public void write(final ByteBuffer buffer) {
+		buffer.put((byte) foreHandSeat);
+		buffer.put((byte) (declarer == null ? NONE : declarer.ordinal()));
+		buffer.put((byte) (gameType == null ? NONE : gameType.ordinal()));
+		buffer.put((byte) flags);
+		buffer.putInt(gameValue);
+		buffer.putShort((short) declarerPoints);
+	}
+
+	/**
+	 * Reads a summary
+	 * 
+	 * @param buffer
+	 *            Buffer with at least {@link #ENCODED_SIZE} bytes remaining
+	 * @return Series game summary
+	 */
+	public static SeriesGameSummary read(final ByteBuffer buffer) {
+		int seat = buffer.get();
+		int declarerIndex = buffer.get();
+		int gameTypeIndex = buffer.get();
+		int flags = buffer.get();
+		int gameValue = buffer.getInt();
+		int declarerPoints = buffer.getShort();
+		return new SeriesGameSummary(seat, declarerIndex == NONE ? null
+				: PLAYERS[declarerIndex], gameTypeIndex == NONE ? null
+				: GAME_TYPES[gameTypeIndex], flags, gameValue, declarerPoints);
+	}
+
+	/**
+	 * Gets the seat of the fore hand player in the series
+	 * 
+	 * @return Seat from 0 to 2
+	 */
+	public int getForeHandSeat() {
+		return foreHandSeat;
+	}
+
+	/**
+	 * Gets the seat of the declarer in the series
+	 * 
+	 * @return Seat from 0 to 2, -1 if there was no declarer
+	 */
+	public int getDeclarerSeat() {
+		if (declarer == null) {
+			return NONE;
+		}
+		return (foreHandSeat + declarer.ordinal()) % 3;
+	}
+
+	/**
+	 * Gets the declarer
+	 * 
+	 * @return Declarer, NULL if the game was passed in
+	 */
+	public Player getDeclarer() {
+		return declarer;
+	}
+
+	/**
+	 * Gets the game type
+	 * 
+	 * @return Game type
+	 */
+	public GameType getGameType() {
+		return gameType;
+	}
+
+	/**
+	 * Checks whether the game was a hand game
+	 * 
+	 * @return TRUE, if the game was a hand game
+	 */
+	public boolean isHand() {
+		return (flags & HAND) != 0;
+	}
+
+	/**
+	 * Checks whether the game was an ouvert game
+	 * 
+	 * @return TRUE, if the game was an ouvert game
+	 */
+	public boolean isOuvert() {
+		return (flags & OUVERT) != 0;
+	}
+
+	/**
+	 * Checks whether schneider was announced
+	 * 
+	 * @return TRUE, if schneider was announced
+	 */
+	public boolean isSchneider() {
+		return (flags & SCHNEIDER) != 0;
+	}
+
+	/**
+	 * Checks whether schwarz was announced
+	 * 
+	 * @return TRUE, if schwarz was announced
+	 */
+	public boolean isSchwarz() {
+		return (flags & SCHWARZ) != 0;
+	}
+
+	/**
+	 * Checks whether contra was called
+	 * 
+	 * @return TRUE, if contra was called
+	 */
+	public boolean isContra() {
+		return (flags & CONTRA) != 0;
+	}
+
+	/**
+	 * Checks whether re was called
+	 * 
+	 * @return TRUE, if re was called
+	 */
+	public boolean isRe() {
+		return (flags & RE) != 0;
+	}
+
+	/**
+	 * Checks whether the declarer won the game
+	 * 
+	 * @return TRUE, if the game was won
+	 */
+	public boolean isGameWon() {
+		return (flags & WON) != 0;
+	}
+
+	/**
+	 * Gets the game value
+	 * 
+	 * @return Game value
+	 */
+	public int getGameValue() {
+		return gameValue;
+	}
+
+	/**
+	 * Gets the final declarer points
+	 * 
+	 * @return Declarer points
+	 */
+	public int getDeclarerPoints() {
+		return declarerPoints;
+	}
+
+	/**
+	 * @see Object#equals(Object)
+	 */
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof SeriesGameSummary)) {
+			return false;
+		}
+		SeriesGameSummary other = (SeriesGameSummary) obj;
+		return foreHandSeat == other.foreHandSeat
+				&& declarer == other.declarer && gameType == other.gameType
+				&& flags == other.flags && gameValue == other.gameValue
+				&& declarerPoints == other.declarerPoints;
+	}
+
+	/**
+	 * @see Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		int result = foreHandSeat;
+		result = 31 * result + (declarer == null ? 0 : declarer.hashCode());
+		result = 31 * result + (gameType == null ? 0 : gameType.hashCode());
+		result = 31 * result + flags;
+		result = 31 * result + gameValue;
+		result = 31 * result + declarerPoints;
+		return result;
+	}
+
+	/**
+	 * @see Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return "Seat " + foreHandSeat + " fore hand, " + gameType //$NON-NLS-1$ //$NON-NLS-2$
+				+ " by " + declarer + ", value " + gameValue; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
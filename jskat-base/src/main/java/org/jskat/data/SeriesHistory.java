@@ -0,0 +1,318 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.data;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * History of the finished games of a skat series<br />
+ * Only the latest games are held in memory. Older games are spilled to an
+ * append-only file of fixed size records and are read back on demand, so the
+ * memory of a series doesn't grow with the number of games.<br />
+ * &nbsp;<br />
+ * Without a spill file a temporary file is created with the first spilled
+ * game and deleted on {@link #close()}. A given spill file holds all games,
+ * every game is written as soon as it is added, so the file survives a
+ * restart of the JVM. An existing spill file is continued, an incomplete
+ * record at its end is cut off.
+ */
+public class SeriesHistory implements Closeable {
+
+	/**
+	 * Default number of games held in memory
+	 */
+	public final static int DEFAULT_MEMORY_GAMES = 64;
+
+	private final int memoryGames;
+	private final ArrayDeque<SeriesGameSummary> latestGames = new ArrayDeque<SeriesGameSummary>();
+	private final ByteBuffer writeBuffer = ByteBuffer
+			.allocate(SeriesGameSummary.ENCODED_SIZE);
+
+	private File spillFile;
+	private final boolean temporarySpillFile;
+	private RandomAccessFile spillAccess;
+	private FileChannel spillChannel;
+	private int size = 0;
+	private boolean closed = false;
+
+	/**
+	 * Constructor for a history with a temporary spill file and
+	 * {@link #DEFAULT_MEMORY_GAMES} games in memory
+	 */
+	public SeriesHistory() {
+		this(DEFAULT_MEMORY_GAMES);
+	}
+
+	/**
+	 * Constructor for a history with a temporary spill file
+	 * 
+	 * @param newMemoryGames
+	 *            Number of games held in memory
+	 */
+	public SeriesHistory(final int newMemoryGames) {
+
+		checkMemoryGames(newMemoryGames);
+		memoryGames = newMemoryGames;
+		temporarySpillFile = true;
+	}
+
+	/**
+	 * Constructor<br />
+	 * The games of an existing spill file are part of the history.
+	 * 
+	 * @param newMemoryGames
+	 *            Number of games held in memory
+	 * @param newSpillFile
+	 *            File for the older games
+	 * @throws IOException
+	 *             If the spill file exists and can't be read
+	 */
+	public SeriesHistory(final int newMemoryGames, final File newSpillFile)
+			throws IOException {
+
+		checkMemoryGames(newMemoryGames);
+		memoryGames = newMemoryGames;
+		spillFile = newSpillFile;
+		temporarySpillFile = false;
+
+		if (spillFile.exists()) {
+			FileChannel channel = getSpillChannel();
+			size = (int) (channel.size() / SeriesGameSummary.ENCODED_SIZE);
+			// cut off a record that was written incompletely
+			channel.truncate((long) size * SeriesGameSummary.ENCODED_SIZE);
+		}
+	}
+
+	private static void checkMemoryGames(final int memoryGames) {
+		if (memoryGames < 1) {
+			throw new IllegalArgumentException(
+					"At least one game must be held in memory."); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Adds a finished game
+	 * 
+	 * @param game
+	 *            Game summary
+	 * @throws IOException
+	 *             If the game can't be written to the given spill file, the
+	 *             game is not added then, or if the oldest game in memory
+	 *             can't be spilled to a temporary file, the game is added
+	 *             anyway
+	 */
+	public synchronized void add(final SeriesGameSummary game)
+			throws IOException {
+
+		checkOpen();
+		if (!temporarySpillFile) {
+			write(game, size);
+		}
+		latestGames.addLast(game);
+		size++;
+		if (latestGames.size() > memoryGames) {
+			if (temporarySpillFile) {
+				write(latestGames.peekFirst(), size - latestGames.size());
+			}
+			latestGames.removeFirst();
+		}
+	}
+
+	private void write(final SeriesGameSummary game, final int index)
+			throws IOException {
+
+		writeBuffer.clear();
+		game.write(writeBuffer);
+		writeBuffer.flip();
+		FileChannel channel = getSpillChannel();
+		long position = (long) index * SeriesGameSummary.ENCODED_SIZE;
+		while (writeBuffer.hasRemaining()) {
+			position += channel.write(writeBuffer, position);
+		}
+	}
+
+	/**
+	 * Removes the latest games, only possible with a given spill file
+	 * 
+	 * @param newSize
+	 *            Number of games to keep
+	 * @throws IOException
+	 *             If the spill file can't be truncated
+	 */
+	public synchronized void truncate(final int newSize) throws IOException {
+
+		checkOpen();
+		if (temporarySpillFile) {
+			throw new IllegalStateException(
+					"Only a history with a given spill file can be truncated."); //$NON-NLS-1$
+		}
+		if (newSize < 0 || newSize > size) {
+			throw new IndexOutOfBoundsException("Size " + newSize //$NON-NLS-1$
+					+ " of " + size); //$NON-NLS-1$
+		}
+		getSpillChannel().truncate(
+				(long) newSize * SeriesGameSummary.ENCODED_SIZE);
+		while (size > newSize) {
+			if (!latestGames.isEmpty()) {
+				latestGames.removeLast();
+			}
+			size--;
+		}
+	}
+
+	/**
+	 * Gets the number of games
+	 * 
+	 * @return Number of games
+	 */
+	public synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * Gets the number of games that are not held in memory anymore
+	 * 
+	 * @return Number of spilled games
+	 */
+	public synchronized int getSpilledGames() {
+		return size - latestGames.size();
+	}
+
+	/**
+	 * Gets a game
+	 * 
+	 * @param index
+	 *            Index of the game, starting with 0
+	 * @return Game summary
+	 * @throws IOException
+	 *             If a spilled game can't be read
+	 */
+	public synchronized SeriesGameSummary get(final int index)
+			throws IOException {
+		return getGames(index, 1).get(0);
+	}
+
+	/**
+	 * Gets consecutive games, spilled games are read with a single file access
+	 * 
+	 * @param fromIndex
+	 *            Index of the first game, starting with 0
+	 * @param count
+	 *            Maximum number of games
+	 * @return Game summaries, fewer than count at the end of the history
+	 * @throws IOException
+	 *             If the spilled games can't be read
+	 */
+	public synchronized List<SeriesGameSummary> getGames(final int fromIndex,
+			final int count) throws IOException {
+
+		checkOpen();
+		if (fromIndex < 0 || fromIndex >= size || count < 0) {
+			throw new IndexOutOfBoundsException("Game " + fromIndex //$NON-NLS-1$
+					+ " of " + size); //$NON-NLS-1$
+		}
+
+		int toIndex = (int) Math.min((long) fromIndex + count, size);
+		List<SeriesGameSummary> result = new ArrayList<SeriesGameSummary>(
+				toIndex - fromIndex);
+
+		int spilledGames = size - latestGames.size();
+		if (fromIndex < spilledGames) {
+			int spilledCount = Math.min(toIndex, spilledGames) - fromIndex;
+			ByteBuffer buffer = ByteBuffer.allocate(spilledCount
+					* SeriesGameSummary.ENCODED_SIZE);
+			FileChannel channel = getSpillChannel();
+			long position = (long) fromIndex * SeriesGameSummary.ENCODED_SIZE;
+			while (buffer.hasRemaining()) {
+				int read = channel.read(buffer, position);
+				if (read < 0) {
+					throw new IOException("Spill file " + spillFile //$NON-NLS-1$
+							+ " is truncated."); //$NON-NLS-1$
+				}
+				position += read;
+			}
+			buffer.flip();
+			for (int i = 0; i < spilledCount; i++) {
+				result.add(SeriesGameSummary.read(buffer));
+			}
+		}
+
+		Iterator<SeriesGameSummary> latest = latestGames.iterator();
+		for (int i = spilledGames; i < toIndex; i++) {
+			SeriesGameSummary game = latest.next();
+			if (i >= fromIndex) {
+				result.add(game);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Opens the spill file, a temporary spill file is created if needed
+	 * 
+	 * @return Channel of the spill file
+	 * @throws IOException
+	 *             If the spill file can't be opened
+	 */
+	private FileChannel getSpillChannel() throws IOException {
+
+		if (spillChannel == null) {
+			if (spillFile == null) {
+				spillFile = File.createTempFile("jskat", ".history"); //$NON-NLS-1$ //$NON-NLS-2$
+				spillFile.deleteOnExit();
+			}
+			spillAccess = new RandomAccessFile(spillFile, "rw"); //$NON-NLS-1$
+			spillChannel = spillAccess.getChannel();
+		}
+		return spillChannel;
+	}
+
+	/**
+	 * Closes the history, a temporary spill file is deleted
+	 * 
+	 * @throws IOException
+	 *             If the spill file can't be closed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+
+		closed = true;
+		if (spillChannel != null) {
+			spillAccess.close();
+			spillChannel = null;
+			spillAccess = null;
+		}
+		if (temporarySpillFile && spillFile != null) {
+			spillFile.delete();
+		}
+	}
+
+	private void checkOpen() {
+		if (closed) {
+			throw new IllegalStateException("Series history is closed."); //$NON-NLS-1$
+		}
+	}
+}
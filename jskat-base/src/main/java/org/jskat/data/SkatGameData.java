@@ -213,6 +213,48 @@ public class SkatGameData {
 		}
 	}
 
+	/**
+	 * Copies the state of another game data object into this one<br />
+	 * Copied is everything that is changed by the events of a game: cards,
+	 * bids, passes, announcement, declarer, dealer, geschoben, tricks and
+	 * player points. Player names, rule options, game state and game result
+	 * are kept. The tricks are copied, so both objects can be changed
+	 * independently afterwards.
+	 *
+	 * @param other
+	 *            Game data to copy from
+	 */
+	public void copyFrom(final SkatGameData other) {
+
+		announcement = new GameAnnouncement(other.announcement);
+		rules = other.rules;
+		declarer = other.declarer;
+		dealer = other.dealer;
+		geschoben = other.geschoben;
+
+		for (final Player player : Player.values()) {
+			playerPoints.put(player, other.playerPoints.get(player));
+			playerPasses.put(player, other.playerPasses.get(player));
+			playerBids.get(player).clear();
+			playerBids.get(player).addAll(other.playerBids.get(player));
+			copyCards(other.playerHands.get(player), playerHands.get(player));
+			copyCards(other.dealtCards.get(player), dealtCards.get(player));
+		}
+		copyCards(other.skat, skat);
+		copyCards(other.dealtSkat, dealtSkat);
+
+		tricks.clear();
+		for (final Trick trick : other.tricks) {
+			tricks.add((Trick) trick.clone());
+		}
+	}
+
+	private static void copyCards(final CardList source,
+			final CardList target) {
+		target.clear();
+		target.addAll(source);
+	}
+
 	/**
 	 * Returns the result of the game
 	 * 
@@ -556,6 +598,24 @@ public class SkatGameData {
 		getCurrentTrick().addCard(card);
 	}
 
+	/**
+	 * Removes the last card from the current trick
+	 * 
+	 * @return Removed card
+	 */
+	public Card removeLastTrickCard() {
+
+		return getCurrentTrick().removeLastCard();
+	}
+
+	/**
+	 * Removes the current trick
+	 */
+	public void removeLastTrick() {
+
+		tricks.remove(tricks.size() - 1);
+	}
+
 	/**
 	 * Gets the current trick
 	 * 
@@ -663,6 +723,15 @@ public class SkatGameData {
 		geschoben++;
 	}
 
+	/**
+	 * Lowers the value of geschoben by 1
+	 * 
+	 */
+	public void removeGeschoben() {
+
+		geschoben--;
+	}
+
 	/**
 	 * Get the player cards
 	 * 
@@ -801,6 +870,18 @@ public class SkatGameData {
 		playerBids.get(player).add(bidValue);
 	}
 
+	/**
+	 * Gets all bids of a player
+	 * 
+	 * @param player
+	 *            Player
+	 * @return Bid values in the order they were made
+	 */
+	public List<Integer> getPlayerBids(final Player player) {
+
+		return Collections.unmodifiableList(playerBids.get(player));
+	}
+
 	public void removeLastPlayerBid(Player player) {
 		int lastIndex = playerBids.get(player).size() - 1;
 		playerBids.get(player).remove(lastIndex);
@@ -892,6 +973,28 @@ public class SkatGameData {
 		}
 	}
 
+	/**
+	 * Restores a game announcement that was replaced by
+	 * {@link #setAnnouncement(GameAnnouncement)}<br />
+	 * In contrast to {@link #setAnnouncement(GameAnnouncement)} the
+	 * announcement is not validated, so the empty announcement before the
+	 * declaring can be restored as well. A copy is set, so the same
+	 * announcement can be restored several times.
+	 * 
+	 * @param oldAnnouncement
+	 *            Announcement to restore
+	 */
+	public void restoreAnnouncement(final GameAnnouncement oldAnnouncement) {
+
+		announcement = new GameAnnouncement(oldAnnouncement);
+
+		if (announcement.getGameType() == null) {
+			rules = null;
+		} else {
+			rules = SkatRuleFactory.getSkatRules(announcement.getGameType());
+		}
+	}
+
 	/**
 	 * Gets the game type
 	 * 
@@ -1132,6 +1235,18 @@ public class SkatGameData {
 		playerHands.get(player).remove(card);
 	}
 
+	/**
+	 * Adds a card to a players hand
+	 * 
+	 * @param player
+	 *            Player
+	 * @param card
+	 *            Card
+	 */
+	public void addPlayerCard(final Player player, final Card card) {
+		playerHands.get(player).add(card);
+	}
+
 	/**
 	 * Gets the cards of a player after discarding
 	 * 
@@ -1181,6 +1296,7 @@ public class SkatGameData {
 	 */
 	public void removeDealtCards(Player player, CardList cards) {
 		dealtCards.get(player).removeAll(cards);
+		playerHands.get(player).removeAll(cards);
 	}
 
 	/**
@@ -1211,10 +1327,13 @@ public class SkatGameData {
 	 * 
 	 * @param player
 	 *            Player
+	 * @param skatCards
+	 *            Cards that were in the skat when the player picked it up
 	 */
-	public void removeSkatFromPlayer(Player player) {
-		playerHands.get(player).removeAll(dealtSkat);
-		skat.addAll(dealtSkat);
+	public void removeSkatFromPlayer(Player player, CardList skatCards) {
+		playerHands.get(player).removeAll(skatCards);
+		skat.clear();
+		skat.addAll(skatCards);
 		announcement.hand = true;
 	}
 
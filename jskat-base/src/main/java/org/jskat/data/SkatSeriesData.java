@@ -15,15 +15,14 @@
  */
 package org.jskat.data;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import org.jskat.control.SkatGame;
 import org.jskat.data.SkatGameData.GameState;
 import org.jskat.util.Player;
 
 /**
- * Data class for skat series
+ * Data class for skat series<br />
+ * Only the current game is referenced, the finished games are kept as
+ * {@link SeriesGameSummary} in a {@link SeriesHistory}.
  */
 public class SkatSeriesData {
 
@@ -47,7 +46,10 @@ public class SkatSeriesData {
 	}
 
 	private SeriesState state;
-	private List<SkatGame> games;
+	private SkatGame currentGame;
+	private int gameCount = 0;
+	private final int[] scores = new int[3];
+	private SeriesHistory history;
 	private String tableName;
 	private Player bottomPlayer;
 
@@ -56,7 +58,7 @@ public class SkatSeriesData {
 	 */
 	public SkatSeriesData() {
 
-		this.games = new ArrayList<SkatGame>();
+		this.history = new SeriesHistory();
 		setState(SeriesState.WAITING);
 	}
 
@@ -87,18 +89,89 @@ public class SkatSeriesData {
 	 * @return Game state
 	 */
 	public GameState getGameState() {
-		return games.get(games.size() - 1).getGameState();
+		if (currentGame == null) {
+			return GameState.GAME_START;
+		}
+		return currentGame.getGameState();
 	}
 
 	/**
-	 * Adds a game to the series
+	 * Adds a game to the series, the game becomes the current game
 	 * 
 	 * @param newGame
 	 *            The game to be added
 	 */
 	public void addGame(SkatGame newGame) {
 
-		this.games.add(newGame);
+		this.currentGame = newGame;
+		this.gameCount++;
+	}
+
+	/**
+	 * Gets the number of games that were started
+	 * 
+	 * @return Number of games
+	 */
+	public int getGameCount() {
+
+		return this.gameCount;
+	}
+
+	/**
+	 * Sets the number of games that were started, e.g. for a resumed series
+	 * 
+	 * @param newGameCount
+	 *            Number of games
+	 */
+	public void setGameCount(int newGameCount) {
+
+		this.gameCount = newGameCount;
+	}
+
+	/**
+	 * Adds a game value to the score of a seat
+	 * 
+	 * @param seat
+	 *            Seat of the player, from 0 to 2
+	 * @param gameValue
+	 *            Game value
+	 */
+	public void addScore(int seat, int gameValue) {
+
+		this.scores[seat] += gameValue;
+	}
+
+	/**
+	 * Gets the score of a seat
+	 * 
+	 * @param seat
+	 *            Seat of the player, from 0 to 2
+	 * @return Sum of the game values of the seat
+	 */
+	public int getScore(int seat) {
+
+		return this.scores[seat];
+	}
+
+	/**
+	 * Gets the history of the finished games
+	 * 
+	 * @return Series history
+	 */
+	public SeriesHistory getHistory() {
+
+		return this.history;
+	}
+
+	/**
+	 * Sets the history of the finished games
+	 * 
+	 * @param newHistory
+	 *            Series history
+	 */
+	public void setHistory(SeriesHistory newHistory) {
+
+		this.history = newHistory;
 	}
 
 	/**
@@ -108,7 +181,7 @@ public class SkatSeriesData {
 	 */
 	public int getCurrentGameID() {
 
-		return this.games.size() - 1;
+		return this.gameCount - 1;
 	}
 
 	public void setTableName(String newTableName) {
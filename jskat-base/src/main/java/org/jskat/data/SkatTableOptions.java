@@ -88,6 +88,7 @@ public class SkatTableOptions extends Observable {
 	private Boolean ramschEventNoBid;
 	private Boolean ramschEventRamschAfterBock;
 	private Boolean ramschGrandHandPossible;
+	private Integer aiDecisionTimeBudget;
 
 	/**
 	 * Getter for property firstPlayerName.
@@ -566,4 +567,25 @@ public class SkatTableOptions extends Observable {
 			Boolean isBockEventMultipleOfHundredScore) {
 		bockEventMultipleOfHundredScore = isBockEventMultipleOfHundredScore;
 	}
+
+	/**
+	 * Gets the time budget for the decisions of AI players at the table
+	 * 
+	 * @return Time budget in milliseconds, NULL or 0 for no budget
+	 */
+	public Integer getAiDecisionTimeBudget() {
+
+		return aiDecisionTimeBudget;
+	}
+
+	/**
+	 * Sets the time budget for the decisions of AI players at the table
+	 * 
+	 * @param newAiDecisionTimeBudget
+	 *            Time budget in milliseconds, NULL or 0 for no budget
+	 */
+	public void setAiDecisionTimeBudget(Integer newAiDecisionTimeBudget) {
+
+		aiDecisionTimeBudget = newAiDecisionTimeBudget;
+	}
 }
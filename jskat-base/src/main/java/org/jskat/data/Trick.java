@@ -174,6 +174,43 @@ public class Trick {
 		}
 	}
 
+	/**
+	 * Removes the card that was added last
+	 * 
+	 * @return Removed card, NULL if the trick has no cards
+	 */
+	public Card removeLastCard() {
+
+		Card result = null;
+
+		if (thirdCard != null) {
+
+			result = thirdCard;
+			thirdCard = null;
+		} else if (secondCard != null) {
+
+			result = secondCard;
+			secondCard = null;
+		} else if (firstCard != null) {
+
+			result = firstCard;
+			firstCard = null;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Removes all cards and the trick winner
+	 */
+	public void reset() {
+
+		firstCard = null;
+		secondCard = null;
+		thirdCard = null;
+		trickWinner = null;
+	}
+
 	/**
 	 * Returns the cards of the trick as CardList
 	 * 
@@ -206,7 +243,22 @@ public class Trick {
 	 */
 	public int getValue() {
 
-		return getCardList().getTotalValue();
+		int result = 0;
+
+		if (firstCard != null) {
+
+			result += firstCard.getPoints();
+		}
+		if (secondCard != null) {
+
+			result += secondCard.getPoints();
+		}
+		if (thirdCard != null) {
+
+			result += thirdCard.getPoints();
+		}
+
+		return result;
 	}
 
 	/**
@@ -0,0 +1,200 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.data.checkpoint;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+
+/**
+ * Encodes the records of the checkpoint logs and the snapshots<br />
+ * A record is framed by its length and a CRC32 checksum, so a record that was
+ * written incompletely is detected and ends the log.
+ */
+final class CheckpointCodec {
+
+	/**
+	 * Record with the settings and the progress of a new series
+	 */
+	final static byte SERIES_STARTED = 1;
+	/**
+	 * Record with the progress of a series
+	 */
+	final static byte PROGRESS = 2;
+
+	private final static int SNAPSHOT_MAGIC = 0x4A534353;
+	private final static int SNAPSHOT_VERSION = 1;
+
+	private CheckpointCodec() {
+		// only static methods
+	}
+
+	/**
+	 * Encodes a log record
+	 * 
+	 * @param type
+	 *            Record type
+	 * @param state
+	 *            Series state
+	 * @return Framed record
+	 */
+	static byte[] encodeRecord(final byte type, final SeriesCheckpoint state) {
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+		final DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.writeByte(type);
+			if (type == SERIES_STARTED) {
+				state.writeSettings(out);
+			}
+			state.writeProgress(out);
+			out.flush();
+		} catch (final IOException e) {
+			// a byte array stream doesn't throw
+			throw new IllegalStateException(e);
+		}
+		return frame(bytes.toByteArray());
+	}
+
+	/**
+	 * Replays log records
+	 * 
+	 * @param log
+	 *            Content of a log file
+	 * @param state
+	 *            State before the log, NULL if the log starts the series
+	 * @return State after the last complete record, NULL if there is no state
+	 * @throws IOException
+	 *             If the log doesn't start the series and there is no previous
+	 *             state
+	 */
+	static SeriesCheckpoint replayRecords(final byte[] log,
+			final SeriesCheckpoint state) throws IOException {
+
+		SeriesCheckpoint result = state;
+		final ByteBuffer buffer = ByteBuffer.wrap(log);
+		byte[] payload;
+		while ((payload = unframe(buffer)) != null) {
+			final DataInputStream in = new DataInputStream(
+					new ByteArrayInputStream(payload));
+			final byte type = in.readByte();
+			if (type == SERIES_STARTED) {
+				result = new SeriesCheckpoint();
+				result.readSettings(in);
+			} else if (type != PROGRESS) {
+				throw new IOException("Unknown record type " + type); //$NON-NLS-1$
+			} else if (result == null) {
+				throw new IOException("Log doesn't start with the series."); //$NON-NLS-1$
+			}
+			result.readProgress(in);
+		}
+		return result;
+	}
+
+	/**
+	 * Encodes a snapshot
+	 * 
+	 * @param generation
+	 *            First log generation that is not part of the snapshot
+	 * @param state
+	 *            Series state
+	 * @return Snapshot
+	 */
+	static byte[] encodeSnapshot(final long generation,
+			final SeriesCheckpoint state) {
+
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+		final DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			out.writeInt(SNAPSHOT_MAGIC);
+			out.writeInt(SNAPSHOT_VERSION);
+			out.writeLong(generation);
+			state.writeSettings(out);
+			state.writeProgress(out);
+			out.flush();
+		} catch (final IOException e) {
+			// a byte array stream doesn't throw
+			throw new IllegalStateException(e);
+		}
+		return frame(bytes.toByteArray());
+	}
+
+	/**
+	 * Decodes a snapshot
+	 * 
+	 * @param snapshot
+	 *            Content of a snapshot file
+	 * @param state
+	 *            State that gets the content of the snapshot
+	 * @return First log generation that is not part of the snapshot
+	 * @throws IOException
+	 *             If the snapshot is not valid
+	 */
+	static long decodeSnapshot(final byte[] snapshot,
+			final SeriesCheckpoint state) throws IOException {
+
+		final byte[] payload = unframe(ByteBuffer.wrap(snapshot));
+		if (payload == null) {
+			throw new IOException("Snapshot is incomplete."); //$NON-NLS-1$
+		}
+		final DataInputStream in = new DataInputStream(
+				new ByteArrayInputStream(payload));
+		if (in.readInt() != SNAPSHOT_MAGIC
+				|| in.readInt() != SNAPSHOT_VERSION) {
+			throw new IOException("Unknown snapshot format."); //$NON-NLS-1$
+		}
+		final long result = in.readLong();
+		state.readSettings(in);
+		state.readProgress(in);
+		return result;
+	}
+
+	private static byte[] frame(final byte[] payload) {
+
+		final ByteBuffer result = ByteBuffer.allocate(payload.length + 8);
+		result.putInt(payload.length);
+		result.put(payload);
+		result.putInt(checksum(payload));
+		return result.array();
+	}
+
+	private static byte[] unframe(final ByteBuffer buffer) {
+
+		if (buffer.remaining() < 4) {
+			return null;
+		}
+		final int length = buffer.getInt();
+		if (length <= 0 || buffer.remaining() < length + 4) {
+			return null;
+		}
+		final byte[] result = new byte[length];
+		buffer.get(result);
+		if (buffer.getInt() != checksum(result)) {
+			return null;
+		}
+		return result;
+	}
+
+	private static int checksum(final byte[] payload) {
+		final CRC32 crc = new CRC32();
+		crc.update(payload, 0, payload.length);
+		return (int) crc.getValue();
+	}
+}
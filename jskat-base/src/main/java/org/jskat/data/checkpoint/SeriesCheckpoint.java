@@ -0,0 +1,474 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.data.checkpoint;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import org.jskat.util.Card;
+import org.jskat.util.CardList;
+import org.jskat.util.Player;
+
+/**
+ * State of a skat series that is needed to resume it<br />
+ * The settings of a series don't change after its start, the progress changes
+ * with every game. A checkpoint is not changed anymore after it was handed to
+ * a {@link SeriesCheckpointWriter}.
+ */
+public class SeriesCheckpoint {
+
+	/**
+	 * Number of seats at a table
+	 */
+	public final static int SEATS = 3;
+
+	private final static Card[] CARDS = Card.values();
+	private final static Player[] PLAYERS = Player.values();
+
+	// settings
+	private String seriesId;
+	private String tableName;
+	private final String[] playerClasses = new String[SEATS];
+	private final String[] playerNames = new String[SEATS];
+	private boolean onlyPlayRamsch;
+	private boolean unlimitedRounds;
+
+	// progress
+	private int roundsToGo;
+	private int gameInRound;
+	private int gameCount;
+	private int foreHandSeat;
+	private Player bottomPlayer;
+	private final int[] scores = new int[SEATS];
+	private int historySize;
+	private boolean finished;
+	private CardList deck;
+
+	/**
+	 * Writes the settings
+	 * 
+	 * @param out
+	 *            Output
+	 * @throws IOException
+	 *             If the settings can't be written
+	 */
+	void writeSettings(final DataOutput out) throws IOException {
+
+		out.writeUTF(seriesId);
+		writeString(out, tableName);
+		for (int seat = 0; seat < SEATS; seat++) {
+			writeString(out, playerClasses[seat]);
+			writeString(out, playerNames[seat]);
+		}
+		out.writeBoolean(onlyPlayRamsch);
+		out.writeBoolean(unlimitedRounds);
+	}
+
+	/**
+	 * Reads the settings
+	 * 
+	 * @param in
+	 *            Input
+	 * @throws IOException
+	 *             If the settings can't be read
+	 */
+	void readSettings(final DataInput in) throws IOException {
+
+		seriesId = in.readUTF();
+		tableName = readString(in);
+		for (int seat = 0; seat < SEATS; seat++) {
+			playerClasses[seat] = readString(in);
+			playerNames[seat] = readString(in);
+		}
+		onlyPlayRamsch = in.readBoolean();
+		unlimitedRounds = in.readBoolean();
+	}
+
+	/**
+	 * Writes the progress
+	 * 
+	 * @param out
+	 *            Output
+	 * @throws IOException
+	 *             If the progress can't be written
+	 */
+	void writeProgress(final DataOutput out) throws IOException {
+
+		out.writeInt(roundsToGo);
+		out.writeByte(gameInRound);
+		out.writeInt(gameCount);
+		out.writeByte(foreHandSeat);
+		out.writeByte(bottomPlayer == null ? -1 : bottomPlayer.ordinal());
+		for (int seat = 0; seat < SEATS; seat++) {
+			out.writeInt(scores[seat]);
+		}
+		out.writeInt(historySize);
+		out.writeBoolean(finished);
+		if (deck == null) {
+			out.writeByte(-1);
+		} else {
+			out.writeByte(deck.size());
+			for (int i = 0; i < deck.size(); i++) {
+				out.writeByte(deck.get(i).ordinal());
+			}
+		}
+	}
+
+	/**
+	 * Reads the progress
+	 * 
+	 * @param in
+	 *            Input
+	 * @throws IOException
+	 *             If the progress can't be read
+	 */
+	void readProgress(final DataInput in) throws IOException {
+
+		roundsToGo = in.readInt();
+		gameInRound = in.readByte();
+		gameCount = in.readInt();
+		foreHandSeat = in.readByte();
+		final int bottomPlayerIndex = in.readByte();
+		bottomPlayer = bottomPlayerIndex < 0 ? null
+				: PLAYERS[bottomPlayerIndex];
+		for (int seat = 0; seat < SEATS; seat++) {
+			scores[seat] = in.readInt();
+		}
+		historySize = in.readInt();
+		finished = in.readBoolean();
+		final int cardCount = in.readByte();
+		if (cardCount < 0) {
+			deck = null;
+		} else {
+			deck = new CardList();
+			for (int i = 0; i < cardCount; i++) {
+				deck.add(CARDS[in.readByte()]);
+			}
+		}
+	}
+
+	private static void writeString(final DataOutput out, final String value)
+			throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private static String readString(final DataInput in) throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	/**
+	 * Gets the ID of the series
+	 * 
+	 * @return Series ID
+	 */
+	public String getSeriesId() {
+		return seriesId;
+	}
+
+	/**
+	 * Sets the ID of the series, checkpoints of a series with the same ID
+	 * replace each other
+	 * 
+	 * @param newSeriesId
+	 *            Series ID
+	 */
+	public void setSeriesId(final String newSeriesId) {
+		seriesId = newSeriesId;
+	}
+
+	/**
+	 * Gets the table name
+	 * 
+	 * @return Table name
+	 */
+	public String getTableName() {
+		return tableName;
+	}
+
+	/**
+	 * Sets the table name
+	 * 
+	 * @param newTableName
+	 *            Table name
+	 */
+	public void setTableName(final String newTableName) {
+		tableName = newTableName;
+	}
+
+	/**
+	 * Gets the class name of a player
+	 * 
+	 * @param seat
+	 *            Seat of the player, from 0 to 2
+	 * @return Class name
+	 */
+	public String getPlayerClass(final int seat) {
+		return playerClasses[seat];
+	}
+
+	/**
+	 * Gets the name of a player
+	 * 
+	 * @param seat
+	 *            Seat of the player, from 0 to 2
+	 * @return Player name
+	 */
+	public String getPlayerName(final int seat) {
+		return playerNames[seat];
+	}
+
+	/**
+	 * Sets a player
+	 * 
+	 * @param seat
+	 *            Seat of the player, from 0 to 2
+	 * @param playerClass
+	 *            Class name
+	 * @param playerName
+	 *            Player name
+	 */
+	public void setPlayer(final int seat, final String playerClass,
+			final String playerName) {
+		playerClasses[seat] = playerClass;
+		playerNames[seat] = playerName;
+	}
+
+	/**
+	 * Checks whether only ramsch games are played
+	 * 
+	 * @return TRUE if only ramsch games are played
+	 */
+	public boolean isOnlyPlayRamsch() {
+		return onlyPlayRamsch;
+	}
+
+	/**
+	 * Sets whether only ramsch games are played
+	 * 
+	 * @param isOnlyPlayRamsch
+	 *            TRUE if only ramsch games are played
+	 */
+	public void setOnlyPlayRamsch(final boolean isOnlyPlayRamsch) {
+		onlyPlayRamsch = isOnlyPlayRamsch;
+	}
+
+	/**
+	 * Checks whether unlimited rounds are played
+	 * 
+	 * @return TRUE if unlimited rounds are played
+	 */
+	public boolean isUnlimitedRounds() {
+		return unlimitedRounds;
+	}
+
+	/**
+	 * Sets whether unlimited rounds are played
+	 * 
+	 * @param isUnlimitedRounds
+	 *            TRUE if unlimited rounds are played
+	 */
+	public void setUnlimitedRounds(final boolean isUnlimitedRounds) {
+		unlimitedRounds = isUnlimitedRounds;
+	}
+
+	/**
+	 * Gets the number of rounds to go, including the current round
+	 * 
+	 * @return Number of rounds
+	 */
+	public int getRoundsToGo() {
+		return roundsToGo;
+	}
+
+	/**
+	 * Sets the number of rounds to go, including the current round
+	 * 
+	 * @param newRoundsToGo
+	 *            Number of rounds
+	 */
+	public void setRoundsToGo(final int newRoundsToGo) {
+		roundsToGo = newRoundsToGo;
+	}
+
+	/**
+	 * Gets the index of the latest game in the current round
+	 * 
+	 * @return Index from 0 to 2
+	 */
+	public int getGameInRound() {
+		return gameInRound;
+	}
+
+	/**
+	 * Sets the index of the latest game in the current round
+	 * 
+	 * @param newGameInRound
+	 *            Index from 0 to 2
+	 */
+	public void setGameInRound(final int newGameInRound) {
+		gameInRound = newGameInRound;
+	}
+
+	/**
+	 * Gets the number of started games
+	 * 
+	 * @return Number of games
+	 */
+	public int getGameCount() {
+		return gameCount;
+	}
+
+	/**
+	 * Sets the number of started games
+	 * 
+	 * @param newGameCount
+	 *            Number of games
+	 */
+	public void setGameCount(final int newGameCount) {
+		gameCount = newGameCount;
+	}
+
+	/**
+	 * Gets the seat of the fore hand player in the latest game
+	 * 
+	 * @return Seat from 0 to 2
+	 */
+	public int getForeHandSeat() {
+		return foreHandSeat;
+	}
+
+	/**
+	 * Sets the seat of the fore hand player in the latest game
+	 * 
+	 * @param newForeHandSeat
+	 *            Seat from 0 to 2
+	 */
+	public void setForeHandSeat(final int newForeHandSeat) {
+		foreHandSeat = newForeHandSeat;
+	}
+
+	/**
+	 * Gets the player that is shown at the bottom of the playground panel
+	 * 
+	 * @return Bottom player
+	 */
+	public Player getBottomPlayer() {
+		return bottomPlayer;
+	}
+
+	/**
+	 * Sets the player that is shown at the bottom of the playground panel
+	 * 
+	 * @param newBottomPlayer
+	 *            Bottom player
+	 */
+	public void setBottomPlayer(final Player newBottomPlayer) {
+		bottomPlayer = newBottomPlayer;
+	}
+
+	/**
+	 * Gets the score of a seat
+	 * 
+	 * @param seat
+	 *            Seat from 0 to 2
+	 * @return Score
+	 */
+	public int getScore(final int seat) {
+		return scores[seat];
+	}
+
+	/**
+	 * Sets the score of a seat
+	 * 
+	 * @param seat
+	 *            Seat from 0 to 2
+	 * @param score
+	 *            Score
+	 */
+	public void setScore(final int seat, final int score) {
+		scores[seat] = score;
+	}
+
+	/**
+	 * Gets the number of games in the series history
+	 * 
+	 * @return Number of games
+	 */
+	public int getHistorySize() {
+		return historySize;
+	}
+
+	/**
+	 * Sets the number of games in the series history
+	 * 
+	 * @param newHistorySize
+	 *            Number of games
+	 */
+	public void setHistorySize(final int newHistorySize) {
+		historySize = newHistorySize;
+	}
+
+	/**
+	 * Checks whether the series is finished
+	 * 
+	 * @return TRUE if the series is finished
+	 */
+	public boolean isFinished() {
+		return finished;
+	}
+
+	/**
+	 * Sets whether the series is finished
+	 * 
+	 * @param isFinished
+	 *            TRUE if the series is finished
+	 */
+	public void setFinished(final boolean isFinished) {
+		finished = isFinished;
+	}
+
+	/**
+	 * Checks whether the latest game is still running
+	 * 
+	 * @return TRUE if the latest game is running
+	 */
+	public boolean isGameRunning() {
+		return deck != null;
+	}
+
+	/**
+	 * Gets the cards of the running game in the order they are dealt
+	 * 
+	 * @return Card deck, NULL if no game is running
+	 */
+	public CardList getDeck() {
+		return deck == null ? null : new CardList(deck);
+	}
+
+	/**
+	 * Sets the cards of the running game in the order they are dealt
+	 * 
+	 * @param newDeck
+	 *            Card deck, NULL if no game is running
+	 */
+	public void setDeck(final CardList newDeck) {
+		deck = newDeck == null ? null : new CardList(newDeck);
+	}
+}
@@ -0,0 +1,487 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.data.checkpoint;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.jskat.data.SeriesHistory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Directory with the checkpoints of skat series<br />
+ * Every series has an append-only log of its progress, a snapshot and its
+ * history:
+ * <ul>
+ * <li>&lt;id&gt;.&lt;generation&gt;.log: Progress records, one after every
+ * started and finished game</li>
+ * <li>&lt;id&gt;.snapshot: Complete state up to a log generation</li>
+ * <li>&lt;id&gt;.history: {@link SeriesHistory} of the finished games</li>
+ * </ul>
+ * The log is continued in a new generation after a number of records and a
+ * snapshot of the state is written by a background thread, which then deletes
+ * the older log generations. A series is restored from its snapshot and the
+ * few records of the newer log generations.
+ */
+public class SeriesCheckpointStore implements Closeable {
+
+	private static Logger log = LoggerFactory
+			.getLogger(SeriesCheckpointStore.class);
+
+	/**
+	 * Default number of log records between two snapshots
+	 */
+	public final static int DEFAULT_SNAPSHOT_INTERVAL = 32;
+
+	private final static String SNAPSHOT_SUFFIX = ".snapshot"; //$NON-NLS-1$
+	private final static String LOG_SUFFIX = ".log"; //$NON-NLS-1$
+	private final static String HISTORY_SUFFIX = ".history"; //$NON-NLS-1$
+	private final static String TEMP_SUFFIX = ".tmp"; //$NON-NLS-1$
+	private final static String ENCODING = "UTF-8"; //$NON-NLS-1$
+
+	private final File directory;
+	private final int snapshotInterval;
+	private final ExecutorService snapshotExecutor;
+
+	/**
+	 * Opens a store or creates a new one
+	 * 
+	 * @param newDirectory
+	 *            Directory of the store
+	 * @throws IOException
+	 *             If the directory can't be created
+	 */
+	public SeriesCheckpointStore(final File newDirectory) throws IOException {
+		this(newDirectory, DEFAULT_SNAPSHOT_INTERVAL);
+	}
+
+	/**
+	 * Opens a store or creates a new one
+	 * 
+	 * @param newDirectory
+	 *            Directory of the store
+	 * @param newSnapshotInterval
+	 *            Number of log records between two snapshots
+	 * @throws IOException
+	 *             If the directory can't be created
+	 */
+	public SeriesCheckpointStore(final File newDirectory,
+			final int newSnapshotInterval) throws IOException {
+
+		if (newSnapshotInterval < 1) {
+			throw new IllegalArgumentException(
+					"The snapshot interval must be positive."); //$NON-NLS-1$
+		}
+		if (!newDirectory.isDirectory() && !newDirectory.mkdirs()) {
+			throw new IOException("Can't create the directory " + newDirectory); //$NON-NLS-1$
+		}
+		directory = newDirectory;
+		snapshotInterval = newSnapshotInterval;
+		snapshotExecutor = Executors
+				.newSingleThreadExecutor(new ThreadFactory() {
+					@Override
+					public Thread newThread(final Runnable runnable) {
+						final Thread thread = new Thread(runnable,
+								"Series snapshots"); //$NON-NLS-1$
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+	}
+
+	/**
+	 * Starts the checkpoints of a new series, older checkpoints with the same
+	 * series ID are deleted
+	 * 
+	 * @param initial
+	 *            State of the new series
+	 * @return Writer for the checkpoints of the series
+	 * @throws IOException
+	 *             If the checkpoint can't be written
+	 */
+	public SeriesCheckpointWriter create(final SeriesCheckpoint initial)
+			throws IOException {
+
+		final String seriesId = initial.getSeriesId();
+		delete(seriesId);
+
+		final SeriesHistory history = new SeriesHistory(
+				SeriesHistory.DEFAULT_MEMORY_GAMES, getHistoryFile(seriesId));
+		final SeriesCheckpointWriter result = new SeriesCheckpointWriter(
+				this, initial, 0, history);
+		result.append(CheckpointCodec.SERIES_STARTED, initial);
+		return result;
+	}
+
+	/**
+	 * Continues the checkpoints of a restored series<br />
+	 * Games in the history that were finished after the checkpoint are
+	 * removed, they are played again.
+	 * 
+	 * @param restored
+	 *            Restored state
+	 * @return Writer for the checkpoints of the series
+	 * @throws IOException
+	 *             If the history of the series is incomplete or the
+	 *             checkpoint can't be written
+	 */
+	public SeriesCheckpointWriter resume(final SeriesCheckpoint restored)
+			throws IOException {
+
+		final String seriesId = restored.getSeriesId();
+
+		final SeriesHistory history = new SeriesHistory(
+				SeriesHistory.DEFAULT_MEMORY_GAMES, getHistoryFile(seriesId));
+		if (history.size() < restored.getHistorySize()) {
+			history.close();
+			throw new IOException("History of series " + seriesId //$NON-NLS-1$
+					+ " is incomplete."); //$NON-NLS-1$
+		}
+		history.truncate(restored.getHistorySize());
+
+		long generation = readSnapshotGeneration(seriesId);
+		final List<Long> generations = getGenerations(seriesId);
+		if (!generations.isEmpty()) {
+			generation = Math.max(generation,
+					generations.get(generations.size() - 1).longValue() + 1);
+		}
+
+		final SeriesCheckpointWriter result = new SeriesCheckpointWriter(
+				this, restored, generation, history);
+		// the older logs are deleted after the snapshot
+		submitSnapshot(seriesId, generation, restored);
+		return result;
+	}
+
+	/**
+	 * Restores the state of a series
+	 * 
+	 * @param seriesId
+	 *            Series ID
+	 * @return State of the series, NULL if there is no checkpoint
+	 * @throws IOException
+	 *             If the checkpoint can't be read
+	 */
+	public SeriesCheckpoint restore(final String seriesId) throws IOException {
+		return restore(seriesId, getGenerations(seriesId));
+	}
+
+	private SeriesCheckpoint restore(final String seriesId,
+			final List<Long> generations) throws IOException {
+
+		SeriesCheckpoint result = null;
+		long generation = 0;
+
+		final File snapshotFile = getSnapshotFile(seriesId);
+		if (snapshotFile.exists()) {
+			result = new SeriesCheckpoint();
+			generation = CheckpointCodec.decodeSnapshot(
+					Files.readAllBytes(snapshotFile.toPath()), result);
+		}
+
+		for (final Long logGeneration : generations) {
+			if (logGeneration.longValue() >= generation) {
+				result = CheckpointCodec.replayRecords(
+						Files.readAllBytes(getLogFile(seriesId,
+								logGeneration.longValue()).toPath()), result);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Restores the states of all series in the store
+	 * 
+	 * @return States of the series, ordered by their IDs
+	 * @throws IOException
+	 *             If a checkpoint can't be read
+	 */
+	public List<SeriesCheckpoint> restoreAll() throws IOException {
+
+		// the directory is listed only once for all series
+		final Map<String, List<Long>> seriesGenerations = new TreeMap<String, List<Long>>();
+		for (final String fileName : listFiles()) {
+			String encodedId = null;
+			Long generation = null;
+			if (fileName.endsWith(SNAPSHOT_SUFFIX)) {
+				encodedId = fileName.substring(0, fileName.length()
+						- SNAPSHOT_SUFFIX.length());
+			} else if (fileName.endsWith(LOG_SUFFIX)) {
+				final String name = fileName.substring(0, fileName.length()
+						- LOG_SUFFIX.length());
+				final int separator = name.lastIndexOf('.');
+				if (separator > 0 && isNumber(name.substring(separator + 1))) {
+					encodedId = name.substring(0, separator);
+					generation = Long.valueOf(name.substring(separator + 1));
+				}
+			}
+			if (encodedId != null) {
+				final String seriesId = URLDecoder.decode(encodedId, ENCODING);
+				List<Long> generations = seriesGenerations.get(seriesId);
+				if (generations == null) {
+					generations = new ArrayList<Long>();
+					seriesGenerations.put(seriesId, generations);
+				}
+				if (generation != null) {
+					generations.add(generation);
+				}
+			}
+		}
+
+		final List<SeriesCheckpoint> result = new ArrayList<SeriesCheckpoint>();
+		for (final Map.Entry<String, List<Long>> entry : seriesGenerations
+				.entrySet()) {
+			Collections.sort(entry.getValue());
+			final SeriesCheckpoint checkpoint = restore(entry.getKey(),
+					entry.getValue());
+			if (checkpoint != null) {
+				result.add(checkpoint);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Deletes the checkpoints of a series, waits for pending snapshots of the
+	 * series
+	 * 
+	 * @param seriesId
+	 *            Series ID
+	 * @throws IOException
+	 *             If a file can't be deleted
+	 */
+	public void delete(final String seriesId) throws IOException {
+
+		runOnSnapshotThread(new Callable<Void>() {
+			@Override
+			public Void call() throws IOException {
+				for (final Long generation : getGenerations(seriesId)) {
+					deleteFile(getLogFile(seriesId, generation.longValue()));
+				}
+				deleteFile(getSnapshotFile(seriesId));
+				deleteFile(getHistoryFile(seriesId));
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Waits for the pending snapshots and stops the snapshot thread
+	 * 
+	 * @throws IOException
+	 *             If the thread is interrupted while waiting
+	 */
+	@Override
+	public void close() throws IOException {
+
+		snapshotExecutor.shutdown();
+		try {
+			while (!snapshotExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
+				log.debug("Waiting for series snapshots..."); //$NON-NLS-1$
+			}
+		} catch (final InterruptedException e) {
+			throw new IOException(e);
+		}
+	}
+
+	/**
+	 * Gets the number of log records between two snapshots
+	 * 
+	 * @return Snapshot interval
+	 */
+	int getSnapshotInterval() {
+		return snapshotInterval;
+	}
+
+	/**
+	 * Writes a snapshot in the background, older log generations are deleted
+	 * afterwards
+	 * 
+	 * @param seriesId
+	 *            Series ID
+	 * @param generation
+	 *            First log generation that is not part of the snapshot
+	 * @param state
+	 *            Series state
+	 */
+	void submitSnapshot(final String seriesId, final long generation,
+			final SeriesCheckpoint state) {
+
+		// encoded on the calling thread, the state may change afterwards
+		final byte[] snapshot = CheckpointCodec.encodeSnapshot(generation,
+				state);
+		snapshotExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					writeSnapshot(seriesId, generation, snapshot);
+				} catch (final IOException e) {
+					log.error("Could not write snapshot of series " //$NON-NLS-1$
+							+ seriesId, e);
+				}
+			}
+		});
+	}
+
+	private void writeSnapshot(final String seriesId, final long generation,
+			final byte[] snapshot) throws IOException {
+
+		final File snapshotFile = getSnapshotFile(seriesId);
+		final File tempFile = new File(directory, snapshotFile.getName()
+				+ TEMP_SUFFIX);
+		final FileOutputStream output = new FileOutputStream(tempFile);
+		try {
+			output.write(snapshot);
+			output.getFD().sync();
+		} finally {
+			output.close();
+		}
+		Files.move(tempFile.toPath(), snapshotFile.toPath(),
+				StandardCopyOption.REPLACE_EXISTING,
+				StandardCopyOption.ATOMIC_MOVE);
+
+		for (final Long oldGeneration : getGenerations(seriesId)) {
+			if (oldGeneration.longValue() < generation) {
+				deleteFile(getLogFile(seriesId, oldGeneration.longValue()));
+			}
+		}
+	}
+
+	private long readSnapshotGeneration(final String seriesId)
+			throws IOException {
+
+		final File snapshotFile = getSnapshotFile(seriesId);
+		if (!snapshotFile.exists()) {
+			return 0;
+		}
+		return CheckpointCodec.decodeSnapshot(
+				Files.readAllBytes(snapshotFile.toPath()),
+				new SeriesCheckpoint());
+	}
+
+	private void runOnSnapshotThread(final Callable<Void> task)
+			throws IOException {
+
+		try {
+			snapshotExecutor.submit(task).get();
+		} catch (final ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(e.getCause());
+		} catch (final InterruptedException e) {
+			throw new IOException(e);
+		}
+	}
+
+	private static void deleteFile(final File file) throws IOException {
+		if (file.exists() && !file.delete()) {
+			throw new IOException("Can't delete " + file); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Gets the log generations of a series
+	 * 
+	 * @param seriesId
+	 *            Series ID
+	 * @return Log generations in ascending order
+	 * @throws IOException
+	 *             If the directory can't be listed
+	 */
+	private List<Long> getGenerations(final String seriesId)
+			throws IOException {
+
+		final String prefix = encode(seriesId) + '.';
+		final List<Long> result = new ArrayList<Long>();
+		for (final String fileName : listFiles()) {
+			if (fileName.startsWith(prefix) && fileName.endsWith(LOG_SUFFIX)) {
+				final String generation = fileName.substring(prefix.length(),
+						fileName.length() - LOG_SUFFIX.length());
+				if (isNumber(generation)) {
+					result.add(Long.valueOf(generation));
+				}
+			}
+		}
+		Collections.sort(result);
+		return result;
+	}
+
+	private String[] listFiles() throws IOException {
+		final String[] result = directory.list();
+		if (result == null) {
+			throw new IOException("Can't list the directory " + directory); //$NON-NLS-1$
+		}
+		return result;
+	}
+
+	private static boolean isNumber(final String value) {
+		if (value.isEmpty() || value.length() > 18) {
+			return false;
+		}
+		for (int i = 0; i < value.length(); i++) {
+			if (!Character.isDigit(value.charAt(i))) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	File getLogFile(final String seriesId, final long generation) {
+		return new File(directory, encode(seriesId) + '.' + generation
+				+ LOG_SUFFIX);
+	}
+
+	private File getSnapshotFile(final String seriesId) {
+		return new File(directory, encode(seriesId) + SNAPSHOT_SUFFIX);
+	}
+
+	private File getHistoryFile(final String seriesId) {
+		return new File(directory, encode(seriesId) + HISTORY_SUFFIX);
+	}
+
+	private static String encode(final String seriesId) {
+		if (seriesId == null || seriesId.isEmpty()) {
+			throw new IllegalArgumentException("Series ID is missing."); //$NON-NLS-1$
+		}
+		try {
+			// '*' is kept by the URL encoding but not allowed in file names
+			return URLEncoder.encode(seriesId, ENCODING).replace("*", "%2A"); //$NON-NLS-1$ //$NON-NLS-2$
+		} catch (final UnsupportedEncodingException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.data.checkpoint;
+
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import org.jskat.data.SeriesHistory;
+
+/**
+ * Writes the checkpoints of a running skat series<br />
+ * Every checkpoint is appended to the log of the series at once, so it
+ * survives a restart of the JVM. The snapshots are written by the background
+ * thread of the {@link SeriesCheckpointStore}.
+ */
+public class SeriesCheckpointWriter implements Closeable {
+
+	private final SeriesCheckpointStore store;
+	private final String seriesId;
+	private final SeriesHistory history;
+
+	private SeriesCheckpoint latest;
+	private long generation;
+	private FileOutputStream logOutput;
+	private int recordsSinceSnapshot = 0;
+	private boolean closed = false;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param newStore
+	 *            Checkpoint store
+	 * @param newLatest
+	 *            Latest state of the series
+	 * @param newGeneration
+	 *            Log generation to write to
+	 * @param newHistory
+	 *            History of the series
+	 * @throws IOException
+	 *             If the log can't be opened
+	 */
+	SeriesCheckpointWriter(final SeriesCheckpointStore newStore,
+			final SeriesCheckpoint newLatest, final long newGeneration,
+			final SeriesHistory newHistory) throws IOException {
+
+		store = newStore;
+		seriesId = newLatest.getSeriesId();
+		latest = newLatest;
+		generation = newGeneration;
+		history = newHistory;
+		logOutput = new FileOutputStream(store.getLogFile(seriesId,
+				generation), true);
+	}
+
+	/**
+	 * Gets the history of the series, the history is written to the store
+	 * 
+	 * @return Series history
+	 */
+	public SeriesHistory getHistory() {
+		return history;
+	}
+
+	/**
+	 * Gets the latest checkpoint
+	 * 
+	 * @return Latest checkpoint
+	 */
+	public synchronized SeriesCheckpoint getLatest() {
+		return latest;
+	}
+
+	/**
+	 * Writes a checkpoint of the series<br />
+	 * Only the progress is logged, the settings are part of the snapshots.
+	 * 
+	 * @param state
+	 *            Current state of the series, must not be changed afterwards
+	 * @throws IOException
+	 *             If the checkpoint can't be written
+	 */
+	public synchronized void checkpoint(final SeriesCheckpoint state)
+			throws IOException {
+
+		append(CheckpointCodec.PROGRESS, state);
+		if (recordsSinceSnapshot >= store.getSnapshotInterval()) {
+			snapshot();
+		}
+	}
+
+	/**
+	 * Writes a snapshot of the latest checkpoint in the background<br />
+	 * The log is continued in a new generation, the older generations are
+	 * deleted after the snapshot.
+	 * 
+	 * @throws IOException
+	 *             If the new log generation can't be opened
+	 */
+	public synchronized void snapshot() throws IOException {
+
+		checkOpen();
+		logOutput.close();
+		generation++;
+		logOutput = new FileOutputStream(store.getLogFile(seriesId,
+				generation), true);
+		recordsSinceSnapshot = 0;
+		store.submitSnapshot(seriesId, generation, latest);
+	}
+
+	/**
+	 * Appends a record to the log
+	 * 
+	 * @param type
+	 *            Record type
+	 * @param state
+	 *            Series state
+	 * @throws IOException
+	 *             If the record can't be written
+	 */
+	synchronized void append(final byte type, final SeriesCheckpoint state)
+			throws IOException {
+
+		checkOpen();
+		logOutput.write(CheckpointCodec.encodeRecord(type, state));
+		latest = state;
+		recordsSinceSnapshot++;
+	}
+
+	/**
+	 * Closes the log and the history
+	 * 
+	 * @throws IOException
+	 *             If the files can't be closed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			logOutput.close();
+		} finally {
+			history.close();
+		}
+	}
+
+	private void checkOpen() {
+		if (closed) {
+			throw new IllegalStateException("Checkpoint writer is closed."); //$NON-NLS-1$
+		}
+	}
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.data.record;
+
+/**
+ * Reads values written by a {@link BitWriter}
+ */
+final class BitReader {
+
+	private final byte[] buffer;
+	private final int offset;
+	private final int bitLength;
+	private int bitPosition;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param newBuffer
+	 *            Buffer
+	 * @param newOffset
+	 *            Offset of the first byte
+	 * @param newLength
+	 *            Number of bytes
+	 */
+	BitReader(final byte[] newBuffer, final int newOffset, final int newLength) {
+		buffer = newBuffer;
+		offset = newOffset;
+		bitLength = newLength * 8;
+	}
+
+	/**
+	 * Reads a value
+	 * 
+	 * @param bits
+	 *            Number of bits, at most 64
+	 * @return Value
+	 */
+	long read(final int bits) {
+
+		if (bitPosition + bits > bitLength) {
+			throw new IllegalArgumentException("Game record is too short."); //$NON-NLS-1$
+		}
+
+		long result = 0;
+		int remainingBits = bits;
+		while (remainingBits > 0) {
+
+			final int availableBits = 8 - (bitPosition & 7);
+			final int readBits = Math.min(availableBits, remainingBits);
+			final int currentByte = buffer[offset + (bitPosition >>> 3)] & 0xFF;
+			final int chunk = (currentByte >>> (availableBits - readBits))
+					& ((1 << readBits) - 1);
+			result = (result << readBits) | chunk;
+
+			bitPosition += readBits;
+			remainingBits -= readBits;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Reads a value that fits into an int
+	 * 
+	 * @param bits
+	 *            Number of bits, at most 31
+	 * @return Value
+	 */
+	int readInt(final int bits) {
+		return (int) read(bits);
+	}
+
+	/**
+	 * Reads a flag
+	 * 
+	 * @return Flag
+	 */
+	boolean readFlag() {
+		return read(1) == 1;
+	}
+}
@@ -0,0 +1,86 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.data.record;
+
+import java.util.Arrays;
+
+/**
+ * Writes values with an arbitrary number of bits into a byte array, the most
+ * significant bit first
+ */
+final class BitWriter {
+
+	private byte[] buffer;
+	private int bitPosition;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param initialCapacity
+	 *            Initial capacity in bytes
+	 */
+	BitWriter(final int initialCapacity) {
+		buffer = new byte[initialCapacity];
+	}
+
+	/**
+	 * Writes the lowest bits of a value
+	 * 
+	 * @param value
+	 *            Value
+	 * @param bits
+	 *            Number of bits, at most 64
+	 */
+	void write(final long value, final int bits) {
+
+		int remainingBits = bits;
+		while (remainingBits > 0) {
+
+			final int byteIndex = bitPosition >>> 3;
+			if (byteIndex == buffer.length) {
+				buffer = Arrays.copyOf(buffer, buffer.length * 2);
+			}
+
+			final int freeBits = 8 - (bitPosition & 7);
+			final int writtenBits = Math.min(freeBits, remainingBits);
+			final int chunk = (int) (value >>> (remainingBits - writtenBits))
+					& ((1 << writtenBits) - 1);
+			buffer[byteIndex] |= chunk << (freeBits - writtenBits);
+
+			bitPosition += writtenBits;
+			remainingBits -= writtenBits;
+		}
+	}
+
+	/**
+	 * Writes a flag
+	 * 
+	 * @param flag
+	 *            Flag
+	 */
+	void write(final boolean flag) {
+		write(flag ? 1 : 0, 1);
+	}
+
+	/**
+	 * Gets the written bytes, the last byte is padded with zeros
+	 * 
+	 * @return Written bytes
+	 */
+	byte[] toByteArray() {
+		return Arrays.copyOf(buffer, (bitPosition + 7) >>> 3);
+	}
+}
@@ -0,0 +1,570 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.data.record;
+
+import java.util.List;
+
+import org.jskat.data.GameAnnouncement;
+import org.jskat.data.GameAnnouncement.GameAnnouncementFactory;
+import org.jskat.data.SkatGameData;
+import org.jskat.data.SkatGameData.GameState;
+import org.jskat.data.SkatGameResult;
+import org.jskat.data.Trick;
+import org.jskat.util.Card;
+import org.jskat.util.CardSet;
+import org.jskat.util.GameType;
+import org.jskat.util.Player;
+
+/**
+ * Flat record of a complete skat game<br />
+ * Holds the deal, the bidding, the announcement, the card plays and the result
+ * in primitive fields and {@link CardSet}s, so a game can be read without
+ * building the object graph of {@link SkatGameData}. Records are created with
+ * {@link #fromGameData(SkatGameData)} or decoded by {@link GameRecordCodec}.
+ */
+public final class GameRecord {
+
+	/**
+	 * Maximum number of card plays in a game
+	 */
+	public final static int MAX_CARD_PLAYS = 30;
+
+	/**
+	 * Maximum number of tricks in a game
+	 */
+	public final static int MAX_TRICKS = 10;
+
+	final int[] dealtCards = new int[Player.values().length];
+	int dealtSkat;
+
+	final int[][] bids = new int[Player.values().length][];
+	final boolean[] passes = new boolean[Player.values().length];
+
+	Player declarer;
+	GameType gameType;
+	boolean hand;
+	boolean ouvert;
+	boolean schneiderAnnounced;
+	boolean schwarzAnnounced;
+	boolean contra;
+	boolean re;
+	int discardedSkat;
+
+	final Card[] playedCards = new Card[MAX_CARD_PLAYS];
+	int playedCardCount;
+	final Player[] trickWinners = new Player[MAX_TRICKS];
+
+	int gameValue;
+	int multiplier;
+	int declarerPoints;
+	int opponentPoints;
+	boolean won;
+	boolean overBidded;
+	boolean schneider;
+	boolean schwarz;
+	boolean durchmarsch;
+	boolean jungfrau;
+	boolean playWithJacks;
+
+	GameRecord() {
+		for (Player player : Player.values()) {
+			bids[player.ordinal()] = new int[0];
+		}
+	}
+
+	/**
+	 * Creates a record from the data of a finished game<br />
+	 * The deal is only recorded if all 32 cards were dealt.
+	 * 
+	 * @param data
+	 *            Game data
+	 * @return Game record
+	 */
+	public static GameRecord fromGameData(final SkatGameData data) {
+
+		final GameRecord result = new GameRecord();
+
+		int allCards = CardSet.of(data.getDealtSkat());
+		for (Player player : Player.values()) {
+			result.dealtCards[player.ordinal()] = CardSet.of(data
+					.getDealtCards().get(player));
+			allCards |= result.dealtCards[player.ordinal()];
+		}
+		result.dealtSkat = CardSet.of(data.getDealtSkat());
+		if (allCards != CardSet.ALL || !isCompleteDeal(result)) {
+			// unknown or partial deal
+			for (Player player : Player.values()) {
+				result.dealtCards[player.ordinal()] = CardSet.EMPTY;
+			}
+			result.dealtSkat = CardSet.EMPTY;
+		}
+
+		for (Player player : Player.values()) {
+			final List<Integer> playerBids = data.getPlayerBids(player);
+			final int[] bidValues = new int[playerBids.size()];
+			for (int i = 0; i < bidValues.length; i++) {
+				bidValues[i] = playerBids.get(i).intValue();
+			}
+			result.bids[player.ordinal()] = bidValues;
+			result.passes[player.ordinal()] = data.isPlayerPass(player);
+		}
+
+		result.declarer = data.getDeclarer();
+		final GameAnnouncement announcement = data.getAnnoucement();
+		if (announcement != null) {
+			result.gameType = announcement.getGameType();
+			result.hand = announcement.isHand();
+			result.ouvert = announcement.isOuvert();
+			result.schneiderAnnounced = announcement.isSchneider();
+			result.schwarzAnnounced = announcement.isSchwarz();
+			result.discardedSkat = CardSet.of(announcement.getDiscardedCards());
+			if (result.discardedSkat == CardSet.EMPTY
+					&& result.declarer != null
+					&& data.getSkat().size() == 2
+					&& CardSet.of(data.getSkat()) != CardSet.of(data
+							.getDealtSkat())) {
+				// the game engine keeps the discarded cards in the skat only
+				result.discardedSkat = CardSet.of(data.getSkat());
+			}
+		}
+		result.contra = Boolean.TRUE.equals(data.isContra());
+		result.re = Boolean.TRUE.equals(data.isRe());
+
+		for (Trick trick : data.getTricks()) {
+			if (trick.getTrickNumberInGame() >= MAX_TRICKS) {
+				throw new IllegalArgumentException("Too many tricks."); //$NON-NLS-1$
+			}
+			for (Card card : trick.getCardList()) {
+				result.playedCards[result.playedCardCount++] = card;
+			}
+			result.trickWinners[trick.getTrickNumberInGame()] = trick
+					.getTrickWinner();
+		}
+
+		final SkatGameResult gameResult = data.getResult();
+		result.gameValue = gameResult.getGameValue();
+		result.multiplier = gameResult.getMultiplier();
+		result.declarerPoints = gameResult.getFinalDeclarerPoints();
+		result.opponentPoints = gameResult.getFinalOpponentPoints();
+		result.won = gameResult.isWon();
+		result.overBidded = gameResult.isOverBidded();
+		result.schneider = gameResult.isSchneider();
+		result.schwarz = gameResult.isSchwarz();
+		result.durchmarsch = gameResult.isDurchmarsch();
+		result.jungfrau = gameResult.isJungfrau();
+		result.playWithJacks = gameResult.isPlayWithJacks();
+
+		return result;
+	}
+
+	private static boolean isCompleteDeal(final GameRecord record) {
+		for (Player player : Player.values()) {
+			if (CardSet.size(record.dealtCards[player.ordinal()]) != 10) {
+				return false;
+			}
+		}
+		return CardSet.size(record.dealtSkat) == 2;
+	}
+
+	/**
+	 * Rebuilds the full game data
+	 * 
+	 * @return Game data
+	 */
+	public SkatGameData toGameData() {
+
+		final SkatGameData result = new SkatGameData();
+
+		if (isDealKnown()) {
+			for (Player player : Player.values()) {
+				result.addDealtCards(player,
+						CardSet.toCardList(dealtCards[player.ordinal()]));
+			}
+			result.setDealtSkatCards(CardSet.toCardList(dealtSkat));
+		}
+
+		for (Player player : Player.values()) {
+			for (int bid : bids[player.ordinal()]) {
+				result.addPlayerBid(player, bid);
+			}
+			result.setPlayerPass(player, passes[player.ordinal()]);
+		}
+
+		result.setDeclarer(declarer);
+		if (isDealKnown() && declarer != null
+				&& discardedSkat != CardSet.EMPTY) {
+			result.addSkatToPlayer(declarer);
+			result.setDiscardedSkat(declarer,
+					CardSet.toCardList(discardedSkat));
+		}
+		if (gameType != null) {
+			final GameAnnouncementFactory factory = GameAnnouncement
+					.getFactory();
+			factory.setGameType(gameType);
+			factory.setHand(hand);
+			factory.setOuvert(ouvert);
+			factory.setSchneider(schneiderAnnounced);
+			factory.setSchwarz(schwarzAnnounced);
+			if (!hand && discardedSkat != CardSet.EMPTY) {
+				factory.setDiscardedCards(CardSet.toCardList(discardedSkat));
+			}
+			final GameAnnouncement announcement = factory.getAnnouncement();
+			if (announcement != null) {
+				result.setAnnouncement(announcement);
+			}
+		}
+		result.setContra(contra);
+		result.setRe(re);
+
+		for (int i = 0; i < playedCardCount; i++) {
+			final int trickNumber = i / 3;
+			if (i % 3 == 0) {
+				final Player trickForeHand = trickNumber == 0 ? Player.FOREHAND
+						: trickWinners[trickNumber - 1];
+				result.addTrick(new Trick(trickNumber, trickForeHand));
+			}
+			final Trick trick = result.getCurrentTrick();
+			final Player player = getTrickPlayer(trick, i % 3);
+			if (isDealKnown()) {
+				result.removePlayerCard(player, playedCards[i]);
+			}
+			result.addTrickCard(playedCards[i]);
+		}
+		for (int i = 0; i < getTrickCount(); i++) {
+			if (trickWinners[i] != null) {
+				result.setTrickWinner(i, trickWinners[i]);
+			}
+		}
+
+		if (declarer != null) {
+			result.setDeclarerScore(declarerPoints);
+		}
+		final SkatGameResult gameResult = new SkatGameResult();
+		gameResult.setGameValue(gameValue);
+		gameResult.setMultiplier(multiplier);
+		gameResult.setFinalDeclarerPoints(declarerPoints);
+		gameResult.setFinalOpponentPoints(opponentPoints);
+		gameResult.setWon(won);
+		gameResult.setOverBidded(overBidded);
+		gameResult.setSchneider(schneider);
+		gameResult.setSchwarz(schwarz);
+		gameResult.setDurchmarsch(durchmarsch);
+		gameResult.setJungfrau(jungfrau);
+		gameResult.setPlayWithJacks(playWithJacks);
+		result.setResult(gameResult);
+		result.setGameState(GameState.GAME_OVER);
+
+		return result;
+	}
+
+	private static Player getTrickPlayer(final Trick trick, final int position) {
+		Player result = trick.getForeHand();
+		if (position == 1) {
+			result = trick.getMiddleHand();
+		} else if (position == 2) {
+			result = trick.getRearHand();
+		}
+		return result;
+	}
+
+	/**
+	 * Checks whether the complete deal is known
+	 * 
+	 * @return TRUE if the dealt cards of all players and the skat are known
+	 */
+	public boolean isDealKnown() {
+		return dealtSkat != CardSet.EMPTY;
+	}
+
+	/**
+	 * Gets the cards dealt to a player
+	 * 
+	 * @param player
+	 *            Player
+	 * @return Card set, empty if the deal is unknown
+	 */
+	public int getDealtCards(final Player player) {
+		return dealtCards[player.ordinal()];
+	}
+
+	/**
+	 * Gets the cards dealt to the skat
+	 * 
+	 * @return Card set, empty if the deal is unknown
+	 */
+	public int getDealtSkat() {
+		return dealtSkat;
+	}
+
+	/**
+	 * Gets the number of bids of a player
+	 * 
+	 * @param player
+	 *            Player
+	 * @return Number of bids
+	 */
+	public int getBidCount(final Player player) {
+		return bids[player.ordinal()].length;
+	}
+
+	/**
+	 * Gets a bid of a player
+	 * 
+	 * @param player
+	 *            Player
+	 * @param index
+	 *            Index of the bid
+	 * @return Bid value
+	 */
+	public int getBid(final Player player, final int index) {
+		return bids[player.ordinal()][index];
+	}
+
+	/**
+	 * Checks whether a player passed during bidding
+	 * 
+	 * @param player
+	 *            Player
+	 * @return TRUE if the player passed
+	 */
+	public boolean isPass(final Player player) {
+		return passes[player.ordinal()];
+	}
+
+	/**
+	 * Gets the declarer
+	 * 
+	 * @return Declarer, NULL for passed in games
+	 */
+	public Player getDeclarer() {
+		return declarer;
+	}
+
+	/**
+	 * Gets the game type
+	 * 
+	 * @return Game type, NULL if no game was announced
+	 */
+	public GameType getGameType() {
+		return gameType;
+	}
+
+	/**
+	 * Checks whether a hand game was announced
+	 * 
+	 * @return TRUE for a hand game
+	 */
+	public boolean isHand() {
+		return hand;
+	}
+
+	/**
+	 * Checks whether an ouvert game was announced
+	 * 
+	 * @return TRUE for an ouvert game
+	 */
+	public boolean isOuvert() {
+		return ouvert;
+	}
+
+	/**
+	 * Checks whether schneider was announced
+	 * 
+	 * @return TRUE if schneider was announced
+	 */
+	public boolean isSchneiderAnnounced() {
+		return schneiderAnnounced;
+	}
+
+	/**
+	 * Checks whether schwarz was announced
+	 * 
+	 * @return TRUE if schwarz was announced
+	 */
+	public boolean isSchwarzAnnounced() {
+		return schwarzAnnounced;
+	}
+
+	/**
+	 * Checks whether contra was called
+	 * 
+	 * @return TRUE if contra was called
+	 */
+	public boolean isContra() {
+		return contra;
+	}
+
+	/**
+	 * Checks whether re was called
+	 * 
+	 * @return TRUE if re was called
+	 */
+	public boolean isRe() {
+		return re;
+	}
+
+	/**
+	 * Gets the cards discarded by the declarer
+	 * 
+	 * @return Card set, empty if the skat wasn't picked up
+	 */
+	public int getDiscardedSkat() {
+		return discardedSkat;
+	}
+
+	/**
+	 * Gets the number of played cards
+	 * 
+	 * @return Number of played cards
+	 */
+	public int getPlayedCardCount() {
+		return playedCardCount;
+	}
+
+	/**
+	 * Gets a played card
+	 * 
+	 * @param index
+	 *            Index of the card in the order of play
+	 * @return Card
+	 */
+	public Card getPlayedCard(final int index) {
+		if (index >= playedCardCount) {
+			throw new IndexOutOfBoundsException("Only " + playedCardCount //$NON-NLS-1$
+					+ " cards were played."); //$NON-NLS-1$
+		}
+		return playedCards[index];
+	}
+
+	/**
+	 * Gets the number of started tricks
+	 * 
+	 * @return Number of tricks
+	 */
+	public int getTrickCount() {
+		return (playedCardCount + 2) / 3;
+	}
+
+	/**
+	 * Gets the winner of a trick
+	 * 
+	 * @param trickNumber
+	 *            Number of the trick, starting with 0
+	 * @return Trick winner, NULL if the trick wasn't finished
+	 */
+	public Player getTrickWinner(final int trickNumber) {
+		return trickWinners[trickNumber];
+	}
+
+	/**
+	 * Gets the game value
+	 * 
+	 * @return Game value, negative for lost games
+	 */
+	public int getGameValue() {
+		return gameValue;
+	}
+
+	/**
+	 * Gets the multiplier of the game
+	 * 
+	 * @return Multiplier
+	 */
+	public int getMultiplier() {
+		return multiplier;
+	}
+
+	/**
+	 * Gets the final card points of the declarer
+	 * 
+	 * @return Card points
+	 */
+	public int getDeclarerPoints() {
+		return declarerPoints;
+	}
+
+	/**
+	 * Gets the final card points of the opponents
+	 * 
+	 * @return Card points
+	 */
+	public int getOpponentPoints() {
+		return opponentPoints;
+	}
+
+	/**
+	 * Checks whether the game was won
+	 * 
+	 * @return TRUE if the game was won
+	 */
+	public boolean isWon() {
+		return won;
+	}
+
+	/**
+	 * Checks whether the declarer overbid
+	 * 
+	 * @return TRUE if the game was overbid
+	 */
+	public boolean isOverBidded() {
+		return overBidded;
+	}
+
+	/**
+	 * Checks whether the game ended schneider
+	 * 
+	 * @return TRUE for schneider
+	 */
+	public boolean isSchneider() {
+		return schneider;
+	}
+
+	/**
+	 * Checks whether the game ended schwarz
+	 * 
+	 * @return TRUE for schwarz
+	 */
+	public boolean isSchwarz() {
+		return schwarz;
+	}
+
+	/**
+	 * Checks whether a ramsch game ended with a durchmarsch
+	 * 
+	 * @return TRUE for a durchmarsch
+	 */
+	public boolean isDurchmarsch() {
+		return durchmarsch;
+	}
+
+	/**
+	 * Checks whether a ramsch game ended with a jungfrau
+	 * 
+	 * @return TRUE for a jungfrau
+	 */
+	public boolean isJungfrau() {
+		return jungfrau;
+	}
+
+	/**
+	 * Checks whether the game was played with jacks
+	 * 
+	 * @return TRUE if the game was played with jacks
+	 */
+	public boolean isPlayWithJacks() {
+		return playWithJacks;
+	}
+}
@@ -0,0 +1,371 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.data.record;
+
+import org.jskat.util.Card;
+import org.jskat.util.CardSet;
+import org.jskat.util.GameType;
+import org.jskat.util.Player;
+
+/**
+ * Encodes {@link GameRecord}s into a compact binary form<br />
+ * &nbsp;<br />
+ * All values are written bit by bit, the most significant bit first:
+ * <ul>
+ * <li>version (4 bits), game type (4 bits, 0 for none), declarer (2 bits, 0
+ * for none), hand, ouvert, schneider and schwarz announced, contra, re (1 bit
+ * each)</li>
+ * <li>deal known flag, the deal as rank of the three hands in the
+ * combinatorial number system (52 bits), the skat holds the remaining cards</li>
+ * <li>per player the number of bids (6 bits), the bid values (9 bits each)
+ * and the pass flag</li>
+ * <li>discarded skat flag and two cards (5 bits each)</li>
+ * <li>number of played cards (5 bits), the cards (5 bits each) and the trick
+ * winners (2 bits each)</li>
+ * <li>game value (11 bits), multiplier (5 bits), declarer and opponent points
+ * (7 bits each) and the result flags</li>
+ * </ul>
+ * A typical game takes about 45 bytes.
+ */
+public final class GameRecordCodec {
+
+	/**
+	 * Version of the binary format
+	 */
+	final static int VERSION = 1;
+
+	private final static int VERSION_BITS = 4;
+	private final static int GAME_TYPE_BITS = 4;
+	private final static int PLAYER_BITS = 2;
+	private final static int DEAL_BITS = 52;
+	private final static int BID_COUNT_BITS = 6;
+	private final static int BID_VALUE_BITS = 9;
+	private final static int CARD_BITS = 5;
+	private final static int CARD_COUNT_BITS = 5;
+	private final static int GAME_VALUE_BITS = 11;
+	private final static int GAME_VALUE_OFFSET = 1 << (GAME_VALUE_BITS - 1);
+	private final static int MULTIPLIER_BITS = 5;
+	private final static int POINTS_BITS = 7;
+
+	private final static int HAND_SIZE = 10;
+
+	private final static Card[] CARDS = Card.values();
+	private final static GameType[] GAME_TYPES = GameType.values();
+	private final static Player[] PLAYERS = Player.values();
+
+	/**
+	 * Binomial coefficients n over k for n up to 32 and k up to 10
+	 */
+	private final static long[][] BINOMIALS = new long[CARDS.length + 1][
+			HAND_SIZE + 1];
+
+	static {
+		for (int n = 0; n < BINOMIALS.length; n++) {
+			BINOMIALS[n][0] = 1;
+			for (int k = 1; k <= HAND_SIZE; k++) {
+				BINOMIALS[n][k] = n == 0 ? 0 : BINOMIALS[n - 1][k - 1]
+						+ BINOMIALS[n - 1][k];
+			}
+		}
+	}
+
+	private GameRecordCodec() {
+		// only static methods
+	}
+
+	/**
+	 * Encodes a game record
+	 * 
+	 * @param record
+	 *            Game record
+	 * @return Encoded game
+	 */
+	public static byte[] encode(final GameRecord record) {
+
+		final BitWriter writer = new BitWriter(64);
+
+		writer.write(VERSION, VERSION_BITS);
+		writer.write(record.gameType == null ? 0
+				: record.gameType.ordinal() + 1, GAME_TYPE_BITS);
+		writer.write(record.declarer == null ? 0
+				: record.declarer.ordinal() + 1, PLAYER_BITS);
+		writer.write(record.hand);
+		writer.write(record.ouvert);
+		writer.write(record.schneiderAnnounced);
+		writer.write(record.schwarzAnnounced);
+		writer.write(record.contra);
+		writer.write(record.re);
+
+		writer.write(record.isDealKnown());
+		if (record.isDealKnown()) {
+			writer.write(rankDeal(record.dealtCards), DEAL_BITS);
+		}
+
+		for (final Player player : PLAYERS) {
+			final int[] bids = record.bids[player.ordinal()];
+			writer.write(checkRange(bids.length, BID_COUNT_BITS, "bids"), //$NON-NLS-1$
+					BID_COUNT_BITS);
+			for (final int bid : bids) {
+				writer.write(checkRange(bid, BID_VALUE_BITS, "bid value"), //$NON-NLS-1$
+						BID_VALUE_BITS);
+			}
+			writer.write(record.passes[player.ordinal()]);
+		}
+
+		final int discardedCards = CardSet.size(record.discardedSkat);
+		if (discardedCards != 0 && discardedCards != 2) {
+			throw new IllegalArgumentException(
+					"Two cards must be discarded, not " + discardedCards); //$NON-NLS-1$
+		}
+		writer.write(discardedCards == 2);
+		for (int rest = record.discardedSkat; rest != CardSet.EMPTY; rest = CardSet
+				.removeLowest(rest)) {
+			writer.write(CardSet.getLowest(rest).ordinal(), CARD_BITS);
+		}
+
+		writer.write(record.playedCardCount, CARD_COUNT_BITS);
+		for (int i = 0; i < record.playedCardCount; i++) {
+			writer.write(record.playedCards[i].ordinal(), CARD_BITS);
+		}
+		for (int i = 0; i < record.getTrickCount(); i++) {
+			final Player winner = record.trickWinners[i];
+			writer.write(winner == null ? 0 : winner.ordinal() + 1,
+					PLAYER_BITS);
+		}
+
+		writer.write(checkRange(record.gameValue + GAME_VALUE_OFFSET,
+				GAME_VALUE_BITS, "game value"), GAME_VALUE_BITS); //$NON-NLS-1$
+		writer.write(checkRange(record.multiplier, MULTIPLIER_BITS,
+				"multiplier"), MULTIPLIER_BITS); //$NON-NLS-1$
+		writer.write(checkRange(record.declarerPoints, POINTS_BITS,
+				"declarer points"), POINTS_BITS); //$NON-NLS-1$
+		writer.write(checkRange(record.opponentPoints, POINTS_BITS,
+				"opponent points"), POINTS_BITS); //$NON-NLS-1$
+		writer.write(record.won);
+		writer.write(record.overBidded);
+		writer.write(record.schneider);
+		writer.write(record.schwarz);
+		writer.write(record.durchmarsch);
+		writer.write(record.jungfrau);
+		writer.write(record.playWithJacks);
+
+		return writer.toByteArray();
+	}
+
+	/**
+	 * Decodes a game record
+	 * 
+	 * @param data
+	 *            Encoded game
+	 * @return Game record
+	 */
+	public static GameRecord decode(final byte[] data) {
+		return decode(data, 0, data.length);
+	}
+
+	/**
+	 * Decodes a game record
+	 * 
+	 * @param data
+	 *            Buffer with the encoded game
+	 * @param offset
+	 *            Offset of the encoded game
+	 * @param length
+	 *            Length of the encoded game
+	 * @return Game record
+	 */
+	public static GameRecord decode(final byte[] data, final int offset,
+			final int length) {
+
+		final BitReader reader = new BitReader(data, offset, length);
+		final GameRecord result = new GameRecord();
+
+		final int version = reader.readInt(VERSION_BITS);
+		if (version != VERSION) {
+			throw new IllegalArgumentException(
+					"Unknown game record version " + version); //$NON-NLS-1$
+		}
+		final int gameType = reader.readInt(GAME_TYPE_BITS);
+		if (gameType > GAME_TYPES.length) {
+			throw new IllegalArgumentException("Unknown game type " + gameType); //$NON-NLS-1$
+		}
+		result.gameType = gameType == 0 ? null : GAME_TYPES[gameType - 1];
+		result.declarer = readPlayer(reader);
+		result.hand = reader.readFlag();
+		result.ouvert = reader.readFlag();
+		result.schneiderAnnounced = reader.readFlag();
+		result.schwarzAnnounced = reader.readFlag();
+		result.contra = reader.readFlag();
+		result.re = reader.readFlag();
+
+		if (reader.readFlag()) {
+			result.dealtSkat = unrankDeal(reader.read(DEAL_BITS),
+					result.dealtCards);
+		}
+
+		for (final Player player : PLAYERS) {
+			final int[] bids = new int[reader.readInt(BID_COUNT_BITS)];
+			for (int i = 0; i < bids.length; i++) {
+				bids[i] = reader.readInt(BID_VALUE_BITS);
+			}
+			result.bids[player.ordinal()] = bids;
+			result.passes[player.ordinal()] = reader.readFlag();
+		}
+
+		if (reader.readFlag()) {
+			result.discardedSkat = CardSet.bit(readCard(reader))
+					| CardSet.bit(readCard(reader));
+		}
+
+		result.playedCardCount = reader.readInt(CARD_COUNT_BITS);
+		if (result.playedCardCount > GameRecord.MAX_CARD_PLAYS) {
+			throw new IllegalArgumentException("Too many card plays " //$NON-NLS-1$
+					+ result.playedCardCount);
+		}
+		for (int i = 0; i < result.playedCardCount; i++) {
+			result.playedCards[i] = readCard(reader);
+		}
+		for (int i = 0; i < result.getTrickCount(); i++) {
+			result.trickWinners[i] = readPlayer(reader);
+		}
+
+		result.gameValue = reader.readInt(GAME_VALUE_BITS) - GAME_VALUE_OFFSET;
+		result.multiplier = reader.readInt(MULTIPLIER_BITS);
+		result.declarerPoints = reader.readInt(POINTS_BITS);
+		result.opponentPoints = reader.readInt(POINTS_BITS);
+		result.won = reader.readFlag();
+		result.overBidded = reader.readFlag();
+		result.schneider = reader.readFlag();
+		result.schwarz = reader.readFlag();
+		result.durchmarsch = reader.readFlag();
+		result.jungfrau = reader.readFlag();
+		result.playWithJacks = reader.readFlag();
+
+		return result;
+	}
+
+	private static int checkRange(final int value, final int bits,
+			final String name) {
+		if (value < 0 || value >= 1 << bits) {
+			throw new IllegalArgumentException("The " + name + " " + value //$NON-NLS-1$ //$NON-NLS-2$
+					+ " can't be encoded."); //$NON-NLS-1$
+		}
+		return value;
+	}
+
+	private static Player readPlayer(final BitReader reader) {
+		final int player = reader.readInt(PLAYER_BITS);
+		return player == 0 ? null : PLAYERS[player - 1];
+	}
+
+	private static Card readCard(final BitReader reader) {
+		return CARDS[reader.readInt(CARD_BITS)];
+	}
+
+	/**
+	 * Ranks a deal, every hand is ranked as a 10 card subset of the cards
+	 * left by the hands before
+	 * 
+	 * @param hands
+	 *            Card sets of fore hand, middle hand and rear hand
+	 * @return Rank of the deal
+	 */
+	static long rankDeal(final int[] hands) {
+
+		long result = 0;
+		int availableCards = CardSet.ALL;
+		for (final int hand : hands) {
+			result = result
+					* BINOMIALS[CardSet.size(availableCards)][HAND_SIZE]
+					+ rankHand(availableCards, hand);
+			availableCards &= ~hand;
+		}
+		return result;
+	}
+
+	private static long rankHand(final int availableCards, final int hand) {
+
+		long result = 0;
+		int position = 0;
+		int chosenCards = 0;
+		for (int rest = availableCards; rest != CardSet.EMPTY; rest = CardSet
+				.removeLowest(rest)) {
+			if ((hand & rest & -rest) != CardSet.EMPTY) {
+				chosenCards++;
+				result += BINOMIALS[position][chosenCards];
+			}
+			position++;
+		}
+		return result;
+	}
+
+	/**
+	 * Restores a deal from its rank
+	 * 
+	 * @param rank
+	 *            Rank of the deal
+	 * @param hands
+	 *            Array for the card sets of fore hand, middle hand and rear
+	 *            hand
+	 * @return Card set of the skat
+	 */
+	static int unrankDeal(final long rank, final int[] hands) {
+
+		final long[] handRanks = new long[hands.length];
+		long rest = rank;
+		for (int i = hands.length - 1; i > 0; i--) {
+			final long handCount = BINOMIALS[CARDS.length - i * HAND_SIZE][
+					HAND_SIZE];
+			handRanks[i] = rest % handCount;
+			rest /= handCount;
+		}
+		handRanks[0] = rest;
+		if (handRanks[0] >= BINOMIALS[CARDS.length][HAND_SIZE]) {
+			throw new IllegalArgumentException("Invalid deal rank " + rank); //$NON-NLS-1$
+		}
+
+		int availableCards = CardSet.ALL;
+		for (int i = 0; i < hands.length; i++) {
+			hands[i] = unrankHand(availableCards, handRanks[i]);
+			availableCards &= ~hands[i];
+		}
+		return availableCards;
+	}
+
+	private static int unrankHand(final int availableCards, final long rank) {
+
+		int result = CardSet.EMPTY;
+		long rest = rank;
+		int position = CardSet.size(availableCards) - 1;
+		for (int chosenCards = HAND_SIZE; chosenCards > 0; chosenCards--) {
+			while (BINOMIALS[position][chosenCards] > rest) {
+				position--;
+			}
+			rest -= BINOMIALS[position][chosenCards];
+			result |= getCardAt(availableCards, position);
+			position--;
+		}
+		return result;
+	}
+
+	private static int getCardAt(final int cards, final int position) {
+		int rest = cards;
+		for (int i = 0; i < position; i++) {
+			rest = CardSet.removeLowest(rest);
+		}
+		return rest & -rest;
+	}
+}
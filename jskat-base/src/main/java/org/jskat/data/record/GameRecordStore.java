@@ -0,0 +1,468 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.data.record;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Append-only store for {@link GameRecord}s<br />
+ * The records are kept in segments of a fixed number of records. Every
+ * segment consists of a data file with the encoded records, each prefixed by
+ * its length, and an index file with the offset of every record in the data
+ * file. A record is found by its game number with two positional reads.<br />
+ * &nbsp;<br />
+ * Appended records are buffered until {@link #flush()} or {@link #close()}.
+ * The data is always written before the index, so after a crash the store is
+ * opened with all records that made it into the index, incomplete records at
+ * the end of the last segment are cut off.
+ */
+public class GameRecordStore implements Closeable {
+
+	private static Logger log = LoggerFactory.getLogger(GameRecordStore.class);
+
+	/**
+	 * Default number of records per segment
+	 */
+	public final static int DEFAULT_RECORDS_PER_SEGMENT = 1 << 20;
+
+	private final static int INDEX_MAGIC = 0x4A534752;
+	private final static int INDEX_HEADER_SIZE = 8;
+	private final static int INDEX_ENTRY_SIZE = 4;
+	private final static int MAX_LENGTH_SIZE = 5;
+	private final static int BUFFER_SIZE = 64 * 1024;
+
+	private final File directory;
+	private final int recordsPerSegment;
+	private final List<Segment> segments = new ArrayList<Segment>();
+
+	private final ByteBuffer dataBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private final ByteBuffer indexBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private final ByteBuffer entryBuffer = ByteBuffer
+			.allocate(INDEX_ENTRY_SIZE);
+	private ByteBuffer readBuffer = ByteBuffer.allocate(256);
+
+	private long size;
+	private long flushedSize;
+	private boolean closed;
+
+	/**
+	 * Opens a store or creates a new one
+	 * 
+	 * @param newDirectory
+	 *            Directory of the store
+	 * @throws IOException
+	 *             If the store can't be opened
+	 */
+	public GameRecordStore(final File newDirectory) throws IOException {
+		this(newDirectory, DEFAULT_RECORDS_PER_SEGMENT);
+	}
+
+	/**
+	 * Opens a store or creates a new one
+	 * 
+	 * @param newDirectory
+	 *            Directory of the store
+	 * @param newRecordsPerSegment
+	 *            Number of records per segment for a new store, an existing
+	 *            store keeps its segment size
+	 * @throws IOException
+	 *             If the store can't be opened
+	 */
+	public GameRecordStore(final File newDirectory,
+			final int newRecordsPerSegment) throws IOException {
+
+		if (newRecordsPerSegment < 1) {
+			throw new IllegalArgumentException(
+					"A segment needs at least one record."); //$NON-NLS-1$
+		}
+		if (!newDirectory.isDirectory() && !newDirectory.mkdirs()) {
+			throw new IOException("Can't create the directory " + newDirectory); //$NON-NLS-1$
+		}
+		directory = newDirectory;
+
+		final int existingRecordsPerSegment = readRecordsPerSegment(getIndexFile(0));
+		recordsPerSegment = existingRecordsPerSegment > 0 ? existingRecordsPerSegment
+				: newRecordsPerSegment;
+
+		for (int number = 0; getIndexFile(number).exists(); number++) {
+			final Segment segment = new Segment(number);
+			if (!segments.isEmpty()
+					&& getLastSegment().count < recordsPerSegment) {
+				segment.close();
+				throw new IOException("Segment " + (number - 1) //$NON-NLS-1$
+						+ " is incomplete."); //$NON-NLS-1$
+			}
+			segments.add(segment);
+			size += segment.count;
+		}
+		flushedSize = size;
+
+		log.debug("Opened game record store " + directory + " with " + size //$NON-NLS-1$ //$NON-NLS-2$
+				+ " games."); //$NON-NLS-1$
+	}
+
+	private File getDataFile(final int number) {
+		return new File(directory, String.format("games-%08d.dat", number)); //$NON-NLS-1$
+	}
+
+	private File getIndexFile(final int number) {
+		return new File(directory, String.format("games-%08d.idx", number)); //$NON-NLS-1$
+	}
+
+	private static int readRecordsPerSegment(final File indexFile)
+			throws IOException {
+
+		if (!indexFile.exists() || indexFile.length() < INDEX_HEADER_SIZE) {
+			return -1;
+		}
+
+		final RandomAccessFile file = new RandomAccessFile(indexFile, "r"); //$NON-NLS-1$
+		try {
+			if (file.readInt() != INDEX_MAGIC) {
+				throw new IOException(indexFile + " is no game record index."); //$NON-NLS-1$
+			}
+			return file.readInt();
+		} finally {
+			file.close();
+		}
+	}
+
+	/**
+	 * Gets the number of games in the store
+	 * 
+	 * @return Number of games
+	 */
+	public synchronized long size() {
+		return size;
+	}
+
+	/**
+	 * Appends a game
+	 * 
+	 * @param record
+	 *            Game record
+	 * @return Game number of the record, starting with 0
+	 * @throws IOException
+	 *             If the record can't be written
+	 */
+	public synchronized long append(final GameRecord record)
+			throws IOException {
+
+		checkOpen();
+
+		final byte[] encodedRecord = GameRecordCodec.encode(record);
+
+		Segment segment = segments.isEmpty() ? null : getLastSegment();
+		if (segment == null || segment.count == recordsPerSegment) {
+			flush();
+			segment = new Segment(segments.size());
+			segments.add(segment);
+		}
+
+		if (dataBuffer.remaining() < MAX_LENGTH_SIZE + encodedRecord.length
+				|| indexBuffer.remaining() < INDEX_ENTRY_SIZE) {
+			flush();
+		}
+		if (segment.dataSize > Integer.MAX_VALUE) {
+			throw new IOException("Segment " + segment.number //$NON-NLS-1$
+					+ " is too large."); //$NON-NLS-1$
+		}
+
+		indexBuffer.putInt((int) segment.dataSize);
+		final int lengthSize = putLength(dataBuffer, encodedRecord.length);
+		dataBuffer.put(encodedRecord);
+
+		segment.dataSize += lengthSize + encodedRecord.length;
+		segment.count++;
+
+		return size++;
+	}
+
+	/**
+	 * Reads a game
+	 * 
+	 * @param gameNumber
+	 *            Game number, starting with 0
+	 * @return Game record
+	 * @throws IOException
+	 *             If the record can't be read
+	 */
+	public synchronized GameRecord read(final long gameNumber)
+			throws IOException {
+
+		checkOpen();
+
+		if (gameNumber < 0 || gameNumber >= size) {
+			throw new IndexOutOfBoundsException("No game " + gameNumber //$NON-NLS-1$
+					+ " in a store with " + size + " games."); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		if (gameNumber >= flushedSize) {
+			flush();
+		}
+
+		final Segment segment = segments
+				.get((int) (gameNumber / recordsPerSegment));
+		final int offset = segment
+				.getOffset((int) (gameNumber % recordsPerSegment));
+
+		readBuffer.clear();
+		readBuffer.limit((int) Math.min(readBuffer.capacity(),
+				segment.flushedDataSize - offset));
+		readFully(segment.dataChannel, readBuffer, offset);
+		readBuffer.flip();
+
+		final int length = getLength(readBuffer);
+		final int recordStart = readBuffer.position();
+		if (recordStart + length > readBuffer.limit()) {
+			// record is larger than the read buffer
+			final ByteBuffer largerBuffer = ByteBuffer.allocate(Math.max(
+					recordStart + length, readBuffer.capacity() * 2));
+			largerBuffer.limit(recordStart + length);
+			readFully(segment.dataChannel, largerBuffer, offset);
+			readBuffer = largerBuffer;
+		}
+
+		return GameRecordCodec.decode(readBuffer.array(), recordStart, length);
+	}
+
+	/**
+	 * Writes all buffered records to the files
+	 * 
+	 * @throws IOException
+	 *             If the records can't be written
+	 */
+	public synchronized void flush() throws IOException {
+
+		checkOpen();
+
+		if (size == flushedSize) {
+			return;
+		}
+
+		final Segment segment = getLastSegment();
+		dataBuffer.flip();
+		writeFully(segment.dataChannel, dataBuffer);
+		dataBuffer.clear();
+		indexBuffer.flip();
+		writeFully(segment.indexChannel, indexBuffer);
+		indexBuffer.clear();
+
+		segment.flushedDataSize = segment.dataSize;
+		flushedSize = size;
+	}
+
+	/**
+	 * Flushes the buffered records and closes all files
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+
+		if (closed) {
+			return;
+		}
+
+		try {
+			flush();
+		} finally {
+			closed = true;
+			for (final Segment segment : segments) {
+				segment.close();
+			}
+			segments.clear();
+		}
+	}
+
+	private void checkOpen() {
+		if (closed) {
+			throw new IllegalStateException("Game record store is closed."); //$NON-NLS-1$
+		}
+	}
+
+	private Segment getLastSegment() {
+		return segments.get(segments.size() - 1);
+	}
+
+	private static int putLength(final ByteBuffer buffer, final int length) {
+		int rest = length;
+		int result = 1;
+		while ((rest & ~0x7F) != 0) {
+			buffer.put((byte) (rest & 0x7F | 0x80));
+			rest >>>= 7;
+			result++;
+		}
+		buffer.put((byte) rest);
+		return result;
+	}
+
+	private static int getLength(final ByteBuffer buffer) throws IOException {
+		int result = 0;
+		for (int shift = 0; shift < 7 * MAX_LENGTH_SIZE; shift += 7) {
+			if (!buffer.hasRemaining()) {
+				break;
+			}
+			final byte current = buffer.get();
+			result |= (current & 0x7F) << shift;
+			if ((current & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new IOException("Invalid record length."); //$NON-NLS-1$
+	}
+
+	private static void readFully(final FileChannel channel,
+			final ByteBuffer buffer, final long position) throws IOException {
+		long currentPosition = position;
+		while (buffer.hasRemaining()) {
+			final int read = channel.read(buffer, currentPosition);
+			if (read < 0) {
+				throw new IOException("Unexpected end of file."); //$NON-NLS-1$
+			}
+			currentPosition += read;
+		}
+	}
+
+	private static void writeFully(final FileChannel channel,
+			final ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+	}
+
+	/**
+	 * Data and index file of a segment
+	 */
+	private final class Segment {
+
+		private final int number;
+		private final RandomAccessFile dataFile;
+		private final RandomAccessFile indexFile;
+		final FileChannel dataChannel;
+		final FileChannel indexChannel;
+		int count;
+		long dataSize;
+		long flushedDataSize;
+
+		Segment(final int newNumber) throws IOException {
+
+			number = newNumber;
+			dataFile = new RandomAccessFile(getDataFile(number), "rw"); //$NON-NLS-1$
+			indexFile = new RandomAccessFile(getIndexFile(number), "rw"); //$NON-NLS-1$
+			dataChannel = dataFile.getChannel();
+			indexChannel = indexFile.getChannel();
+
+			try {
+				open();
+			} catch (final IOException e) {
+				close();
+				throw e;
+			}
+		}
+
+		private void open() throws IOException {
+
+			if (indexChannel.size() < INDEX_HEADER_SIZE) {
+				// new segment
+				final ByteBuffer header = ByteBuffer
+						.allocate(INDEX_HEADER_SIZE);
+				header.putInt(INDEX_MAGIC);
+				header.putInt(recordsPerSegment);
+				header.flip();
+				indexChannel.truncate(0);
+				writeFully(indexChannel, header);
+				dataChannel.truncate(0);
+				return;
+			}
+
+			final ByteBuffer header = ByteBuffer.allocate(INDEX_HEADER_SIZE);
+			readFully(indexChannel, header, 0);
+			header.flip();
+			if (header.getInt() != INDEX_MAGIC
+					|| header.getInt() != recordsPerSegment) {
+				throw new IOException("Invalid index of segment " + number); //$NON-NLS-1$
+			}
+
+			count = (int) Math.min(recordsPerSegment,
+					(indexChannel.size() - INDEX_HEADER_SIZE)
+							/ INDEX_ENTRY_SIZE);
+			dataSize = 0;
+			final long dataFileSize = dataChannel.size();
+			while (count > 0) {
+				// drop records that were not completely written
+				final long recordEnd = getRecordEnd(getOffset(count - 1),
+						dataFileSize);
+				if (recordEnd <= dataFileSize) {
+					dataSize = recordEnd;
+					break;
+				}
+				count--;
+			}
+			if (count < (indexChannel.size() - INDEX_HEADER_SIZE)
+					/ INDEX_ENTRY_SIZE
+					|| dataSize < dataFileSize) {
+				log.warn("Cutting off incomplete records of segment " + number); //$NON-NLS-1$
+			}
+			indexChannel.truncate(INDEX_HEADER_SIZE + (long) count
+					* INDEX_ENTRY_SIZE);
+			dataChannel.truncate(dataSize);
+
+			indexChannel.position(indexChannel.size());
+			dataChannel.position(dataSize);
+			flushedDataSize = dataSize;
+		}
+
+		private long getRecordEnd(final int offset, final long dataFileSize)
+				throws IOException {
+
+			final ByteBuffer buffer = ByteBuffer.allocate(MAX_LENGTH_SIZE);
+			buffer.limit((int) Math.max(0,
+					Math.min(MAX_LENGTH_SIZE, dataFileSize - offset)));
+			readFully(dataChannel, buffer, offset);
+			buffer.flip();
+			try {
+				final int length = getLength(buffer);
+				return offset + buffer.position() + length;
+			} catch (final IOException e) {
+				return Long.MAX_VALUE;
+			}
+		}
+
+		int getOffset(final int index) throws IOException {
+			entryBuffer.clear();
+			readFully(indexChannel, entryBuffer, INDEX_HEADER_SIZE
+					+ (long) index * INDEX_ENTRY_SIZE);
+			entryBuffer.flip();
+			return entryBuffer.getInt();
+		}
+
+		void close() throws IOException {
+			try {
+				dataFile.close();
+			} finally {
+				indexFile.close();
+			}
+		}
+	}
+}
@@ -20,8 +20,10 @@ import org.jskat.data.GameSummary;
 import org.jskat.data.Trick;
 import org.jskat.util.Card;
 import org.jskat.util.CardList;
+import org.jskat.util.CardSet;
 import org.jskat.util.GameType;
 import org.jskat.util.Player;
+import org.jskat.util.rule.LegalMoveGenerator;
 import org.jskat.util.rule.SkatRule;
 import org.jskat.util.rule.SkatRuleFactory;
 import org.slf4j.Logger;
@@ -167,31 +169,17 @@ public abstract class AbstractJSkatPlayer implements JSkatPlayer {
 	 */
 	protected final CardList getPlayableCards(final CardList trick) {
 
-		boolean isCardAllowed = false;
 		CardList result = new CardList();
 
 		log.debug("game type: " + internalKnowledge.getGameType()); //$NON-NLS-1$
-		log.debug("player cards (" + internalKnowledge.getOwnCards().size() + "): " + internalKnowledge.getOwnCards()); //$NON-NLS-1$ //$NON-NLS-2$
 		log.debug("trick size: " + trick.size()); //$NON-NLS-1$
 
-		for (Card card : internalKnowledge.getOwnCards()) {
-
-			if (trick.size() > 0
-					&& rules.isCardAllowed(internalKnowledge.getGameType(),
-							trick.get(0), internalKnowledge.getOwnCards(), card)) {
-
-				log.debug("initial card: " + trick.get(0)); //$NON-NLS-1$
-				isCardAllowed = true;
-			} else if (trick.size() == 0) {
-
-				isCardAllowed = true;
-			} else {
-
-				isCardAllowed = false;
-			}
-
-			if (isCardAllowed) {
+		int playableCards = getPlayableCardSet(trick);
 
+		// keep the order of the own cards
+		for (int i = 0; i < internalKnowledge.ownCards.size(); i++) {
+			Card card = internalKnowledge.ownCards.get(i);
+			if (CardSet.contains(playableCards, card)) {
 				result.add(card);
 			}
 		}
@@ -199,6 +187,24 @@ public abstract class AbstractJSkatPlayer implements JSkatPlayer {
 		return result;
 	}
 
+	/**
+	 * Gets all playable cards without creating a card list
+	 * 
+	 * @param trick
+	 * @return {@link CardSet} with all playable cards
+	 */
+	protected final int getPlayableCardSet(final CardList trick) {
+
+		Card initialCard = null;
+		if (trick.size() > 0) {
+			initialCard = trick.get(0);
+		}
+
+		return LegalMoveGenerator.getLegalMoves(
+				internalKnowledge.getGameType(), initialCard,
+				internalKnowledge.getOwnCardSet());
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -280,6 +286,8 @@ public abstract class AbstractJSkatPlayer implements JSkatPlayer {
 		result.addAll(getCardsToDiscard());
 
 		internalKnowledge.removeOwnCards(result.getImmutableCopy());
+		// the discarded cards are the new skat
+		internalKnowledge.setSkat(result);
 
 		log.debug("Player cards after discarding: " + internalKnowledge.getOwnCards()); //$NON-NLS-1$
 
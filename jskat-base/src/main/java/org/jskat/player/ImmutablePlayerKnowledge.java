@@ -18,15 +18,14 @@ package org.jskat.player;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
 
 import org.jskat.data.GameAnnouncement;
 import org.jskat.data.Trick;
 import org.jskat.util.Card;
 import org.jskat.util.CardList;
+import org.jskat.util.CardSet;
 import org.jskat.util.GameType;
 import org.jskat.util.Player;
 import org.jskat.util.Rank;
@@ -50,22 +49,21 @@ public class ImmutablePlayerKnowledge {
 	protected Player playerPosition;
 
 	/**
-	 * Contains all cards played by the players
+	 * Contains all cards played by the players as {@link CardSet}, indexed by
+	 * player ordinal
 	 */
-	// FIXME (markus 07.11.11.) why is this a "Set<Card>" instead of "CardList"?
-	protected final Map<Player, Set<Card>> playedCards = new HashMap<Player, Set<Card>>();
+	protected final int[] playedCards = new int[Player.values().length];
 
 	/**
-	 * Contains all cards that could be on a certain position
+	 * Contains all cards that could be on a certain position as
+	 * {@link CardSet}, indexed by player ordinal
 	 */
-	// FIXME (markus 07.11.11.) why is this a "Set<Card>" instead of "CardList"?
-	protected final Map<Player, Set<Card>> possiblePlayerCards = new HashMap<Player, Set<Card>>();
+	protected final int[] possiblePlayerCards = new int[Player.values().length];
 
 	/**
-	 * Contains all cards that could be in the skat
+	 * Contains all cards that could be in the skat as {@link CardSet}
 	 */
-	// FIXME (markus 07.11.11.) why is this a "Set<Card>" instead of "CardList"?
-	protected final Set<Card> possibleSkatCards = new HashSet<Card>();
+	protected int possibleSkatCards;
 
 	/**
 	 * Holds the highest bid every player has made during bidding
@@ -111,6 +109,8 @@ public class ImmutablePlayerKnowledge {
 
 	/** Player cards */
 	protected final CardList ownCards = new CardList();
+	/** Player cards as {@link CardSet} */
+	protected int ownCardSet;
 	/** Skat cards */
 	protected final CardList skat = new CardList();
 	/** Cards of the single player */
@@ -142,7 +142,7 @@ public class ImmutablePlayerKnowledge {
 	 */
 	public final boolean couldHaveCard(final Player player, final Card card) {
 
-		return possiblePlayerCards.get(player).contains(card);
+		return CardSet.contains(possiblePlayerCards[player.ordinal()], card);
 	}
 
 	/**
@@ -156,13 +156,8 @@ public class ImmutablePlayerKnowledge {
 	 * @return TRUE if the player could have any card of the suit
 	 */
 	public final boolean couldHaveSuit(final Player player, final Suit suit) {
-		for (Rank r : Rank.values()) {
-			if (r == Rank.JACK) {
-				continue;
-			}
-			return couldHaveCard(player, Card.getCard(suit, r));
-		}
-		return false;
+		return (possiblePlayerCards[player.ordinal()]
+				& CardSet.getSuitMask(suit) & ~CardSet.JACKS) != CardSet.EMPTY;
 	}
 
 	/**
@@ -174,12 +169,8 @@ public class ImmutablePlayerKnowledge {
 	 * @return TRUE if the player could have any trump card
 	 */
 	public final boolean couldHaveTrump(final Player player) {
-		for (Card c : Card.values()) {
-			if (c.isTrump(getGameType()) && couldHaveCard(player, c)) {
-				return true;
-			}
-		}
-		return false;
+		return (possiblePlayerCards[player.ordinal()] & CardSet
+				.getTrumpMask(getGameType())) != CardSet.EMPTY;
 	}
 
 	/**
@@ -190,7 +181,7 @@ public class ImmutablePlayerKnowledge {
 	 * @return TRUE if card could lie in the skat
 	 */
 	public final boolean couldLieInSkat(final Card card) {
-		return possibleSkatCards.contains(card);
+		return CardSet.contains(possibleSkatCards, card);
 	}
 
 	/**
@@ -220,6 +211,38 @@ public class ImmutablePlayerKnowledge {
 		return false;
 	}
 
+	/**
+	 * Gets the cards that a player could have, this is an uncertain
+	 * information
+	 * 
+	 * @param player
+	 *            Player ID
+	 * @return {@link CardSet} of all cards the player could have
+	 */
+	public final int getPossibleCardSet(final Player player) {
+		return possiblePlayerCards[player.ordinal()];
+	}
+
+	/**
+	 * Gets the cards that could lie in the skat
+	 * 
+	 * @return {@link CardSet} of all cards that could lie in the skat
+	 */
+	public final int getPossibleSkatCardSet() {
+		return possibleSkatCards;
+	}
+
+	/**
+	 * Gets the cards played by a player
+	 * 
+	 * @param player
+	 *            Player ID
+	 * @return {@link CardSet} of all cards played by the player
+	 */
+	public final int getPlayedCardSet(final Player player) {
+		return playedCards[player.ordinal()];
+	}
+
 	/**
 	 * Gets all tricks that are completed
 	 */
@@ -237,6 +260,52 @@ public class ImmutablePlayerKnowledge {
 		return (Trick) currentTrick.clone();
 	}
 
+	/**
+	 * Gets the fore hand player of the current trick without copying the
+	 * trick
+	 * 
+	 * @return Fore hand player of the current trick
+	 */
+	public final Player getCurrentTrickForeHand() {
+		return currentTrick.getForeHand();
+	}
+
+	/**
+	 * Gets the first card of the current trick without copying the trick
+	 * 
+	 * @return First card, NULL if no card was played yet
+	 */
+	public final Card getCurrentTrickFirstCard() {
+		return currentTrick.getFirstCard();
+	}
+
+	/**
+	 * Gets the second card of the current trick without copying the trick
+	 * 
+	 * @return Second card, NULL if the card was not played yet
+	 */
+	public final Card getCurrentTrickSecondCard() {
+		return currentTrick.getSecondCard();
+	}
+
+	/**
+	 * Gets the third card of the current trick without copying the trick
+	 * 
+	 * @return Third card, NULL if the card was not played yet
+	 */
+	public final Card getCurrentTrickThirdCard() {
+		return currentTrick.getThirdCard();
+	}
+
+	/**
+	 * Gets the number of the current trick in the game
+	 * 
+	 * @return Trick number, starting with 0
+	 */
+	public final int getCurrentTrickNumber() {
+		return currentTrick.getTrickNumberInGame();
+	}
+
 	/**
 	 * Gets the declarer position
 	 * 
@@ -295,6 +364,15 @@ public class ImmutablePlayerKnowledge {
 		return ownCards.getImmutableCopy();
 	}
 
+	/**
+	 * Gets the own cards without copying them
+	 * 
+	 * @return {@link CardSet} of the own cards
+	 */
+	public final int getOwnCardSet() {
+		return ownCardSet;
+	}
+
 	/**
 	 * Converts all the cards from the tricks to the binary matrix, one int for
 	 * each suit<br>
@@ -336,20 +414,10 @@ public class ImmutablePlayerKnowledge {
 	 */
 	public final int getPotentialSuitCount(final Player player,
 			final Suit suit, final boolean isTrump, final boolean includeJacks) {
-		int result = 0;
-		for (Rank r : Rank.values()) {
-			if (r == Rank.JACK && !includeJacks) {
-				continue;
-			} else if (couldHaveCard(player, Card.getCard(suit, r))) {
-				result++;
-			}
-		}
+		int possibleCards = possiblePlayerCards[player.ordinal()];
+		int result = CardSet.getSuitCount(possibleCards, suit, includeJacks);
 		if (isTrump) {
-			for (Suit s : Suit.values()) {
-				if (couldHaveCard(player, Card.getCard(s, Rank.JACK))) {
-					result++;
-				}
-			}
+			result += CardSet.size(possibleCards & CardSet.JACKS);
 		}
 		return result;
 	}
@@ -453,12 +521,12 @@ public class ImmutablePlayerKnowledge {
 		if (couldHaveCard(player, card)) {
 
 			// check all players and the skat whether the card could be there
-			for (Set<Card> s : possiblePlayerCards.values()) {
-				if (s.contains(card)) {
+			for (int cardSet : possiblePlayerCards) {
+				if (CardSet.contains(cardSet, card)) {
 					possessionCount++;
 				}
 			}
-			if (possibleSkatCards.contains(card)) {
+			if (CardSet.contains(possibleSkatCards, card)) {
 				possessionCount++;
 			}
 		}
@@ -487,9 +555,20 @@ public class ImmutablePlayerKnowledge {
 	 */
 	public final boolean isCardPlayed(final Card card) {
 
-		return playedCards.get(Player.FOREHAND).contains(card)
-				|| playedCards.get(Player.MIDDLEHAND).contains(card)
-				|| playedCards.get(Player.REARHAND).contains(card);
+		return CardSet.contains(getPlayedCardSet(), card);
+	}
+
+	/**
+	 * Gets all cards played in the game
+	 * 
+	 * @return {@link CardSet} of all played cards
+	 */
+	public final int getPlayedCardSet() {
+		int result = CardSet.EMPTY;
+		for (int cardSet : playedCards) {
+			result |= cardSet;
+		}
+		return result;
 	}
 
 	/**
@@ -503,7 +582,7 @@ public class ImmutablePlayerKnowledge {
 	 */
 	public final boolean isCardPlayedBy(final Player player, final Card card) {
 
-		return playedCards.get(player).contains(card);
+		return CardSet.contains(playedCards[player.ordinal()], card);
 	}
 
 	/**
@@ -559,7 +638,7 @@ public class ImmutablePlayerKnowledge {
 	 * @return TRUE, if the card is on the players hand
 	 */
 	public final boolean isOwnCard(Card card) {
-		return ownCards.contains(card);
+		return CardSet.contains(ownCardSet, card);
 	}
 
 	/**
@@ -583,6 +662,7 @@ public class ImmutablePlayerKnowledge {
 	public String toString() {
 
 		StringBuffer result = new StringBuffer();
+		int allPlayedCards = getPlayedCardSet();
 
 		result.append("Played cards:\n"); //$NON-NLS-1$
 		for (Suit suit : Suit.values()) {
@@ -591,12 +671,7 @@ public class ImmutablePlayerKnowledge {
 
 			for (Rank rank : Rank.values()) {
 
-				if (playedCards.get(Player.FOREHAND).contains(
-						Card.getCard(suit, rank))
-						|| playedCards.get(Player.MIDDLEHAND).contains(
-								Card.getCard(suit, rank))
-						|| playedCards.get(Player.REARHAND).contains(
-								Card.getCard(suit, rank))) {
+				if (CardSet.contains(allPlayedCards, Card.getCard(suit, rank))) {
 
 					result.append(suit.shortString())
 							.append(rank.shortString()).append(' ');
@@ -52,6 +52,8 @@ public class JSkatPlayerResolver {
 				.add("org.jskat.ai.test.PlayNonPossessingCardTestPlayer");
 		UNIT_TEST_PLAYER_CLASSES
 				.add("org.jskat.ai.test.PlayNotAllowedCardTestPlayer");
+		UNIT_TEST_PLAYER_CLASSES
+				.add("org.jskat.ai.test.InputRecordingTestPlayer");
 	}
 
 	/**
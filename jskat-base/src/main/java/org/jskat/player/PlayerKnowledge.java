@@ -15,18 +15,14 @@
  */
 package org.jskat.player;
 
-import java.util.EnumSet;
-
 import org.jskat.data.GameAnnouncement;
 import org.jskat.data.Trick;
 import org.jskat.util.Card;
 import org.jskat.util.CardList;
+import org.jskat.util.CardSet;
 import org.jskat.util.GameType;
 import org.jskat.util.Player;
-import org.jskat.util.Rank;
 import org.jskat.util.Suit;
-import org.jskat.util.rule.SkatRule;
-import org.jskat.util.rule.SkatRuleFactory;
 
 public final class PlayerKnowledge extends ImmutablePlayerKnowledge {
 
@@ -44,12 +40,13 @@ public final class PlayerKnowledge extends ImmutablePlayerKnowledge {
 
 		if (!ownCards.contains(card)) {
 			ownCards.add(card);
+			ownCardSet = CardSet.add(ownCardSet, card);
 
-			possiblePlayerCards.get(playerPosition.getLeftNeighbor()).remove(
-					card);
-			possiblePlayerCards.get(playerPosition.getRightNeighbor()).remove(
-					card);
-			possibleSkatCards.remove(card);
+			removePossibleCards(playerPosition.getLeftNeighbor(),
+					CardSet.bit(card));
+			removePossibleCards(playerPosition.getRightNeighbor(),
+					CardSet.bit(card));
+			possibleSkatCards = CardSet.remove(possibleSkatCards, card);
 
 			suitCount.put(card.getSuit(), suitCount.get(card.getSuit()) + 1);
 			suitPoints.put(card.getSuit(), suitCount.get(card.getSuit())
@@ -95,6 +92,7 @@ public final class PlayerKnowledge extends ImmutablePlayerKnowledge {
 	public void initializeVariables() {
 
 		ownCards.clear();
+		ownCardSet = CardSet.EMPTY;
 		skat.clear();
 		singlePlayerCards.clear();
 		schneiderAnnounced = false;
@@ -104,11 +102,10 @@ public final class PlayerKnowledge extends ImmutablePlayerKnowledge {
 		for (Player player : Player.values()) {
 			highestBid.put(player, Integer.valueOf(0));
 
-			playedCards.put(player, EnumSet.noneOf(Card.class));
-			possiblePlayerCards.put(player, EnumSet.allOf(Card.class));
+			playedCards[player.ordinal()] = CardSet.EMPTY;
+			possiblePlayerCards[player.ordinal()] = CardSet.ALL;
 		}
-		possibleSkatCards.clear();
-		possibleSkatCards.addAll(EnumSet.allOf(Card.class));
+		possibleSkatCards = CardSet.ALL;
 
 		leftPlayerTrickCard = null;
 		rightPlayerTrickCard = null;
@@ -139,6 +136,7 @@ public final class PlayerKnowledge extends ImmutablePlayerKnowledge {
 	public void removeOwnCard(final Card card) {
 		removeCard(card);
 		ownCards.remove(card);
+		ownCardSet = CardSet.remove(ownCardSet, card);
 	}
 
 	public void removeOwnCards(final CardList cards) {
@@ -164,12 +162,13 @@ public final class PlayerKnowledge extends ImmutablePlayerKnowledge {
 	 */
 	public void setCardPlayed(final Player player, final Card card) {
 
-		playedCards.get(player).add(card);
+		playedCards[player.ordinal()] = CardSet.add(
+				playedCards[player.ordinal()], card);
 
 		for (Player currPlayer : Player.values()) {
-			possiblePlayerCards.get(currPlayer).remove(card);
+			removePossibleCards(currPlayer, CardSet.bit(card));
 		}
-		possibleSkatCards.remove(card);
+		possibleSkatCards = CardSet.remove(possibleSkatCards, card);
 		if (card.isTrump(getGameType()) && player != playerPosition) {
 			trumpCount++;
 		}
@@ -206,6 +205,8 @@ public final class PlayerKnowledge extends ImmutablePlayerKnowledge {
 	public void setGame(final GameAnnouncement gameAnn) {
 
 		announcement = gameAnn;
+		handGame = gameAnn.isHand();
+		ouvertGame = gameAnn.isOuvert();
 		if (!GameType.PASSED_IN.equals(getGameType())) {
 			ownCards.sort(getGameType());
 			for (Card c : ownCards) {
@@ -248,13 +249,12 @@ public final class PlayerKnowledge extends ImmutablePlayerKnowledge {
 	 */
 	public void setMissingSuit(final Player player, final Suit suit) {
 
-		for (Rank rank : Rank.values()) {
-			if (rank != Rank.JACK || GameType.NULL.equals(getGameType())
-					|| GameType.RAMSCH.equals(getGameType())) {
-				possiblePlayerCards.get(player)
-						.remove(Card.getCard(suit, rank));
-			}
+		int missingCards = CardSet.getSuitMask(suit);
+		if (!GameType.NULL.equals(getGameType())
+				&& !GameType.RAMSCH.equals(getGameType())) {
+			missingCards &= ~CardSet.JACKS;
 		}
+		removePossibleCards(player, missingCards);
 	}
 
 	/**
@@ -272,6 +272,7 @@ public final class PlayerKnowledge extends ImmutablePlayerKnowledge {
 	public void setOwnCards(final CardList newCards) {
 		ownCards.clear();
 		ownCards.addAll(newCards);
+		ownCardSet = CardSet.of(newCards);
 	}
 
 	/**
@@ -318,6 +319,10 @@ public final class PlayerKnowledge extends ImmutablePlayerKnowledge {
 		skat.addAll(newSkat);
 	}
 
+	private void removePossibleCards(final Player player, final int cardSet) {
+		possiblePlayerCards[player.ordinal()] &= ~cardSet;
+	}
+
 	/**
 	 * Sets a card played by another player
 	 * 
@@ -356,37 +361,17 @@ public final class PlayerKnowledge extends ImmutablePlayerKnowledge {
 					// player has not followed suit
 					// this means he has no cards with this suit
 					// remove all cards from same suit from "could have" cards
-					for (Card currCard : Card.values()) {
-						if (currCard.isSameSuit(firstCard)) {
-							possiblePlayerCards.get(otherPlayer).remove(
-									currCard);
-						}
-					}
+					removePossibleCards(otherPlayer,
+							CardSet.getSuitMask(firstCard.getSuit()));
 				}
 			} else {
-				SkatRule skatRules = SkatRuleFactory
-						.getSkatRules(getGameType());
+				int trumpCards = CardSet.getTrumpMask(getGameType());
 
-				if (firstCard.isTrump(getGameType())
-						&& !cardToCheck.isTrump(getGameType())) {
+				if (CardSet.contains(trumpCards, firstCard)
+						&& !CardSet.contains(trumpCards, cardToCheck)) {
 					// first card was a trump card, player card was not
-					// remove jacks from the "could have" cards
-					possiblePlayerCards.get(otherPlayer).remove(Card.CJ);
-					possiblePlayerCards.get(otherPlayer).remove(Card.SJ);
-					possiblePlayerCards.get(otherPlayer).remove(Card.HJ);
-					possiblePlayerCards.get(otherPlayer).remove(Card.DJ);
-					// remove other trump cards for suit games
-					if (GameType.CLUBS.equals(getGameType())
-							|| GameType.SPADES.equals(getGameType())
-							|| GameType.HEARTS.equals(getGameType())
-							|| GameType.DIAMONDS.equals(getGameType())) {
-						for (Card currCard : Card.values()) {
-							if (currCard.isSameSuit(firstCard)) {
-								possiblePlayerCards.get(otherPlayer).remove(
-										currCard);
-							}
-						}
-					}
+					// remove all trump cards from the "could have" cards
+					removePossibleCards(otherPlayer, trumpCards);
 				} else {
 					// first card was not a trump card
 					if (!firstCard.isSameSuit(cardToCheck)) {
@@ -394,13 +379,9 @@ public final class PlayerKnowledge extends ImmutablePlayerKnowledge {
 						// this means he has no cards with this suit
 						// remove all cards for that suit in "could have"
 						// cards, except of the jacks
-						for (Card currCard : Card.values()) {
-							if (currCard.isSameSuit(firstCard)
-									&& currCard.getRank() != Rank.JACK) {
-								possiblePlayerCards.get(otherPlayer).remove(
-										currCard);
-							}
-						}
+						removePossibleCards(otherPlayer, CardSet
+								.getNonTrumpSuitMask(getGameType(),
+										firstCard.getSuit()));
 					}
 				}
 			}
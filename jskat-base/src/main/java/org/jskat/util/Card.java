@@ -155,6 +155,15 @@ public enum Card {
 	private final Suit suit;
 	private final Rank rank;
 
+	private final static Card[][] CARDS_BY_SUIT_AND_RANK = new Card[Suit
+			.values().length][Rank.values().length];
+
+	static {
+		for (Card card : values()) {
+			CARDS_BY_SUIT_AND_RANK[card.suit.ordinal()][card.rank.ordinal()] = card;
+		}
+	}
+
 	private Card(final Suit newSuit, final Rank newRank) {
 
 		this.suit = newSuit;
@@ -350,17 +359,11 @@ public enum Card {
 	 */
 	public static Card getCard(final Suit suit, final Rank rank) {
 
-		Card result = null;
-
-		for (Card card : Card.values()) {
-
-			if (card.getSuit() == suit && card.getRank() == rank) {
-
-				result = card;
-			}
+		if (suit == null || rank == null) {
+			return null;
 		}
 
-		return result;
+		return CARDS_BY_SUIT_AND_RANK[suit.ordinal()][rank.ordinal()];
 	}
 
 	/**
@@ -19,6 +19,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.EnumSet;
 import java.util.List;
+import java.util.Random;
 import java.util.StringTokenizer;
 
 /**
@@ -160,4 +161,14 @@ public class CardDeck extends CardList {
 		// Simple random shuffling
 		Collections.shuffle(cards);
 	}
+
+	/**
+	 * Shuffles the card deck with a given random generator
+	 * 
+	 * @param random
+	 *            Random generator
+	 */
+	public void shuffle(final Random random) {
+		Collections.shuffle(cards, random);
+	}
 }
@@ -193,12 +193,7 @@ public class CardList implements Iterable<Card> {
 	 * @return TRUE, when a trump card was found in the CardList
 	 */
 	public boolean hasTrump(final GameType gameType) {
-		for (Card card : cards) {
-			if (card.isTrump(gameType)) {
-				return true;
-			}
-		}
-		return false;
+		return (CardSet.of(this) & CardSet.getTrumpMask(gameType)) != CardSet.EMPTY;
 	}
 
 	/**
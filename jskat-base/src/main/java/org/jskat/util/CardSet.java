@@ -0,0 +1,338 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.util;
+
+/**
+ * Holds a set of cards as bit mask in a single int<br />
+ * Bit n is set if the card with ordinal n is in the set. All methods work on
+ * plain int values, so card sets can be combined with the bitwise operators
+ * and never need to be allocated.<br />
+ * &nbsp;<br />
+ * Iterating over a card set without allocation:
+ *
+ * <pre>
+ * for (int rest = cardSet; rest != 0; rest = CardSet.removeLowest(rest)) {
+ * 	Card card = CardSet.getLowest(rest);
+ * }
+ * </pre>
+ */
+public final class CardSet {
+
+	/**
+	 * Empty card set
+	 */
+	public final static int EMPTY = 0;
+
+	/**
+	 * Card set with all 32 cards
+	 */
+	public final static int ALL = 0xFFFFFFFF;
+
+	/**
+	 * Card set with all jacks
+	 */
+	public final static int JACKS;
+
+	private final static Card[] CARDS = Card.values();
+
+	private final static int[] SUIT_MASKS = new int[Suit.values().length];
+
+	private final static int[] TRUMP_MASKS = new int[GameType.values().length];
+
+	static {
+		int jacks = EMPTY;
+		for (Card card : CARDS) {
+			SUIT_MASKS[card.getSuit().ordinal()] |= bit(card);
+			if (card.getRank() == Rank.JACK) {
+				jacks |= bit(card);
+			}
+		}
+		JACKS = jacks;
+
+		for (GameType gameType : GameType.values()) {
+			TRUMP_MASKS[gameType.ordinal()] = calculateTrumpMask(gameType);
+		}
+	}
+
+	private static int calculateTrumpMask(final GameType gameType) {
+
+		int result = EMPTY;
+
+		switch (gameType) {
+		case CLUBS:
+		case SPADES:
+		case HEARTS:
+		case DIAMONDS:
+			result = JACKS | SUIT_MASKS[gameType.getTrumpSuit().ordinal()];
+			break;
+		case GRAND:
+		case RAMSCH:
+			result = JACKS;
+			break;
+		case NULL:
+		case PASSED_IN:
+			// no trump cards
+			break;
+		}
+
+		return result;
+	}
+
+	private CardSet() {
+		// only static methods
+	}
+
+	/**
+	 * Gets the bit of a card
+	 *
+	 * @param card
+	 *            Card
+	 * @return Card set containing only the card
+	 */
+	public static int bit(final Card card) {
+		return 1 << card.ordinal();
+	}
+
+	/**
+	 * Creates a card set from cards
+	 *
+	 * @param cards
+	 *            Cards
+	 * @return Card set
+	 */
+	public static int of(final Card... cards) {
+		int result = EMPTY;
+		for (Card card : cards) {
+			result |= bit(card);
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a card set from a {@link CardList}<br />
+	 * Hidden cards (NULL) are ignored.
+	 *
+	 * @param cards
+	 *            Card list
+	 * @return Card set
+	 */
+	public static int of(final CardList cards) {
+		int result = EMPTY;
+		for (int i = 0; i < cards.size(); i++) {
+			Card card = cards.get(i);
+			if (card != null) {
+				result |= bit(card);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Creates a {@link CardList} from a card set<br />
+	 * The cards are ordered by their ordinal.
+	 *
+	 * @param cardSet
+	 *            Card set
+	 * @return Card list
+	 */
+	public static CardList toCardList(final int cardSet) {
+		CardList result = new CardList();
+		for (int rest = cardSet; rest != EMPTY; rest = removeLowest(rest)) {
+			result.add(getLowest(rest));
+		}
+		return result;
+	}
+
+	/**
+	 * Checks whether a card is in a card set
+	 *
+	 * @param cardSet
+	 *            Card set
+	 * @param card
+	 *            Card
+	 * @return TRUE if the card is in the card set
+	 */
+	public static boolean contains(final int cardSet, final Card card) {
+		return (cardSet & bit(card)) != EMPTY;
+	}
+
+	/**
+	 * Adds a card to a card set
+	 *
+	 * @param cardSet
+	 *            Card set
+	 * @param card
+	 *            Card
+	 * @return Card set with the card
+	 */
+	public static int add(final int cardSet, final Card card) {
+		return cardSet | bit(card);
+	}
+
+	/**
+	 * Removes a card from a card set
+	 *
+	 * @param cardSet
+	 *            Card set
+	 * @param card
+	 *            Card
+	 * @return Card set without the card
+	 */
+	public static int remove(final int cardSet, final Card card) {
+		return cardSet & ~bit(card);
+	}
+
+	/**
+	 * Gets the number of cards in a card set
+	 *
+	 * @param cardSet
+	 *            Card set
+	 * @return Number of cards
+	 */
+	public static int size(final int cardSet) {
+		return Integer.bitCount(cardSet);
+	}
+
+	/**
+	 * Gets the card with the lowest ordinal in a card set
+	 *
+	 * @param cardSet
+	 *            Card set, must not be empty
+	 * @return Card with the lowest ordinal
+	 */
+	public static Card getLowest(final int cardSet) {
+		return CARDS[Integer.numberOfTrailingZeros(cardSet)];
+	}
+
+	/**
+	 * Removes the card with the lowest ordinal from a card set
+	 *
+	 * @param cardSet
+	 *            Card set
+	 * @return Card set without the card with the lowest ordinal
+	 */
+	public static int removeLowest(final int cardSet) {
+		return cardSet & cardSet - 1;
+	}
+
+	/**
+	 * Gets all cards of a suit, including the jack
+	 *
+	 * @param suit
+	 *            Suit
+	 * @return Card set with all cards of the suit
+	 */
+	public static int getSuitMask(final Suit suit) {
+		return SUIT_MASKS[suit.ordinal()];
+	}
+
+	/**
+	 * Gets all trump cards of a game type
+	 *
+	 * @param gameType
+	 *            Game type
+	 * @return Card set with all trump cards, empty for null games
+	 */
+	public static int getTrumpMask(final GameType gameType) {
+		return TRUMP_MASKS[gameType.ordinal()];
+	}
+
+	/**
+	 * Gets all cards of a suit that are not trump in a game type
+	 *
+	 * @param gameType
+	 *            Game type
+	 * @param suit
+	 *            Suit
+	 * @return Card set with all non trump cards of the suit
+	 */
+	public static int getNonTrumpSuitMask(final GameType gameType,
+			final Suit suit) {
+		return SUIT_MASKS[suit.ordinal()] & ~TRUMP_MASKS[gameType.ordinal()];
+	}
+
+	/**
+	 * Gets the number of cards of a suit
+	 *
+	 * @param cardSet
+	 *            Card set
+	 * @param suit
+	 *            Suit
+	 * @param countJack
+	 *            TRUE if the jack should count to the suit cards
+	 * @return Number of cards of the suit
+	 */
+	public static int getSuitCount(final int cardSet, final Suit suit,
+			final boolean countJack) {
+		int suitMask = SUIT_MASKS[suit.ordinal()];
+		if (!countJack) {
+			suitMask &= ~JACKS;
+		}
+		return Integer.bitCount(cardSet & suitMask);
+	}
+
+	/**
+	 * Gets the number of trump cards
+	 *
+	 * @param cardSet
+	 *            Card set
+	 * @param gameType
+	 *            Game type
+	 * @return Number of trump cards
+	 */
+	public static int getTrumpCount(final int cardSet, final GameType gameType) {
+		return Integer.bitCount(cardSet & TRUMP_MASKS[gameType.ordinal()]);
+	}
+
+	/**
+	 * Checks whether the jack of a suit is in a card set
+	 *
+	 * @param cardSet
+	 *            Card set
+	 * @param suit
+	 *            Suit
+	 * @return TRUE if the jack of the suit is in the card set
+	 */
+	public static boolean hasJack(final int cardSet, final Suit suit) {
+		return (cardSet & SUIT_MASKS[suit.ordinal()] & JACKS) != EMPTY;
+	}
+
+	/**
+	 * Gets the total points of all cards in a card set
+	 *
+	 * @param cardSet
+	 *            Card set
+	 * @return Points
+	 */
+	public static int getTotalValue(final int cardSet) {
+		int result = 0;
+		for (int rest = cardSet; rest != EMPTY; rest = removeLowest(rest)) {
+			result += getLowest(rest).getPoints();
+		}
+		return result;
+	}
+
+	/**
+	 * Gets a string representation of a card set
+	 *
+	 * @param cardSet
+	 *            Card set
+	 * @return String representation
+	 */
+	public static String toString(final int cardSet) {
+		return toCardList(cardSet).toString();
+	}
+}
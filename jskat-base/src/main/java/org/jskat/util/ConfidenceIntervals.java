@@ -0,0 +1,119 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.util;
+
+/**
+ * 95% confidence intervals for the statistics of simulations and tournaments
+ */
+public final class ConfidenceIntervals {
+
+	/**
+	 * Quantile of the standard normal distribution for 95% confidence
+	 */
+	public static final double Z_95 = 1.959964;
+
+	private ConfidenceIntervals() {
+		// utility class
+	}
+
+	/**
+	 * Gets the 95% confidence interval of a success rate<br />
+	 * The Wilson score interval is used, it stays within 0 and 1 also for few
+	 * trials and success rates close to 0 or 1.
+	 * 
+	 * @param successes
+	 *            Number of successes
+	 * @param trials
+	 *            Number of trials
+	 * @return Lower and upper bound of the interval, [0, 1] if there were no
+	 *         trials
+	 */
+	public static double[] getWilsonInterval(final long successes,
+			final long trials) {
+		return new double[] { getWilsonLowerBound(successes, trials),
+				getWilsonUpperBound(successes, trials) };
+	}
+
+	/**
+	 * Gets the lower bound of the Wilson score interval of a success rate
+	 * 
+	 * @param successes
+	 *            Number of successes
+	 * @param trials
+	 *            Number of trials
+	 * @return Lower bound, 0 if there were no trials
+	 */
+	public static double getWilsonLowerBound(final long successes,
+			final long trials) {
+		if (trials == 0) {
+			return 0.0;
+		}
+		double rate = (double) successes / trials;
+		// the interval contains the rate, even with rounding errors
+		return Math.max(
+				0.0,
+				Math.min(rate, getWilsonCenter(rate, trials)
+						- getWilsonHalfWidth(rate, trials)));
+	}
+
+	/**
+	 * Gets the upper bound of the Wilson score interval of a success rate
+	 * 
+	 * @param successes
+	 *            Number of successes
+	 * @param trials
+	 *            Number of trials
+	 * @return Upper bound, 1 if there were no trials
+	 */
+	public static double getWilsonUpperBound(final long successes,
+			final long trials) {
+		if (trials == 0) {
+			return 1.0;
+		}
+		double rate = (double) successes / trials;
+		// the interval contains the rate, even with rounding errors
+		return Math.min(
+				1.0,
+				Math.max(rate, getWilsonCenter(rate, trials)
+						+ getWilsonHalfWidth(rate, trials)));
+	}
+
+	private static double getWilsonCenter(final double rate, final double n) {
+		double zSquare = Z_95 * Z_95;
+		return (rate + zSquare / (2.0 * n)) / (1.0 + zSquare / n);
+	}
+
+	private static double getWilsonHalfWidth(final double rate, final double n) {
+		double zSquare = Z_95 * Z_95;
+		return Z_95
+				* Math.sqrt(rate * (1.0 - rate) / n + zSquare / (4.0 * n * n))
+				/ (1.0 + zSquare / n);
+	}
+
+	/**
+	 * Gets the half width of the 95% confidence interval of a mean
+	 * 
+	 * @param variance
+	 *            Sample variance
+	 * @param samples
+	 *            Number of samples
+	 * @return Half width of the interval
+	 */
+	public static double getMeanHalfWidth(final double variance,
+			final long samples) {
+		return Z_95 * Math.sqrt(variance / samples);
+	}
+}
@@ -18,8 +18,11 @@ package org.jskat.util.rule;
 import org.jskat.data.SkatGameData;
 import org.jskat.data.Trick;
 import org.jskat.util.Card;
+import org.jskat.util.CardList;
+import org.jskat.util.CardSet;
 import org.jskat.util.GameType;
 import org.jskat.util.Player;
+import org.jskat.util.Suit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -42,6 +45,27 @@ public abstract class AbstractSkatRule implements SkatRule {
 		return gameData.getMaxBidValue() > getGameValueForWonGame(gameData);
 	}
 
+	/**
+	 * @see SkatRule#isCardAllowed(GameType, Card, CardList, Card)
+	 */
+	@Override
+	public boolean isCardAllowed(final GameType gameType,
+			final Card initialCard, final CardList hand, final Card card) {
+
+		return LegalMoveGenerator.isLegalMove(gameType, initialCard,
+				CardSet.of(hand), card);
+	}
+
+	/**
+	 * @see SkatRule#hasSuit(GameType, CardList, Suit)
+	 */
+	@Override
+	public boolean hasSuit(final GameType gameType, final CardList hand,
+			final Suit suit) {
+
+		return (CardSet.of(hand) & CardSet.getNonTrumpSuitMask(gameType, suit)) != CardSet.EMPTY;
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -49,11 +73,25 @@ public abstract class AbstractSkatRule implements SkatRule {
 	public Player calculateTrickWinner(final GameType gameType,
 			final Trick trick) {
 
+		Player trickWinner = calculateTrickWinner(gameType,
+				trick.getForeHand(), trick.getFirstCard(),
+				trick.getSecondCard(), trick.getThirdCard());
+
+		log.debug("Trick fore hand: " + trick.getForeHand()); //$NON-NLS-1$
+		log.debug("Trick winner: " + trickWinner); //$NON-NLS-1$
+
+		return trickWinner;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Player calculateTrickWinner(final GameType gameType,
+			final Player trickForeHand, final Card first, final Card second,
+			final Card third) {
+
 		Player trickWinner = null;
-		Card first = trick.getFirstCard();
-		Card second = trick.getSecondCard();
-		Card third = trick.getThirdCard();
-		Player trickForeHand = trick.getForeHand();
 
 		if (isCardBeatsCard(gameType, first, second)) {
 
@@ -75,9 +113,6 @@ public abstract class AbstractSkatRule implements SkatRule {
 			}
 		}
 
-		log.debug("Trick fore hand: " + trickForeHand); //$NON-NLS-1$
-		log.debug("Trick winner: " + trickWinner); //$NON-NLS-1$
-
 		return trickWinner;
 	}
 }
@@ -0,0 +1,151 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.util.rule;
+
+import org.jskat.util.Card;
+import org.jskat.util.CardSet;
+import org.jskat.util.GameType;
+
+/**
+ * Generates the legal moves for a hand without allocating objects<br />
+ * The cards that serve a led card are precomputed for every game type and
+ * every card, so finding the legal moves is a table lookup and some bit
+ * operations on {@link CardSet}s.
+ */
+public final class LegalMoveGenerator {
+
+	/**
+	 * Cards serving a led card, indexed by game type ordinal and card ordinal
+	 */
+	private final static int[][] FOLLOW_CARDS = new int[GameType.values().length][Card
+			.values().length];
+
+	static {
+		for (GameType gameType : GameType.values()) {
+			int trumpCards = CardSet.getTrumpMask(gameType);
+			for (Card card : Card.values()) {
+				if (CardSet.contains(trumpCards, card)) {
+					// trump must be served by trump
+					FOLLOW_CARDS[gameType.ordinal()][card.ordinal()] = trumpCards;
+				} else {
+					// suit must be served by the same suit, trump cards don't
+					// serve
+					FOLLOW_CARDS[gameType.ordinal()][card.ordinal()] = CardSet
+							.getNonTrumpSuitMask(gameType, card.getSuit());
+				}
+			}
+		}
+	}
+
+	private LegalMoveGenerator() {
+		// only static methods
+	}
+
+	/**
+	 * Gets all cards that serve a led card
+	 * 
+	 * @param gameType
+	 *            Game type
+	 * @param ledCard
+	 *            First card of the trick
+	 * @return {@link CardSet} with all trump cards if the led card is a trump
+	 *         card, all non trump cards of the suit of the led card otherwise
+	 */
+	public static int getFollowCards(final GameType gameType,
+			final Card ledCard) {
+		return FOLLOW_CARDS[gameType.ordinal()][ledCard.ordinal()];
+	}
+
+	/**
+	 * Gets all cards of a hand that can be played legally
+	 * 
+	 * @param gameType
+	 *            Game type
+	 * @param ledCard
+	 *            First card of the trick or NULL if the trick is empty
+	 * @param hand
+	 *            {@link CardSet} of the hand
+	 * @return {@link CardSet} with all legal cards
+	 */
+	public static int getLegalMoves(final GameType gameType,
+			final Card ledCard, final int hand) {
+
+		if (ledCard == null) {
+			// no led card --> every card is allowed
+			return hand;
+		}
+
+		int serveCards = hand & getFollowCards(gameType, ledCard);
+		if (serveCards == CardSet.EMPTY) {
+			// nothing to serve --> every card is allowed
+			return hand;
+		}
+		return serveCards;
+	}
+
+	/**
+	 * Fills a buffer with all cards of a hand that can be played legally<br />
+	 * The cards are ordered by their ordinal.
+	 * 
+	 * @param gameType
+	 *            Game type
+	 * @param ledCard
+	 *            First card of the trick or NULL if the trick is empty
+	 * @param hand
+	 *            {@link CardSet} of the hand
+	 * @param buffer
+	 *            Buffer for the legal cards, must hold at least as many cards
+	 *            as the hand
+	 * @return Number of legal cards written to the buffer
+	 */
+	public static int getLegalMoves(final GameType gameType,
+			final Card ledCard, final int hand, final Card[] buffer) {
+
+		int count = 0;
+		for (int rest = getLegalMoves(gameType, ledCard, hand); rest != CardSet.EMPTY; rest = CardSet
+				.removeLowest(rest)) {
+			buffer[count++] = CardSet.getLowest(rest);
+		}
+		return count;
+	}
+
+	/**
+	 * Checks whether a card can be played legally<br />
+	 * The card doesn't need to be part of the hand.
+	 * 
+	 * @param gameType
+	 *            Game type
+	 * @param ledCard
+	 *            First card of the trick or NULL if the trick is empty
+	 * @param hand
+	 *            {@link CardSet} of the hand
+	 * @param card
+	 *            Card to check
+	 * @return TRUE if the card serves the led card or nothing can be served
+	 */
+	public static boolean isLegalMove(final GameType gameType,
+			final Card ledCard, final int hand, final Card card) {
+
+		if (ledCard == null) {
+			// no led card --> every card is allowed
+			return true;
+		}
+
+		int followCards = getFollowCards(gameType, ledCard);
+		return CardSet.contains(followCards, card)
+				|| (hand & followCards) == CardSet.EMPTY;
+	}
+}
@@ -17,10 +17,8 @@ package org.jskat.util.rule;
 
 import org.jskat.data.SkatGameData;
 import org.jskat.util.Card;
-import org.jskat.util.CardList;
 import org.jskat.util.GameType;
 import org.jskat.util.SkatConstants;
-import org.jskat.util.Suit;
 
 /**
  * Implementation of skat rules for Null games
@@ -85,30 +83,6 @@ public class NullRule extends AbstractSkatRule {
 		return result;
 	}
 
-	/**
-	 * @see SkatRule#isCardAllowed(GameType, Card, CardList, Card)
-	 */
-	@Override
-	public boolean isCardAllowed(final GameType gameType,
-			final Card initialCard, final CardList hand, final Card card) {
-
-		boolean result = false;
-
-		if (initialCard == null) {
-			// no intial card is given --> every card is allowed
-			result = true;
-		} else if (card.getSuit() == initialCard.getSuit()) {
-			// card must serve same suit
-			result = true;
-
-		} else if (!hand.hasSuit(gameType, initialCard.getSuit())) {
-			// hand has no card of same suit --> every card is allowed
-			result = true;
-		}
-
-		return result;
-	}
-
 	/**
 	 * @see SkatRule#isGameWon(SkatGameData)
 	 */
@@ -119,29 +93,6 @@ public class NullRule extends AbstractSkatRule {
 				&& !isOverbid(gameData);
 	}
 
-	/**
-	 * @see SkatRule#hasSuit(GameType, CardList, Suit)
-	 */
-	@Override
-	public boolean hasSuit(final GameType gameType, final CardList hand,
-			final Suit suit) {
-
-		boolean result = false;
-
-		int index = 0;
-		while (!result && index < hand.size()) {
-
-			if (hand.get(index).getSuit() == suit) {
-
-				result = true;
-			}
-
-			index++;
-		}
-
-		return result;
-	}
-
 	/**
 	 * {@inheritDoc}
 	 */
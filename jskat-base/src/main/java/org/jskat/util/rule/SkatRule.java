@@ -108,6 +108,24 @@ public interface SkatRule {
 	 */
 	public Player calculateTrickWinner(GameType gameType, Trick trick);
 
+	/**
+	 * Calculates the trick winner from the trick cards
+	 * 
+	 * @param gameType
+	 *            Game type
+	 * @param trickForeHand
+	 *            Fore hand player of the trick
+	 * @param first
+	 *            First card of the trick
+	 * @param second
+	 *            Second card of the trick
+	 * @param third
+	 *            Third card of the trick
+	 * @return Trick winner
+	 */
+	public Player calculateTrickWinner(GameType gameType, Player trickForeHand,
+			Card first, Card second, Card third);
+
 	/**
 	 * calculates the multiplier of a card list with regard to the ruleset
 	 * 
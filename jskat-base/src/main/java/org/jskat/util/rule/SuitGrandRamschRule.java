@@ -16,49 +16,14 @@
 package org.jskat.util.rule;
 
 import org.jskat.util.Card;
-import org.jskat.util.CardList;
+import org.jskat.util.CardSet;
 import org.jskat.util.GameType;
-import org.jskat.util.Rank;
-import org.jskat.util.Suit;
 
 /**
  * Rules that are in common for suit, grand and ramsch games
  */
 public abstract class SuitGrandRamschRule extends AbstractSkatRule {
 
-	/**
-	 * @see SkatRule#isCardAllowed(GameType, Card, CardList, Card)
-	 */
-	@Override
-	public boolean isCardAllowed(GameType gameType, Card initialCard,
-			CardList hand, Card card) {
-
-		boolean result = false;
-
-		if (initialCard == null) {
-			// no initial card given --> every card is allowed
-			result = true;
-		} else if (initialCard.isTrump(gameType)) {
-
-			if (card.isTrump(gameType)) {
-				// card must serve trump
-				result = true;
-			} else if (!hand.hasTrump(gameType)) {
-				// no trump on hand --> every card is allowed
-				result = true;
-			}
-		} else if (initialCard.getSuit() == card.getSuit()
-				&& !card.isTrump(gameType)) {
-			// card must serve suit
-			result = true;
-		} else if (!hand.hasSuit(gameType, initialCard.getSuit())) {
-			// no suit on hand --> every card is allowed
-			result = true;
-		}
-
-		return result;
-	}
-
 	/**
 	 * @see SkatRule#isCardBeatsCard(GameType, Card, Card)
 	 */
@@ -102,19 +67,6 @@ public abstract class SuitGrandRamschRule extends AbstractSkatRule {
 		return result;
 	}
 
-	/**
-	 * @see SkatRule#hasSuit(GameType, CardList, Suit)
-	 */
-	@Override
-	public boolean hasSuit(GameType gameType, CardList hand, Suit suit) {
-		for (Card card : hand) {
-			if (card.getSuit() == suit && !card.isTrump(gameType)) {
-				return true;
-			}
-		}
-		return false;
-	}
-
 	/**
 	 * Checks whether a card is a trump card
 	 * 
@@ -126,36 +78,6 @@ public abstract class SuitGrandRamschRule extends AbstractSkatRule {
 	 */
 	public boolean isTrump(GameType gameType, Card card) {
 
-		boolean result = false;
-
-		if (gameType == GameType.GRAND || gameType == GameType.RAMSCH) {
-
-			result = card.getRank() == Rank.JACK;
-
-		} else {
-
-			boolean isSuitTrump = false;
-
-			// first check for a Jack
-			boolean isJack = card.getRank() == Rank.JACK;
-
-			if (!isJack) {
-				// then check the suit
-				Suit suit = card.getSuit();
-
-				if (gameType == GameType.CLUBS && suit == Suit.CLUBS
-						|| gameType == GameType.SPADES && suit == Suit.SPADES
-						|| gameType == GameType.HEARTS && suit == Suit.HEARTS
-						|| gameType == GameType.DIAMONDS
-						&& suit == Suit.DIAMONDS) {
-
-					isSuitTrump = true;
-				}
-			}
-
-			result = isJack || isSuitTrump;
-		}
-
-		return result;
+		return CardSet.contains(CardSet.getTrumpMask(gameType), card);
 	}
 }
@@ -0,0 +1,266 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.jskat.AbstractJSkatTest;
+import org.jskat.data.GameAnnouncement;
+import org.jskat.data.GameAnnouncement.GameAnnouncementFactory;
+import org.jskat.data.Trick;
+import org.jskat.player.PlayerKnowledge;
+import org.jskat.util.Card;
+import org.jskat.util.CardList;
+import org.jskat.util.CardSet;
+import org.jskat.util.GameType;
+import org.jskat.util.Player;
+import org.jskat.util.Suit;
+import org.junit.Test;
+
+/**
+ * Tests for {@link DealSampler}
+ */
+public class DealSamplerTest extends AbstractJSkatTest {
+
+	private static final Card[][] TRICKS = {
+			{ Card.HA, Card.DA, Card.HT }, { Card.CT, Card.CK, Card.CQ },
+			{ Card.ST, Card.SK, Card.SQ }, { Card.S9, Card.S8, Card.S7 },
+			{ Card.HK, Card.DT, Card.HQ }, { Card.H9, Card.DK, Card.HJ },
+			{ Card.DQ, Card.D9, Card.DJ }, { Card.SJ, Card.CJ, Card.C9 } };
+
+	/**
+	 * Declarer knows the discarded skat, fore hand has played a card
+	 */
+	@Test
+	public void testSample_DeclarerDuringTrick() {
+
+		PlayerKnowledge knowledge = createKnowledge(Player.MIDDLEHAND,
+				Player.MIDDLEHAND);
+		knowledge.addOwnCards(new CardList(Card.CJ, Card.SJ, Card.HJ, Card.DJ,
+				Card.CA, Card.CT, Card.CK, Card.CQ, Card.C9, Card.C8));
+		knowledge.setSkat(new CardList(Card.C7, Card.S7));
+
+		knowledge.setCurrentTrick(new Trick(0, Player.FOREHAND));
+		knowledge.setCardPlayed(Player.FOREHAND, Card.DA);
+
+		DealSampler sampler = new DealSampler(42);
+		assertTrue(sampler.reset(knowledge));
+
+		int[] world = new int[DealSampler.SKAT_INDEX + 1];
+		for (int i = 0; i < 100; i++) {
+			sampler.sample(world);
+
+			assertEquals(knowledge.getOwnCardSet(),
+					world[Player.MIDDLEHAND.ordinal()]);
+			assertEquals(CardSet.of(Card.C7, Card.S7),
+					world[DealSampler.SKAT_INDEX]);
+			assertEquals(9, CardSet.size(world[Player.FOREHAND.ordinal()]));
+			assertEquals(10, CardSet.size(world[Player.REARHAND.ordinal()]));
+			assertDistribution(world, CardSet.bit(Card.DA));
+		}
+	}
+
+	/**
+	 * Middle hand did not follow suit, so no hearts are dealt to middle hand
+	 */
+	@Test
+	public void testSample_MissingSuit() {
+
+		PlayerKnowledge knowledge = createEndGame();
+
+		DealSampler sampler = new DealSampler(4711);
+		assertTrue(sampler.reset(knowledge));
+
+		int hearts = CardSet.getNonTrumpSuitMask(GameType.GRAND, Suit.HEARTS);
+		int[] world = new int[DealSampler.SKAT_INDEX + 1];
+		for (int i = 0; i < 1000; i++) {
+			sampler.sample(world);
+
+			assertEquals(CardSet.of(Card.CA, Card.SA),
+					world[Player.FOREHAND.ordinal()]);
+			assertEquals(2, CardSet.size(world[Player.MIDDLEHAND.ordinal()]));
+			assertEquals(2, CardSet.size(world[Player.REARHAND.ordinal()]));
+			assertEquals(2, CardSet.size(world[DealSampler.SKAT_INDEX]));
+			assertEquals(CardSet.EMPTY, world[Player.MIDDLEHAND.ordinal()]
+					& hearts);
+			assertDistribution(world, getPlayedCards(knowledge));
+		}
+	}
+
+	/**
+	 * All consistent card distributions are drawn with the same probability
+	 */
+	@Test
+	public void testSample_Uniform() {
+
+		PlayerKnowledge knowledge = createEndGame();
+		int unknownCards = ~(getPlayedCards(knowledge) | knowledge
+				.getOwnCardSet());
+
+		// enumerate all consistent distributions
+		Map<Long, Integer> counts = new HashMap<Long, Integer>();
+		for (int middleHand = unknownCards; middleHand != 0; middleHand = middleHand - 1
+				& unknownCards) {
+			if (CardSet.size(middleHand) != 2) {
+				continue;
+			}
+			int rest = unknownCards & ~middleHand;
+			for (int rearHand = rest; rearHand != 0; rearHand = rearHand - 1
+					& rest) {
+				if (CardSet.size(rearHand) == 2
+						&& isPossible(knowledge, Player.MIDDLEHAND, middleHand)
+						&& isPossible(knowledge, Player.REARHAND, rearHand)) {
+					counts.put(getKey(middleHand, rearHand),
+							Integer.valueOf(0));
+				}
+			}
+		}
+
+		DealSampler sampler = new DealSampler(1);
+		sampler.reset(knowledge);
+		assertEquals(counts.size(), sampler.getDistributionCount(), 0.0);
+
+		int samplesPerDistribution = 200;
+		int[] world = new int[DealSampler.SKAT_INDEX + 1];
+		for (int i = 0; i < samplesPerDistribution * counts.size(); i++) {
+			sampler.sample(world);
+			Long key = getKey(world[Player.MIDDLEHAND.ordinal()],
+					world[Player.REARHAND.ordinal()]);
+			assertTrue(counts.containsKey(key));
+			counts.put(key, Integer.valueOf(counts.get(key).intValue() + 1));
+		}
+
+		for (Integer count : counts.values()) {
+			assertTrue(count.intValue() > samplesPerDistribution * 0.6);
+			assertTrue(count.intValue() < samplesPerDistribution * 1.4);
+		}
+	}
+
+	/**
+	 * Samplers with the same seed draw the same distributions
+	 */
+	@Test
+	public void testSample_SameSeed() {
+
+		PlayerKnowledge knowledge = createEndGame();
+
+		DealSampler sampler1 = new DealSampler(99);
+		sampler1.reset(knowledge);
+		DealSampler sampler2 = new DealSampler(99);
+		sampler2.reset(knowledge);
+
+		int[] world1 = new int[DealSampler.SKAT_INDEX + 1];
+		int[] world2 = new int[DealSampler.SKAT_INDEX + 1];
+		for (int i = 0; i < 100; i++) {
+			sampler1.sample(world1);
+			sampler2.sample(world2);
+			assertArrayEquals(world1, world2);
+		}
+	}
+
+	/**
+	 * Contradicting knowledge is ignored
+	 */
+	@Test
+	public void testSample_InconsistentKnowledge() {
+
+		PlayerKnowledge knowledge = createEndGame();
+		for (Suit suit : Suit.values()) {
+			knowledge.setMissingSuit(Player.REARHAND, suit);
+		}
+
+		DealSampler sampler = new DealSampler(3);
+		assertFalse(sampler.reset(knowledge));
+
+		int[] world = new int[DealSampler.SKAT_INDEX + 1];
+		sampler.sample(world);
+		assertEquals(2, CardSet.size(world[Player.MIDDLEHAND.ordinal()]));
+		assertEquals(2, CardSet.size(world[Player.REARHAND.ordinal()]));
+		assertEquals(2, CardSet.size(world[DealSampler.SKAT_INDEX]));
+		assertDistribution(world, getPlayedCards(knowledge));
+	}
+
+	private static PlayerKnowledge createKnowledge(final Player position,
+			final Player declarer) {
+
+		PlayerKnowledge knowledge = new PlayerKnowledge();
+		knowledge.setPlayerPosition(position);
+		knowledge.setDeclarer(declarer);
+		GameAnnouncementFactory factory = GameAnnouncement.getFactory();
+		factory.setGameType(GameType.GRAND);
+		knowledge.setGame(factory.getAnnouncement());
+		return knowledge;
+	}
+
+	/**
+	 * Creates the knowledge of fore hand before the ninth trick of a grand
+	 * game, middle hand has not followed hearts
+	 */
+	private static PlayerKnowledge createEndGame() {
+
+		PlayerKnowledge knowledge = createKnowledge(Player.FOREHAND,
+				Player.REARHAND);
+		knowledge.addOwnCard(Card.CA);
+		knowledge.addOwnCard(Card.SA);
+		for (Card[] trick : TRICKS) {
+			knowledge.addOwnCard(trick[0]);
+		}
+
+		for (int i = 0; i < TRICKS.length; i++) {
+			knowledge.setCurrentTrick(new Trick(i, Player.FOREHAND));
+			for (Player player : Player.values()) {
+				knowledge.setCardPlayed(player, TRICKS[i][player.ordinal()]);
+			}
+			knowledge.removeOwnCard(TRICKS[i][0]);
+		}
+		knowledge.setCurrentTrick(new Trick(TRICKS.length, Player.FOREHAND));
+
+		return knowledge;
+	}
+
+	private static int getPlayedCards(final PlayerKnowledge knowledge) {
+		return knowledge.getPlayedCardSet(Player.FOREHAND)
+				| knowledge.getPlayedCardSet(Player.MIDDLEHAND)
+				| knowledge.getPlayedCardSet(Player.REARHAND);
+	}
+
+	private static boolean isPossible(final PlayerKnowledge knowledge,
+			final Player player, final int cards) {
+		return (cards & ~knowledge.getPossibleCardSet(player)) == CardSet.EMPTY;
+	}
+
+	private static Long getKey(final int middleHand, final int rearHand) {
+		return Long.valueOf((long) middleHand << 32 | rearHand & 0xFFFFFFFFL);
+	}
+
+	private static void assertDistribution(final int[] world,
+			final int playedCards) {
+
+		assertEquals(CardSet.ALL, world[0] | world[1] | world[2] | world[3]
+				| playedCards);
+		for (int i = 0; i < world.length; i++) {
+			for (int j = i + 1; j < world.length; j++) {
+				assertEquals(CardSet.EMPTY, world[i] & world[j]);
+			}
+		}
+	}
+}
@@ -0,0 +1,171 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+
+import org.jskat.AbstractJSkatTest;
+import org.jskat.util.Card;
+import org.jskat.util.CardList;
+import org.jskat.util.GameType;
+import org.jskat.util.Player;
+import org.junit.Test;
+
+/**
+ * Tests for {@link GameSimulator}
+ */
+public class GameSimulatorTest extends AbstractJSkatTest {
+
+	/**
+	 * Every job gets exactly the maximum number of episodes
+	 */
+	@Test
+	public void simulateMaxEpisodes() {
+
+		GameSimulator simulator = new GameSimulator();
+		simulator.resetGameSimulator(
+				Arrays.asList(GameType.GRAND, GameType.CLUBS), Player.FOREHAND,
+				getKnownHandCards());
+
+		SimulationResults results = simulator.simulateMaxEpisodes(Long
+				.valueOf(10));
+
+		assertEquals(2, simulator.getSimulations().size());
+		for (GameSimulation simulation : simulator.getSimulations()) {
+			assertEquals(10, simulation.getEpisodes());
+			assertEquals(simulation.getWonRate(),
+					results.getWonRate(simulation.getGameType()), 0.0);
+		}
+	}
+
+	/**
+	 * Jobs for several skat candidates are simulated together
+	 */
+	@Test
+	public void simulateSkatCandidates() {
+
+		GameSimulator simulator = new GameSimulator();
+		simulator.reset();
+		CardList hand = getKnownHandCards();
+		GameSimulation first = simulator.addSimulation(GameType.GRAND,
+				Player.MIDDLEHAND, hand, new CardList(Card.D7, Card.D8));
+		GameSimulation second = simulator.addSimulation(GameType.GRAND,
+				Player.MIDDLEHAND, hand, new CardList(Card.H7, Card.H8));
+
+		simulator.simulateMaxEpisodes(Long.valueOf(5));
+
+		assertEquals(5, first.getEpisodes());
+		assertEquals(5, second.getEpisodes());
+	}
+
+	/**
+	 * No episodes are simulated after the end of the simulation
+	 */
+	@Test
+	public void simulateWithPassedDeadline() {
+
+		GameSimulator simulator = new GameSimulator();
+		simulator.resetGameSimulator(Arrays.asList(GameType.GRAND),
+				Player.FOREHAND, getKnownHandCards());
+
+		simulator.simulate(Long.MAX_VALUE, System.currentTimeMillis() - 1);
+
+		assertEquals(0, simulator.getSimulations().get(0).getEpisodes());
+	}
+
+	/**
+	 * Simulation stops at the deadline even without an episode limit
+	 */
+	@Test
+	public void simulateUntilDeadline() {
+
+		GameSimulator simulator = new GameSimulator();
+		simulator.resetGameSimulator(Arrays.asList(GameType.GRAND),
+				Player.FOREHAND, getKnownHandCards());
+
+		long start = System.currentTimeMillis();
+		simulator.simulate(Long.MAX_VALUE, start + 200);
+
+		assertTrue(simulator.getSimulations().get(0).getEpisodes() > 0);
+		assertTrue(System.currentTimeMillis() - start < 5000);
+	}
+
+	/**
+	 * A time budget returns estimates with confidence intervals
+	 */
+	@Test
+	public void simulateWithTimeBudget() {
+
+		GameSimulator simulator = new GameSimulator();
+		simulator.resetGameSimulator(Arrays.asList(GameType.GRAND),
+				Player.FOREHAND, getKnownHandCards());
+
+		SimulationResults results = simulator.simulateWithTimeBudget(200);
+
+		assertTrue(results.getEpisodes(GameType.GRAND) > 0);
+		double wonRate = results.getWonRate(GameType.GRAND);
+		assertTrue(results.getWonRateLowerBound(GameType.GRAND) <= wonRate);
+		assertTrue(results.getWonRateUpperBound(GameType.GRAND) >= wonRate);
+	}
+
+	/**
+	 * Confidence interval gets narrower with more episodes
+	 */
+	@Test
+	public void wonRateConfidenceInterval() {
+
+		GameSimulation simulation = new GameSimulation(GameType.GRAND,
+				Player.FOREHAND, getKnownHandCards(), new CardList());
+
+		assertEquals(0.0, simulation.getWonRateLowerBound(), 0.0);
+		assertEquals(1.0, simulation.getWonRateUpperBound(), 0.0);
+
+		simulation.addResults(10, 5);
+		double width = simulation.getWonRateUpperBound()
+				- simulation.getWonRateLowerBound();
+		assertEquals(0.5, simulation.getWonRate(), 0.0);
+		assertEquals(0.237, simulation.getWonRateLowerBound(), 0.001);
+		assertEquals(0.763, simulation.getWonRateUpperBound(), 0.001);
+
+		simulation.addResults(990, 495);
+		assertTrue(simulation.getWonRateUpperBound()
+				- simulation.getWonRateLowerBound() < width);
+	}
+
+	/**
+	 * Confidence interval contains the won rate for all won games
+	 */
+	@Test
+	public void wonRateConfidenceIntervalAllGamesWon() {
+
+		GameSimulation simulation = new GameSimulation(GameType.GRAND,
+				Player.FOREHAND, getKnownHandCards(), new CardList());
+
+		for (int i = 1; i < 100; i++) {
+			simulation.addResults(1, 1);
+			assertEquals(1.0, simulation.getWonRateUpperBound(), 0.0);
+			assertTrue(simulation.getWonRateLowerBound() < 1.0);
+		}
+	}
+
+	private static CardList getKnownHandCards() {
+		return new CardList(Card.CJ, Card.SJ, Card.HJ, Card.CA, Card.CT,
+				Card.SA, Card.ST, Card.HA, Card.HT, Card.DA);
+	}
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn.data;
+
+import static org.junit.Assert.assertArrayEquals;
+
+import java.io.InputStream;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import org.apache.log4j.PropertyConfigurator;
+import org.encog.neural.networks.BasicNetwork;
+import org.jskat.AbstractJSkatTest;
+import org.jskat.ai.nn.util.NetworkBundle;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.slf4j.impl.StaticLoggerBinder;
+
+/**
+ * Tests for {@link SkatNetworks}
+ */
+public class SkatNetworksTest extends AbstractJSkatTest {
+
+	private static final double DELTA = 1e-12;
+
+	/**
+	 * A network taken through the static access without getting an instance
+	 * first has the weights of the shipped network bundle
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void staticAccessLoadsShippedNetworks() throws Exception {
+
+		double[] shippedWeights;
+		InputStream bundleStream = SkatNetworks.class
+				.getResourceAsStream(SkatNetworks.BUNDLE_FILE_NAME);
+		try {
+			shippedWeights = NetworkBundle.read(bundleStream).getWeights(
+					"GRAND.DECLARER.TRICK0"); //$NON-NLS-1$
+		} finally {
+			bundleStream.close();
+		}
+
+		// other tests change the networks, a fresh class loader gets
+		// SkatNetworks in the state of a newly started application
+		URLClassLoader classLoader = new URLClassLoader(new URL[] {
+				getLocation(SkatNetworks.class),
+				getLocation(BasicNetwork.class),
+				getLocation(LoggerFactory.class),
+				getLocation(StaticLoggerBinder.class),
+				getLocation(PropertyConfigurator.class) }, ClassLoader
+				.getSystemClassLoader().getParent());
+		Class<?> gameTypeClass = classLoader
+				.loadClass("org.jskat.util.GameType"); //$NON-NLS-1$
+		Class<?> skatNetworksClass = classLoader.loadClass(SkatNetworks.class
+				.getName());
+		Method getNetwork = skatNetworksClass.getMethod("getNetwork", //$NON-NLS-1$
+				gameTypeClass, boolean.class, int.class);
+		Object network = getNetwork.invoke(null,
+				gameTypeClass.getField("GRAND").get(null), true, 0); //$NON-NLS-1$
+		double[] weights = (double[]) network.getClass()
+				.getMethod("getWeights").invoke(network); //$NON-NLS-1$
+
+		assertArrayEquals(shippedWeights, weights, DELTA);
+	}
+
+	private static URL getLocation(final Class<?> clazz) {
+		return clazz.getProtectionDomain().getCodeSource().getLocation();
+	}
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn.input;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+
+import org.jskat.AbstractJSkatTest;
+import org.jskat.data.GameAnnouncement;
+import org.jskat.data.GameAnnouncement.GameAnnouncementFactory;
+import org.jskat.data.Trick;
+import org.jskat.player.PlayerKnowledge;
+import org.jskat.util.Card;
+import org.jskat.util.CardList;
+import org.jskat.util.GameType;
+import org.jskat.util.Player;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link GenericNetworkInputGenerator}
+ */
+public class GenericNetworkInputGeneratorTest extends AbstractJSkatTest {
+
+	private static final int PLAYER_PARTY_OFFSET = 6;
+	private static final int OPPONENT_PARTY_OFFSET = 38;
+	private static final int OWN_CARDS_OFFSET = 70;
+
+	private static final Card[] CANDIDATES = { Card.ST, Card.HA, Card.CJ };
+
+	private PlayerKnowledge knowledge;
+	private GenericNetworkInputGenerator generator;
+
+	/**
+	 * Opponent in middle hand has to play the third card in the second trick
+	 */
+	@Before
+	public void setUp() {
+		knowledge = new PlayerKnowledge();
+		knowledge.resetCurrentGameData();
+		GameAnnouncementFactory factory = GameAnnouncement.getFactory();
+		factory.setGameType(GameType.CLUBS);
+		knowledge.setGame(factory.getAnnouncement());
+		knowledge.setDeclarer(Player.FOREHAND);
+		knowledge.setPlayerPosition(Player.MIDDLEHAND);
+		knowledge.setOwnCards(new CardList(Card.ST, Card.HA, Card.CJ, Card.D7));
+
+		Trick firstTrick = new Trick(0, Player.FOREHAND);
+		knowledge.setCurrentTrick(firstTrick);
+		knowledge.setCardPlayed(Player.FOREHAND, Card.CA);
+		knowledge.setCardPlayed(Player.MIDDLEHAND, Card.C7);
+		knowledge.setCardPlayed(Player.REARHAND, Card.C8);
+		firstTrick.setTrickWinner(Player.FOREHAND);
+		knowledge.addTrick(firstTrick);
+
+		knowledge.setCurrentTrick(new Trick(1, Player.REARHAND));
+		knowledge.setCardPlayed(Player.REARHAND, Card.S7);
+		knowledge.setCardPlayed(Player.FOREHAND, Card.SA);
+
+		generator = new GenericNetworkInputGenerator();
+	}
+
+	/**
+	 * Inputs for several cards are the same as the inputs for every single
+	 * card
+	 */
+	@Test
+	public void batchEqualsSingleInputs() {
+
+		int neuronCount = GenericNetworkInputGenerator
+				.getNeuronCountForAllStrategies();
+		double[][] inputs = new double[CANDIDATES.length][neuronCount];
+		// buffers are overwritten completely
+		for (double[] input : inputs) {
+			Arrays.fill(input, -1.0);
+		}
+
+		generator.getNetInputs(knowledge, CANDIDATES, CANDIDATES.length,
+				inputs);
+
+		for (int i = 0; i < CANDIDATES.length; i++) {
+			assertArrayEquals(
+					generator.getNetInputs(knowledge, CANDIDATES[i]),
+					inputs[i], 0.0);
+		}
+	}
+
+	/**
+	 * Inputs of the party strategies depend on the winner of the completed
+	 * trick
+	 */
+	@Test
+	public void nextCardCompletesTrick() {
+
+		double[] inputs = new double[GenericNetworkInputGenerator
+				.getNeuronCountForAllStrategies()];
+
+		// declarer wins with spade ace
+		generator.getNetInputs(knowledge, Card.ST, inputs);
+		assertEquals(1.0, inputs[0], 0.0);
+		assertEquals(1.0, inputs[3 + 1], 0.0);
+		assertEquals(0.0, inputs[PLAYER_PARTY_OFFSET + index(Card.SA)], 0.0);
+		assertEquals(1.0, inputs[OPPONENT_PARTY_OFFSET + index(Card.SA)], 0.0);
+		assertEquals(1.0, inputs[OPPONENT_PARTY_OFFSET + index(Card.ST)], 0.0);
+		assertEquals(1.0, inputs[OPPONENT_PARTY_OFFSET + index(Card.CA)], 0.0);
+		assertEquals(0.0, inputs[OWN_CARDS_OFFSET + index(Card.ST)], 0.0);
+		assertEquals(1.0, inputs[OWN_CARDS_OFFSET + index(Card.CJ)], 0.0);
+
+		// opponents win with trump
+		generator.getNetInputs(knowledge, Card.CJ, inputs);
+		assertEquals(1.0, inputs[PLAYER_PARTY_OFFSET + index(Card.SA)], 0.0);
+		assertEquals(1.0, inputs[PLAYER_PARTY_OFFSET + index(Card.CJ)], 0.0);
+		assertEquals(0.0, inputs[OPPONENT_PARTY_OFFSET + index(Card.SA)], 0.0);
+		assertEquals(1.0, inputs[OPPONENT_PARTY_OFFSET + index(Card.CA)], 0.0);
+		assertEquals(1.0, inputs[OWN_CARDS_OFFSET + index(Card.ST)], 0.0);
+		assertEquals(0.0, inputs[OWN_CARDS_OFFSET + index(Card.CJ)], 0.0);
+	}
+
+	private static int index(Card card) {
+		return card.getSuit().getSuitOrder() * 8 + card.getNullOrder();
+	}
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn.train;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.jskat.AbstractJSkatTest;
+import org.jskat.ai.nn.data.SkatNetworks;
+import org.jskat.ai.nn.data.TrainingSample;
+import org.jskat.ai.nn.input.GenericNetworkInputGenerator;
+import org.jskat.ai.nn.util.INeuralNetwork;
+import org.jskat.ai.nn.util.ReplayBuffer;
+import org.jskat.util.GameType;
+import org.junit.Test;
+
+/**
+ * Tests for {@link NNLearner}
+ */
+public class NNLearnerTest extends AbstractJSkatTest {
+
+	private static final long MAX_WAIT = 5000;
+
+	private static final int BATCH_SIZE = SkatNetworks.getBatchSize();
+
+	/**
+	 * Networks are trained after every full batch, the rest is trained when no
+	 * more samples arrive
+	 */
+	@Test
+	public void trainMiniBatches() throws InterruptedException {
+
+		// make sure the networks are loaded
+		SkatNetworks.instance();
+		SkatNetworks.setBatchSize(4);
+
+		BlockingQueue<TrainingSample> samples = new LinkedBlockingQueue<TrainingSample>();
+		double[] inputs = new double[GenericNetworkInputGenerator
+				.getNeuronCountForAllStrategies()];
+		for (int i = 0; i < 10; i++) {
+			samples.add(new TrainingSample(GameType.NULL, true, 9, inputs,
+					new double[] { 1.0 }));
+		}
+
+		INeuralNetwork net = SkatNetworks.getNetwork(GameType.NULL, true, 9);
+		double outputBefore = net.getPredictedOutcome(inputs);
+
+		NNLearner learner = new NNLearner(samples);
+		try {
+			learner.start();
+
+			long start = System.currentTimeMillis();
+			ReplayBuffer buffer = SkatNetworks.getReplayBuffer(GameType.NULL,
+					true, 9);
+			while ((learner.getTrainedSamples() < 10 || buffer
+					.getNewSamples() > 0)
+					&& System.currentTimeMillis() - start < MAX_WAIT) {
+				Thread.sleep(10);
+			}
+			learner.terminate();
+			learner.join();
+		} finally {
+			SkatNetworks.setBatchSize(BATCH_SIZE);
+		}
+
+		assertEquals(10, learner.getTrainedSamples());
+		assertTrue(learner.getTrainedBatches() >= 3);
+		assertFalse(outputBefore == net.getPredictedOutcome(inputs));
+	}
+
+	/**
+	 * Samples left in the queue are trained when the learner stops
+	 */
+	@Test
+	public void trainRemainingSamplesOnStop() throws InterruptedException {
+
+		SkatNetworks.instance();
+
+		BlockingQueue<TrainingSample> samples = new LinkedBlockingQueue<TrainingSample>();
+		double[] inputs = new double[GenericNetworkInputGenerator
+				.getNeuronCountForAllStrategies()];
+		for (int i = 0; i < 5; i++) {
+			samples.add(new TrainingSample(GameType.RAMSCH, true, 0, inputs,
+					new double[] { 0.0 }));
+		}
+
+		NNLearner learner = new NNLearner(samples);
+		learner.terminate();
+		learner.start();
+		learner.join();
+
+		assertEquals(5, learner.getTrainedSamples());
+		assertTrue(learner.getTrainedBatches() >= 1);
+		assertEquals(0,
+				SkatNetworks.getReplayBuffer(GameType.RAMSCH, true, 0)
+						.getNewSamples());
+	}
+}
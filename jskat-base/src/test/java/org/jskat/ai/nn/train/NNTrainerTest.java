@@ -64,7 +64,7 @@ public class NNTrainerTest {
 		Set<List<String>> permutations = NNTrainer
 				.createPlayerPermutations(playerTypes);
 
-		assertEquals(19, permutations.size());
+		assertEquals(37, permutations.size());
 
 		for (List<String> permutation : permutations) {
 			assertTrue(permutation
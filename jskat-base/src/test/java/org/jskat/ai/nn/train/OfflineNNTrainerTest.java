@@ -0,0 +1,186 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn.train;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.jskat.AbstractJSkatTest;
+import org.jskat.ai.nn.data.SkatNetworks;
+import org.jskat.ai.nn.data.TrainingSample;
+import org.jskat.data.SkatGameData;
+import org.jskat.data.record.GameRecord;
+import org.jskat.data.record.GameRecordStore;
+import org.jskat.util.GameType;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests for {@link OfflineNNTrainer}
+ */
+public class OfflineNNTrainerTest extends AbstractJSkatTest {
+
+	private static List<SkatGameData> games;
+
+	/**
+	 * Plays some random games
+	 */
+	@BeforeClass
+	public static void playGames() {
+		games = TrainingSampleExtractorTest.playGames(60, 17L, null);
+	}
+
+	/**
+	 * Restores the networks from the class path
+	 */
+	@AfterClass
+	public static void restoreNetworks() {
+		SkatNetworks.loadNetworks();
+	}
+
+	private static File createDirectory() throws IOException {
+		File result = File.createTempFile("jskat", ".training"); //$NON-NLS-1$ //$NON-NLS-2$
+		result.delete();
+		result.mkdirs();
+		result.deleteOnExit();
+		return result;
+	}
+
+	private static int countSamples(final List<SkatGameData> gameData) {
+		TrainingSampleExtractor extractor = new TrainingSampleExtractor();
+		List<TrainingSample> samples = new ArrayList<TrainingSample>();
+		for (SkatGameData data : gameData) {
+			extractor.extractSamples(data, samples);
+		}
+		return samples.size();
+	}
+
+	private static double[] getWeights() {
+		return SkatNetworks.getNetwork(GameType.GRAND, true, 0).getWeights();
+	}
+
+	private static OfflineNNTrainer createTrainer(final File checkpointPath) {
+		OfflineNNTrainer result = new OfflineNNTrainer(new Random(1L));
+		result.setThreadCount(2);
+		result.setBatchSize(8);
+		result.setGamesPerRound(10);
+		result.setCheckpointInterval(20);
+		result.setCheckpointPath(checkpointPath);
+		return result;
+	}
+
+	/**
+	 * Training from a game record store continues after the last checkpoint
+	 */
+	@Test
+	public void testTrainAndResumeStore() throws IOException {
+
+		File storeDirectory = createDirectory();
+		File checkpointPath = createDirectory();
+
+		GameRecordStore store = new GameRecordStore(storeDirectory);
+		try {
+			for (int i = 0; i < 45; i++) {
+				store.append(GameRecord.fromGameData(games.get(i)));
+			}
+
+			OfflineNNTrainer trainer = createTrainer(checkpointPath);
+			assertFalse(trainer.resume());
+			trainer.train(store);
+
+			assertEquals(45, trainer.getProcessedGames());
+			long samples = countSamples(games.subList(0, 45));
+			assertEquals(samples, trainer.getTrainedSamples());
+			assertTrue(trainer.getTrainedBatches() > 0);
+			// checkpoint file and the bundle of the last checkpoint
+			assertEquals(2, checkpointPath.list().length);
+
+			double[] trainedWeights = getWeights();
+			SkatNetworks.resetNeuralNetworks();
+
+			for (int i = 45; i < games.size(); i++) {
+				store.append(GameRecord.fromGameData(games.get(i)));
+			}
+
+			trainer = createTrainer(checkpointPath);
+			assertTrue(trainer.resume());
+			assertEquals(45, trainer.getProcessedGames());
+			assertArrayEquals(trainedWeights, getWeights(), 0.0);
+
+			trainer.train(store);
+			assertEquals(games.size(), trainer.getProcessedGames());
+			assertEquals(samples + countSamples(games.subList(45, games.size())),
+					trainer.getTrainedSamples());
+			assertEquals(2, checkpointPath.list().length);
+		} finally {
+			store.close();
+		}
+	}
+
+	/**
+	 * Games that were processed before the last checkpoint are skipped
+	 */
+	@Test
+	public void testResumeIterator() throws IOException {
+
+		File checkpointPath = createDirectory();
+
+		OfflineNNTrainer trainer = createTrainer(checkpointPath);
+		trainer.train(games.subList(0, 30).iterator());
+		assertEquals(30, trainer.getProcessedGames());
+
+		trainer = createTrainer(checkpointPath);
+		assertTrue(trainer.resume());
+		trainer.train(games.iterator());
+		assertEquals(games.size(), trainer.getProcessedGames());
+		assertEquals(countSamples(games), trainer.getTrainedSamples());
+	}
+
+	/**
+	 * Training changes the networks of the played game types
+	 */
+	@Test
+	public void testNetworksAreTrained() throws IOException {
+
+		SkatNetworks.resetNeuralNetworks();
+		GameType gameType = null;
+		for (SkatGameData data : games) {
+			if (!GameType.PASSED_IN.equals(data.getGameType())) {
+				gameType = data.getGameType();
+				break;
+			}
+		}
+		double[] weightsBefore = SkatNetworks.getNetwork(gameType, true, 0)
+				.getWeights();
+
+		OfflineNNTrainer trainer = new OfflineNNTrainer();
+		trainer.train(games.iterator());
+
+		assertEquals(games.size(), trainer.getProcessedGames());
+		assertFalse(Arrays.equals(weightsBefore, SkatNetworks
+				.getNetwork(gameType, true, 0).getWeights()));
+	}
+}
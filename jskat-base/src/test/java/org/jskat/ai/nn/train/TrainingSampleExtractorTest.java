@@ -0,0 +1,138 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn.train;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.jskat.AbstractJSkatTest;
+import org.jskat.ai.nn.AIPlayerNN;
+import org.jskat.ai.nn.data.TrainingSample;
+import org.jskat.ai.test.InputRecordingTestPlayer;
+import org.jskat.control.SkatGameEngine;
+import org.jskat.data.SkatGameData;
+import org.jskat.util.Card;
+import org.jskat.util.CardDeck;
+import org.jskat.util.GameType;
+import org.jskat.util.GameVariant;
+import org.junit.Test;
+import org.slf4j.helpers.NOPLogger;
+
+/**
+ * Tests for {@link TrainingSampleExtractor}
+ */
+public class TrainingSampleExtractorTest extends AbstractJSkatTest {
+
+	/**
+	 * Plays games with random players
+	 * 
+	 * @param numberOfGames
+	 *            Number of games
+	 * @param seed
+	 *            Seed for the card decks
+	 * @param inputs
+	 *            List for the network inputs of all played cards in playing
+	 *            order, NULL if not needed
+	 * @return Data of the played games
+	 */
+	static List<SkatGameData> playGames(final int numberOfGames,
+			final long seed, final List<double[]> inputs) {
+
+		List<double[]> playedInputs = inputs;
+		if (playedInputs == null) {
+			playedInputs = new ArrayList<double[]>();
+		}
+
+		List<SkatGameData> result = new ArrayList<SkatGameData>();
+		for (int i = 0; i < numberOfGames; i++) {
+			SkatGameEngine engine = new SkatGameEngine("Sample test", //$NON-NLS-1$
+					GameVariant.STANDARD, new InputRecordingTestPlayer(
+							playedInputs), new InputRecordingTestPlayer(
+							playedInputs), new InputRecordingTestPlayer(
+							playedInputs));
+			engine.setLogger(NOPLogger.NOP_LOGGER);
+			CardDeck deck = new CardDeck();
+			deck.shuffle(new Random(seed + i));
+			engine.setCardDeck(deck);
+			engine.play();
+			result.add(engine.getGameData());
+		}
+		return result;
+	}
+
+	/**
+	 * Replayed games give the same network inputs as the live games
+	 */
+	@Test
+	public void testSamplesMatchLiveGame() {
+
+		List<double[]> liveInputs = new ArrayList<double[]>();
+		List<SkatGameData> games = playGames(50, 11L, liveInputs);
+
+		TrainingSampleExtractor extractor = new TrainingSampleExtractor();
+		List<TrainingSample> samples = new ArrayList<TrainingSample>();
+		int index = 0;
+		int playedGames = 0;
+		for (SkatGameData game : games) {
+			int count = extractor.extractSamples(game, samples);
+			if (GameType.PASSED_IN.equals(game.getGameType())) {
+				assertEquals(0, count);
+				continue;
+			}
+			// games can end before the last trick
+			assertEquals(game.getTricks().size() * 3, count);
+			playedGames++;
+
+			for (int card = 0; card < count; card++) {
+				TrainingSample sample = samples.get(index);
+				assertArrayEquals(liveInputs.get(index), sample.getInputs(),
+						0.0);
+				assertEquals(game.getGameType(), sample.getGameType());
+				assertEquals(card / 3, sample.getTrickNoInGame());
+
+				Card playedCard = game.getTricks().get(card / 3)
+						.getCardList().get(card % 3);
+				boolean declarerCard = game.getCardsAfterDiscard()
+						.get(game.getDeclarer()).contains(playedCard);
+				assertEquals(declarerCard, sample.isDeclarer());
+				assertEquals(
+						declarerCard == game.isGameWon() ? AIPlayerNN.WON
+								: AIPlayerNN.LOST, sample.getOutputs()[0],
+						0.0);
+				index++;
+			}
+		}
+		assertTrue(playedGames > 0);
+		assertEquals(liveInputs.size(), samples.size());
+	}
+
+	/**
+	 * Games without a deal give no samples
+	 */
+	@Test
+	public void testIncompleteGame() {
+
+		List<TrainingSample> samples = new ArrayList<TrainingSample>();
+		assertEquals(0, new TrainingSampleExtractor().extractSamples(
+				new SkatGameData(), samples));
+		assertTrue(samples.isEmpty());
+	}
+}
@@ -0,0 +1,61 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn.train;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jskat.AbstractJSkatTest;
+import org.jskat.ai.nn.data.TrainingSample;
+import org.jskat.util.GameType;
+import org.junit.Test;
+
+/**
+ * Tests for {@link TrainingSampleQueue}
+ */
+public class TrainingSampleQueueTest extends AbstractJSkatTest {
+
+	/**
+	 * A closed queue drops new samples and never blocks, even if it is full
+	 */
+	@Test
+	public void closedQueueDropsSamples() throws InterruptedException {
+
+		TrainingSampleQueue queue = new TrainingSampleQueue(1);
+		assertTrue(queue.offer(createSample()));
+
+		queue.close();
+
+		assertTrue(queue.isClosed());
+		queue.put(createSample());
+		assertFalse(queue.offer(createSample()));
+		assertFalse(queue.offer(createSample(), 1, TimeUnit.SECONDS));
+		assertEquals(1, queue.size());
+
+		// samples from before the close can still be taken
+		queue.take();
+		queue.put(createSample());
+		assertTrue(queue.isEmpty());
+	}
+
+	private static TrainingSample createSample() {
+		return new TrainingSample(GameType.GRAND, true, 0, new double[] { 1.0 },
+				new double[] { 1.0 });
+	}
+}
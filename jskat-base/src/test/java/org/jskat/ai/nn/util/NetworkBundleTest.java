@@ -0,0 +1,152 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jskat.AbstractJSkatTest;
+import org.junit.Test;
+
+/**
+ * Tests for {@link NetworkBundle}
+ */
+public class NetworkBundleTest extends AbstractJSkatTest {
+
+	private static final double DELTA = 1e-12;
+
+	private static final double[][] INPUTS = { { 1.0, 1.0, 0.0 },
+			{ 1.0, 0.0, 1.0 }, { 0.0, 1.0, 0.5 }, { 0.0, 0.0, 0.0 } };
+
+	private static final NetworkTopology TOPOLOGY = new NetworkTopology(3,
+			new int[] { 4 }, 1);
+
+	/**
+	 * Networks read from a bundle compute the same outputs as the written
+	 * networks
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void roundTrip() throws IOException {
+
+		Map<String, EncogNetworkWrapper> networks = new LinkedHashMap<String, EncogNetworkWrapper>();
+		networks.put("first", new EncogNetworkWrapper(TOPOLOGY, true)); //$NON-NLS-1$
+		networks.put("second", new EncogNetworkWrapper(TOPOLOGY, true)); //$NON-NLS-1$
+
+		File file = File.createTempFile("jskat", ".nnb"); //$NON-NLS-1$ //$NON-NLS-2$
+		file.deleteOnExit();
+		NetworkBundle.write(file, TOPOLOGY, true, networks);
+
+		NetworkBundle bundle = NetworkBundle.open(file);
+
+		assertEquals(NetworkBundle.VERSION, bundle.getVersion());
+		assertEquals(3, bundle.getTopology().getInputNeuronCount());
+		assertEquals(1, bundle.getTopology().getHiddenLayerCount());
+		assertEquals(4, bundle.getTopology().getHiddenNeuronCount(0));
+		assertEquals(1, bundle.getTopology().getOutputNeuronCount());
+		assertTrue(bundle.isUseBias());
+		assertArrayEquals(new String[] { "first", "second" }, bundle //$NON-NLS-1$ //$NON-NLS-2$
+				.getNetworkNames().toArray());
+
+		for (Map.Entry<String, EncogNetworkWrapper> network : networks
+				.entrySet()) {
+			assertArrayEquals(network.getValue().getWeights(),
+					bundle.getWeights(network.getKey()), DELTA);
+
+			LazyNetwork lazyNetwork = new LazyNetwork(bundle, network.getKey());
+			assertFalse(lazyNetwork.isMaterialized());
+			for (double[] input : INPUTS) {
+				assertEquals(network.getValue().getPredictedOutcome(input),
+						lazyNetwork.getPredictedOutcome(input), DELTA);
+			}
+			assertTrue(lazyNetwork.isMaterialized());
+		}
+
+		FileInputStream inputStream = new FileInputStream(file);
+		try {
+			NetworkBundle streamBundle = NetworkBundle.read(inputStream);
+			assertArrayEquals(networks.get("second").getWeights(), //$NON-NLS-1$
+					streamBundle.getWeights("second"), DELTA); //$NON-NLS-1$
+		} finally {
+			inputStream.close();
+		}
+	}
+
+	/**
+	 * Writing a bundle replaces the file, so a bundle that is still open keeps
+	 * its weights
+	 * 
+	 * @throws IOException
+	 */
+	@Test
+	public void rewriteOpenBundle() throws IOException {
+
+		Map<String, EncogNetworkWrapper> networks = new LinkedHashMap<String, EncogNetworkWrapper>();
+		networks.put("first", new EncogNetworkWrapper(TOPOLOGY, true)); //$NON-NLS-1$
+
+		File file = File.createTempFile("jskat", ".nnb"); //$NON-NLS-1$ //$NON-NLS-2$
+		file.deleteOnExit();
+		NetworkBundle.write(file, TOPOLOGY, true, networks);
+		NetworkBundle openBundle = NetworkBundle.open(file);
+
+		Map<String, EncogNetworkWrapper> newNetworks = new LinkedHashMap<String, EncogNetworkWrapper>();
+		newNetworks.put("first", new EncogNetworkWrapper(TOPOLOGY, true)); //$NON-NLS-1$
+		NetworkBundle.write(file, TOPOLOGY, true, newNetworks);
+
+		assertArrayEquals(networks.get("first").getWeights(), //$NON-NLS-1$
+				openBundle.getWeights("first"), DELTA); //$NON-NLS-1$
+		assertArrayEquals(newNetworks.get("first").getWeights(), //$NON-NLS-1$
+				NetworkBundle.open(file).getWeights("first"), DELTA); //$NON-NLS-1$
+	}
+
+	/**
+	 * Data that is no bundle is rejected
+	 * 
+	 * @throws IOException
+	 */
+	@Test(expected = IOException.class)
+	public void wrongMagicNumber() throws IOException {
+		NetworkBundle.read(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4,
+				5, 6, 7, 8 }));
+	}
+
+	/**
+	 * Weights are set on an existing network
+	 */
+	@Test
+	public void setWeights() {
+
+		EncogNetworkWrapper source = new EncogNetworkWrapper(TOPOLOGY, true);
+		EncogNetworkWrapper target = new EncogNetworkWrapper(TOPOLOGY, true);
+
+		target.setWeights(source.getWeights());
+
+		for (double[] input : INPUTS) {
+			assertEquals(source.getPredictedOutcome(input),
+					target.getPredictedOutcome(input), DELTA);
+		}
+	}
+}
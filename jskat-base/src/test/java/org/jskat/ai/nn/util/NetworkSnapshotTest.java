@@ -0,0 +1,105 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import org.encog.engine.network.activation.ActivationSigmoid;
+import org.encog.ml.data.basic.BasicMLData;
+import org.encog.neural.networks.BasicNetwork;
+import org.encog.neural.networks.layers.BasicLayer;
+import org.jskat.AbstractJSkatTest;
+import org.junit.Test;
+
+/**
+ * Tests for {@link NetworkSnapshot}
+ */
+public class NetworkSnapshotTest extends AbstractJSkatTest {
+
+	private static final double DELTA = 1e-9;
+
+	private static final double[][] INPUTS = { { 1.0, 1.0, 0.0 },
+			{ 1.0, 0.0, 1.0 }, { 0.0, 1.0, 0.5 }, { 0.0, 0.0, 0.0 } };
+
+	/**
+	 * Snapshot computes the same outputs as the Encog network
+	 */
+	@Test
+	public void sameOutputAsEncog() {
+
+		for (boolean useBias : new boolean[] { true, false }) {
+			BasicNetwork network = new BasicNetwork();
+			network.addLayer(new BasicLayer(new ActivationSigmoid(), useBias,
+					3));
+			network.addLayer(new BasicLayer(new ActivationSigmoid(), useBias,
+					4));
+			network.addLayer(new BasicLayer(new ActivationSigmoid(), useBias,
+					1));
+			network.getStructure().finalizeStructure();
+			network.reset();
+
+			NetworkSnapshot snapshot = NetworkSnapshot.of(network);
+
+			assertEquals(3, snapshot.getInputNeuronCount());
+			for (double[] input : INPUTS) {
+				assertEquals(network.compute(new BasicMLData(input))
+						.getData(0), snapshot.compute(input), DELTA);
+			}
+		}
+	}
+
+	/**
+	 * Batch computation gives the same outputs as single computations
+	 */
+	@Test
+	public void batchOutput() {
+
+		EncogNetworkWrapper network = new EncogNetworkWrapper(
+				new NetworkTopology(3, new int[] { 5 }, 1), true);
+
+		double[] outputs = new double[INPUTS.length];
+		network.getPredictedOutcomes(INPUTS, INPUTS.length, outputs);
+
+		for (int i = 0; i < INPUTS.length; i++) {
+			assertEquals(network.getPredictedOutcome(INPUTS[i]), outputs[i],
+					DELTA);
+		}
+	}
+
+	/**
+	 * Adjusting the weights publishes a new snapshot and leaves the old one
+	 * untouched
+	 */
+	@Test
+	public void copyOnWrite() {
+
+		EncogNetworkWrapper network = new EncogNetworkWrapper(
+				new NetworkTopology(3, new int[] { 5 }, 1), true);
+
+		NetworkSnapshot oldSnapshot = network.getSnapshot();
+		double oldOutput = oldSnapshot.compute(INPUTS[0]);
+
+		for (int i = 0; i < 10; i++) {
+			network.adjustWeights(INPUTS[0], new double[] { 1.0 });
+		}
+
+		assertNotSame(oldSnapshot, network.getSnapshot());
+		assertEquals(oldOutput, oldSnapshot.compute(INPUTS[0]), 0.0);
+		assertTrue(network.getPredictedOutcome(INPUTS[0]) > oldOutput);
+	}
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.jskat.AbstractJSkatTest;
+import org.jskat.ai.nn.util.ReplayBuffer.EvictionPolicy;
+import org.junit.Test;
+
+/**
+ * Tests for {@link ReplayBuffer}
+ */
+public class ReplayBufferTest extends AbstractJSkatTest {
+
+	/**
+	 * The buffer grows up to its capacity and replaces the oldest samples
+	 */
+	@Test
+	public void fifoEviction() {
+
+		ReplayBuffer buffer = new ReplayBuffer(100, 2, 1, EvictionPolicy.FIFO,
+				new Random(0));
+
+		for (int i = 0; i < 150; i++) {
+			buffer.add(new double[] { i, -i }, new double[] { i });
+		}
+
+		assertEquals(100, buffer.size());
+		assertEquals(150, buffer.getAddedSamples());
+		assertEquals(150, buffer.getNewSamples());
+
+		double[][] inputs = new double[100][2];
+		double[][] outputs = new double[100][1];
+		assertEquals(100, buffer.sample(inputs, outputs));
+		assertEquals(0, buffer.getNewSamples());
+
+		// samples 0 to 49 were replaced by 100 to 149
+		for (int i = 0; i < 100; i++) {
+			assertTrue(outputs[i][0] >= 50);
+			assertEquals(outputs[i][0], inputs[i][0], 0.0);
+			assertEquals(-outputs[i][0], inputs[i][1], 0.0);
+		}
+	}
+
+	/**
+	 * Reservoir eviction keeps the buffer size and a mix of old and new
+	 * samples
+	 */
+	@Test
+	public void reservoirEviction() {
+
+		ReplayBuffer buffer = new ReplayBuffer(100, 1, 1,
+				EvictionPolicy.RESERVOIR, new Random(0));
+
+		for (int i = 0; i < 1000; i++) {
+			buffer.add(new double[] { i }, new double[] { i });
+		}
+
+		assertEquals(100, buffer.size());
+
+		double[][] inputs = new double[100][1];
+		double[][] outputs = new double[100][1];
+		buffer.sample(inputs, outputs);
+
+		int oldSamples = 0;
+		int newSamples = 0;
+		for (double[] output : outputs) {
+			if (output[0] < 500) {
+				oldSamples++;
+			} else {
+				newSamples++;
+			}
+		}
+		assertTrue(oldSamples > 0);
+		assertTrue(newSamples > 0);
+	}
+
+	/**
+	 * Batches are drawn randomly from a buffer holding more samples
+	 */
+	@Test
+	public void sampleMiniBatch() {
+
+		ReplayBuffer buffer = new ReplayBuffer(1000, 1, 1,
+				EvictionPolicy.FIFO, new Random(0));
+
+		assertEquals(0, buffer.sample(new double[4][1], new double[4][1]));
+
+		for (int i = 0; i < 500; i++) {
+			buffer.add(new double[] { i }, new double[] { i });
+		}
+
+		double[][] inputs = new double[8][1];
+		double[][] outputs = new double[8][1];
+		assertEquals(8, buffer.sample(inputs, outputs));
+		for (int i = 0; i < 8; i++) {
+			assertEquals(outputs[i][0], inputs[i][0], 0.0);
+		}
+
+		buffer.clear();
+		assertEquals(0, buffer.size());
+	}
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.pimc;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.jskat.AbstractJSkatTest;
+import org.jskat.data.GameAnnouncement;
+import org.jskat.data.GameAnnouncement.GameAnnouncementFactory;
+import org.jskat.data.Trick;
+import org.jskat.util.Card;
+import org.jskat.util.CardList;
+import org.jskat.util.GameType;
+import org.jskat.util.Player;
+import org.junit.Test;
+
+/**
+ * Tests for {@link AIPlayerPIMC}
+ */
+public class AIPlayerPIMCTest extends AbstractJSkatTest {
+
+	private static final Card[] FORE_HAND_CARDS = { Card.SK, Card.SQ,
+			Card.SJ, Card.S9, Card.S8, Card.S7, Card.HA, Card.HT };
+	private static final Card[] MIDDLE_HAND_CARDS = { Card.HK, Card.HQ,
+			Card.HJ, Card.H9, Card.DT, Card.DK, Card.DQ, Card.DJ };
+	private static final Card[] REAR_HAND_CARDS = { Card.CA, Card.CT, Card.CK,
+			Card.CQ, Card.C9, Card.C8, Card.C7, Card.DA };
+
+	/**
+	 * Declarer trumps a trick with an ace and a ten instead of throwing away
+	 * a card without points
+	 */
+	@Test
+	public void testPlayCard_DeclarerTrumps() {
+
+		AIPlayerPIMC player = createDeclarer();
+
+		for (int i = 0; i < FORE_HAND_CARDS.length; i++) {
+			Trick trick = new Trick(i, Player.FOREHAND);
+			player.newTrick(trick);
+			player.cardPlayed(Player.FOREHAND, FORE_HAND_CARDS[i]);
+			player.cardPlayed(Player.MIDDLEHAND, MIDDLE_HAND_CARDS[i]);
+			player.cardPlayed(Player.REARHAND, REAR_HAND_CARDS[i]);
+			trick.setTrickWinner(Player.FOREHAND);
+			player.showTrick(trick);
+		}
+
+		player.newTrick(new Trick(8, Player.FOREHAND));
+		player.cardPlayed(Player.FOREHAND, Card.SA);
+		player.cardPlayed(Player.MIDDLEHAND, Card.ST);
+
+		assertEquals(Card.CJ, player.playCard());
+	}
+
+	/**
+	 * Player finds a playable card at the beginning of a game within the
+	 * decision time budget
+	 */
+	@Test
+	public void testPlayCard_TimeBudget() {
+
+		AIPlayerPIMC player = createDeclarer();
+		player.setDecisionTimeBudget(200);
+
+		player.newTrick(new Trick(0, Player.FOREHAND));
+		player.cardPlayed(Player.FOREHAND, Card.D8);
+		player.cardPlayed(Player.MIDDLEHAND, Card.D9);
+
+		long start = System.currentTimeMillis();
+		Card card = player.playCard();
+
+		// declarer has to follow suit
+		assertTrue(card == Card.DA || card == Card.D7);
+		assertTrue(System.currentTimeMillis() - start < 2000);
+	}
+
+	private static AIPlayerPIMC createDeclarer() {
+
+		AIPlayerPIMC player = new AIPlayerPIMC();
+		player.newGame(Player.REARHAND);
+
+		CardList cards = new CardList(REAR_HAND_CARDS);
+		cards.add(Card.CJ);
+		cards.add(Card.D7);
+		player.takeCards(cards);
+
+		GameAnnouncementFactory factory = GameAnnouncement.getFactory();
+		factory.setGameType(GameType.GRAND);
+		factory.setHand(Boolean.TRUE);
+		player.startGame(Player.REARHAND, factory.getAnnouncement());
+
+		return player;
+	}
+}
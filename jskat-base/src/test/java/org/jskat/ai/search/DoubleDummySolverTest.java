@@ -0,0 +1,197 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.search;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.jskat.AbstractJSkatTest;
+import org.jskat.data.Trick;
+import org.jskat.util.Card;
+import org.jskat.util.CardList;
+import org.jskat.util.CardSet;
+import org.jskat.util.GameType;
+import org.jskat.util.Player;
+import org.jskat.util.rule.SkatRule;
+import org.jskat.util.rule.SkatRuleFactory;
+import org.junit.Test;
+
+/**
+ * Tests for {@link DoubleDummySolver}
+ */
+public class DoubleDummySolverTest extends AbstractJSkatTest {
+
+	private static final GameType[] GAME_TYPES = { GameType.CLUBS,
+			GameType.HEARTS, GameType.GRAND, GameType.NULL };
+
+	/**
+	 * Solver finds the same scores as a plain minimax search with the skat
+	 * rules
+	 */
+	@Test
+	public void sameScoresAsMinimax() {
+
+		Random random = new Random(42);
+		for (int deal = 0; deal < 200; deal++) {
+			GameType gameType = GAME_TYPES[deal % GAME_TYPES.length];
+			Player declarer = Player.values()[random.nextInt(3)];
+			int[] hands = deal(random, 3 + deal % 2);
+
+			DoubleDummySolver solver = new DoubleDummySolver(gameType,
+					declarer, 10);
+
+			assertEquals(minimax(gameType, declarer, hands, Player.FOREHAND,
+					new CardList()), solver.solve(hands, CardSet.EMPTY));
+		}
+	}
+
+	/**
+	 * Scores of all legal cards during a trick are the same as the scores of
+	 * a plain minimax search
+	 */
+	@Test
+	public void sameMoveScoresAsMinimax() {
+
+		Random random = new Random(4711);
+		for (int deal = 0; deal < 100; deal++) {
+			GameType gameType = GAME_TYPES[deal % GAME_TYPES.length];
+			Player declarer = Player.values()[random.nextInt(3)];
+			int[] hands = deal(random, 4);
+
+			// fore hand has played a card already
+			Card firstCard = CardSet.getLowest(hands[Player.FOREHAND
+					.ordinal()]);
+			hands[Player.FOREHAND.ordinal()] = CardSet.remove(
+					hands[Player.FOREHAND.ordinal()], firstCard);
+			CardList trickCards = new CardList(firstCard);
+
+			DoubleDummySolver solver = new DoubleDummySolver(gameType,
+					declarer, 10);
+			Card[] legalCards = new Card[10];
+			int[] scores = new int[10];
+			int count = solver.solveMoves(hands, 0, Player.FOREHAND,
+					trickCards, legalCards, scores, true);
+			int[] winningScores = new int[10];
+			solver.solveMoves(hands, 0, Player.FOREHAND, trickCards,
+					legalCards, winningScores, false);
+
+			for (int i = 0; i < count; i++) {
+				int[] nextHands = hands.clone();
+				nextHands[Player.MIDDLEHAND.ordinal()] = CardSet.remove(
+						nextHands[Player.MIDDLEHAND.ordinal()], legalCards[i]);
+				CardList nextTrickCards = new CardList(trickCards);
+				nextTrickCards.add(legalCards[i]);
+				assertEquals(
+						minimax(gameType, declarer, nextHands, Player.FOREHAND,
+								nextTrickCards), scores[i]);
+				assertEquals(scores[i] >= DoubleDummySolver.WINNING_SCORE,
+						winningScores[i] >= DoubleDummySolver.WINNING_SCORE);
+			}
+		}
+	}
+
+	/**
+	 * A full game is solved and the winner search agrees with the score
+	 */
+	@Test
+	public void fullGame() {
+
+		Random random = new Random(1);
+		for (GameType gameType : GAME_TYPES) {
+			int[] hands = deal(random, 10);
+			int skat = CardSet.ALL & ~(hands[0] | hands[1] | hands[2]);
+
+			DoubleDummySolver solver = new DoubleDummySolver(gameType,
+					Player.FOREHAND);
+			int score = solver.solve(hands, skat);
+
+			assertEquals(score >= DoubleDummySolver.WINNING_SCORE,
+					new DoubleDummySolver(gameType, Player.FOREHAND)
+							.isDeclarerWinning(hands, skat));
+		}
+	}
+
+	private static int[] deal(Random random, int cardsPerHand) {
+		List<Card> deck = new ArrayList<Card>(Arrays.asList(Card.values()));
+		Collections.shuffle(deck, random);
+		int[] hands = new int[3];
+		for (int player = 0; player < 3; player++) {
+			for (int i = 0; i < cardsPerHand; i++) {
+				hands[player] = CardSet.add(hands[player],
+						deck.get(player * cardsPerHand + i));
+			}
+		}
+		return hands;
+	}
+
+	private static int minimax(GameType gameType, Player declarer,
+			int[] hands, Player trickForeHand, CardList trickCards) {
+
+		SkatRule rules = SkatRuleFactory.getSkatRules(gameType);
+
+		if (trickCards.size() == 3) {
+			Trick trick = new Trick(0, trickForeHand);
+			for (Card card : trickCards) {
+				trick.addCard(card);
+			}
+			Player winner = rules.calculateTrickWinner(gameType, trick);
+			int points = 0;
+			if (winner == declarer) {
+				if (gameType == GameType.NULL) {
+					return 0;
+				}
+				points = trick.getValue();
+			}
+			return points
+					+ minimax(gameType, declarer, hands, winner,
+							new CardList());
+		}
+
+		if ((hands[0] | hands[1] | hands[2]) == CardSet.EMPTY) {
+			return gameType == GameType.NULL ? 120 : 0;
+		}
+
+		Player player = trickForeHand;
+		for (int i = 0; i < trickCards.size(); i++) {
+			player = player.getLeftNeighbor();
+		}
+		CardList hand = CardSet.toCardList(hands[player.ordinal()]);
+
+		int best = player == declarer ? -1 : 121;
+		for (Card card : hand) {
+			if (trickCards.size() > 0
+					&& !rules.isCardAllowed(gameType, trickCards.get(0), hand,
+							card)) {
+				continue;
+			}
+			int[] nextHands = hands.clone();
+			nextHands[player.ordinal()] = CardSet.remove(
+					nextHands[player.ordinal()], card);
+			CardList nextTrickCards = new CardList(trickCards);
+			nextTrickCards.add(card);
+			int value = minimax(gameType, declarer, nextHands, trickForeHand,
+					nextTrickCards);
+			best = player == declarer ? Math.max(best, value) : Math.min(
+					best, value);
+		}
+		return best;
+	}
+}
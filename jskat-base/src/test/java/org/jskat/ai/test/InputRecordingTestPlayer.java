@@ -0,0 +1,51 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.test;
+
+import java.util.List;
+
+import org.jskat.ai.nn.input.GenericNetworkInputGenerator;
+import org.jskat.ai.rnd.AIPlayerRND;
+import org.jskat.util.Card;
+
+/**
+ * Random test player that keeps the network inputs of every played card
+ */
+public class InputRecordingTestPlayer extends AIPlayerRND {
+
+	private final GenericNetworkInputGenerator inputGenerator = new GenericNetworkInputGenerator();
+	private final List<double[]> inputs;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param newInputs
+	 *            List for the network inputs of the played cards
+	 */
+	public InputRecordingTestPlayer(final List<double[]> newInputs) {
+		inputs = newInputs;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public Card playCard() {
+		Card result = super.playCard();
+		inputs.add(inputGenerator.getNetInputs(knowledge, result));
+		return result;
+	}
+}
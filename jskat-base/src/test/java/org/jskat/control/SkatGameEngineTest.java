@@ -0,0 +1,151 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.jskat.AbstractJSkatTest;
+import org.jskat.ai.rnd.AIPlayerRND;
+import org.jskat.ai.test.NoBiddingTestPlayer;
+import org.jskat.control.event.GameEventLog;
+import org.jskat.data.DesktopSavePathResolver;
+import org.jskat.data.GameAnnouncement;
+import org.jskat.data.GameAnnouncement.GameAnnouncementFactory;
+import org.jskat.data.JSkatOptions;
+import org.jskat.data.SkatGameData;
+import org.jskat.data.SkatGameData.GameState;
+import org.jskat.util.CardDeck;
+import org.jskat.util.GameType;
+import org.jskat.util.GameVariant;
+import org.jskat.util.Player;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for {@link SkatGameEngine}
+ */
+public class SkatGameEngineTest extends AbstractJSkatTest {
+
+	@Before
+	public void setUp() {
+		JSkatOptions.instance().resetToDefault(new DesktopSavePathResolver());
+	}
+
+	/**
+	 * The engine plays a complete game without a view on the calling thread
+	 */
+	@Test
+	public void testPlayCompleteGame() {
+
+		SkatGameEngine game = new SkatGameEngine("Table 1", //$NON-NLS-1$
+				GameVariant.STANDARD, new AIPlayerRND(), new AIPlayerRND(),
+				new AIPlayerRND());
+
+		game.play();
+
+		assertEquals(GameState.GAME_OVER, game.getGameState());
+		// headless games are not recorded
+		assertNull(game.getEventLog());
+	}
+
+	/**
+	 * When no player bids, game is passed in
+	 */
+	@Test
+	public void testPassIn_NoBids() {
+
+		SkatGameEngine game = new SkatGameEngine("Table 1", //$NON-NLS-1$
+				GameVariant.STANDARD, new NoBiddingTestPlayer(),
+				new NoBiddingTestPlayer(), new NoBiddingTestPlayer());
+
+		game.play();
+
+		assertEquals(GameType.PASSED_IN, game.getGameSummary().getGameType());
+		assertFalse(game.getGameResult().isWon());
+	}
+
+	/**
+	 * Trick playing can be started directly after setting up the game from
+	 * outside, like it is done for simulations
+	 */
+	@Test
+	public void testPlayTricksOnly() {
+
+		SkatGameEngine game = new SkatGameEngine("Table 1", //$NON-NLS-1$
+				GameVariant.STANDARD, new AIPlayerRND(), new AIPlayerRND(),
+				new AIPlayerRND());
+		game.setCardDeck(new CardDeck(
+				"CJ SJ HJ CK CQ SK C7 C8 S7 H7 D7 DJ CA CT C9 SQ HA HK HQ S8 H8 H9 HT SA ST S9 D8 D9 DT DA DK DQ")); //$NON-NLS-1$
+		game.dealCards();
+		game.setDeclarer(Player.FOREHAND);
+		GameAnnouncementFactory factory = GameAnnouncement.getFactory();
+		factory.setGameType(GameType.GRAND);
+		game.setGameAnnouncement(factory.getAnnouncement());
+		game.setGameState(GameState.TRICK_PLAYING);
+
+		game.play();
+
+		assertEquals(GameState.GAME_OVER, game.getGameState());
+		assertEquals(Player.FOREHAND, game.getDeclarer());
+		assertTrue(game.getGameSummary().getTricks().size() > 0);
+	}
+
+	/**
+	 * The event log of a played game can be rewound to the deal and played
+	 * forward to the end again
+	 */
+	@Test
+	public void testReplayEventLog() {
+
+		SkatGameEngine game = new SkatGameEngine("Table 1", //$NON-NLS-1$
+				GameVariant.STANDARD, new AIPlayerRND(), new AIPlayerRND(),
+				new AIPlayerRND(), true);
+		game.setCardDeck(new CardDeck(
+				"CJ SJ HJ CK CQ SK C7 C8 S7 H7 D7 DJ CA CT C9 SQ HA HK HQ S8 H8 H9 HT SA ST S9 D8 D9 DT DA DK DQ")); //$NON-NLS-1$
+		game.dealCards();
+		game.setDeclarer(Player.FOREHAND);
+		GameAnnouncementFactory factory = GameAnnouncement.getFactory();
+		factory.setGameType(GameType.GRAND);
+		game.setGameAnnouncement(factory.getAnnouncement());
+		game.setGameState(GameState.TRICK_PLAYING);
+
+		game.play();
+
+		GameEventLog eventLog = game.getEventLog();
+		SkatGameData data = eventLog.getGameData();
+		int declarerPoints = data.getPlayerPoints(Player.FOREHAND);
+		int trickCount = data.getTricks().size();
+
+		eventLog.seek(0);
+
+		assertEquals(0, data.getPlayerCards(Player.FOREHAND).size());
+		assertEquals(0, data.getTricks().size());
+		assertEquals(0, data.getPlayerPoints(Player.FOREHAND));
+
+		eventLog.seek(1);
+
+		assertEquals(10, data.getPlayerCards(Player.FOREHAND).size());
+
+		eventLog.seek(eventLog.size());
+
+		assertEquals(declarerPoints, data.getPlayerPoints(Player.FOREHAND));
+		assertEquals(trickCount, data.getTricks().size());
+		assertEquals(Player.FOREHAND, data.getDeclarer());
+	}
+}
@@ -16,15 +16,27 @@
 package org.jskat.control;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.jskat.AbstractJSkatTest;
 import org.jskat.ai.rnd.AIPlayerRND;
 import org.jskat.data.SkatSeriesData.SeriesState;
+import org.jskat.data.checkpoint.SeriesCheckpoint;
+import org.jskat.data.checkpoint.SeriesCheckpointStore;
 import org.jskat.gui.UnitTestView;
 import org.jskat.player.JSkatPlayer;
+import org.jskat.util.CardDeck;
+import org.jskat.util.CardList;
+import org.jskat.util.CardSet;
+import org.jskat.util.Player;
 import org.junit.Test;
 
 /**
@@ -33,7 +45,7 @@ import org.junit.Test;
 public class SkatSeriesTest extends AbstractJSkatTest {
 
 	@Test
-	public void testSkatSeriesRun() {
+	public void testSkatSeriesRun() throws IOException {
 		SkatSeries series = new SkatSeries("ASDF"); //$NON-NLS-1$
 		UnitTestView view = new UnitTestView();
 		series.setView(view);
@@ -56,5 +68,94 @@ public class SkatSeriesTest extends AbstractJSkatTest {
 		}
 
 		assertEquals(SeriesState.SERIES_FINISHED, series.getSeriesState());
+		// one round has three games
+		assertEquals(3, series.getHistory().size());
+		for (int i = 0; i < 3; i++) {
+			// seats rotate with every game
+			assertEquals(i, (series.getHistory().get(i).getForeHandSeat()
+					- series.getHistory().get(0).getForeHandSeat() + 3) % 3);
+		}
+	}
+
+	/**
+	 * A resumed series plays the interrupted game again with the same cards
+	 * and seats and continues its checkpoints
+	 */
+	@Test
+	public void testResumeSeries() throws IOException, InterruptedException {
+
+		File directory = File.createTempFile("jskat", ".series"); //$NON-NLS-1$ //$NON-NLS-2$
+		directory.delete();
+		directory.deleteOnExit();
+		SeriesCheckpointStore store = new SeriesCheckpointStore(directory);
+
+		final CardDeck deck = new CardDeck();
+		deck.shuffle();
+		SeriesCheckpoint interrupted = new SeriesCheckpoint();
+		interrupted.setSeriesId("ASDF"); //$NON-NLS-1$
+		interrupted.setTableName("ASDF"); //$NON-NLS-1$
+		interrupted.setRoundsToGo(1);
+		interrupted.setGameInRound(1);
+		interrupted.setGameCount(2);
+		interrupted.setForeHandSeat(1);
+		interrupted.setBottomPlayer(Player.MIDDLEHAND);
+		interrupted.setScore(0, 18);
+		interrupted.setHistorySize(0);
+		interrupted.setDeck(deck);
+		store.create(interrupted).close();
+
+		final Map<Player, CardList> dealtCards = new HashMap<Player, CardList>();
+		UnitTestView view = new UnitTestView() {
+			@Override
+			public void addCards(final String tableName, final Player player,
+					final CardList cards) {
+				if (!dealtCards.containsKey(player)) {
+					dealtCards.put(player, new CardList(cards));
+				}
+			}
+		};
+
+		SkatSeries series = new SkatSeries("ASDF"); //$NON-NLS-1$
+		series.setView(view);
+		SeriesCheckpoint restored = store.restore("ASDF"); //$NON-NLS-1$
+		series.setCheckpoint(store.resume(restored));
+
+		List<JSkatPlayer> player = new ArrayList<JSkatPlayer>();
+		player.add(new AIPlayerRND());
+		player.add(new AIPlayerRND());
+		player.add(new AIPlayerRND());
+		series.resume(restored, player);
+
+		series.start();
+		series.join();
+
+		assertEquals(SeriesState.SERIES_FINISHED, series.getSeriesState());
+		// the interrupted game and the last game of the round
+		assertEquals(2, series.getHistory().size());
+		assertEquals(1, series.getHistory().get(0).getForeHandSeat());
+		assertEquals(2, series.getHistory().get(1).getForeHandSeat());
+		assertEquals(2, series.getCurrentGameID());
+		assertEquals(CardSet.of(deck.get(0), deck.get(1), deck.get(2),
+				deck.get(11), deck.get(12), deck.get(13), deck.get(14),
+				deck.get(23), deck.get(24), deck.get(25)),
+				CardSet.of(dealtCards.get(Player.FOREHAND)));
+
+		SeriesCheckpoint finished = store.restore("ASDF"); //$NON-NLS-1$
+		store.close();
+		assertTrue(finished.isFinished());
+		assertFalse(finished.isGameRunning());
+		assertEquals(3, finished.getGameCount());
+		assertEquals(2, finished.getHistorySize());
+		int scores = 0;
+		for (int seat = 0; seat < SeriesCheckpoint.SEATS; seat++) {
+			scores += finished.getScore(seat);
+		}
+		int gameValues = 18;
+		for (int game = 0; game < 2; game++) {
+			if (series.getHistory().get(game).getDeclarerSeat() >= 0) {
+				gameValues += series.getHistory().get(game).getGameValue();
+			}
+		}
+		assertEquals(gameValues, scores);
 	}
 }
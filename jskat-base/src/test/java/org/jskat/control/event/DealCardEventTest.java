@@ -92,6 +92,7 @@ public class DealCardEventTest extends AbstractJSkatTest {
 
 		for (Player player : Player.values()) {
 			checkCardList(data.getDealtCards().get(player));
+			checkCardList(data.getPlayerCards(player));
 		}
 		checkCardList(data.getDealtSkat());
 		checkCardList(data.getSkat());
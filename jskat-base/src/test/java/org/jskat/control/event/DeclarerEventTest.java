@@ -0,0 +1,57 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.event;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.jskat.AbstractJSkatTest;
+import org.jskat.data.SkatGameData;
+import org.jskat.util.Player;
+import org.junit.Before;
+import org.junit.Test;
+
+public class DeclarerEventTest extends AbstractJSkatTest {
+
+	private SkatGameData data;
+	private DeclarerEvent event;
+
+	@Before
+	public void setUp() {
+
+		data = new SkatGameData();
+
+		event = new DeclarerEvent(Player.REARHAND);
+	}
+
+	@Test
+	public void SkatGameDataAfterEvent() {
+
+		event.processForward(data);
+
+		assertThat(data.getDeclarer(), is(Player.REARHAND));
+	}
+
+	@Test
+	public void SkatGameDataBeforeEvent() {
+
+		event.processForward(data);
+		event.processBackward(data);
+
+		assertThat(data.getDeclarer(), is(nullValue()));
+	}
+}
@@ -0,0 +1,240 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.event;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jskat.AbstractJSkatTest;
+import org.jskat.data.GameAnnouncement;
+import org.jskat.data.GameAnnouncement.GameAnnouncementFactory;
+import org.jskat.data.SkatGameData;
+import org.jskat.data.Trick;
+import org.jskat.util.Card;
+import org.jskat.util.CardList;
+import org.jskat.util.CardSet;
+import org.jskat.util.GameType;
+import org.jskat.util.Player;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Test class for {@link GameEventLog}
+ */
+public class GameEventLogTest extends AbstractJSkatTest {
+
+	private static final Card[] CARDS = Card.values();
+
+	private SkatGameData data;
+	private GameEventLog log;
+	/**
+	 * States of the game data after each number of events
+	 */
+	private List<String> states;
+
+	@Before
+	public void setUp() {
+
+		data = new SkatGameData();
+		log = new GameEventLog(data, 4);
+		states = new ArrayList<String>();
+		states.add(describe(data));
+
+		Map<Player, CardList> playerCards = new HashMap<Player, CardList>();
+		playerCards.put(Player.FOREHAND, getCards(0, 10));
+		playerCards.put(Player.MIDDLEHAND, getCards(10, 20));
+		playerCards.put(Player.REARHAND, getCards(20, 30));
+		add(new DealCardEvent(playerCards, getCards(30, 32)));
+
+		add(new BidEvent(Player.MIDDLEHAND, 18));
+		add(new HoldBidEvent(Player.FOREHAND, 18));
+		add(new PassBidEvent(Player.MIDDLEHAND));
+		add(new BidEvent(Player.REARHAND, 20));
+		add(new PassBidEvent(Player.REARHAND));
+		add(new DeclarerEvent(Player.FOREHAND));
+		add(new PickUpSkatEvent(Player.FOREHAND));
+		add(new DiscardSkatEvent(Player.FOREHAND, getCards(0, 2)));
+		GameAnnouncementFactory factory = GameAnnouncement.getFactory();
+		factory.setGameType(GameType.GRAND);
+		add(new GameAnnouncementEvent(factory.getAnnouncement()));
+		add(new ContraEvent(Player.MIDDLEHAND));
+		add(new ReEvent(Player.FOREHAND));
+
+		CardList foreHandCards = getCards(2, 10);
+		foreHandCards.addAll(getCards(30, 32));
+		for (int trickNo = 0; trickNo < 10; trickNo++) {
+			add(new TrickStartEvent(trickNo, Player.FOREHAND));
+			add(new TrickCardPlayedEvent(Player.FOREHAND, foreHandCards
+					.get(trickNo)));
+			add(new TrickCardPlayedEvent(Player.MIDDLEHAND,
+					CARDS[10 + trickNo]));
+			add(new TrickCardPlayedEvent(Player.REARHAND, CARDS[20 + trickNo]));
+			add(new TrickCompletedEvent(Player.values()[trickNo % 3]));
+		}
+		add(new SkatPointsEvent(Player.FOREHAND, getCards(0, 2)
+				.getTotalValue()));
+	}
+
+	private void add(final Event event) {
+		log.add(event);
+		states.add(describe(data));
+	}
+
+	private static CardList getCards(final int from, final int to) {
+		CardList result = new CardList();
+		for (int i = from; i < to; i++) {
+			result.add(CARDS[i]);
+		}
+		return result;
+	}
+
+	/**
+	 * Describes the game data independent of the order of the cards
+	 */
+	private static String describe(final SkatGameData gameData) {
+
+		StringBuilder result = new StringBuilder();
+
+		for (Player player : Player.values()) {
+			result.append(player).append(':');
+			result.append(CardSet.of(gameData.getPlayerCards(player)))
+					.append(' ');
+			result.append(CardSet.of(gameData.getDealtCards().get(player)))
+					.append(' ');
+			result.append(gameData.getPlayerBids(player)).append(' ');
+			result.append(gameData.isPlayerPass(player)).append(' ');
+			result.append(gameData.getPlayerPoints(player)).append('\n');
+		}
+		result.append(CardSet.of(gameData.getSkat())).append(' ');
+		result.append(CardSet.of(gameData.getDealtSkat())).append(' ');
+		result.append(gameData.getDeclarer()).append(' ');
+		result.append(gameData.getAnnoucement()).append(' ');
+		result.append(gameData.isHand()).append(' ');
+		result.append(gameData.isContra()).append(' ');
+		result.append(gameData.isRe()).append('\n');
+		for (Trick trick : gameData.getTricks()) {
+			result.append(trick).append(' ').append(trick.getTrickWinner())
+					.append('\n');
+		}
+
+		return result.toString();
+	}
+
+	@Test
+	public void testStepBackwardAndForward() {
+
+		assertEquals(63, log.size());
+		assertEquals(log.size(), log.getPosition());
+
+		while (log.stepBackward()) {
+			assertEquals(states.get(log.getPosition()), describe(data));
+		}
+		assertEquals(0, log.getPosition());
+
+		while (log.stepForward()) {
+			assertEquals(states.get(log.getPosition()), describe(data));
+		}
+		assertEquals(log.size(), log.getPosition());
+	}
+
+	@Test
+	public void testSeek() {
+
+		for (int i = 0; i <= log.size(); i++) {
+			// jump around in the log
+			int position = i * 37 % (log.size() + 1);
+
+			log.seek(position);
+
+			assertEquals(position, log.getPosition());
+			assertEquals(states.get(position), describe(data));
+		}
+
+		log.seek(log.size());
+		assertEquals(states.get(log.size()), describe(data));
+	}
+
+	@Test
+	public void testSeekAndStep() {
+
+		log.seek(22);
+		assertTrue(log.stepBackward());
+		assertEquals(states.get(21), describe(data));
+
+		log.seek(50);
+		assertTrue(log.stepForward());
+		assertEquals(states.get(51), describe(data));
+
+		log.seek(0);
+		assertFalse(log.stepBackward());
+		assertEquals(states.get(0), describe(data));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testAddInsideLog() {
+
+		log.seek(10);
+		log.add(new GeschobenEvent(Player.FOREHAND));
+	}
+
+	/**
+	 * Seeking processes less events than the snapshot interval, independent of
+	 * the length of the log
+	 */
+	@Test
+	public void testSeekIsBounded() {
+
+		SkatGameData longGame = new SkatGameData();
+		GameEventLog longLog = new GameEventLog(longGame);
+		CountingEvent event = new CountingEvent();
+		for (int i = 0; i < 10000; i++) {
+			longLog.add(event);
+		}
+
+		for (int i = 0; i <= longLog.size(); i++) {
+			int position = i * 7919 % (longLog.size() + 1);
+			event.processed = 0;
+
+			longLog.seek(position);
+
+			assertEquals(position, longGame.getGeschoben());
+			assertTrue(event.processed < longLog.getSnapshotInterval());
+		}
+	}
+
+	private static class CountingEvent implements Event {
+
+		private int processed;
+
+		@Override
+		public void processForward(SkatGameData gameData) {
+			processed++;
+			gameData.addGeschoben();
+		}
+
+		@Override
+		public void processBackward(SkatGameData gameData) {
+			processed++;
+			gameData.removeGeschoben();
+		}
+	}
+}
@@ -65,4 +65,18 @@ public class PickUpSkatEventTest extends AbstractJSkatTest {
 		assertThat(data.getSkat().size(), is(2));
 		assertThat(data.getSkat(), hasItems(Card.CJ, Card.SJ));
 	}
+
+	@Test
+	public void SkatGameDataBeforeEventSchieberamsch() {
+
+		// the player before has discarded other cards than the dealt skat
+		data.setSkatCards(new CardList(Card.DA, Card.HA));
+
+		event.processForward(data);
+		event.processBackward(data);
+
+		assertThat(data.getPlayerCards(Player.FOREHAND).size(), is(0));
+		assertThat(data.getSkat().size(), is(2));
+		assertThat(data.getSkat(), hasItems(Card.DA, Card.HA));
+	}
 }
@@ -0,0 +1,68 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.event;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import org.jskat.AbstractJSkatTest;
+import org.jskat.data.SkatGameData;
+import org.jskat.data.Trick;
+import org.jskat.util.Card;
+import org.jskat.util.CardList;
+import org.jskat.util.Player;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TrickCardPlayedEventTest extends AbstractJSkatTest {
+
+	private SkatGameData data;
+	private TrickCardPlayedEvent event;
+
+	@Before
+	public void setUp() {
+
+		data = new SkatGameData();
+		data.addDealtCards(Player.FOREHAND, new CardList(Card.CJ, Card.SJ));
+		data.addTrick(new Trick(0, Player.FOREHAND));
+
+		event = new TrickCardPlayedEvent(Player.FOREHAND, Card.CJ);
+	}
+
+	@Test
+	public void SkatGameDataAfterEvent() {
+
+		event.processForward(data);
+
+		assertThat(data.getPlayerCards(Player.FOREHAND).size(), is(1));
+		assertThat(data.getPlayerCards(Player.FOREHAND).contains(Card.CJ),
+				is(false));
+		assertThat(data.getCurrentTrick().getFirstCard(), is(Card.CJ));
+	}
+
+	@Test
+	public void SkatGameDataBeforeEvent() {
+
+		event.processForward(data);
+		event.processBackward(data);
+
+		assertThat(data.getPlayerCards(Player.FOREHAND).size(), is(2));
+		assertThat(data.getPlayerCards(Player.FOREHAND).contains(Card.CJ),
+				is(true));
+		assertThat(data.getCurrentTrick().getFirstCard(), is(nullValue()));
+	}
+}
@@ -0,0 +1,209 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.iss;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.jskat.AbstractJSkatTest;
+import org.jskat.control.iss.IssGameArchive.ArchiveGame;
+import org.jskat.control.iss.IssGameArchive.GameAggregator;
+import org.jskat.control.iss.IssGameArchive.GameFilter;
+import org.jskat.data.SkatGameData;
+import org.jskat.util.Player;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests for {@link IssGameArchive}
+ */
+public class IssGameArchiveTest extends AbstractJSkatTest {
+
+	private final static String BROKEN_GAME = "(;GM[Skat]MV[w ]R[passed] ;)"; //$NON-NLS-1$
+
+	private static List<String> games;
+	private static File archiveFile;
+
+	/**
+	 * Writes an archive with games played by random players, an empty line and
+	 * a game that can't be parsed
+	 */
+	@BeforeClass
+	public static void createArchive() throws ReflectiveOperationException,
+			IOException {
+
+		games = IssStandInServer.playGames("org.jskat.ai.rnd.AIPlayerRND", //$NON-NLS-1$
+				30, 42L);
+
+		archiveFile = File.createTempFile("jskat", ".sgf"); //$NON-NLS-1$ //$NON-NLS-2$
+		archiveFile.deleteOnExit();
+
+		final Writer writer = new OutputStreamWriter(new FileOutputStream(
+				archiveFile), "UTF-8"); //$NON-NLS-1$
+		try {
+			for (int i = 0; i < games.size(); i++) {
+				writer.write(games.get(i));
+				writer.write(i % 2 == 0 ? "\n" : "\r\n"); //$NON-NLS-1$ //$NON-NLS-2$
+				if (i == 9) {
+					writer.write("\n"); //$NON-NLS-1$
+					writer.write(BROKEN_GAME + "\n"); //$NON-NLS-1$
+				}
+			}
+			// last line without line break
+			writer.write(games.get(0));
+		} finally {
+			writer.close();
+		}
+	}
+
+	private static IssGameArchive createArchiveReader() {
+		final IssGameArchive archive = new IssGameArchive(archiveFile);
+		// smaller than a single line to force buffer growth and many chunks
+		archive.setChunkSize(256);
+		archive.setThreadCount(3);
+		return archive;
+	}
+
+	private static List<String> getExpectedGames() {
+		final List<String> result = new ArrayList<String>(games);
+		result.add(games.get(0));
+		return result;
+	}
+
+	private static long getExpectedGameNumber(final int index) {
+		// the empty line and the broken game follow the tenth game
+		return index < 10 ? index + 1 : index + 3;
+	}
+
+	/**
+	 * All games are delivered in the order of the archive
+	 */
+	@Test
+	public void testIterator() throws IOException {
+
+		final IssGameArchive archive = createArchiveReader();
+		final List<String> expectedGames = getExpectedGames();
+
+		try {
+			final Iterator<ArchiveGame> iterator = archive.iterator();
+			for (int i = 0; i < expectedGames.size(); i++) {
+
+				assertTrue(iterator.hasNext());
+				final ArchiveGame game = iterator.next();
+
+				assertEquals(getExpectedGameNumber(i), game.getGameNumber());
+				assertEquals(expectedGames.get(i), game.getSummary());
+
+				final SkatGameData expected = MessageParser
+						.parseGameSummary(expectedGames.get(i));
+				final SkatGameData actual = game.getGameData();
+				assertEquals(expected.getGameType(), actual.getGameType());
+				assertEquals(expected.getDeclarer(), actual.getDeclarer());
+				assertEquals(expected.getTricks().size(), actual.getTricks()
+						.size());
+				assertEquals(expected.getResult().getFinalDeclarerPoints(),
+						actual.getResult().getFinalDeclarerPoints());
+			}
+			assertFalse(iterator.hasNext());
+		} finally {
+			archive.close();
+		}
+
+		assertEquals(expectedGames.size(), archive.getReadGames());
+		assertEquals(1, archive.getFailedGames());
+	}
+
+	/**
+	 * Only the games passing the filter are aggregated
+	 */
+	@Test
+	public void testAggregate() throws IOException {
+
+		final IssGameArchive archive = createArchiveReader();
+		archive.setParseMoves(false);
+		archive.setFilter(new GameFilter() {
+			@Override
+			public boolean accept(final ArchiveGame game) {
+				return game.getGameData().getResult().isWon();
+			}
+		});
+
+		final List<Long> gameNumbers;
+		try {
+			gameNumbers = archive.aggregate(new GameAggregator<List<Long>>() {
+
+				@Override
+				public List<Long> createResult() {
+					return new ArrayList<Long>();
+				}
+
+				@Override
+				public void addGame(final List<Long> result,
+						final ArchiveGame game) {
+					assertTrue(game.getGameData().getTricks().isEmpty());
+					result.add(Long.valueOf(game.getGameNumber()));
+				}
+
+				@Override
+				public List<Long> merge(final List<Long> first,
+						final List<Long> second) {
+					first.addAll(second);
+					return first;
+				}
+			});
+		} finally {
+			archive.close();
+		}
+
+		final List<Long> expectedGameNumbers = new ArrayList<Long>();
+		final List<String> expectedGames = getExpectedGames();
+		for (int i = 0; i < expectedGames.size(); i++) {
+			if (MessageParser.parseGameSummary(expectedGames.get(i))
+					.getResult().isWon()) {
+				expectedGameNumbers.add(Long.valueOf(getExpectedGameNumber(i)));
+			}
+		}
+
+		assertFalse(expectedGameNumbers.isEmpty());
+		assertEquals(expectedGameNumbers, gameNumbers);
+	}
+
+	/**
+	 * The summary parts are found without regular expressions
+	 */
+	@Test
+	public void testParseSummaryWithoutMoves() {
+
+		final SkatGameData gameData = MessageParser.parseGameSummary(
+				"(;GM[Skat]P0[zoot]P1[kermit]P2[foo]MV[w ??.??]R[d:2 loss v:-54 m:-2 bidok p:59 t:4 s:0 z:0 p0:0 p1:0 p2:0 l:-1 to:-1 r:0] ;)", //$NON-NLS-1$
+				false);
+
+		assertEquals("kermit", gameData.getPlayerName(Player.MIDDLEHAND)); //$NON-NLS-1$
+		assertEquals(59, gameData.getResult().getFinalDeclarerPoints());
+		assertFalse(gameData.getResult().isWon());
+		assertTrue(gameData.getTricks().isEmpty());
+	}
+}
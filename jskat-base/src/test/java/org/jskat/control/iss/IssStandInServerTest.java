@@ -0,0 +1,153 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.iss;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringTokenizer;
+
+import org.jskat.AbstractJSkatTest;
+import org.jskat.data.SkatGameData;
+import org.jskat.data.Trick;
+import org.jskat.data.iss.MoveInformation;
+import org.jskat.util.GameType;
+import org.jskat.util.Player;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests for {@link IssStandInServer} and {@link IssGameRecorder}
+ */
+public class IssStandInServerTest extends AbstractJSkatTest {
+
+	private static List<String> games;
+
+	/**
+	 * Records some games played by random players
+	 */
+	@BeforeClass
+	public static void recordGames() throws ReflectiveOperationException {
+		games = IssStandInServer.playGames("org.jskat.ai.rnd.AIPlayerRND", //$NON-NLS-1$
+				20, 42L);
+	}
+
+	/**
+	 * Recorded games can be parsed as ISS game summaries
+	 */
+	@Test
+	public void testRecordedGamesParse() {
+
+		assertEquals(20, games.size());
+		for (final String game : games) {
+
+			final SkatGameData gameData = MessageParser.parseGameSummary(game);
+
+			for (final Player player : Player.values()) {
+				assertEquals(10, gameData.getDealtCards().get(player).size());
+			}
+			assertEquals(2, gameData.getDealtSkat().size());
+
+			if (game.contains("R[passed]")) { //$NON-NLS-1$
+				assertEquals(GameType.PASSED_IN, gameData.getGameType());
+			} else {
+				assertNotNull(gameData.getDeclarer());
+				assertTrue(gameData.getGameType() != GameType.PASSED_IN);
+				if (gameData.getGameType() != GameType.NULL) {
+					// null games end with the first trick of the declarer
+					assertEquals(10, gameData.getTricks().size());
+				}
+				for (final Trick trick : gameData.getTricks()) {
+					assertEquals(3, trick.getCardList().size());
+				}
+			}
+		}
+	}
+
+	/**
+	 * A session replays the games move by move
+	 */
+	@Test
+	public void testSession() throws IOException, InterruptedException {
+
+		final IssStandInServer server = new IssStandInServer(games);
+		server.setGamesPerSession(3);
+		server.setRecordMoveTimes(true);
+		final int port = server.start(0);
+
+		final Socket socket = new Socket("localhost", port); //$NON-NLS-1$
+		final BufferedReader input = new BufferedReader(new InputStreamReader(
+				socket.getInputStream()));
+		final PrintWriter output = new PrintWriter(socket.getOutputStream(),
+				true);
+
+		output.println("foo"); //$NON-NLS-1$
+		assertEquals("password:", input.readLine()); //$NON-NLS-1$
+		output.println("bar"); //$NON-NLS-1$
+
+		final List<String> lines = new ArrayList<String>();
+		String line;
+		while ((line = input.readLine()) != null) {
+			lines.add(line);
+		}
+		socket.close();
+		server.stop();
+
+		assertTrue(lines.get(0).startsWith("Welcome foo ")); //$NON-NLS-1$
+		assertEquals("create .1 foo 3", lines.get(1)); //$NON-NLS-1$
+		assertEquals("destroy .1", lines.get(lines.size() - 1)); //$NON-NLS-1$
+
+		int moves = 0;
+		int endedGames = 0;
+		for (final String message : lines) {
+			final List<String> tokens = tokenize(message);
+			if (message.startsWith("table .1 foo play ")) { //$NON-NLS-1$
+				final List<String> params = tokens.subList(4, tokens.size());
+				final MoveInformation move = MessageParser
+						.getMoveInformation(params);
+				assertNotNull(move.getType());
+				moves++;
+			} else if (message.startsWith("table .1 foo end ")) { //$NON-NLS-1$
+				assertEquals(games.get(1 + endedGames), message
+						.substring("table .1 foo end ".length())); //$NON-NLS-1$
+				endedGames++;
+			}
+		}
+
+		assertEquals(3, endedGames);
+		assertEquals(moves, server.getMoveTimes("foo").size()); //$NON-NLS-1$
+		assertEquals(lines.size() + 1, server.getSentMessages());
+		assertEquals(1, server.getFinishedSessions());
+	}
+
+	private static List<String> tokenize(final String message) {
+
+		final List<String> result = new ArrayList<String>();
+		final StringTokenizer tokenizer = new StringTokenizer(message);
+		while (tokenizer.hasMoreTokens()) {
+			result.add(tokenizer.nextToken());
+		}
+		return result;
+	}
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.iss;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.jskat.AbstractJSkatTest;
+import org.junit.Test;
+
+/**
+ * Tests for {@link MessageHandler}
+ */
+public class MessageHandlerTest extends AbstractJSkatTest {
+
+	/**
+	 * Messages are handled in the order they were received
+	 */
+	@Test
+	public void testMessageOrder() throws InterruptedException {
+
+		final List<String> handledMessages = new ArrayList<String>();
+		final MessageHandler handler = new MessageHandler(null, null, 4) {
+			@Override
+			void handleMessage(final String message) {
+				handledMessages.add(message);
+			}
+		};
+		handler.start();
+
+		for (int i = 0; i < 100; i++) {
+			handler.addMessage("message " + i); //$NON-NLS-1$
+		}
+		handler.addMessage(null);
+		handler.join(5000);
+
+		assertFalse(handler.isAlive());
+		assertEquals(101, handledMessages.size());
+		for (int i = 0; i < 100; i++) {
+			assertEquals("message " + i, handledMessages.get(i)); //$NON-NLS-1$
+		}
+		assertEquals(101, handler.getMessageCount());
+		assertEquals(0, handler.getQueuedMessageCount());
+	}
+
+	/**
+	 * The reading thread waits while the message queue is full
+	 */
+	@Test
+	public void testBackpressure() throws InterruptedException {
+
+		final CountDownLatch release = new CountDownLatch(1);
+		final MessageHandler handler = new MessageHandler(null, null, 1) {
+			@Override
+			void handleMessage(final String message) {
+				try {
+					release.await();
+				} catch (final InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		};
+		handler.start();
+
+		final Thread reader = new Thread() {
+			@Override
+			public void run() {
+				for (int i = 0; i < 3; i++) {
+					handler.addMessage("message " + i); //$NON-NLS-1$
+				}
+				handler.addMessage(null);
+			}
+		};
+		reader.start();
+		reader.join(200);
+
+		// one message is handled, one waits in the queue, one is blocked
+		assertTrue(reader.isAlive());
+		assertEquals(1, handler.getQueuedMessageCount());
+
+		release.countDown();
+		reader.join(5000);
+		handler.join(5000);
+
+		assertFalse(handler.isAlive());
+		assertEquals(4, handler.getMessageCount());
+		assertTrue(handler.getMaxLatencyMillis() >= handler
+				.getAverageLatencyMillis());
+		assertTrue(handler.getMaxLatencyMillis() > 0.0);
+	}
+
+	/**
+	 * Interrupting the handler stops it
+	 */
+	@Test
+	public void testInterrupt() throws InterruptedException {
+
+		final MessageHandler handler = new MessageHandler(null, null,
+				MessageHandler.DEFAULT_QUEUE_CAPACITY);
+		handler.start();
+		handler.interrupt();
+		handler.join(5000);
+
+		assertFalse(handler.isAlive());
+		assertEquals(0, handler.getMessageCount());
+		assertEquals(0.0, handler.getAverageLatencyMillis(), 0.0);
+	}
+}
@@ -0,0 +1,203 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.iss;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.jskat.AbstractJSkatTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for {@link NioIssConnector} against a local server
+ */
+public class NioIssConnectorTest extends AbstractJSkatTest {
+
+	private static final int SESSIONS = 50;
+	private static final int LINES = 200;
+
+	private NioIssSelector selector;
+	private ServerSocket server;
+
+	/**
+	 * Starts the selector and the local server
+	 */
+	@Before
+	public void setUp() throws IOException {
+
+		selector = new NioIssSelector(2);
+		selector.start();
+		server = new ServerSocket(0);
+	}
+
+	/**
+	 * Stops the selector and the local server
+	 */
+	@After
+	public void tearDown() throws IOException {
+
+		selector.shutdown();
+		server.close();
+	}
+
+	/**
+	 * Many sessions receive their lines in order and can send messages
+	 */
+	@Test
+	public void testManySessions() throws Exception {
+
+		final List<String> answers = Collections
+				.synchronizedList(new ArrayList<String>());
+		final Thread serverThread = startServer(SESSIONS, LINES, answers);
+
+		final List<RecordingConnector> connectors = new ArrayList<RecordingConnector>();
+		for (int i = 0; i < SESSIONS; i++) {
+			final RecordingConnector connector = new RecordingConnector(
+					selector, MessageHandler.DEFAULT_QUEUE_CAPACITY, 0);
+			connector.connect(getServerAddress(), null);
+			connector.sendMessage("login " + i); //$NON-NLS-1$
+			connectors.add(connector);
+		}
+
+		for (final RecordingConnector connector : connectors) {
+			assertTrue(connector.closed.await(10, TimeUnit.SECONDS));
+			assertReceivedInOrder(connector);
+		}
+		serverThread.join(10000);
+
+		assertEquals(SESSIONS, answers.size());
+		for (int i = 0; i < SESSIONS; i++) {
+			assertTrue(answers.contains("login " + i)); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * A slow message handler stops the reading but loses no lines
+	 */
+	@Test
+	public void testBackpressure() throws Exception {
+
+		final Thread serverThread = startServer(1, LINES,
+				Collections.synchronizedList(new ArrayList<String>()));
+
+		final RecordingConnector connector = new RecordingConnector(selector,
+				2, 1);
+		connector.connect(getServerAddress(), null);
+		connector.sendMessage("login"); //$NON-NLS-1$
+
+		assertTrue(connector.closed.await(30, TimeUnit.SECONDS));
+		assertReceivedInOrder(connector);
+		serverThread.join(10000);
+	}
+
+	private InetSocketAddress getServerAddress() {
+		return new InetSocketAddress("localhost", server.getLocalPort()); //$NON-NLS-1$
+	}
+
+	private static void assertReceivedInOrder(
+			final RecordingConnector connector) {
+
+		assertEquals(LINES + 1, connector.messages.size());
+		for (int i = 0; i < LINES; i++) {
+			assertEquals("line " + i, connector.messages.get(i)); //$NON-NLS-1$
+		}
+		assertEquals(null, connector.messages.get(LINES));
+	}
+
+	private Thread startServer(final int sessions, final int lines,
+			final List<String> answers) {
+
+		final Thread serverThread = new Thread() {
+			@Override
+			public void run() {
+				try {
+					for (int i = 0; i < sessions; i++) {
+						final Socket socket = server.accept();
+						final BufferedReader reader = new BufferedReader(
+								new InputStreamReader(socket.getInputStream()));
+						answers.add(reader.readLine());
+						final PrintWriter writer = new PrintWriter(
+								socket.getOutputStream());
+						for (int j = 0; j < lines; j++) {
+							writer.print("line " + j + "\r\n"); //$NON-NLS-1$ //$NON-NLS-2$
+						}
+						writer.flush();
+						socket.close();
+					}
+				} catch (final IOException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		};
+		serverThread.start();
+		return serverThread;
+	}
+
+	/**
+	 * Connector that records the handled messages
+	 */
+	private static class RecordingConnector extends NioIssConnector {
+
+		final List<String> messages = Collections
+				.synchronizedList(new ArrayList<String>());
+		final CountDownLatch closed = new CountDownLatch(1);
+
+		private final int queueCapacity;
+		private final long handlingMillis;
+
+		RecordingConnector(final NioIssSelector newSelector,
+				final int newQueueCapacity, final long newHandlingMillis) {
+			super(newSelector);
+			queueCapacity = newQueueCapacity;
+			handlingMillis = newHandlingMillis;
+		}
+
+		@Override
+		MessageHandler createMessageHandler(final IssController issControl) {
+			return new MessageHandler(this, issControl, queueCapacity) {
+				@Override
+				void handleMessage(final String message) {
+					if (handlingMillis > 0) {
+						try {
+							Thread.sleep(handlingMillis);
+						} catch (final InterruptedException e) {
+							Thread.currentThread().interrupt();
+						}
+					}
+					messages.add(message);
+					if (message == null) {
+						closed.countDown();
+					}
+				}
+			};
+		}
+	}
+}
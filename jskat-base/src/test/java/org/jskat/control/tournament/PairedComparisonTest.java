@@ -0,0 +1,49 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.tournament;
+
+import static org.junit.Assert.assertEquals;
+
+import org.jskat.AbstractJSkatTest;
+import org.junit.Test;
+
+/**
+ * Tests for {@link PairedComparison}
+ */
+public class PairedComparisonTest extends AbstractJSkatTest {
+
+	private static final double DELTA = 0.001;
+
+	/**
+	 * Mean and confidence interval of the score differences
+	 */
+	@Test
+	public void testConfidenceInterval() {
+
+		PairedComparison comparison = new PairedComparison("A", "B"); //$NON-NLS-1$ //$NON-NLS-2$
+		comparison.addDeal(10.0);
+		comparison.addDeal(20.0);
+		comparison.addDeal(30.0);
+		comparison.addDeal(40.0);
+
+		assertEquals(4, comparison.getDeals());
+		assertEquals(25.0, comparison.getMeanDifference(), DELTA);
+		// standard deviation 12.910, standard error 6.455
+		double[] interval = comparison.getConfidenceInterval();
+		assertEquals(12.348, interval[0], DELTA);
+		assertEquals(37.652, interval[1], DELTA);
+	}
+}
@@ -0,0 +1,88 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.tournament;
+
+import static org.junit.Assert.assertEquals;
+
+import org.jskat.AbstractJSkatTest;
+import org.junit.Test;
+
+/**
+ * Tests for {@link PlayerStatistics}
+ */
+public class PlayerStatisticsTest extends AbstractJSkatTest {
+
+	private static final double DELTA = 0.001;
+
+	/**
+	 * Confidence interval of a win rate of 50%
+	 */
+	@Test
+	public void testWinRateConfidenceInterval() {
+
+		PlayerStatistics statistics = new PlayerStatistics("Test"); //$NON-NLS-1$
+		for (int i = 0; i < 100; i++) {
+			statistics.addDeclarerGame(i % 2 == 0, 24);
+		}
+
+		assertEquals(0.5, statistics.getWinRate(), DELTA);
+		double[] interval = statistics.getWinRateConfidenceInterval();
+		assertEquals(0.404, interval[0], DELTA);
+		assertEquals(0.596, interval[1], DELTA);
+	}
+
+	/**
+	 * The confidence interval stays within 0 and 1 if all games were won
+	 */
+	@Test
+	public void testWinRateConfidenceIntervalAllWon() {
+
+		PlayerStatistics statistics = new PlayerStatistics("Test"); //$NON-NLS-1$
+		for (int i = 0; i < 10; i++) {
+			statistics.addDeclarerGame(true, 24);
+		}
+
+		double[] interval = statistics.getWinRateConfidenceInterval();
+		assertEquals(0.722, interval[0], DELTA);
+		assertEquals(1.0, interval[1], DELTA);
+	}
+
+	/**
+	 * Statistics of several series are added up
+	 */
+	@Test
+	public void testAdd() {
+
+		PlayerStatistics first = new PlayerStatistics("Test"); //$NON-NLS-1$
+		first.addGame(74);
+		first.addDeclarerGame(true, 24);
+		first.addDecision(2000000L);
+		PlayerStatistics second = new PlayerStatistics("Test"); //$NON-NLS-1$
+		second.addGame(-98);
+		second.addDeclarerGame(false, -48);
+		second.addDecision(4000000L);
+
+		first.add(second);
+
+		assertEquals(2, first.getGames());
+		assertEquals(-24, first.getScore());
+		assertEquals(-12.0, first.getAverageScore(), DELTA);
+		assertEquals(2, first.getDeclarerGames());
+		assertEquals(1, first.getDeclarerWins());
+		assertEquals(-24, first.getDeclarerScore());
+		assertEquals(3.0, first.getAverageDecisionMillis(), DELTA);
+	}
+}
@@ -0,0 +1,184 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.tournament;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jskat.AbstractJSkatTest;
+import org.jskat.ai.newalgorithm.AlgorithmAI;
+import org.jskat.ai.rnd.AIPlayerRND;
+import org.junit.Test;
+
+/**
+ * Tests for {@link TournamentRunner}
+ */
+public class TournamentRunnerTest extends AbstractJSkatTest {
+
+	private static final String RND = AIPlayerRND.class.getName();
+	private static final String ALGORITHM = AlgorithmAI.class.getName();
+
+	/**
+	 * Player classes are found by their simple name
+	 */
+	@Test
+	public void testResolvePlayerClass() {
+		assertEquals(RND, TournamentRunner.resolvePlayerClass("AIPlayerRND")); //$NON-NLS-1$
+		assertEquals(RND, TournamentRunner.resolvePlayerClass(RND));
+	}
+
+	/**
+	 * Unknown player classes are rejected
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testResolveUnknownPlayerClass() {
+		TournamentRunner.resolvePlayerClass("UnknownPlayer"); //$NON-NLS-1$
+	}
+
+	/**
+	 * Every combination of three player classes gets its own table
+	 */
+	@Test
+	public void testCreateTables() {
+
+		TournamentRunner runner = new TournamentRunner(Arrays.asList("A", //$NON-NLS-1$
+				"B", "C", "D")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		List<String[]> tables = runner.createTables();
+		assertEquals(4, tables.size());
+		assertArrayEquals(new String[] { "A", "B", "C" }, tables.get(0)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertArrayEquals(new String[] { "B", "C", "D" }, tables.get(3)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+		runner = new TournamentRunner(Arrays.asList("A", "B")); //$NON-NLS-1$ //$NON-NLS-2$
+		tables = runner.createTables();
+		assertEquals(2, tables.size());
+		assertArrayEquals(new String[] { "A", "A", "B" }, tables.get(0)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertArrayEquals(new String[] { "A", "B", "B" }, tables.get(1)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	/**
+	 * All games of all series are played and written
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testRunTournament() throws Exception {
+
+		TournamentRunner runner = new TournamentRunner(Arrays.asList(RND));
+		runner.setSeriesCount(3);
+		runner.setRounds(2);
+		runner.setSeed(42L);
+		runner.setThreadCount(2);
+		StringWriter output = new StringWriter();
+		CsvGameResultWriter writer = new CsvGameResultWriter(output);
+		runner.setGameResultWriter(writer);
+
+		TournamentResult result = runner.run();
+		writer.close();
+
+		assertEquals(18, result.getPlayedGames());
+		assertEquals(0, result.getFailedGames());
+		assertTrue(result.getGamesPerSecond() > 0.0);
+
+		PlayerStatistics statistics = result
+				.getPlayerStatistics("AIPlayerRND"); //$NON-NLS-1$
+		// three players per game
+		assertEquals(54, statistics.getGames());
+		assertTrue(statistics.getDecisions() > 0);
+		assertTrue(statistics.getDeclarerWins() <= statistics
+				.getDeclarerGames());
+
+		String[] lines = output.toString().split("\n"); //$NON-NLS-1$
+		assertEquals(19, lines.length);
+		assertTrue(lines[0].startsWith("series,game,forehand")); //$NON-NLS-1$
+		assertTrue(lines[1].contains(",AIPlayerRND,AIPlayerRND,AIPlayerRND,")); //$NON-NLS-1$
+	}
+
+	/**
+	 * Game results are written as one JSON object per line
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testRunTournamentJson() throws Exception {
+
+		TournamentRunner runner = new TournamentRunner(Arrays.asList(RND));
+		runner.setSeed(42L);
+		StringWriter output = new StringWriter();
+		JsonGameResultWriter writer = new JsonGameResultWriter(output);
+		runner.setGameResultWriter(writer);
+
+		runner.run();
+		writer.close();
+
+		String[] lines = output.toString().split("\n"); //$NON-NLS-1$
+		assertEquals(3, lines.length);
+		for (String line : lines) {
+			assertTrue(line.startsWith("{\"series\":1,\"game\":")); //$NON-NLS-1$
+			assertTrue(line.contains("\"players\":[\"AIPlayerRND\",\"AIPlayerRND\",\"AIPlayerRND\"]")); //$NON-NLS-1$
+			assertTrue(line.endsWith("}")); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Every deal is played with all different orders of the players
+	 */
+	@Test
+	public void testCreatePermutations() {
+
+		List<String[]> permutations = TournamentRunner
+				.createPermutations(new String[] { "A", "B", "C" }); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertEquals(6, permutations.size());
+		assertArrayEquals(new String[] { "A", "B", "C" }, permutations.get(0)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+		permutations = TournamentRunner.createPermutations(new String[] {
+				"A", "A", "B" }); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertEquals(3, permutations.size());
+	}
+
+	/**
+	 * Duplicate deals are compared pairwise
+	 * 
+	 * @throws Exception
+	 */
+	@Test
+	public void testRunDuplicateTournament() throws Exception {
+
+		TournamentRunner runner = new TournamentRunner(Arrays.asList(RND,
+				ALGORITHM));
+		runner.setDuplicateDeals(2);
+		runner.setSeed(42L);
+		runner.setThreadCount(2);
+
+		TournamentResult result = runner.run();
+
+		// two tables with three permutations each
+		assertEquals(12, result.getPlayedGames());
+		assertEquals(0, result.getFailedGames());
+		assertEquals(1, result.getPairedComparisons().size());
+		PairedComparison comparison = result.getPairedComparisons()
+				.iterator().next();
+		assertEquals("AIPlayerRND", comparison.getPlayerClass()); //$NON-NLS-1$
+		assertEquals("AlgorithmAI", comparison.getOtherPlayerClass()); //$NON-NLS-1$
+		assertEquals(4, comparison.getDeals());
+		assertEquals(36, result.getPlayerStatistics("AIPlayerRND").getGames() //$NON-NLS-1$
+				+ result.getPlayerStatistics("AlgorithmAI").getGames()); //$NON-NLS-1$
+	}
+}
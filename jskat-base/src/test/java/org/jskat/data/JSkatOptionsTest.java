@@ -102,6 +102,26 @@ public class JSkatOptionsTest extends AbstractJSkatTest {
 		// ISS defaults
 		assertEquals("skatgame.net", options.getString(Option.ISS_ADDRESS)); //$NON-NLS-1$
 		assertEquals(Integer.valueOf(7000), options.getInteger(Option.ISS_PORT));
+
+		// AI defaults
+		assertEquals(Integer.valueOf(0), options.getAiDecisionTimeBudget());
+	}
+
+	/**
+	 * Tests that the skat table options get the decision time budget of the
+	 * AI players
+	 */
+	@Test
+	public void testSkatTableOptionsAiDecisionTimeBudget() {
+
+		JSkatOptions options = JSkatOptions.instance();
+		options.setDefaultProperties(new DesktopSavePathResolver());
+		options.setAiDecisionTimeBudget(Integer.valueOf(500));
+
+		assertEquals(Integer.valueOf(500), options.getSkatTableOptions()
+				.getAiDecisionTimeBudget());
+
+		options.setDefaultProperties(new DesktopSavePathResolver());
 	}
 
 	@Test
@@ -0,0 +1,237 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jskat.AbstractJSkatTest;
+import org.jskat.data.GameSummary.GameSummaryFactory;
+import org.jskat.util.GameType;
+import org.jskat.util.Player;
+import org.junit.Test;
+
+/**
+ * Tests for {@link SeriesHistory}
+ */
+public class SeriesHistoryTest extends AbstractJSkatTest {
+
+	/**
+	 * Creates the summary of a finished game
+	 * 
+	 * @param index
+	 *            Index of the game, the values of the summary depend on it
+	 * @return Game summary
+	 */
+	public static SeriesGameSummary createGame(final int index) {
+
+		GameSummaryFactory factory = GameSummary.getFactory();
+		factory.setForeHand("A"); //$NON-NLS-1$
+		factory.setMiddleHand("B"); //$NON-NLS-1$
+		factory.setRearHand("C"); //$NON-NLS-1$
+		factory.setGameType(index % 5 == 0 ? GameType.RAMSCH : GameType.GRAND);
+		if (index % 5 != 0) {
+			factory.setDeclarer(Player.values()[index % 3]);
+		}
+		factory.setHand(Boolean.valueOf(index % 2 == 0));
+		factory.setOuvert(Boolean.FALSE);
+		factory.setSchneider(Boolean.valueOf(index % 3 == 0));
+		factory.setSchwarz(Boolean.FALSE);
+		factory.setContra(Boolean.valueOf(index % 4 == 0));
+		factory.setRe(Boolean.FALSE);
+		Map<Player, Integer> points = new HashMap<Player, Integer>();
+		for (Player player : Player.values()) {
+			points.put(player, Integer.valueOf(40));
+		}
+		factory.setPlayerPoints(points);
+		SkatGameResult result = new SkatGameResult();
+		result.setWon(index % 2 == 1);
+		result.setGameValue(index * 24 - 500);
+		result.setFinalDeclarerPoints(index % 121);
+		factory.setGameResult(result);
+
+		return SeriesGameSummary.fromGameSummary(index % 3,
+				factory.getSummary());
+	}
+
+	private static File createSpillFile() throws IOException {
+		File result = File.createTempFile("jskat", ".history"); //$NON-NLS-1$ //$NON-NLS-2$
+		result.delete();
+		result.deleteOnExit();
+		return result;
+	}
+
+	/**
+	 * Summaries keep the values of the game summary
+	 */
+	@Test
+	public void testSummary() {
+
+		SeriesGameSummary game = createGame(4);
+
+		assertEquals(1, game.getForeHandSeat());
+		assertEquals(Player.MIDDLEHAND, game.getDeclarer());
+		assertEquals(2, game.getDeclarerSeat());
+		assertEquals(GameType.GRAND, game.getGameType());
+		assertTrue(game.isHand());
+		assertFalse(game.isSchneider());
+		assertTrue(game.isContra());
+		assertFalse(game.isGameWon());
+		assertEquals(4 * 24 - 500, game.getGameValue());
+		assertEquals(4, game.getDeclarerPoints());
+
+		SeriesGameSummary ramsch = createGame(5);
+		assertNull(ramsch.getDeclarer());
+		assertEquals(-1, ramsch.getDeclarerSeat());
+	}
+
+	/**
+	 * Only the latest games stay in memory, all games can be read
+	 */
+	@Test
+	public void testSpill() throws IOException {
+
+		SeriesHistory history = new SeriesHistory(4);
+		try {
+			for (int i = 0; i < 25; i++) {
+				history.add(createGame(i));
+			}
+
+			assertEquals(25, history.size());
+			assertEquals(21, history.getSpilledGames());
+			for (int i = 0; i < 25; i++) {
+				assertEquals(createGame(i), history.get(i));
+			}
+
+			// across spilled and held games
+			List<SeriesGameSummary> games = history.getGames(18, 5);
+			assertEquals(5, games.size());
+			for (int i = 0; i < 5; i++) {
+				assertEquals(createGame(18 + i), games.get(i));
+			}
+			// at the end of the history
+			assertEquals(3, history.getGames(22, 10).size());
+		} finally {
+			history.close();
+		}
+	}
+
+	/**
+	 * An existing spill file is continued, an incomplete record is cut off
+	 */
+	@Test
+	public void testReopen() throws IOException {
+
+		File spillFile = createSpillFile();
+
+		SeriesHistory history = new SeriesHistory(2, spillFile);
+		for (int i = 0; i < 12; i++) {
+			history.add(createGame(i));
+		}
+		history.close();
+		assertTrue(spillFile.exists());
+
+		// simulate a crash while writing a record
+		RandomAccessFile access = new RandomAccessFile(spillFile, "rw"); //$NON-NLS-1$
+		try {
+			access.setLength(access.length() + 3);
+		} finally {
+			access.close();
+		}
+
+		history = new SeriesHistory(2, spillFile);
+		try {
+			// all games are written to a given spill file at once
+			assertEquals(12, history.size());
+			history.add(createGame(12));
+			history.add(createGame(13));
+			history.add(createGame(14));
+
+			List<SeriesGameSummary> expected = new ArrayList<SeriesGameSummary>();
+			for (int i = 0; i < 15; i++) {
+				expected.add(createGame(i));
+			}
+			assertEquals(expected, history.getGames(0, 20));
+		} finally {
+			history.close();
+		}
+	}
+
+	/**
+	 * The latest games are removed from a history with a spill file
+	 */
+	@Test
+	public void testTruncate() throws IOException {
+
+		File spillFile = createSpillFile();
+
+		SeriesHistory history = new SeriesHistory(3, spillFile);
+		for (int i = 0; i < 8; i++) {
+			history.add(createGame(i));
+		}
+		history.truncate(6);
+		assertEquals(6, history.size());
+		assertEquals(createGame(5), history.get(5));
+		history.add(createGame(10));
+		assertEquals(createGame(10), history.get(6));
+		history.close();
+
+		history = new SeriesHistory(3, spillFile);
+		try {
+			assertEquals(7, history.size());
+			assertEquals(createGame(4), history.get(4));
+			assertEquals(createGame(10), history.get(6));
+		} finally {
+			history.close();
+		}
+	}
+
+	/**
+	 * Wrong indices are rejected
+	 */
+	@Test(expected = IndexOutOfBoundsException.class)
+	public void testWrongIndex() throws IOException {
+
+		SeriesHistory history = new SeriesHistory(2);
+		try {
+			history.add(createGame(0));
+			history.get(1);
+		} finally {
+			history.close();
+		}
+	}
+
+	/**
+	 * A closed history can't be used anymore
+	 */
+	@Test(expected = IllegalStateException.class)
+	public void testClosed() throws IOException {
+
+		SeriesHistory history = new SeriesHistory(2);
+		history.close();
+		history.add(createGame(0));
+	}
+}
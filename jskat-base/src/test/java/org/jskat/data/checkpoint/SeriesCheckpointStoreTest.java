@@ -0,0 +1,258 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.data.checkpoint;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.util.List;
+
+import org.jskat.AbstractJSkatTest;
+import org.jskat.data.SeriesHistoryTest;
+import org.jskat.util.CardDeck;
+import org.jskat.util.Player;
+import org.junit.Test;
+
+/**
+ * Tests for {@link SeriesCheckpointStore}
+ */
+public class SeriesCheckpointStoreTest extends AbstractJSkatTest {
+
+	private static File createStoreDirectory() throws IOException {
+		final File result = File.createTempFile("jskat", ".series"); //$NON-NLS-1$ //$NON-NLS-2$
+		result.delete();
+		result.mkdirs();
+		result.deleteOnExit();
+		return result;
+	}
+
+	private static SeriesCheckpoint createCheckpoint(final String seriesId,
+			final int gameCount, final boolean gameRunning) {
+
+		final SeriesCheckpoint result = new SeriesCheckpoint();
+		result.setSeriesId(seriesId);
+		result.setTableName("Table " + seriesId); //$NON-NLS-1$
+		result.setPlayer(0, "org.jskat.ai.rnd.AIPlayerRND", "Anna"); //$NON-NLS-1$ //$NON-NLS-2$
+		result.setPlayer(1, "org.jskat.ai.rnd.AIPlayerRND", null); //$NON-NLS-1$
+		result.setPlayer(2, "org.jskat.ai.nn.AIPlayerNN", "Carl"); //$NON-NLS-1$ //$NON-NLS-2$
+		result.setUnlimitedRounds(true);
+		result.setRoundsToGo(10 - gameCount / 3);
+		result.setGameInRound(Math.max(0, gameCount - 1) % 3);
+		result.setGameCount(gameCount);
+		result.setForeHandSeat(gameCount % 3);
+		result.setBottomPlayer(Player.values()[gameCount % 3]);
+		for (int seat = 0; seat < SeriesCheckpoint.SEATS; seat++) {
+			result.setScore(seat, gameCount * 10 - seat * 23);
+		}
+		result.setHistorySize(gameRunning ? gameCount - 1 : gameCount);
+		if (gameRunning) {
+			final CardDeck deck = new CardDeck();
+			deck.shuffle();
+			result.setDeck(deck);
+		}
+		return result;
+	}
+
+	private static void assertCheckpoint(final SeriesCheckpoint expected,
+			final SeriesCheckpoint actual) {
+
+		assertEquals(expected.getSeriesId(), actual.getSeriesId());
+		assertEquals(expected.getTableName(), actual.getTableName());
+		for (int seat = 0; seat < SeriesCheckpoint.SEATS; seat++) {
+			assertEquals(expected.getPlayerClass(seat),
+					actual.getPlayerClass(seat));
+			assertEquals(expected.getPlayerName(seat),
+					actual.getPlayerName(seat));
+			assertEquals(expected.getScore(seat), actual.getScore(seat));
+		}
+		assertEquals(expected.isOnlyPlayRamsch(), actual.isOnlyPlayRamsch());
+		assertEquals(expected.isUnlimitedRounds(), actual.isUnlimitedRounds());
+		assertEquals(expected.getRoundsToGo(), actual.getRoundsToGo());
+		assertEquals(expected.getGameInRound(), actual.getGameInRound());
+		assertEquals(expected.getGameCount(), actual.getGameCount());
+		assertEquals(expected.getForeHandSeat(), actual.getForeHandSeat());
+		assertEquals(expected.getBottomPlayer(), actual.getBottomPlayer());
+		assertEquals(expected.getHistorySize(), actual.getHistorySize());
+		assertEquals(expected.isFinished(), actual.isFinished());
+		assertEquals(expected.getDeck(), actual.getDeck());
+	}
+
+	private static int countLogs(final File directory) {
+		return directory.list(new FilenameFilter() {
+			@Override
+			public boolean accept(final File dir, final String name) {
+				return name.endsWith(".log"); //$NON-NLS-1$
+			}
+		}).length;
+	}
+
+	/**
+	 * The latest checkpoint is restored from the snapshot and the log, older
+	 * logs are deleted after the snapshots
+	 */
+	@Test
+	public void testCheckpointAndRestore() throws IOException {
+
+		final File directory = createStoreDirectory();
+
+		SeriesCheckpointStore store = new SeriesCheckpointStore(directory, 4);
+		final SeriesCheckpointWriter writer = store.create(createCheckpoint(
+				"A/1", 0, false)); //$NON-NLS-1$
+		SeriesCheckpoint latest = null;
+		for (int game = 1; game <= 11; game++) {
+			writer.checkpoint(createCheckpoint("A/1", game, true)); //$NON-NLS-1$
+			latest = createCheckpoint("A/1", game, false); //$NON-NLS-1$
+			writer.checkpoint(latest);
+		}
+		final SeriesCheckpoint running = createCheckpoint("A/1", 12, true); //$NON-NLS-1$
+		writer.checkpoint(running);
+		writer.close();
+		store.close();
+
+		assertEquals(1, countLogs(directory));
+
+		store = new SeriesCheckpointStore(directory, 4);
+		try {
+			assertCheckpoint(running, store.restore("A/1")); //$NON-NLS-1$
+			assertNull(store.restore("B")); //$NON-NLS-1$
+
+			final List<SeriesCheckpoint> all = store.restoreAll();
+			assertEquals(1, all.size());
+			assertCheckpoint(running, all.get(0));
+		} finally {
+			store.close();
+		}
+	}
+
+	/**
+	 * A series without a snapshot is restored from its log, a record that was
+	 * written incompletely is ignored
+	 */
+	@Test
+	public void testTornRecord() throws IOException {
+
+		final File directory = createStoreDirectory();
+
+		SeriesCheckpointStore store = new SeriesCheckpointStore(directory);
+		final SeriesCheckpointWriter writer = store.create(createCheckpoint(
+				"torn", 0, false)); //$NON-NLS-1$
+		final SeriesCheckpoint expected = createCheckpoint("torn", 1, true); //$NON-NLS-1$
+		writer.checkpoint(expected);
+		writer.close();
+		store.close();
+
+		final File logFile = new File(directory, "torn.0.log"); //$NON-NLS-1$
+		assertTrue(logFile.exists());
+		final byte[] record = CheckpointCodec.encodeRecord(
+				CheckpointCodec.PROGRESS, createCheckpoint("torn", 2, false)); //$NON-NLS-1$
+		final FileOutputStream output = new FileOutputStream(logFile, true);
+		try {
+			output.write(record, 0, record.length - 3);
+		} finally {
+			output.close();
+		}
+
+		store = new SeriesCheckpointStore(directory);
+		try {
+			assertCheckpoint(expected, store.restore("torn")); //$NON-NLS-1$
+		} finally {
+			store.close();
+		}
+	}
+
+	/**
+	 * A resumed series continues its history and its log, games that were
+	 * added to the history after the checkpoint are removed
+	 */
+	@Test
+	public void testResume() throws IOException {
+
+		final File directory = createStoreDirectory();
+
+		SeriesCheckpointStore store = new SeriesCheckpointStore(directory, 3);
+		SeriesCheckpointWriter writer = store.create(createCheckpoint(
+				"resume", 0, false)); //$NON-NLS-1$
+		for (int game = 0; game < 5; game++) {
+			writer.getHistory().add(
+					SeriesHistoryTest.createGame(game));
+			writer.checkpoint(createCheckpoint("resume", game + 1, false)); //$NON-NLS-1$
+		}
+		// the JVM stops before the checkpoint of the 6th game
+		writer.getHistory().add(SeriesHistoryTest.createGame(5));
+		writer.close();
+		store.close();
+
+		store = new SeriesCheckpointStore(directory, 3);
+		try {
+			final SeriesCheckpoint restored = store.restore("resume"); //$NON-NLS-1$
+			assertEquals(5, restored.getHistorySize());
+
+			writer = store.resume(restored);
+			assertEquals(5, writer.getHistory().size());
+			assertEquals(SeriesHistoryTest.createGame(4),
+					writer.getHistory().get(4));
+			final SeriesCheckpoint latest = createCheckpoint("resume", 6, true); //$NON-NLS-1$
+			writer.checkpoint(latest);
+			writer.close();
+
+			assertCheckpoint(latest, store.restore("resume")); //$NON-NLS-1$
+		} finally {
+			store.close();
+		}
+
+		assertEquals(1, countLogs(directory));
+	}
+
+	/**
+	 * Hundreds of series are restored at once
+	 */
+	@Test
+	public void testRestoreManyTables() throws IOException {
+
+		final File directory = createStoreDirectory();
+		final int seriesCount = 300;
+
+		SeriesCheckpointStore store = new SeriesCheckpointStore(directory, 16);
+		for (int series = 0; series < seriesCount; series++) {
+			final String seriesId = "table " + series; //$NON-NLS-1$
+			final SeriesCheckpointWriter writer = store
+					.create(createCheckpoint(seriesId, 0, false));
+			for (int game = 1; game <= 20; game++) {
+				writer.checkpoint(createCheckpoint(seriesId, game,
+						game % 7 == 0));
+			}
+			writer.close();
+		}
+		store.close();
+
+		store = new SeriesCheckpointStore(directory, 16);
+		try {
+			final List<SeriesCheckpoint> all = store.restoreAll();
+
+			assertEquals(seriesCount, all.size());
+			for (final SeriesCheckpoint checkpoint : all) {
+				assertEquals(20, checkpoint.getGameCount());
+			}
+		} finally {
+			store.close();
+		}
+	}
+}
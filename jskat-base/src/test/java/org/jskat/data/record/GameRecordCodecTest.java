@@ -0,0 +1,189 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.data.record;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.jskat.AbstractJSkatTest;
+import org.jskat.ai.rnd.AIPlayerRND;
+import org.jskat.control.SkatGameEngine;
+import org.jskat.data.SkatGameData;
+import org.jskat.data.Trick;
+import org.jskat.util.Card;
+import org.jskat.util.CardDeck;
+import org.jskat.util.CardSet;
+import org.jskat.util.GameVariant;
+import org.jskat.util.Player;
+import org.junit.Test;
+import org.slf4j.helpers.NOPLogger;
+
+/**
+ * Tests for {@link GameRecordCodec}
+ */
+public class GameRecordCodecTest extends AbstractJSkatTest {
+
+	/**
+	 * Plays games with random players
+	 * 
+	 * @param numberOfGames
+	 *            Number of games
+	 * @param seed
+	 *            Seed for the card decks
+	 * @return Data of the played games
+	 */
+	static List<SkatGameData> playGames(final int numberOfGames,
+			final long seed) {
+
+		final List<SkatGameData> result = new ArrayList<SkatGameData>();
+		for (int i = 0; i < numberOfGames; i++) {
+			final SkatGameEngine engine = new SkatGameEngine("Record test", //$NON-NLS-1$
+					GameVariant.STANDARD, new AIPlayerRND(), new AIPlayerRND(),
+					new AIPlayerRND());
+			engine.setLogger(NOPLogger.NOP_LOGGER);
+			final CardDeck deck = new CardDeck();
+			deck.shuffle(new Random(seed + i));
+			engine.setCardDeck(deck);
+			engine.play();
+			result.add(engine.getGameData());
+		}
+		return result;
+	}
+
+	/**
+	 * Encoded games contain everything needed to restore them
+	 */
+	@Test
+	public void testRoundTrip() {
+
+		for (final SkatGameData data : playGames(100, 42L)) {
+
+			final GameRecord record = GameRecord.fromGameData(data);
+			final byte[] encoded = GameRecordCodec.encode(record);
+			assertTrue(encoded.length < 64);
+
+			final GameRecord decoded = GameRecordCodec.decode(encoded);
+			assertArrayEquals(encoded, GameRecordCodec.encode(decoded));
+
+			assertTrue(decoded.isDealKnown());
+			for (final Player player : Player.values()) {
+				assertEquals(CardSet.of(data.getDealtCards().get(player)),
+						decoded.getDealtCards(player));
+				assertEquals(data.getPlayerBids(player).size(),
+						decoded.getBidCount(player));
+				assertEquals(data.isPlayerPass(player), decoded.isPass(player));
+			}
+			assertEquals(CardSet.of(data.getDealtSkat()),
+					decoded.getDealtSkat());
+			assertEquals(data.getGameType(), decoded.getGameType());
+			assertEquals(data.getDeclarer(), decoded.getDeclarer());
+			assertEquals(data.getResult().getGameValue(),
+					decoded.getGameValue());
+			assertEquals(data.getResult().getFinalDeclarerPoints(),
+					decoded.getDeclarerPoints());
+
+			int cardIndex = 0;
+			for (final Trick trick : data.getTricks()) {
+				for (final Card card : trick.getCardList()) {
+					assertEquals(card, decoded.getPlayedCard(cardIndex++));
+				}
+				assertEquals(trick.getTrickWinner(),
+						decoded.getTrickWinner(trick.getTrickNumberInGame()));
+			}
+			assertEquals(cardIndex, decoded.getPlayedCardCount());
+
+			// the rebuilt game data leads to the same record
+			assertArrayEquals(encoded, GameRecordCodec.encode(GameRecord
+					.fromGameData(decoded.toGameData())));
+		}
+	}
+
+	/**
+	 * Rebuilt game data contains the tricks and the discarded skat
+	 */
+	@Test
+	public void testToGameData() {
+
+		for (final SkatGameData data : playGames(20, 7L)) {
+
+			final SkatGameData rebuilt = GameRecordCodec.decode(
+					GameRecordCodec.encode(GameRecord.fromGameData(data)))
+					.toGameData();
+
+			assertEquals(data.getTricks().size(), rebuilt.getTricks().size());
+			for (int i = 0; i < data.getTricks().size(); i++) {
+				assertEquals(data.getTricks().get(i).getForeHand(), rebuilt
+						.getTricks().get(i).getForeHand());
+				assertEquals(data.getTricks().get(i).getCardList(), rebuilt
+						.getTricks().get(i).getCardList());
+			}
+			if (data.getDeclarer() != null) {
+				// skat holds the discarded cards or the untouched skat
+				assertEquals(CardSet.of(data.getSkat()),
+						CardSet.of(rebuilt.getSkat()));
+				assertEquals(data.isHand(), rebuilt.isHand());
+			}
+			assertEquals(data.getResult().isWon(), rebuilt.getResult()
+					.isWon());
+		}
+	}
+
+	/**
+	 * Deals are restored from their rank
+	 */
+	@Test
+	public void testDealRank() {
+
+		final Random random = new Random(1L);
+		for (int i = 0; i < 1000; i++) {
+
+			final CardDeck deck = new CardDeck();
+			deck.shuffle(random);
+			final int[] hands = new int[3];
+			for (int hand = 0; hand < hands.length; hand++) {
+				for (int card = 0; card < 10; card++) {
+					hands[hand] |= CardSet.bit(deck.get(hand * 10 + card));
+				}
+			}
+
+			final long rank = GameRecordCodec.rankDeal(hands);
+			assertTrue(rank >= 0 && rank < 1L << 52);
+
+			final int[] restoredHands = new int[3];
+			final int skat = GameRecordCodec.unrankDeal(rank, restoredHands);
+			assertArrayEquals(hands, restoredHands);
+			assertEquals(CardSet.bit(deck.get(30)) | CardSet.bit(deck.get(31)),
+					skat);
+		}
+	}
+
+	/**
+	 * Records of unknown versions are rejected
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnknownVersion() {
+
+		final byte[] encoded = GameRecordCodec.encode(GameRecord
+				.fromGameData(playGames(1, 1L).get(0)));
+		encoded[0] = (byte) 0xF0;
+		GameRecordCodec.decode(encoded);
+	}
+}
@@ -0,0 +1,151 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.data.record;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jskat.AbstractJSkatTest;
+import org.jskat.data.SkatGameData;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+/**
+ * Tests for {@link GameRecordStore}
+ */
+public class GameRecordStoreTest extends AbstractJSkatTest {
+
+	private static List<GameRecord> records;
+
+	/**
+	 * Creates records of some random games
+	 */
+	@BeforeClass
+	public static void createRecords() {
+		records = new ArrayList<GameRecord>();
+		for (final SkatGameData data : GameRecordCodecTest.playGames(50, 3L)) {
+			records.add(GameRecord.fromGameData(data));
+		}
+	}
+
+	private static File createStoreDirectory() throws IOException {
+		final File result = File.createTempFile("jskat", ".games"); //$NON-NLS-1$ //$NON-NLS-2$
+		result.delete();
+		result.mkdirs();
+		result.deleteOnExit();
+		return result;
+	}
+
+	private static void assertRecord(final int index, final GameRecord actual) {
+		assertArrayEquals(GameRecordCodec.encode(records.get(index)),
+				GameRecordCodec.encode(actual));
+	}
+
+	/**
+	 * Records are found by their game number across segments and after
+	 * reopening the store
+	 */
+	@Test
+	public void testAppendAndRead() throws IOException {
+
+		final File directory = createStoreDirectory();
+
+		GameRecordStore store = new GameRecordStore(directory, 7);
+		try {
+			for (int i = 0; i < 30; i++) {
+				assertEquals(i, store.append(records.get(i)));
+			}
+			// unflushed records can be read, too
+			for (int i = 29; i >= 0; i -= 3) {
+				assertRecord(i, store.read(i));
+			}
+		} finally {
+			store.close();
+		}
+
+		// segment size of the existing store wins
+		store = new GameRecordStore(directory, 1000);
+		try {
+			assertEquals(30, store.size());
+			for (int i = 30; i < records.size(); i++) {
+				assertEquals(i, store.append(records.get(i)));
+			}
+			for (int i = 0; i < records.size(); i++) {
+				assertRecord(i, store.read(i));
+			}
+		} finally {
+			store.close();
+		}
+
+		assertEquals(8, directory.list().length / 2);
+	}
+
+	/**
+	 * Incompletely written records are cut off when the store is opened
+	 */
+	@Test
+	public void testIncompleteRecord() throws IOException {
+
+		final File directory = createStoreDirectory();
+
+		GameRecordStore store = new GameRecordStore(directory, 100);
+		try {
+			for (int i = 0; i < 10; i++) {
+				store.append(records.get(i));
+			}
+		} finally {
+			store.close();
+		}
+
+		// record data without index entry
+		appendBytes(new File(directory, "games-00000000.dat"), new byte[] { //$NON-NLS-1$
+				40, 1, 2, 3 });
+		// index entry pointing to the incomplete record
+		final File indexFile = new File(directory, "games-00000000.idx"); //$NON-NLS-1$
+		final int incompleteOffset = (int) new File(directory,
+				"games-00000000.dat").length() - 4; //$NON-NLS-1$
+		appendBytes(indexFile, new byte[] { 0, 0,
+				(byte) (incompleteOffset >>> 8), (byte) incompleteOffset, 1 });
+
+		store = new GameRecordStore(directory);
+		try {
+			assertEquals(10, store.size());
+			assertEquals(10, store.append(records.get(10)));
+			for (int i = 0; i <= 10; i++) {
+				assertRecord(i, store.read(i));
+			}
+		} finally {
+			store.close();
+		}
+	}
+
+	private static void appendBytes(final File file, final byte[] bytes)
+			throws IOException {
+		final RandomAccessFile output = new RandomAccessFile(file, "rw"); //$NON-NLS-1$
+		try {
+			output.seek(output.length());
+			output.write(bytes);
+		} finally {
+			output.close();
+		}
+	}
+}
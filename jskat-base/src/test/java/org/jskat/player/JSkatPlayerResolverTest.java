@@ -30,6 +30,6 @@ public class JSkatPlayerResolverTest extends AbstractJSkatTest {
 		Set<String> implementations = JSkatPlayerResolver
 				.getAllAIPlayerImplementations();
 
-		assertEquals(3, implementations.size());
+		assertEquals(4, implementations.size());
 	}
 }
@@ -0,0 +1,128 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.jskat.AbstractJSkatTest;
+import org.junit.Test;
+
+/**
+ * Test cases for class CardSet
+ */
+public class CardSetTest extends AbstractJSkatTest {
+
+	/**
+	 * Test conversion from and to card lists
+	 */
+	@Test
+	public void testConversion() {
+
+		CardList cards = new CardList();
+		cards.add(Card.DA);
+		cards.add(Card.CJ);
+		cards.add(null);
+		cards.add(Card.H7);
+
+		int cardSet = CardSet.of(cards);
+
+		assertEquals(3, CardSet.size(cardSet));
+		assertTrue(CardSet.contains(cardSet, Card.CJ));
+		assertFalse(CardSet.contains(cardSet, Card.SJ));
+		assertEquals(CardSet.of(Card.CJ, Card.H7, Card.DA), cardSet);
+
+		CardList result = CardSet.toCardList(cardSet);
+		assertEquals(3, result.size());
+		assertEquals(Card.CJ, result.get(0));
+		assertEquals(Card.H7, result.get(1));
+		assertEquals(Card.DA, result.get(2));
+	}
+
+	/**
+	 * Test adding, removing and iterating cards
+	 */
+	@Test
+	public void testAddRemoveIterate() {
+
+		int cardSet = CardSet.EMPTY;
+		for (Card card : Card.values()) {
+			cardSet = CardSet.add(cardSet, card);
+		}
+		assertEquals(CardSet.ALL, cardSet);
+		assertEquals(32, CardSet.size(cardSet));
+
+		cardSet = CardSet.remove(cardSet, Card.CA);
+		assertEquals(Card.CT, CardSet.getLowest(cardSet));
+
+		int count = 0;
+		for (int rest = cardSet; rest != CardSet.EMPTY; rest = CardSet
+				.removeLowest(rest)) {
+			assertTrue(CardSet.contains(cardSet, CardSet.getLowest(rest)));
+			count++;
+		}
+		assertEquals(31, count);
+	}
+
+	/**
+	 * Test suit and trump masks
+	 */
+	@Test
+	public void testMasks() {
+
+		assertEquals(4, CardSet.size(CardSet.JACKS));
+		for (Suit suit : Suit.values()) {
+			assertEquals(8, CardSet.size(CardSet.getSuitMask(suit)));
+		}
+
+		assertEquals(11, CardSet.size(CardSet.getTrumpMask(GameType.HEARTS)));
+		assertTrue(CardSet.contains(CardSet.getTrumpMask(GameType.HEARTS),
+				Card.H7));
+		assertTrue(CardSet.contains(CardSet.getTrumpMask(GameType.HEARTS),
+				Card.CJ));
+		assertEquals(CardSet.JACKS, CardSet.getTrumpMask(GameType.GRAND));
+		assertEquals(CardSet.JACKS, CardSet.getTrumpMask(GameType.RAMSCH));
+		assertEquals(CardSet.EMPTY, CardSet.getTrumpMask(GameType.NULL));
+
+		assertEquals(7, CardSet.size(CardSet.getNonTrumpSuitMask(
+				GameType.GRAND, Suit.CLUBS)));
+		assertEquals(8, CardSet.size(CardSet.getNonTrumpSuitMask(
+				GameType.NULL, Suit.CLUBS)));
+		assertEquals(CardSet.EMPTY, CardSet.getNonTrumpSuitMask(
+				GameType.CLUBS, Suit.CLUBS));
+	}
+
+	/**
+	 * Test card counting
+	 */
+	@Test
+	public void testCounts() {
+
+		int cardSet = CardSet.of(Card.CJ, Card.HJ, Card.HA, Card.H7, Card.SA,
+				Card.ST);
+
+		assertEquals(3, CardSet.getSuitCount(cardSet, Suit.HEARTS, true));
+		assertEquals(2, CardSet.getSuitCount(cardSet, Suit.HEARTS, false));
+		assertEquals(4, CardSet.getTrumpCount(cardSet, GameType.HEARTS));
+		assertEquals(2, CardSet.getTrumpCount(cardSet, GameType.GRAND));
+		assertEquals(0, CardSet.getTrumpCount(cardSet, GameType.NULL));
+		assertTrue(CardSet.hasJack(cardSet, Suit.CLUBS));
+		assertFalse(CardSet.hasJack(cardSet, Suit.SPADES));
+		assertEquals(2 + 2 + 11 + 0 + 11 + 10,
+				CardSet.getTotalValue(cardSet));
+	}
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.jskat.AbstractJSkatTest;
+import org.junit.Test;
+
+/**
+ * Test cases for class ConfidenceIntervals
+ */
+public class ConfidenceIntervalsTest extends AbstractJSkatTest {
+
+	private static final double DELTA = 0.0001;
+
+	/**
+	 * Tests the Wilson score interval without trials
+	 */
+	@Test
+	public void testWilsonIntervalNoTrials() {
+
+		double[] interval = ConfidenceIntervals.getWilsonInterval(0, 0);
+
+		assertEquals(0.0, interval[0], DELTA);
+		assertEquals(1.0, interval[1], DELTA);
+	}
+
+	/**
+	 * Tests the Wilson score interval for half of the trials won
+	 */
+	@Test
+	public void testWilsonInterval() {
+
+		double[] interval = ConfidenceIntervals.getWilsonInterval(50, 100);
+
+		assertEquals(0.4038, interval[0], DELTA);
+		assertEquals(0.5962, interval[1], DELTA);
+	}
+
+	/**
+	 * Tests that the single bounds are the bounds of the interval
+	 */
+	@Test
+	public void testWilsonBounds() {
+
+		double[] interval = ConfidenceIntervals.getWilsonInterval(7, 23);
+
+		assertEquals(interval[0],
+				ConfidenceIntervals.getWilsonLowerBound(7, 23), 0.0);
+		assertEquals(interval[1],
+				ConfidenceIntervals.getWilsonUpperBound(7, 23), 0.0);
+	}
+
+	/**
+	 * Tests that the Wilson score interval contains extreme rates
+	 */
+	@Test
+	public void testWilsonIntervalExtremeRates() {
+
+		double[] allLost = ConfidenceIntervals.getWilsonInterval(0, 10);
+		assertEquals(0.0, allLost[0], DELTA);
+		assertTrue(allLost[1] < 1.0);
+
+		double[] allWon = ConfidenceIntervals.getWilsonInterval(10, 10);
+		assertTrue(allWon[0] > 0.0);
+		assertEquals(1.0, allWon[1], DELTA);
+	}
+
+	/**
+	 * Tests the half width of the confidence interval of a mean
+	 */
+	@Test
+	public void testMeanHalfWidth() {
+
+		assertEquals(ConfidenceIntervals.Z_95,
+				ConfidenceIntervals.getMeanHalfWidth(100.0, 100), DELTA);
+	}
+}
@@ -0,0 +1,130 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.util.rule;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.jskat.AbstractJSkatTest;
+import org.jskat.util.Card;
+import org.jskat.util.CardList;
+import org.jskat.util.CardSet;
+import org.jskat.util.GameType;
+import org.junit.Test;
+
+/**
+ * Tests for LegalMoveGenerator
+ */
+public class LegalMoveGeneratorTest extends AbstractJSkatTest {
+
+	private final int hand = CardSet.of(Card.CJ, Card.HA, Card.H7, Card.SA,
+			Card.D7);
+
+	/**
+	 * Checks the cards that serve a led card
+	 */
+	@Test
+	public void followCards() {
+		assertEquals(CardSet.getTrumpMask(GameType.HEARTS),
+				LegalMoveGenerator.getFollowCards(GameType.HEARTS, Card.DJ));
+		assertEquals(CardSet.getTrumpMask(GameType.HEARTS),
+				LegalMoveGenerator.getFollowCards(GameType.HEARTS, Card.H7));
+		assertEquals(CardSet.JACKS,
+				LegalMoveGenerator.getFollowCards(GameType.RAMSCH, Card.DJ));
+		assertEquals(7, CardSet.size(LegalMoveGenerator.getFollowCards(
+				GameType.GRAND, Card.S7)));
+		assertEquals(8, CardSet.size(LegalMoveGenerator.getFollowCards(
+				GameType.NULL, Card.SJ)));
+	}
+
+	/**
+	 * Checks the legal moves of a hand
+	 */
+	@Test
+	public void legalMoves() {
+		// trump is led
+		assertEquals(CardSet.of(Card.CJ, Card.HA, Card.H7),
+				LegalMoveGenerator.getLegalMoves(GameType.HEARTS, Card.HJ,
+						hand));
+		assertEquals(CardSet.of(Card.CJ), LegalMoveGenerator.getLegalMoves(
+				GameType.GRAND, Card.HJ, hand));
+		// suit is led, jack does not serve
+		assertEquals(CardSet.of(Card.SA), LegalMoveGenerator.getLegalMoves(
+				GameType.GRAND, Card.S7, hand));
+		// nothing to serve
+		assertEquals(hand, LegalMoveGenerator.getLegalMoves(GameType.HEARTS,
+				Card.C7, hand));
+		// jack belongs to its suit in null games
+		assertEquals(CardSet.of(Card.CJ), LegalMoveGenerator.getLegalMoves(
+				GameType.NULL, Card.C7, hand));
+		// empty trick
+		assertEquals(hand,
+				LegalMoveGenerator.getLegalMoves(GameType.NULL, null, hand));
+	}
+
+	/**
+	 * Checks filling a buffer with the legal moves
+	 */
+	@Test
+	public void legalMovesBuffer() {
+
+		Card[] buffer = new Card[10];
+
+		assertEquals(3, LegalMoveGenerator.getLegalMoves(GameType.HEARTS,
+				Card.HJ, hand, buffer));
+		assertEquals(Card.CJ, buffer[0]);
+		assertEquals(Card.HA, buffer[1]);
+		assertEquals(Card.H7, buffer[2]);
+
+		assertEquals(5, LegalMoveGenerator.getLegalMoves(GameType.HEARTS,
+				null, hand, buffer));
+	}
+
+	/**
+	 * Checks that all rules agree with the legal move generator
+	 */
+	@Test
+	public void rulesAgreeWithGenerator() {
+
+		CardList cards = CardSet.toCardList(hand);
+
+		for (GameType gameType : new GameType[] { GameType.CLUBS,
+				GameType.DIAMONDS, GameType.GRAND, GameType.NULL,
+				GameType.RAMSCH }) {
+			SkatRule rules = SkatRuleFactory.getSkatRules(gameType);
+			for (Card ledCard : Card.values()) {
+				int legalMoves = LegalMoveGenerator.getLegalMoves(gameType,
+						ledCard, hand);
+				for (Card card : cards) {
+					assertEquals(CardSet.contains(legalMoves, card),
+							rules.isCardAllowed(gameType, ledCard, cards, card));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks cards that are not on the hand
+	 */
+	@Test
+	public void legalMoveNotOnHand() {
+		assertTrue(LegalMoveGenerator.isLegalMove(GameType.GRAND, Card.CA,
+				hand, Card.CK));
+		assertFalse(LegalMoveGenerator.isLegalMove(GameType.GRAND, Card.SK,
+				hand, Card.CK));
+	}
+}
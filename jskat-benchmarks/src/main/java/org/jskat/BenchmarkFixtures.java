@@ -0,0 +1,95 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat;
+
+import org.jskat.data.GameAnnouncement;
+import org.jskat.data.GameAnnouncement.GameAnnouncementFactory;
+import org.jskat.data.Trick;
+import org.jskat.player.PlayerKnowledge;
+import org.jskat.util.Card;
+import org.jskat.util.CardDeck;
+import org.jskat.util.CardList;
+import org.jskat.util.GameType;
+import org.jskat.util.Player;
+
+/**
+ * Fixed game situations shared by the benchmarks<br />
+ * All benchmarks work on the same data in every run, so results of different
+ * builds can be compared.
+ */
+public final class BenchmarkFixtures {
+
+	/**
+	 * Seed for all random generators used in the benchmarks
+	 */
+	public static final long SEED = 20131201L;
+
+	/**
+	 * Card deck that is dealt to<br />
+	 * Fore hand: CJ SJ HJ DJ CA CT C9 SA ST S9<br />
+	 * Middle hand: CK CQ SK SQ HA HK HQ D8 D9 DT<br />
+	 * Rear hand: C7 C8 S7 S8 H8 H9 HT DA DK DQ<br />
+	 * Skat: H7 D7
+	 */
+	public static final String CARD_DECK = "CJ SJ HJ CK CQ SK C7 C8 S7 H7 D7 DJ CA CT C9 SQ HA HK HQ S8 H8 H9 HT SA ST S9 D8 D9 DT DA DK DQ"; //$NON-NLS-1$
+
+	private BenchmarkFixtures() {
+		// only static methods
+	}
+
+	/**
+	 * Creates the card deck {@link #CARD_DECK}
+	 * 
+	 * @return Card deck
+	 */
+	public static CardDeck createCardDeck() {
+		return new CardDeck(CARD_DECK);
+	}
+
+	/**
+	 * Creates the knowledge of the middle hand player in a grand game of the
+	 * fore hand player<br />
+	 * Fore hand won the first trick CJ D8 H8 and started the second trick with
+	 * CA, middle hand has to play the next card.
+	 * 
+	 * @return Player knowledge
+	 */
+	public static PlayerKnowledge createMiddleHandKnowledge() {
+
+		PlayerKnowledge knowledge = new PlayerKnowledge();
+		knowledge.resetCurrentGameData();
+		GameAnnouncementFactory factory = GameAnnouncement.getFactory();
+		factory.setGameType(GameType.GRAND);
+		knowledge.setGame(factory.getAnnouncement());
+		knowledge.setDeclarer(Player.FOREHAND);
+		knowledge.setPlayerPosition(Player.MIDDLEHAND);
+		knowledge.setOwnCards(new CardList(Card.CK, Card.CQ, Card.SK, Card.SQ,
+				Card.HA, Card.HK, Card.HQ, Card.D9, Card.DT));
+
+		Trick firstTrick = new Trick(0, Player.FOREHAND);
+		knowledge.setCurrentTrick(firstTrick);
+		knowledge.setCardPlayed(Player.FOREHAND, Card.CJ);
+		knowledge.setCardPlayed(Player.MIDDLEHAND, Card.D8);
+		knowledge.setCardPlayed(Player.REARHAND, Card.H8);
+		firstTrick.setTrickWinner(Player.FOREHAND);
+		knowledge.addTrick(firstTrick);
+
+		knowledge.setCurrentTrick(new Trick(1, Player.FOREHAND));
+		knowledge.setCardPlayed(Player.FOREHAND, Card.CA);
+
+		return knowledge;
+	}
+}
@@ -0,0 +1,108 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jskat.BenchmarkFixtures;
+import org.jskat.player.PlayerKnowledge;
+import org.jskat.util.CardDeck;
+import org.jskat.util.CardList;
+import org.jskat.util.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the sampling of unknown cards for the simulations of the AI
+ * players
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardDeckSimulatorBenchmark {
+
+	private Random random;
+	private CardList hand;
+	private CardList emptySkat;
+
+	private PlayerKnowledge knowledge;
+	private DealSampler sampler;
+	private int[] world;
+
+	/**
+	 * Prepares the hand before the bidding and the knowledge during the card
+	 * play
+	 */
+	@Setup
+	public void setUp() {
+		random = new Random(BenchmarkFixtures.SEED);
+		CardDeck deck = BenchmarkFixtures.createCardDeck();
+		hand = new CardList();
+		for (int i = 0; i < 10; i++) {
+			hand.add(deck.get(i));
+		}
+		emptySkat = new CardList();
+
+		knowledge = BenchmarkFixtures.createMiddleHandKnowledge();
+		sampler = new DealSampler(BenchmarkFixtures.SEED);
+		sampler.reset(knowledge);
+		world = new int[DealSampler.SKAT_INDEX + 1];
+	}
+
+	/**
+	 * Deals the unknown cards before the bidding
+	 * 
+	 * @return Card deck
+	 */
+	@Benchmark
+	public CardDeck simulateUnknownCards() {
+		return CardDeckSimulator.simulateUnknownCards(Player.FOREHAND, hand,
+				emptySkat, random);
+	}
+
+	/**
+	 * Samples a card distribution that respects the player knowledge
+	 * 
+	 * @return Card distribution
+	 */
+	@Benchmark
+	public int[] sampleWorld() {
+		sampler.sample(world);
+		return world;
+	}
+
+	/**
+	 * Prepares the sampling after a card was played
+	 * 
+	 * @return TRUE if the knowledge was consistent
+	 */
+	@Benchmark
+	public boolean resetSampler() {
+		return sampler.reset(knowledge);
+	}
+}
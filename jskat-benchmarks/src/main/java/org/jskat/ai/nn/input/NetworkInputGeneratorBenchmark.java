@@ -0,0 +1,98 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn.input;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jskat.BenchmarkFixtures;
+import org.jskat.player.PlayerKnowledge;
+import org.jskat.util.Card;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the creation of the network inputs for the card play of
+ * {@link org.jskat.ai.nn.AIPlayerNN}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NetworkInputGeneratorBenchmark {
+
+	private static final Card[] CANDIDATES = { Card.CK, Card.CQ };
+
+	private PlayerKnowledge knowledge;
+	private GenericNetworkInputGenerator generator;
+	private double[] inputs;
+	private double[][] candidateInputs;
+
+	/**
+	 * Prepares the knowledge and the input buffers
+	 */
+	@Setup
+	public void setUp() {
+		knowledge = BenchmarkFixtures.createMiddleHandKnowledge();
+		generator = new GenericNetworkInputGenerator();
+		int neuronCount = GenericNetworkInputGenerator
+				.getNeuronCountForAllStrategies();
+		inputs = new double[neuronCount];
+		candidateInputs = new double[CANDIDATES.length][neuronCount];
+	}
+
+	/**
+	 * Creates the inputs for a single card into a new array
+	 * 
+	 * @return Network inputs
+	 */
+	@Benchmark
+	public double[] getNetInputs() {
+		return generator.getNetInputs(knowledge, CANDIDATES[0]);
+	}
+
+	/**
+	 * Writes the inputs for a single card into a buffer
+	 * 
+	 * @return Network inputs
+	 */
+	@Benchmark
+	public double[] getNetInputsIntoBuffer() {
+		generator.getNetInputs(knowledge, CANDIDATES[0], inputs);
+		return inputs;
+	}
+
+	/**
+	 * Writes the inputs for all playable cards into buffers
+	 * 
+	 * @return Network inputs
+	 */
+	@Benchmark
+	public double[][] getNetInputsForCandidates() {
+		generator.getNetInputs(knowledge, CANDIDATES, CANDIDATES.length,
+				candidateInputs);
+		return candidateInputs;
+	}
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.ai.nn.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jskat.BenchmarkFixtures;
+import org.jskat.ai.nn.input.GenericNetworkInputGenerator;
+import org.jskat.util.Card;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the prediction of the neural networks with the topology used by
+ * {@link org.jskat.ai.nn.data.SkatNetworks}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EncogNetworkWrapperBenchmark {
+
+	private static final Card[] CANDIDATES = { Card.CK, Card.CQ };
+
+	@Param({ "10" })
+	private int hiddenNeurons;
+
+	private EncogNetworkWrapper network;
+	private double[][] inputs;
+	private double[] outputs;
+
+	/**
+	 * Creates a network and the inputs for the playable cards
+	 */
+	@Setup
+	public void setUp() {
+		int neuronCount = GenericNetworkInputGenerator
+				.getNeuronCountForAllStrategies();
+		network = new EncogNetworkWrapper(new NetworkTopology(neuronCount,
+				new int[] { hiddenNeurons }, 1), true);
+
+		inputs = new double[CANDIDATES.length][neuronCount];
+		new GenericNetworkInputGenerator().getNetInputs(
+				BenchmarkFixtures.createMiddleHandKnowledge(), CANDIDATES,
+				CANDIDATES.length, inputs);
+		outputs = new double[CANDIDATES.length];
+	}
+
+	/**
+	 * Predicts the outcome for a single card
+	 * 
+	 * @return Predicted outcome
+	 */
+	@Benchmark
+	public double getPredictedOutcome() {
+		return network.getPredictedOutcome(inputs[0]);
+	}
+
+	/**
+	 * Predicts the outcomes for all playable cards at once
+	 * 
+	 * @return Predicted outcomes
+	 */
+	@Benchmark
+	public double[] getPredictedOutcomes() {
+		network.getPredictedOutcomes(inputs, CANDIDATES.length, outputs);
+		return outputs;
+	}
+}
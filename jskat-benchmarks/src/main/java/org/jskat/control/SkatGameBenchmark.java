@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jskat.BenchmarkFixtures;
+import org.jskat.ai.AbstractAIPlayer;
+import org.jskat.data.DesktopSavePathResolver;
+import org.jskat.data.JSkatOptions;
+import org.jskat.player.JSkatPlayer;
+import org.jskat.util.CardDeck;
+import org.jskat.util.GameVariant;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.helpers.NOPLogger;
+
+/**
+ * Benchmarks complete games without view and pauses, three instances of the
+ * same AI player play against each other<br />
+ * The result is the number of games per second. Other AI players can be
+ * benchmarked with <code>-p playerClass=...</code>, the classes are listed by
+ * {@link org.jskat.player.JSkatPlayerResolver}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SkatGameBenchmark {
+
+	@Param({ "org.jskat.ai.rnd.AIPlayerRND",
+			"org.jskat.ai.newalgorithm.AlgorithmAI",
+			"org.jskat.ai.nn.AIPlayerNN", "org.jskat.ai.pimc.AIPlayerPIMC" })
+	private String playerClass;
+
+	/**
+	 * Time budget for a single decision in milliseconds, 0 for no budget
+	 */
+	@Param({ "100" })
+	private long decisionTimeBudget;
+
+	private JSkatPlayer[] players;
+	private Random random;
+	private int gameNumber;
+
+	/**
+	 * Creates the players, they are reused for all games like in a skat
+	 * series<br />
+	 * The games are played with the default options, not with the options
+	 * saved by the user.
+	 * 
+	 * @throws ReflectiveOperationException
+	 *             If the player class can't be instantiated
+	 */
+	@Setup
+	public void setUp() throws ReflectiveOperationException {
+		JSkatOptions.instance(new DesktopSavePathResolver()).resetToDefault(
+				new DesktopSavePathResolver());
+
+		players = new JSkatPlayer[3];
+		for (int i = 0; i < players.length; i++) {
+			JSkatPlayer player = (JSkatPlayer) Class.forName(playerClass)
+					.getDeclaredConstructor().newInstance();
+			player.setPlayerName("Player " + (i + 1)); //$NON-NLS-1$
+			if (player instanceof AbstractAIPlayer) {
+				((AbstractAIPlayer) player)
+						.setDecisionTimeBudget(decisionTimeBudget);
+			}
+			players[i] = player;
+		}
+		random = new Random(BenchmarkFixtures.SEED);
+		gameNumber = 0;
+	}
+
+	/**
+	 * Plays a complete game with a new card deck
+	 * 
+	 * @return Game engine after the game
+	 */
+	@Benchmark
+	public SkatGameEngine playGame() {
+		gameNumber++;
+		SkatGameEngine engine = new SkatGameEngine(
+				"Benchmark " + gameNumber, GameVariant.STANDARD, players[0], //$NON-NLS-1$
+				players[1], players[2]);
+		engine.setLogger(NOPLogger.NOP_LOGGER);
+		CardDeck deck = new CardDeck();
+		deck.shuffle(random);
+		engine.setCardDeck(deck);
+		engine.play();
+		return engine;
+	}
+}
@@ -0,0 +1,490 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.control.iss;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.log4j.PropertyConfigurator;
+import org.jskat.data.DesktopSavePathResolver;
+import org.jskat.data.JSkatOptions;
+import org.jskat.data.SkatGameData;
+import org.jskat.data.iss.GameStartInformation;
+import org.jskat.data.iss.MoveInformation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Load and latency test of the ISS connectors against an
+ * {@link IssStandInServer} in the same JVM<br />
+ * Every session logs in with its own connector and a headless
+ * {@link IssController}. The move latency is measured from the moment the
+ * server sends a move until the controller of the client got the parsed
+ * move.
+ */
+public class IssLoadRunner {
+
+	private static Logger log = LoggerFactory.getLogger(IssLoadRunner.class);
+
+	/**
+	 * Connector types
+	 */
+	public enum ConnectorType {
+		/**
+		 * {@link StreamConnector}, three threads per session
+		 */
+		STREAM,
+		/**
+		 * {@link NioIssConnector}, one shared selector
+		 */
+		NIO;
+	}
+
+	private final List<String> gameSummaries;
+	private int sessions = 10;
+	private int gamesPerSession = 10;
+	private double movesPerSecond;
+	private long timeoutSeconds = 600;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param newGameSummaries
+	 *            ISS game summaries that are replayed by the server
+	 */
+	public IssLoadRunner(final List<String> newGameSummaries) {
+		gameSummaries = newGameSummaries;
+	}
+
+	/**
+	 * Sets the number of concurrent sessions
+	 * 
+	 * @param newSessions
+	 *            Number of sessions
+	 */
+	public void setSessions(final int newSessions) {
+		sessions = newSessions;
+	}
+
+	/**
+	 * Sets the number of games per session
+	 * 
+	 * @param newGamesPerSession
+	 *            Number of games
+	 */
+	public void setGamesPerSession(final int newGamesPerSession) {
+		gamesPerSession = newGamesPerSession;
+	}
+
+	/**
+	 * Sets the replay speed of the server
+	 * 
+	 * @param newMovesPerSecond
+	 *            Moves per second and session, 0 for as fast as possible
+	 */
+	public void setMovesPerSecond(final double newMovesPerSecond) {
+		movesPerSecond = newMovesPerSecond;
+	}
+
+	/**
+	 * Sets the maximum duration of a run
+	 * 
+	 * @param newTimeoutSeconds
+	 *            Timeout in seconds
+	 */
+	public void setTimeoutSeconds(final long newTimeoutSeconds) {
+		timeoutSeconds = newTimeoutSeconds;
+	}
+
+	/**
+	 * Runs the load test with one connector type
+	 * 
+	 * @param connectorType
+	 *            Connector type
+	 * @return Result of the run
+	 * @throws IOException
+	 *             If the server can't be started or a session can't connect
+	 * @throws InterruptedException
+	 *             If the run was interrupted
+	 */
+	public LoadResult run(final ConnectorType connectorType)
+			throws IOException, InterruptedException {
+
+		final IssStandInServer server = new IssStandInServer(gameSummaries);
+		server.setGamesPerSession(gamesPerSession);
+		server.setMovesPerSecond(movesPerSecond);
+		server.setRecordMoveTimes(true);
+		final InetSocketAddress address = new InetSocketAddress("localhost", //$NON-NLS-1$
+				server.start(0));
+
+		NioIssSelector selector = null;
+		if (connectorType == ConnectorType.NIO) {
+			selector = new NioIssSelector(Runtime.getRuntime()
+					.availableProcessors());
+			selector.start();
+		}
+
+		final long startTime = System.nanoTime();
+
+		final List<HeadlessIssController> controllers = new ArrayList<HeadlessIssController>();
+		for (int i = 0; i < sessions; i++) {
+			final HeadlessIssController controller = new HeadlessIssController(
+					server, "load" + i); //$NON-NLS-1$
+			if (connectorType == ConnectorType.NIO) {
+				final NioIssConnector connector = new NioIssConnector(selector);
+				connector.connect(address, controller);
+				controller.setConnector(connector, connector.getMessageHandler());
+			} else {
+				final StreamConnector connector = new StreamConnector();
+				connector.connect(address, controller);
+				controller.setConnector(connector, connector.getMessageHandler());
+			}
+			controller.login();
+			controllers.add(controller);
+		}
+
+		final LoadResult result = new LoadResult(connectorType, sessions);
+		for (final HeadlessIssController controller : controllers) {
+			if (!controller.closed.await(timeoutSeconds, TimeUnit.SECONDS)) {
+				log.error("Session " + controller.login + " timed out"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+		}
+		result.elapsedNanos = System.nanoTime() - startTime;
+
+		for (final HeadlessIssController controller : controllers) {
+			result.add(controller);
+		}
+		result.sentMessages = server.getSentMessages();
+
+		server.stop();
+		if (selector != null) {
+			selector.shutdown();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Result of a load test run
+	 */
+	public static class LoadResult {
+
+		private final ConnectorType connectorType;
+		private final int sessions;
+		private long elapsedNanos;
+		private long sentMessages;
+		private long handledMessages;
+		private double totalQueueLatencyMillis;
+		private int games;
+		private int errors;
+		private long[] moveLatencies = new long[0];
+
+		LoadResult(final ConnectorType newConnectorType, final int newSessions) {
+			connectorType = newConnectorType;
+			sessions = newSessions;
+		}
+
+		void add(final HeadlessIssController controller) {
+
+			handledMessages += controller.messageHandler.getMessageCount();
+			totalQueueLatencyMillis += controller.messageHandler
+					.getAverageLatencyMillis()
+					* controller.messageHandler.getMessageCount();
+			games += controller.games;
+			errors += controller.errors;
+
+			final int oldLength = moveLatencies.length;
+			moveLatencies = Arrays.copyOf(moveLatencies, oldLength
+					+ controller.moves);
+			System.arraycopy(controller.moveLatencies, 0, moveLatencies,
+					oldLength, controller.moves);
+		}
+
+		/**
+		 * Gets the number of messages per second that were sent to the
+		 * clients
+		 * 
+		 * @return Messages per second
+		 */
+		public double getMessagesPerSecond() {
+			return sentMessages * 1000000000.0 / elapsedNanos;
+		}
+
+		/**
+		 * Gets a percentile of the move latency
+		 * 
+		 * @param percentile
+		 *            Percentile between 0 and 100
+		 * @return Move latency in milliseconds
+		 */
+		public double getMoveLatencyMillis(final double percentile) {
+
+			if (moveLatencies.length == 0) {
+				return 0.0;
+			}
+			final long[] sorted = moveLatencies.clone();
+			Arrays.sort(sorted);
+			final int index = (int) Math.min(sorted.length - 1,
+					Math.round(percentile / 100.0 * (sorted.length - 1)));
+			return sorted[index] / 1000000.0;
+		}
+
+		/**
+		 * Gets the average move latency
+		 * 
+		 * @return Average move latency in milliseconds
+		 */
+		public double getAverageMoveLatencyMillis() {
+
+			if (moveLatencies.length == 0) {
+				return 0.0;
+			}
+			long total = 0;
+			for (final long latency : moveLatencies) {
+				total += latency;
+			}
+			return total / 1000000.0 / moveLatencies.length;
+		}
+
+		/**
+		 * Gets the number of games that were completely received
+		 * 
+		 * @return Number of games
+		 */
+		public int getGames() {
+			return games;
+		}
+
+		/**
+		 * Gets the number of error messages the clients got
+		 * 
+		 * @return Number of errors
+		 */
+		public int getErrors() {
+			return errors;
+		}
+
+		@Override
+		public String toString() {
+			return String
+					.format("%s: %d sessions, %d games, %d messages, %.1f s, %.0f messages/s, %d errors, move latency avg %.3f ms, p50 %.3f ms, p99 %.3f ms, max %.3f ms, queue latency avg %.3f ms", //$NON-NLS-1$
+							connectorType, sessions, games, sentMessages,
+							elapsedNanos / 1000000000.0,
+							getMessagesPerSecond(), errors,
+							getAverageMoveLatencyMillis(),
+							getMoveLatencyMillis(50), getMoveLatencyMillis(99),
+							getMoveLatencyMillis(100),
+							handledMessages == 0 ? 0.0
+									: totalQueueLatencyMillis / handledMessages);
+		}
+	}
+
+	/**
+	 * ISS controller without a view<br />
+	 * Takes the parsed messages and measures the move latency.
+	 */
+	static class HeadlessIssController extends IssController {
+
+		private final IssStandInServer server;
+		private final String login;
+		private final Set<String> tables = new HashSet<String>();
+		private final CountDownLatch closed = new CountDownLatch(1);
+
+		private IssConnector connector;
+		private MessageHandler messageHandler;
+		private Queue<Long> moveTimes;
+		private long[] moveLatencies = new long[1024];
+		private int moves;
+		private int games;
+		private int errors;
+
+		HeadlessIssController(final IssStandInServer newServer,
+				final String newLogin) {
+			super(null);
+			server = newServer;
+			login = newLogin;
+		}
+
+		void setConnector(final IssConnector newConnector,
+				final MessageHandler newMessageHandler) {
+			connector = newConnector;
+			messageHandler = newMessageHandler;
+		}
+
+		void login() {
+			connector.getOutputChannel().sendMessage(login);
+		}
+
+		// the stand-in server asks for the password like the ISS before
+		// protocol version 14, the message handler answers with this method
+		// and the headless controller has no credentials to send
+		@Deprecated
+		@Override
+		public void sendPassword() {
+			connector.getOutputChannel().sendMessage("secret"); //$NON-NLS-1$
+		}
+
+		@Override
+		void showISSLobby(final String loginName) {
+			// no lobby without a view
+		}
+
+		@Override
+		public void createTable(final String tableName, final String creator,
+				final int maxPlayers) {
+			tables.add(tableName);
+		}
+
+		@Override
+		public void destroyTable(final String tableName) {
+			tables.remove(tableName);
+		}
+
+		@Override
+		public boolean isTableJoined(final String tableName) {
+			return tables.contains(tableName);
+		}
+
+		@Override
+		public void updateISSGame(final String tableName,
+				final GameStartInformation status) {
+			// no view to update
+		}
+
+		@Override
+		public void startGame(final String tableName) {
+			// no view to update
+		}
+
+		@Override
+		public void updateMove(final String tableName,
+				final MoveInformation moveInformation) {
+
+			final long receiveTime = System.nanoTime();
+			if (moveTimes == null) {
+				moveTimes = server.getMoveTimes(login);
+			}
+			final Long sendTime = moveTimes.poll();
+			if (sendTime != null) {
+				if (moves == moveLatencies.length) {
+					moveLatencies = Arrays.copyOf(moveLatencies,
+							2 * moveLatencies.length);
+				}
+				moveLatencies[moves++] = receiveTime - sendTime.longValue();
+			}
+		}
+
+		@Override
+		public void endGame(final String tableName,
+				final SkatGameData newGameData) {
+			games++;
+		}
+
+		@Override
+		public void showErrorMessage(final String message) {
+			log.error(login + ": " + message); //$NON-NLS-1$
+			errors++;
+		}
+
+		@Override
+		public void showMessage(final String message) {
+			log.info(login + ": " + message); //$NON-NLS-1$
+		}
+
+		@Override
+		public void closeIssPanels() {
+			closed.countDown();
+		}
+	}
+
+	/**
+	 * Runs the load test
+	 * 
+	 * @param args
+	 *            --connector stream|nio|both, --sessions, --session-games,
+	 *            --rate, --replay FILE or --players CLASS with --games
+	 */
+	public static void main(final String[] args) throws Exception {
+
+		final URL logConfiguration = ClassLoader
+				.getSystemResource("org/jskat/config/log4j.properties"); //$NON-NLS-1$
+		if (logConfiguration != null) {
+			PropertyConfigurator.configure(logConfiguration);
+		}
+		JSkatOptions.instance(new DesktopSavePathResolver()).resetToDefault(
+				new DesktopSavePathResolver());
+
+		String connector = "both"; //$NON-NLS-1$
+		int sessions = 10;
+		int sessionGames = 10;
+		double rate = 0.0;
+		String replayFile = null;
+		String playerClass = "org.jskat.ai.rnd.AIPlayerRND"; //$NON-NLS-1$
+		int numberOfGames = 100;
+
+		for (int i = 0; i < args.length; i++) {
+			if ("--connector".equals(args[i])) { //$NON-NLS-1$
+				connector = args[++i];
+			} else if ("--sessions".equals(args[i])) { //$NON-NLS-1$
+				sessions = Integer.parseInt(args[++i]);
+			} else if ("--session-games".equals(args[i])) { //$NON-NLS-1$
+				sessionGames = Integer.parseInt(args[++i]);
+			} else if ("--rate".equals(args[i])) { //$NON-NLS-1$
+				rate = Double.parseDouble(args[++i]);
+			} else if ("--replay".equals(args[i])) { //$NON-NLS-1$
+				replayFile = args[++i];
+			} else if ("--players".equals(args[i])) { //$NON-NLS-1$
+				playerClass = args[++i];
+			} else if ("--games".equals(args[i])) { //$NON-NLS-1$
+				numberOfGames = Integer.parseInt(args[++i]);
+			} else {
+				System.err.println("Unknown option " + args[i]); //$NON-NLS-1$
+				System.exit(1);
+			}
+		}
+
+		final List<String> games = replayFile != null ? IssStandInServer
+				.readGameSummaries(new File(replayFile)) : IssStandInServer
+				.playGames(playerClass, numberOfGames, 1L);
+
+		final IssLoadRunner runner = new IssLoadRunner(games);
+		runner.setSessions(sessions);
+		runner.setGamesPerSession(sessionGames);
+		runner.setMovesPerSecond(rate);
+
+		final List<ConnectorType> connectorTypes = new ArrayList<ConnectorType>();
+		if ("both".equals(connector)) { //$NON-NLS-1$
+			connectorTypes.addAll(Arrays.asList(ConnectorType.values()));
+		} else {
+			connectorTypes.add(ConnectorType.valueOf(connector.toUpperCase()));
+		}
+
+		for (final ConnectorType connectorType : connectorTypes) {
+			System.out.println(runner.run(connectorType));
+		}
+		System.exit(0);
+	}
+}
@@ -0,0 +1,137 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.data.checkpoint;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jskat.util.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks restoring the checkpoints of all running series after a restart
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SeriesCheckpointStoreBenchmark {
+
+	/**
+	 * Number of checkpointed series
+	 */
+	@Param({ "300" })
+	private int seriesCount;
+
+	/**
+	 * Number of checkpoints per series
+	 */
+	@Param({ "20" })
+	private int gameCount;
+
+	private File directory;
+
+	/**
+	 * Writes the checkpoints of all series
+	 * 
+	 * @throws IOException
+	 *             If the checkpoints can't be written
+	 */
+	@Setup
+	public void setUp() throws IOException {
+
+		directory = File.createTempFile("jskat", ".series"); //$NON-NLS-1$ //$NON-NLS-2$
+		directory.delete();
+		directory.mkdirs();
+
+		SeriesCheckpointStore store = new SeriesCheckpointStore(directory, 16);
+		try {
+			for (int series = 0; series < seriesCount; series++) {
+				String seriesId = "table " + series; //$NON-NLS-1$
+				SeriesCheckpointWriter writer = store.create(createCheckpoint(
+						seriesId, 0));
+				for (int game = 1; game <= gameCount; game++) {
+					writer.checkpoint(createCheckpoint(seriesId, game));
+				}
+				writer.close();
+			}
+		} finally {
+			store.close();
+		}
+	}
+
+	/**
+	 * Deletes the checkpoints
+	 */
+	@TearDown
+	public void tearDown() {
+		for (File file : directory.listFiles()) {
+			file.delete();
+		}
+		directory.delete();
+	}
+
+	/**
+	 * Restores all series
+	 * 
+	 * @return Restored checkpoints
+	 * @throws IOException
+	 *             If the checkpoints can't be read
+	 */
+	@Benchmark
+	public List<SeriesCheckpoint> restoreAll() throws IOException {
+		SeriesCheckpointStore store = new SeriesCheckpointStore(directory, 16);
+		try {
+			return store.restoreAll();
+		} finally {
+			store.close();
+		}
+	}
+
+	private static SeriesCheckpoint createCheckpoint(final String seriesId,
+			final int game) {
+
+		SeriesCheckpoint result = new SeriesCheckpoint();
+		result.setSeriesId(seriesId);
+		result.setTableName("Table " + seriesId); //$NON-NLS-1$
+		for (int seat = 0; seat < SeriesCheckpoint.SEATS; seat++) {
+			result.setPlayer(seat, "org.jskat.ai.rnd.AIPlayerRND", null); //$NON-NLS-1$
+			result.setScore(seat, game * 10 - seat * 23);
+		}
+		result.setUnlimitedRounds(true);
+		result.setGameCount(game);
+		result.setGameInRound(Math.max(0, game - 1) % 3);
+		result.setForeHandSeat(game % 3);
+		result.setBottomPlayer(Player.values()[game % 3]);
+		result.setHistorySize(game);
+		return result;
+	}
+}
@@ -0,0 +1,103 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.data.record;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jskat.BenchmarkFixtures;
+import org.jskat.ai.rnd.AIPlayerRND;
+import org.jskat.control.SkatGameEngine;
+import org.jskat.data.DesktopSavePathResolver;
+import org.jskat.data.JSkatOptions;
+import org.jskat.data.SkatGameData;
+import org.jskat.util.GameVariant;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.helpers.NOPLogger;
+
+/**
+ * Benchmarks the binary game records
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameRecordCodecBenchmark {
+
+	private SkatGameData gameData;
+	private GameRecord record;
+	private byte[] encodedRecord;
+
+	/**
+	 * Plays a game on the benchmark card deck
+	 */
+	@Setup
+	public void setUp() {
+		JSkatOptions.instance(new DesktopSavePathResolver()).resetToDefault(
+				new DesktopSavePathResolver());
+
+		SkatGameEngine engine = new SkatGameEngine("Benchmark", //$NON-NLS-1$
+				GameVariant.STANDARD, new AIPlayerRND(), new AIPlayerRND(),
+				new AIPlayerRND());
+		engine.setLogger(NOPLogger.NOP_LOGGER);
+		engine.setCardDeck(BenchmarkFixtures.createCardDeck());
+		engine.play();
+
+		gameData = engine.getGameData();
+		record = GameRecord.fromGameData(gameData);
+		encodedRecord = GameRecordCodec.encode(record);
+	}
+
+	/**
+	 * Encodes a game record
+	 * 
+	 * @return Encoded game
+	 */
+	@Benchmark
+	public byte[] encode() {
+		return GameRecordCodec.encode(record);
+	}
+
+	/**
+	 * Decodes a game record
+	 * 
+	 * @return Game record
+	 */
+	@Benchmark
+	public GameRecord decode() {
+		return GameRecordCodec.decode(encodedRecord);
+	}
+
+	/**
+	 * Rebuilds the full game data from an encoded game
+	 * 
+	 * @return Game data
+	 */
+	@Benchmark
+	public SkatGameData decodeToGameData() {
+		return GameRecordCodec.decode(encodedRecord).toGameData();
+	}
+}
@@ -0,0 +1,148 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.util;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jskat.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the {@link CardList} operations used by the AI players
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardListBenchmark {
+
+	@Param({ "CLUBS", "GRAND", "NULL" })
+	private GameType gameType;
+
+	private CardList hand;
+	private CardList unsortedHand;
+
+	/**
+	 * Deals a hand of ten cards
+	 */
+	@Setup
+	public void setUp() {
+		CardDeck deck = new CardDeck();
+		deck.shuffle(new Random(BenchmarkFixtures.SEED));
+		unsortedHand = new CardList();
+		for (int i = 0; i < 10; i++) {
+			unsortedHand.add(deck.get(i));
+		}
+		hand = new CardList(unsortedHand);
+		hand.sort(gameType);
+	}
+
+	/**
+	 * Copies and sorts a hand
+	 * 
+	 * @return Sorted hand
+	 */
+	@Benchmark
+	public CardList sort() {
+		CardList result = new CardList(unsortedHand);
+		result.sort(gameType);
+		return result;
+	}
+
+	/**
+	 * Checks all cards for their suit and for trump
+	 * 
+	 * @param blackhole
+	 *            Sink for the results
+	 */
+	@Benchmark
+	public void hasSuitAndTrump(final Blackhole blackhole) {
+		for (Suit suit : Suit.values()) {
+			blackhole.consume(hand.hasSuit(gameType, suit));
+		}
+		blackhole.consume(hand.hasTrump(gameType));
+	}
+
+	/**
+	 * Counts the cards of every suit
+	 * 
+	 * @return Sum of the counts
+	 */
+	@Benchmark
+	public int getSuitCount() {
+		int result = 0;
+		for (Suit suit : Suit.values()) {
+			result += hand.getSuitCount(suit, false);
+		}
+		return result;
+	}
+
+	/**
+	 * Looks up every card of the deck in a hand
+	 * 
+	 * @return Number of cards found
+	 */
+	@Benchmark
+	public int contains() {
+		int result = 0;
+		for (Card card : Card.values()) {
+			if (hand.contains(card)) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Sums up the card points of a hand
+	 * 
+	 * @return Card points
+	 */
+	@Benchmark
+	public int getTotalValue() {
+		return hand.getTotalValue();
+	}
+
+	/**
+	 * Removes and adds back every card of a hand, like it is done for
+	 * every card played
+	 * 
+	 * @return Hand
+	 */
+	@Benchmark
+	public CardList removeAndAdd() {
+		for (int i = 0; i < unsortedHand.size(); i++) {
+			Card card = unsortedHand.get(i);
+			hand.remove(card);
+			hand.add(card);
+		}
+		return hand;
+	}
+}
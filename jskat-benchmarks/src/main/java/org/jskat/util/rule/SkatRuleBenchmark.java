@@ -0,0 +1,136 @@
+/**
+ * Copyright (C) 2003 Jan Schäfer (jansch@users.sourceforge.net)
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *         http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jskat.util.rule;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jskat.BenchmarkFixtures;
+import org.jskat.util.Card;
+import org.jskat.util.CardDeck;
+import org.jskat.util.CardList;
+import org.jskat.util.GameType;
+import org.jskat.util.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the rule checks that are done for every card played<br />
+ * Every invocation checks one of {@link #SITUATION_COUNT} random situations,
+ * so branch prediction can't learn a single situation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SkatRuleBenchmark {
+
+	private static final int SITUATION_COUNT = 1024;
+
+	@Param({ "CLUBS", "GRAND", "NULL" })
+	private GameType gameType;
+
+	private SkatRule rules;
+
+	private final CardList[] hands = new CardList[SITUATION_COUNT];
+	private final Card[] firstCards = new Card[SITUATION_COUNT];
+	private final Card[] secondCards = new Card[SITUATION_COUNT];
+	private final Card[] thirdCards = new Card[SITUATION_COUNT];
+	private final Player[] trickForeHands = new Player[SITUATION_COUNT];
+
+	private int index;
+
+	/**
+	 * Creates random tricks and hands
+	 */
+	@Setup
+	public void setUp() {
+		rules = SkatRuleFactory.getSkatRules(gameType);
+		Random random = new Random(BenchmarkFixtures.SEED);
+		for (int i = 0; i < SITUATION_COUNT; i++) {
+			CardDeck deck = new CardDeck();
+			deck.shuffle(random);
+			firstCards[i] = deck.get(0);
+			secondCards[i] = deck.get(1);
+			thirdCards[i] = deck.get(2);
+			hands[i] = new CardList();
+			for (int j = 1; j < 11; j++) {
+				hands[i].add(deck.get(j));
+			}
+			trickForeHands[i] = Player.values()[random.nextInt(Player
+					.values().length)];
+		}
+	}
+
+	private int nextIndex() {
+		index = (index + 1) & SITUATION_COUNT - 1;
+		return index;
+	}
+
+	/**
+	 * Checks whether a card is allowed after the first card of a trick
+	 * 
+	 * @return TRUE if the card is allowed
+	 */
+	@Benchmark
+	public boolean isCardAllowed() {
+		int i = nextIndex();
+		return rules.isCardAllowed(gameType, firstCards[i], hands[i],
+				secondCards[i]);
+	}
+
+	/**
+	 * Checks all cards of a hand, like it is done for finding the playable
+	 * cards
+	 * 
+	 * @return Number of allowed cards
+	 */
+	@Benchmark
+	public int isCardAllowedForHand() {
+		int i = nextIndex();
+		CardList hand = hands[i];
+		int result = 0;
+		for (int j = 0; j < hand.size(); j++) {
+			if (rules.isCardAllowed(gameType, firstCards[i], hand, hand.get(j))) {
+				result++;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Calculates the winner of a complete trick
+	 * 
+	 * @return Trick winner
+	 */
+	@Benchmark
+	public Player calculateTrickWinner() {
+		int i = nextIndex();
+		return rules.calculateTrickWinner(gameType, trickForeHands[i],
+				firstCards[i], secondCards[i], thirdCards[i]);
+	}
+}
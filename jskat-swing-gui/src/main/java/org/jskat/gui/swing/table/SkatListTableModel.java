@@ -45,7 +45,7 @@ class SkatListTableModel extends AbstractTableModel {
 	private int playerCount = 3;
 	private final List<Player> declarers;
 	private final List<List<Integer>> playerResults;
-	private final List<GameSummary> gameResults;
+	private final List<Integer> gameResults;
 	private final List<String> columns;
 	private final List<List<Integer>> displayValues;
 
@@ -58,7 +58,7 @@ class SkatListTableModel extends AbstractTableModel {
 
 		declarers = new ArrayList<Player>();
 		playerResults = new ArrayList<List<Integer>>();
-		gameResults = new ArrayList<GameSummary>();
+		gameResults = new ArrayList<Integer>();
 		displayValues = new ArrayList<List<Integer>>();
 		columns = new ArrayList<String>();
 		setColumns();
@@ -171,7 +171,7 @@ class SkatListTableModel extends AbstractTableModel {
 					case TOURNAMENT:
 						boolean isDeclarer = (playerResults.get(player).get(game) != 0);
 						currResult = SkatConstants.getTournamentGameValue(isDeclarer, gameResults.get(game)
-								.getGameValue(), playerCount);
+								.intValue(), playerCount);
 						break;
 					case BIERLACHS:
 						// FIXME jan 31.05.2010 add bierlachs value
@@ -195,10 +195,10 @@ class SkatListTableModel extends AbstractTableModel {
 			switch (mode) {
 			case NORMAL:
 			case BIERLACHS:
-				currResult = gameResults.get(game).getGameValue();
+				currResult = gameResults.get(game).intValue();
 				break;
 			case TOURNAMENT:
-				currResult = SkatConstants.getTournamentGameValue(true, gameResults.get(game).getGameValue(),
+				currResult = SkatConstants.getTournamentGameValue(true, gameResults.get(game).intValue(),
 						playerCount);
 				break;
 			}
@@ -226,7 +226,7 @@ class SkatListTableModel extends AbstractTableModel {
 		// FIXME works only on 3 player series
 		// FIXME (jansch 21.03.2011) provide only one method for addResult()
 		declarers.add(declarer);
-		gameResults.add(gameSummary);
+		gameResults.add(Integer.valueOf(gameSummary.getGameValue()));
 
 		int declarerColumn = getDeclarerColumn(leftOpponent, rightOpponent, user, declarer);
 
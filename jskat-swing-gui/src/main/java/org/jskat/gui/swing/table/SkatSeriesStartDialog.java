@@ -240,6 +240,8 @@ public class SkatSeriesStartDialog extends JDialog implements ActionListener {
 					result = strings.getString("random_player"); //$NON-NLS-1$
 				} else if ("org.jskat.ai.nn.AIPlayerNN".equals(player)) {
 					result = strings.getString("neural_network_player"); //$NON-NLS-1$
+				} else if ("org.jskat.ai.pimc.AIPlayerPIMC".equals(player)) {
+					result = strings.getString("monte_carlo_player"); //$NON-NLS-1$
 				} else if ("org.jskat.gui.human.SwingHumanPlayer"
 						.equals(player)) {
 					result = strings.getString("human_player"); //$NON-NLS-1$